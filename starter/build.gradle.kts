@@ -5,8 +5,9 @@
 plugins {
     `java`
     `checkstyle`
-    id("org.springframework.boot") version "2.7.2"
-    id("io.freefair.lombok") version "6.5.0.3"
+    id("org.springframework.boot") version "2.7.18"
+    id("io.freefair.lombok") version "8.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 apply(plugin = "io.spring.dependency-management")
@@ -21,14 +22,49 @@ repositories {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("io.micrometer:micrometer-registry-prometheus")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-csv")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("io.projectreactor:reactor-test")
     testImplementation("org.testcontainers:mongodb:1.17.3")
-    compileOnly("org.projectlombok:lombok:1.18.24")
+    compileOnly("org.projectlombok:lombok:1.18.30")
     compileOnly("org.apache.maven.plugins:maven-surefire-plugin:2.22.2")
+    jmh("org.springframework.boot:spring-boot-starter-test")
+    jmh("org.testcontainers:mongodb:1.17.3")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(project.file("${project.buildDir}/reports/jmh/results.json"))
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Drives concurrent GET load at a running instance. Configure with -PloadTest.* properties."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.starter.fullstack.benchmark.LoadTest")
+    systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+}
+
+tasks.register<Test>("queryPlanTest") {
+    group = "verification"
+    description = "Runs the DAO tests with every query explained first, failing those that scan a collection."
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    filter.includeTestsMatching("com.starter.fullstack.dao.*DAOTest")
+    systemProperty("com.starter.fullstack.indexes.verify-query-plans", "true")
 }
 
 tasks.create<Exec>("import-sample-data") {
@@ -44,4 +80,8 @@ tasks.create<Exec>("import-sample-data-docker") {
 group = "com.starter"
 version = "0.0.1-SNAPSHOT"
 description = "starter-fullstack"
-java.sourceCompatibility = JavaVersion.VERSION_11
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
@@ -0,0 +1,90 @@
+package com.starter.fullstack.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.api.UnitOfMeasurement;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Shared fixtures for the benchmarks.
+ */
+public final class BenchmarkData {
+  private static final String[] PRODUCT_TYPES = {"Hops", "Malt", "Yeast", "Adjunct"};
+  private static final String[] STORES = {"Downtown", "Uptown", "Airport", "Harbor", "Mall"};
+
+  /**
+   * Utility Class.
+   */
+  private BenchmarkData() {
+  }
+
+  /**
+   * ObjectMapper configured like the application's.
+   * @return ObjectMapper.
+   */
+  public static ObjectMapper objectMapper() {
+    return Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+  }
+
+  /**
+   * Products named after every product type the Inventories use.
+   * @return Products without ids.
+   */
+  public static List<Product> products() {
+    List<Product> products = new ArrayList<>(PRODUCT_TYPES.length);
+    for (String productType : PRODUCT_TYPES) {
+      Product product = new Product();
+      product.setName(productType);
+      products.add(product);
+    }
+    return products;
+  }
+
+  /**
+   * Build Products with distinct names.
+   * @param size number of Products.
+   * @return Products without ids.
+   */
+  public static List<Product> products(int size) {
+    List<Product> products = new ArrayList<>(size);
+    for (int index = 0; index < size; index++) {
+      Product product = new Product();
+      product.setName("Product " + index);
+      products.add(product);
+    }
+    return products;
+  }
+
+  /**
+   * Build Inventories heavy in BigDecimal and Instant fields.
+   * @param size number of Inventories.
+   * @return Inventories without ids.
+   */
+  public static List<Inventory> inventories(int size) {
+    Instant now = Instant.parse("2022-08-01T00:00:00Z");
+    List<Inventory> inventories = new ArrayList<>(size);
+    for (int index = 0; index < size; index++) {
+      Inventory inventory = new Inventory();
+      inventory.setName("Inventory " + index);
+      inventory.setProductType(PRODUCT_TYPES[index % PRODUCT_TYPES.length]);
+      inventory.setDescription("Benchmark inventory number " + index);
+      inventory.setAveragePrice(BigDecimal.valueOf(100 + index % 5000, 2));
+      inventory.setAmount(BigDecimal.valueOf(index % 977, 1));
+      inventory.setUnitOfMeasurement(UnitOfMeasurement.values()[index % UnitOfMeasurement.values().length]);
+      inventory.setBestBeforeDate(now.plus(index % 365, ChronoUnit.DAYS));
+      inventory.setNeverExpires(index % 10 == 0);
+      inventory.setAvailableStores(List.of(STORES[index % STORES.length], STORES[(index + 2) % STORES.length]));
+      inventories.add(inventory);
+    }
+    return inventories;
+  }
+}
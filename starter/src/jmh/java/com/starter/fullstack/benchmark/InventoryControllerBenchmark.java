@@ -0,0 +1,127 @@
+package com.starter.fullstack.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.config.InventoryProperties;
+import com.starter.fullstack.dao.CollectionVersionDAO;
+import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.InventoryWriteBehind;
+import com.starter.fullstack.dao.ProductCodec;
+import com.starter.fullstack.dao.ProductDAO;
+import com.starter.fullstack.dao.ProductDAOCustomImpl;
+import com.starter.fullstack.dao.QueryPlanVerifier;
+import com.starter.fullstack.dao.VersionedCache;
+import com.starter.fullstack.rest.InventoryController;
+import com.starter.fullstack.rest.ProductResolver;
+import com.starter.fullstack.rest.SingleFlight;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * InventoryController end to end through MockMvc, Jackson and a local Mongo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryControllerBenchmark {
+  @Param({"100", "10000"})
+  private int size;
+
+  private MongoFixture mongo;
+  private MockMvc mockMvc;
+  private byte[] newInventory;
+
+  /**
+   * Start Mongo, seed the collection and build MockMvc around the controller.
+   * @throws Throwable if the request body cannot be built.
+   */
+  @Setup(Level.Trial)
+  public void setup() throws Throwable {
+    ObjectMapper objectMapper = BenchmarkData.objectMapper();
+    this.mongo = new MongoFixture();
+    MongoTemplate mongoTemplate = this.mongo.mongoTemplate();
+    mongoTemplate.insert(BenchmarkData.inventories(this.size), Inventory.class);
+    mongoTemplate.insert(BenchmarkData.products(), Product.class);
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    ProductDAO productDAO = new MongoRepositoryFactory(mongoTemplate).getRepository(ProductDAO.class,
+      RepositoryComposition.RepositoryFragments.just(
+        new ProductDAOCustomImpl(mongoTemplate, beanFactory.getBeanProvider(
+          ResolvableType.forClassWithGenerics(VersionedCache.class, String.class, Product.class)),
+          beanFactory.getBeanProvider(ProductCodec.class), beanFactory.getBeanProvider(QueryPlanVerifier.class))));
+    InventoryController controller = new InventoryController(new InventoryDAO(mongoTemplate),
+      new CollectionVersionDAO(mongoTemplate), objectMapper, new InventoryProperties(), new ProductResolver(productDAO),
+      beanFactory.getBeanProvider(InventoryWriteBehind.class), beanFactory.getBeanProvider(SingleFlight.class));
+    this.mockMvc = MockMvcBuilders.standaloneSetup(controller)
+      .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+      .build();
+    this.newInventory = objectMapper.writeValueAsBytes(BenchmarkData.inventories(1).get(0));
+  }
+
+  /**
+   * Stop Mongo.
+   */
+  @TearDown(Level.Trial)
+  public void teardown() {
+    this.mongo.close();
+  }
+
+  /**
+   * GET /inventory.
+   * @return Result.
+   * @throws Throwable see MockMvc.
+   */
+  @Benchmark
+  public MvcResult findInventories() throws Throwable {
+    return this.mockMvc.perform(get("/inventory").accept(MediaType.APPLICATION_JSON)).andReturn();
+  }
+
+  /**
+   * GET /inventory/page.
+   * @return Result.
+   * @throws Throwable see MockMvc.
+   */
+  @Benchmark
+  public MvcResult findInventoryPage() throws Throwable {
+    return this.mockMvc.perform(get("/inventory/page").accept(MediaType.APPLICATION_JSON)).andReturn();
+  }
+
+  /**
+   * POST /inventory.
+   * @return Result.
+   * @throws Throwable see MockMvc.
+   */
+  @Benchmark
+  public MvcResult createInventory() throws Throwable {
+    return this.mockMvc.perform(post("/inventory")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(this.newInventory)).andReturn();
+  }
+}
@@ -0,0 +1,79 @@
+package com.starter.fullstack.benchmark;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.dao.InventoryDAO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * InventoryDAO against a local Mongo, with the cache disabled so every call reaches Mongo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryDAOBenchmark {
+  @Param({"100", "10000"})
+  private int size;
+
+  private MongoFixture mongo;
+  private InventoryDAO inventoryDAO;
+  private List<String> ids;
+
+  /**
+   * Start Mongo and seed the collection.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.mongo = new MongoFixture();
+    this.inventoryDAO = new InventoryDAO(this.mongo.mongoTemplate());
+    this.inventoryDAO.setupIndexes();
+    this.ids = new ArrayList<>(this.size);
+    this.mongo.mongoTemplate().insert(BenchmarkData.inventories(this.size), Inventory.class)
+      .forEach(inventory -> this.ids.add(inventory.getId()));
+  }
+
+  /**
+   * Stop Mongo.
+   */
+  @TearDown(Level.Trial)
+  public void teardown() {
+    this.mongo.close();
+  }
+
+  /**
+   * Read the whole collection.
+   * @return Inventories.
+   */
+  @Benchmark
+  public List<Inventory> findAll() {
+    return this.inventoryDAO.findAll();
+  }
+
+  /**
+   * Read one document by id.
+   * @return Inventory.
+   */
+  @Benchmark
+  public Optional<Inventory> retrieve() {
+    return this.inventoryDAO.retrieve(this.ids.get(ThreadLocalRandom.current().nextInt(this.ids.size())));
+  }
+}
@@ -0,0 +1,86 @@
+package com.starter.fullstack.benchmark;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.dao.InventoryDAO;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * InventoryDAO deletes against a local Mongo. Each invocation removes one document inserted just before it,
+ * so the collection stays at its seeded size; kept apart from {@link InventoryDAOBenchmark} so the per
+ * invocation insert neither grows nor distorts the read benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryDeleteBenchmark {
+  @Param({"100", "10000"})
+  private int size;
+
+  private MongoFixture mongo;
+  private InventoryDAO inventoryDAO;
+  private List<String> deleteIds;
+
+  /**
+   * Start Mongo and seed the collection.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.mongo = new MongoFixture();
+    this.inventoryDAO = new InventoryDAO(this.mongo.mongoTemplate());
+    this.inventoryDAO.setupIndexes();
+    this.mongo.mongoTemplate().insert(BenchmarkData.inventories(this.size), Inventory.class);
+  }
+
+  /**
+   * Insert the document the next invocation removes.
+   */
+  @Setup(Level.Invocation)
+  public void insertDeleteTarget() {
+    Inventory inventory = this.inventoryDAO.create(BenchmarkData.inventories(1).get(0));
+    this.deleteIds = List.of(inventory.getId());
+  }
+
+  /**
+   * Stop Mongo.
+   */
+  @TearDown(Level.Trial)
+  public void teardown() {
+    this.mongo.close();
+  }
+
+  /**
+   * Delete one document by id.
+   * @return Deleted Inventories.
+   */
+  @Benchmark
+  public Optional<List<Inventory>> delete() {
+    return this.inventoryDAO.delete(this.deleteIds);
+  }
+
+  /**
+   * Delete one document by id with deleteMany, counting it only.
+   * @return Number of Inventories deleted.
+   */
+  @Benchmark
+  public long deleteMany() {
+    return this.inventoryDAO.deleteMany(this.deleteIds);
+  }
+}
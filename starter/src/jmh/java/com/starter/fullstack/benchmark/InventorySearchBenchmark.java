@@ -0,0 +1,59 @@
+package com.starter.fullstack.benchmark;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.SearchHit;
+import com.starter.fullstack.dao.InventorySearchIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Top 10 typeahead latency over 1M indexed Inventories, from one letter matching everything to words
+ * matching a single document or only descriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class InventorySearchBenchmark {
+  private static final int LIMIT = 10;
+
+  @Param({"i", "inv", "inventory 12", "number 99999", "benchmark 5"})
+  private String query;
+
+  @Param({"1000000"})
+  private int size;
+
+  private InventorySearchIndex index;
+
+  /**
+   * Index the Inventories once per trial.
+   */
+  @Setup
+  public void setup() {
+    this.index = new InventorySearchIndex();
+    List<Inventory> inventories = BenchmarkData.inventories(this.size);
+    for (int number = 0; number < inventories.size(); number++) {
+      Inventory inventory = inventories.get(number);
+      inventory.setId(Integer.toString(number));
+      this.index.index(inventory);
+    }
+  }
+
+  @Benchmark
+  public List<SearchHit> search() {
+    return this.index.search(this.query, LIMIT);
+  }
+}
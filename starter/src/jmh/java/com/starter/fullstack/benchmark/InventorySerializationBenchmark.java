@@ -0,0 +1,72 @@
+package com.starter.fullstack.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.Inventory;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Jackson serialization of Inventory lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventorySerializationBenchmark {
+  private static final TypeReference<List<Inventory>> INVENTORY_LIST = new TypeReference<>() {
+  };
+
+  @Param({"1", "100", "10000"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+  private List<Inventory> inventories;
+  private byte[] json;
+
+  /**
+   * Build the list and its JSON once per trial.
+   * @throws JsonProcessingException never for this data.
+   */
+  @Setup
+  public void setup() throws JsonProcessingException {
+    this.objectMapper = BenchmarkData.objectMapper();
+    this.inventories = BenchmarkData.inventories(this.size);
+    this.json = this.objectMapper.writeValueAsBytes(this.inventories);
+  }
+
+  /**
+   * Serialize the list.
+   * @return JSON.
+   * @throws JsonProcessingException never for this data.
+   */
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return this.objectMapper.writeValueAsBytes(this.inventories);
+  }
+
+  /**
+   * Deserialize the list.
+   * @return Inventories.
+   * @throws IOException never for this data.
+   */
+  @Benchmark
+  public List<Inventory> deserialize() throws IOException {
+    return this.objectMapper.readValue(this.json, INVENTORY_LIST);
+  }
+}
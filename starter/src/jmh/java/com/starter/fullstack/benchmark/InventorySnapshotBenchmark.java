@@ -0,0 +1,117 @@
+package com.starter.fullstack.benchmark;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.InventorySnapshot;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Filtered counts and per store totals from the in-memory snapshot against the Mongo-backed path, which
+ * counts in Mongo and totals the matching documents read through the DAO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventorySnapshotBenchmark {
+  private static final String PRODUCT_TYPE = "Hops";
+
+  @Param({"10000", "100000"})
+  private int size;
+
+  private MongoFixture mongo;
+  private InventoryDAO inventoryDAO;
+  private InventorySnapshot snapshot;
+  private InventoryFilter filter;
+
+  /**
+   * Start Mongo, seed the collection and load the same Inventories into a snapshot.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.mongo = new MongoFixture();
+    this.inventoryDAO = new InventoryDAO(this.mongo.mongoTemplate());
+    this.inventoryDAO.setupIndexes();
+    this.snapshot = new InventorySnapshot();
+    this.mongo.mongoTemplate().insert(BenchmarkData.inventories(this.size), Inventory.class)
+      .forEach(this.snapshot::index);
+    this.filter = new InventoryFilter();
+    this.filter.setProductType(PRODUCT_TYPE);
+  }
+
+  /**
+   * Stop Mongo.
+   */
+  @TearDown(Level.Trial)
+  public void teardown() {
+    this.mongo.close();
+  }
+
+  /**
+   * Count one product type in the snapshot.
+   * @return Count.
+   */
+  @Benchmark
+  public long snapshotCount() {
+    return this.snapshot.count(this.filter);
+  }
+
+  /**
+   * Count one product type in Mongo.
+   * @return Count.
+   */
+  @Benchmark
+  public long mongoCount() {
+    return this.mongo.mongoTemplate().count(new Query(Criteria.where("productType").is(PRODUCT_TYPE)),
+      Inventory.class);
+  }
+
+  /**
+   * Total one product type by store in the snapshot.
+   * @return Aggregates.
+   */
+  @Benchmark
+  public Optional<List<InventoryAggregate>> snapshotAggregate() {
+    return this.snapshot.aggregate(this.filter, AggregateDimension.STORE);
+  }
+
+  /**
+   * Total one product type by store from the documents read through the DAO.
+   * @return Amounts by store.
+   */
+  @Benchmark
+  public Map<String, BigDecimal> mongoAggregate() {
+    Map<String, BigDecimal> amounts = new TreeMap<>();
+    for (Inventory inventory : this.inventoryDAO.find(this.filter)) {
+      for (String store : inventory.getAvailableStores()) {
+        amounts.merge(store, inventory.getAmount(), BigDecimal::add);
+      }
+    }
+    return amounts;
+  }
+}
@@ -0,0 +1,131 @@
+package com.starter.fullstack.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load driver used to compare serving stacks of a running instance.
+ * Each of the concurrent users sends its next request as soon as the previous one completes.
+ * Configured with the system properties loadTest.url, loadTest.concurrency, loadTest.durationSeconds,
+ * loadTest.label and loadTest.output.
+ */
+public final class LoadTest {
+  private static final String DEFAULT_URL = "http://localhost:8080/inventory";
+  private static final int SUCCESS_MIN = 200;
+  private static final int SUCCESS_MAX = 299;
+
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private final HttpRequest request;
+  private final long deadline;
+  private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+  private final LongAdder errors = new LongAdder();
+
+  /**
+   * Default Constructor.
+   * @param uri uri to GET.
+   * @param durationNanos how long to keep sending.
+   */
+  private LoadTest(URI uri, long durationNanos) {
+    this.request = HttpRequest.newBuilder(uri).header("Accept", "application/json").GET().build();
+    this.deadline = System.nanoTime() + durationNanos;
+  }
+
+  /**
+   * Run the load test and print a JSON summary.
+   * @param args unused, see system properties.
+   * @throws IOException if the summary cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    URI uri = URI.create(System.getProperty("loadTest.url", DEFAULT_URL));
+    int concurrency = Integer.getInteger("loadTest.concurrency", 100);
+    long durationSeconds = Long.getLong("loadTest.durationSeconds", 30);
+    String label = System.getProperty("loadTest.label", "default");
+
+    LoadTest loadTest = new LoadTest(uri, TimeUnit.SECONDS.toNanos(durationSeconds));
+    long start = System.nanoTime();
+    List<CompletableFuture<Void>> users = new ArrayList<>(concurrency);
+    for (int user = 0; user < concurrency; user++) {
+      users.add(loadTest.next());
+    }
+    CompletableFuture.allOf(users.toArray(new CompletableFuture<?>[0])).join();
+    String summary = loadTest.summary(label, uri, concurrency, System.nanoTime() - start);
+
+    System.out.println(summary);
+    String output = System.getProperty("loadTest.output");
+    if (output != null) {
+      Path path = Path.of(output);
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      Files.writeString(path, summary, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Send the next request of a user, or complete once the test is over.
+   * @return Completion of the user.
+   */
+  private CompletableFuture<Void> next() {
+    if (System.nanoTime() >= this.deadline) {
+      return CompletableFuture.completedFuture(null);
+    }
+    long sent = System.nanoTime();
+    return this.client.sendAsync(this.request, HttpResponse.BodyHandlers.discarding())
+      .handle((response, error) -> {
+        if (error != null || response.statusCode() < SUCCESS_MIN || response.statusCode() > SUCCESS_MAX) {
+          this.errors.increment();
+        } else {
+          this.latencies.add(System.nanoTime() - sent);
+        }
+        return null;
+      })
+      .thenCompose(ignored -> this.next());
+  }
+
+  /**
+   * Summarize throughput and latency percentiles as JSON.
+   * @param label label of the run, e.g. the serving stack.
+   * @param uri uri requested.
+   * @param concurrency concurrent users.
+   * @param elapsedNanos elapsed time.
+   * @return JSON summary.
+   */
+  private String summary(String label, URI uri, int concurrency, long elapsedNanos) {
+    List<Long> sorted = new ArrayList<>(this.latencies);
+    Collections.sort(sorted);
+    double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    return String.format(Locale.ROOT,
+      "{\"label\":\"%s\",\"url\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,"
+        + "\"throughputPerSecond\":%.1f,\"p50Millis\":%.2f,\"p95Millis\":%.2f,\"p99Millis\":%.2f,\"maxMillis\":%.2f}",
+      label, uri, concurrency, sorted.size(), this.errors.sum(), sorted.size() / seconds,
+      percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+  }
+
+  /**
+   * Latency percentile in milliseconds.
+   * @param sorted sorted latencies in nanoseconds.
+   * @param quantile quantile between 0 and 1.
+   * @return Latency in milliseconds.
+   */
+  private static double percentile(List<Long> sorted, double quantile) {
+    if (sorted.isEmpty()) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1);
+    return sorted.get(Math.max(0, index)) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,40 @@
+package com.starter.fullstack.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Throwaway local Mongo for the benchmarks, the same stand-in the DAO tests use.
+ */
+public final class MongoFixture implements AutoCloseable {
+  private final MongoDBContainer container;
+  private final MongoClient mongoClient;
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Start Mongo and connect to a scratch database.
+   */
+  public MongoFixture() {
+    this.container = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+    this.container.start();
+    this.mongoClient = MongoClients.create(this.container.getReplicaSetUrl());
+    this.mongoTemplate = new MongoTemplate(this.mongoClient, "benchmark");
+  }
+
+  /**
+   * MongoTemplate on the scratch database.
+   * @return MongoTemplate.
+   */
+  public MongoTemplate mongoTemplate() {
+    return this.mongoTemplate;
+  }
+
+  @Override
+  public void close() {
+    this.mongoClient.close();
+    this.container.stop();
+  }
+}
@@ -0,0 +1,137 @@
+package com.starter.fullstack.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.config.InventoryProperties;
+import com.starter.fullstack.dao.CollectionVersionDAO;
+import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.InventoryWriteBehind;
+import com.starter.fullstack.dao.ProductCodec;
+import com.starter.fullstack.dao.ProductDAO;
+import com.starter.fullstack.dao.ProductDAOCustomImpl;
+import com.starter.fullstack.dao.QueryPlanVerifier;
+import com.starter.fullstack.dao.VersionedCache;
+import com.starter.fullstack.rest.InventoryController;
+import com.starter.fullstack.rest.ProductResolver;
+import com.starter.fullstack.rest.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /inventory from many threads at once, every request loading and serializing its own list against
+ * requests sharing one load and one body through single flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class SingleFlightBenchmark {
+  @Param({"1000", "10000"})
+  private int size;
+
+  @Param({"0", "100"})
+  private int freshnessMillis;
+
+  private MongoFixture mongo;
+  private MockMvc separate;
+  private MockMvc shared;
+
+  /**
+   * Start Mongo, seed the collection and build MockMvc around a controller without and one with single flight.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    ObjectMapper objectMapper = BenchmarkData.objectMapper();
+    this.mongo = new MongoFixture();
+    MongoTemplate mongoTemplate = this.mongo.mongoTemplate();
+    mongoTemplate.insert(BenchmarkData.inventories(this.size), Inventory.class);
+    mongoTemplate.insert(BenchmarkData.products(), Product.class);
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    ProductDAO productDAO = new MongoRepositoryFactory(mongoTemplate).getRepository(ProductDAO.class,
+      RepositoryComposition.RepositoryFragments.just(
+        new ProductDAOCustomImpl(mongoTemplate, beanFactory.getBeanProvider(
+          ResolvableType.forClassWithGenerics(VersionedCache.class, String.class, Product.class)),
+          beanFactory.getBeanProvider(ProductCodec.class), beanFactory.getBeanProvider(QueryPlanVerifier.class))));
+    InventoryController separateController = new InventoryController(new InventoryDAO(mongoTemplate),
+      new CollectionVersionDAO(mongoTemplate), objectMapper, new InventoryProperties(), new ProductResolver(productDAO),
+      beanFactory.getBeanProvider(InventoryWriteBehind.class), beanFactory.getBeanProvider(SingleFlight.class));
+    beanFactory.registerSingleton("singleFlight",
+      new SingleFlight(Duration.ofMillis(this.freshnessMillis), new SimpleMeterRegistry()));
+    InventoryController sharedController = new InventoryController(new InventoryDAO(mongoTemplate),
+      new CollectionVersionDAO(mongoTemplate), objectMapper, new InventoryProperties(), new ProductResolver(productDAO),
+      beanFactory.getBeanProvider(InventoryWriteBehind.class), beanFactory.getBeanProvider(SingleFlight.class));
+    this.separate = this.mockMvc(separateController, objectMapper);
+    this.shared = this.mockMvc(sharedController, objectMapper);
+  }
+
+  /**
+   * Stop Mongo.
+   */
+  @TearDown(Level.Trial)
+  public void teardown() {
+    this.mongo.close();
+  }
+
+  /**
+   * GET /inventory, loaded and serialized per request.
+   * @return Result.
+   * @throws Throwable see MockMvc.
+   */
+  @Benchmark
+  public MvcResult separate() throws Throwable {
+    return this.separate.perform(get("/inventory").accept(MediaType.APPLICATION_JSON)).andReturn();
+  }
+
+  /**
+   * GET /inventory through single flight.
+   * @return Result.
+   * @throws Throwable see MockMvc.
+   */
+  @Benchmark
+  public MvcResult shared() throws Throwable {
+    return this.shared.perform(get("/inventory").accept(MediaType.APPLICATION_JSON)).andReturn();
+  }
+
+  /**
+   * MockMvc writing byte bodies as they are and everything else through Jackson.
+   * @param controller controller.
+   * @param objectMapper objectMapper.
+   * @return MockMvc.
+   */
+  private MockMvc mockMvc(InventoryController controller, ObjectMapper objectMapper) {
+    return MockMvcBuilders.standaloneSetup(controller)
+      .setMessageConverters(new ByteArrayHttpMessageConverter(), new MappingJackson2HttpMessageConverter(objectMapper))
+      .build();
+  }
+}
@@ -0,0 +1,125 @@
+package com.starter.fullstack.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.starter.fullstack.api.Inventory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Payload size and serialization cost of 10k Inventories in each wire format the REST API negotiates.
+ * JSON_GZIP is JSON as sent with response compression on. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+  private static final TypeReference<List<Inventory>> INVENTORY_LIST = new TypeReference<>() {
+  };
+
+  /**
+   * Formats compared.
+   */
+  public enum Format {
+    JSON, JSON_GZIP, SMILE, CBOR
+  }
+
+  @Param({"JSON", "JSON_GZIP", "SMILE", "CBOR"})
+  private Format format;
+
+  @Param({"10000"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+  private List<Inventory> inventories;
+  private byte[] payload;
+
+  /**
+   * Build the list and its payload once per trial.
+   * @throws IOException never for this data.
+   */
+  @Setup
+  public void setup() throws IOException {
+    this.objectMapper = objectMapper(this.format);
+    this.inventories = BenchmarkData.inventories(this.size);
+    this.payload = this.serialize();
+    System.out.printf("%n%s payload for %d Inventories: %d bytes%n", this.format, this.size, this.payload.length);
+  }
+
+  /**
+   * Serialize the list.
+   * @return Payload.
+   * @throws IOException never for this data.
+   */
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = this.format == Format.JSON_GZIP ? new GZIPOutputStream(bytes) : bytes) {
+      this.objectMapper.writeValue(out, this.inventories);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserialize the list.
+   * @return Inventories.
+   * @throws IOException never for this data.
+   */
+  @Benchmark
+  public List<Inventory> deserialize() throws IOException {
+    InputStream bytes = new ByteArrayInputStream(this.payload);
+    try (InputStream in = this.format == Format.JSON_GZIP ? new GZIPInputStream(bytes) : bytes) {
+      return this.objectMapper.readValue(in, INVENTORY_LIST);
+    }
+  }
+
+  /**
+   * ObjectMapper configured like the application's, writing the given format.
+   * @param format format.
+   * @return ObjectMapper.
+   */
+  private static ObjectMapper objectMapper(Format format) {
+    JsonFactory factory;
+    switch (format) {
+      case SMILE:
+        factory = new SmileFactory();
+        break;
+      case CBOR:
+        factory = new CBORFactory();
+        break;
+      default:
+        factory = new JsonFactory();
+        break;
+    }
+    return new Jackson2ObjectMapperBuilder()
+      .factory(factory)
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+  }
+}
@@ -0,0 +1,9 @@
+package com.starter.fullstack.api;
+
+/**
+ * Aggregate Dimension -- What Inventory totals are grouped by.
+ */
+public enum AggregateDimension {
+  PRODUCT_TYPE,
+  STORE
+}
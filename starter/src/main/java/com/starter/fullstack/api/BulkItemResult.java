@@ -0,0 +1,18 @@
+package com.starter.fullstack.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bulk Item Result -- Outcome of the item at an index of a bulk request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+  private int index;
+  private String id;
+  private BulkItemStatus status;
+  private String message;
+}
@@ -0,0 +1,12 @@
+package com.starter.fullstack.api;
+
+/**
+ * Outcome of one item in a bulk write.
+ */
+public enum BulkItemStatus {
+  CREATED,
+  UPDATED,
+  CONFLICT,
+  NOT_FOUND,
+  FAILED
+}
@@ -0,0 +1,19 @@
+package com.starter.fullstack.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache Statistics -- Used to size the DAO caches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatistics {
+  private boolean enabled;
+  private long size;
+  private long hits;
+  private long misses;
+  private long evictions;
+}
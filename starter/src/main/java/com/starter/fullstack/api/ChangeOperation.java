@@ -0,0 +1,10 @@
+package com.starter.fullstack.api;
+
+/**
+ * Change Operation -- What happened to a document.
+ */
+public enum ChangeOperation {
+  CREATE,
+  UPDATE,
+  DELETE
+}
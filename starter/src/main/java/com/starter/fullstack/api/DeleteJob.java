@@ -0,0 +1,21 @@
+package com.starter.fullstack.api;
+
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Delete Job -- Progress of an asynchronous delete, saved after every chunk. A job deletes either listed ids,
+ * counted in requested, or every Inventory matching a filter, where requested stays null.
+ */
+@Data
+public class DeleteJob {
+  private String id;
+  private DeleteJobState state;
+  private InventoryFilter filter;
+  private Integer requested;
+  private long deleted;
+  private long chunks;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private String error;
+}
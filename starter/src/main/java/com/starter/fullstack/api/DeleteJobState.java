@@ -0,0 +1,10 @@
+package com.starter.fullstack.api;
+
+/**
+ * State of an asynchronous delete job.
+ */
+public enum DeleteJobState {
+  RUNNING,
+  COMPLETE,
+  FAILED
+}
@@ -0,0 +1,23 @@
+package com.starter.fullstack.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity Change -- One Inventory or Product delta pushed to clients.
+ * The token is opaque, clients hand the last one they saw back to resume after it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityChange {
+  public static final String INVENTORY = "inventory";
+  public static final String PRODUCT = "product";
+
+  private String token;
+  private String entity;
+  private ChangeOperation operation;
+  private String id;
+  private Object document;
+}
@@ -0,0 +1,16 @@
+package com.starter.fullstack.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Import Error -- Why the record at a line of an import was not written.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportError {
+  private long line;
+  private String message;
+}
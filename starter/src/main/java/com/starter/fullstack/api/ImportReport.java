@@ -0,0 +1,25 @@
+package com.starter.fullstack.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Import Report -- Progress of an import, saved after every batch so a failed import can resume after
+ * committedLine. Counts and errors add up over every run of the import; records, elapsedMillis and
+ * recordsPerSecond describe the latest run.
+ */
+@Data
+public class ImportReport {
+  private String id;
+  private String entity;
+  private long committedLine;
+  private long imported;
+  private long failed;
+  private boolean complete;
+  private List<ImportError> errors = new ArrayList<>();
+  private long resumedAfterLine;
+  private long records;
+  private long elapsedMillis;
+  private double recordsPerSecond;
+}
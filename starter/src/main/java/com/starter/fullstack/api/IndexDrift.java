@@ -0,0 +1,30 @@
+package com.starter.fullstack.api;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Index Drift -- Differences between the declared and the actual indexes of a collection.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexDrift {
+  private String collection;
+  /** Declared indexes the collection does not have. */
+  private List<String> missing;
+  /** Indexes the collection has that are not declared. */
+  private List<String> unexpected;
+  /** Declared indexes present under the same name with different keys or options. */
+  private List<String> changed;
+
+  /**
+   * Whether the collection matches its declaration.
+   * @return true when nothing drifted.
+   */
+  public boolean isInSync() {
+    return this.missing.isEmpty() && this.unexpected.isEmpty() && this.changed.isEmpty();
+  }
+}
@@ -7,6 +7,8 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import lombok.Data;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 /**
  * Inventory.
@@ -22,11 +24,15 @@ public class Inventory {
   private String productType;
   private String description;
   @Min(0)
+  @Field(targetType = FieldType.DECIMAL128)
   private BigDecimal averagePrice;
   @Min(0)
+  @Field(targetType = FieldType.DECIMAL128)
   private BigDecimal amount;
   private UnitOfMeasurement unitOfMeasurement;
   private Instant bestBeforeDate;
   private boolean neverExpires;
+  /** Set by the expiry sweep once the best before date has passed. */
+  private boolean expired;
   private List<String> availableStores;
 }
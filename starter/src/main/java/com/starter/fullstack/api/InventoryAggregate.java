@@ -0,0 +1,21 @@
+package com.starter.fullstack.api;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inventory Aggregate -- Totals of the Inventory sharing a product type or a store.
+ * Value is the sum of averagePrice times amount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAggregate {
+  private AggregateDimension dimension;
+  private String key;
+  private long count;
+  private BigDecimal amount;
+  private BigDecimal value;
+}
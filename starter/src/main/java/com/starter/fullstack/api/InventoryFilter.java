@@ -0,0 +1,21 @@
+package com.starter.fullstack.api;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Inventory Filter -- Query parameters of Inventory reads, evaluated by Mongo.
+ */
+@Data
+public class InventoryFilter {
+  private String productType;
+  private String namePrefix;
+  private String store;
+  private Instant expiresAfter;
+  private Instant expiresBefore;
+  /** Fields to sort by, prefixed with '-' for descending. */
+  private List<String> sort;
+  /** Fields to return, all when empty. */
+  private List<String> fields;
+}
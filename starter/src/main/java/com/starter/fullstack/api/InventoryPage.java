@@ -0,0 +1,17 @@
+package com.starter.fullstack.api;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inventory Page -- One keyset page of Inventory plus the cursor to resume after it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryPage {
+  private List<Inventory> items;
+  private String nextCursor;
+}
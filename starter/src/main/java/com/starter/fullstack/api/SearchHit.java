@@ -0,0 +1,17 @@
+package com.starter.fullstack.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Search Hit -- Inventory matching a search, with just enough to show it as a suggestion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+  private String id;
+  private String name;
+  private String productType;
+}
@@ -0,0 +1,17 @@
+package com.starter.fullstack.api;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * Stock Adjustment -- A change to the amount of one Inventory, applied in place by Mongo.
+ */
+@Data
+public class StockAdjustment {
+  /** Inventory id, taken from the path for single adjustments. */
+  private String id;
+  /** Amount received when positive, issued when negative. */
+  private BigDecimal quantity;
+  /** Price per unit received, folded into the average price; only for receipts. */
+  private BigDecimal unitPrice;
+}
@@ -0,0 +1,13 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.cache")
+public class CacheProperties {
+  private boolean enabled = true;
+  private long maximumSize = 10_000;
+  private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -0,0 +1,22 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.changes")
+public class ChangeFeedProperties {
+  private Source source = Source.AUTO;
+  private int bufferSize = 1000;
+  private Duration streamTimeout = Duration.ofMinutes(30);
+
+  /**
+   * Where pushed changes come from.
+   */
+  public enum Source {
+    AUTO,
+    CHANGE_STREAM,
+    LOCAL
+  }
+}
@@ -0,0 +1,39 @@
+package com.starter.fullstack.config;
+
+import com.starter.fullstack.dao.InventoryExpiry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.util.Assert;
+
+/**
+ * Expiry Configuration.
+ * Sweeps expired Inventory on a fixed delay, so a slow sweep is never overlapped by the next one.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "com.starter.fullstack.expiry", name = "enabled", havingValue = "true",
+  matchIfMissing = true)
+public class ExpiryConfig implements SchedulingConfigurer {
+  private final InventoryExpiry inventoryExpiry;
+  private final ExpiryProperties expiryProperties;
+
+  /**
+   * Default Constructor.
+   * @param inventoryExpiry inventoryExpiry.
+   * @param expiryProperties expiryProperties.
+   */
+  public ExpiryConfig(InventoryExpiry inventoryExpiry, ExpiryProperties expiryProperties) {
+    Assert.notNull(inventoryExpiry, "Inventory Expiry must not be null.");
+    Assert.notNull(expiryProperties, "Expiry Properties must not be null.");
+    this.inventoryExpiry = inventoryExpiry;
+    this.expiryProperties = expiryProperties;
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.addFixedDelayTask(this.inventoryExpiry::sweep, this.expiryProperties.getInterval().toMillis());
+  }
+}
@@ -0,0 +1,14 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.expiry")
+public class ExpiryProperties {
+  private boolean enabled = true;
+  private Duration interval = Duration.ofMinutes(1);
+  private int batchSize = 500;
+  private int maxBatches = 20;
+}
@@ -0,0 +1,11 @@
+package com.starter.fullstack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.indexes")
+public class IndexProperties {
+  private boolean buildOnStartup = true;
+  private boolean verifyQueryPlans = false;
+}
@@ -0,0 +1,15 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.inventory")
+public class InventoryProperties {
+  private int bulkChunkSize = 1000;
+  private int deleteChunkSize = 1000;
+  private Duration deletePause = Duration.ofMillis(100);
+  private int deleteJobThreads = 2;
+  private int deleteJobQueueCapacity = 16;
+}
@@ -0,0 +1,55 @@
+package com.starter.fullstack.config;
+
+import com.starter.fullstack.metrics.AllocationMetrics;
+import com.starter.fullstack.metrics.MongoCheckoutMetrics;
+import com.starter.fullstack.metrics.MongoDocumentMetrics;
+import com.starter.fullstack.metrics.MongoPoolSaturationMetrics;
+import com.starter.fullstack.metrics.ResponseSizeFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Metrics Configuration.
+ * Spring Boot already times HTTP requests, Spring Data repository calls and Mongo commands and exports JVM
+ * and pool gauges; this adds DAO timers, documents per command, pool checkout waits and saturation, response
+ * sizes and allocation rates. Everything is scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+    return new TimedAspect(meterRegistry);
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MeterRegistry meterRegistry) {
+    return builder -> builder
+      .addCommandListener(new MongoDocumentMetrics(meterRegistry))
+      .applyToConnectionPoolSettings(pool -> pool
+        .addConnectionPoolListener(new MongoCheckoutMetrics(meterRegistry))
+        .addConnectionPoolListener(new MongoPoolSaturationMetrics(meterRegistry)));
+  }
+
+  @Bean
+  public AllocationMetrics allocationMetrics(ObjectProvider<ThreadProperties> threadProperties) {
+    ThreadProperties threads = threadProperties.getIfAvailable();
+    return new AllocationMetrics(threads != null && threads.isVirtual());
+  }
+
+  @Bean
+  @Profile("!reactive")
+  public FilterRegistrationBean<ResponseSizeFilter> responseSizeFilter(MeterRegistry meterRegistry) {
+    FilterRegistrationBean<ResponseSizeFilter> registration =
+      new FilterRegistrationBean<>(new ResponseSizeFilter(meterRegistry));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+    return registration;
+  }
+}
@@ -0,0 +1,99 @@
+package com.starter.fullstack.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.starter.fullstack.dao.InventoryCodec;
+import com.starter.fullstack.dao.ProductCodec;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Mongo Tuning Configuration.
+ * Applies the pool, socket, read preference and write concern settings of {@link MongoTuningProperties}
+ * to the Mongo clients on top of the connection string; settings left unset keep the connection string's
+ * or the driver's value.
+ */
+@Configuration
+@EnableConfigurationProperties(MongoTuningProperties.class)
+public class MongoTuningConfig {
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoTuningCustomizer(MongoTuningProperties properties) {
+    PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+    return builder -> {
+      MongoTuningProperties.Pool pool = properties.getPool();
+      builder.applyToConnectionPoolSettings(settings -> {
+        map.from(pool::getMaxSize).to(settings::maxSize);
+        map.from(pool::getMinSize).to(settings::minSize);
+        map.from(pool::getMaxWaitTime).to(time -> settings.maxWaitTime(time.toMillis(), TimeUnit.MILLISECONDS));
+        map.from(pool::getMaxConnectionIdleTime)
+          .to(time -> settings.maxConnectionIdleTime(time.toMillis(), TimeUnit.MILLISECONDS));
+        map.from(pool::getMaxConnectionLifeTime)
+          .to(time -> settings.maxConnectionLifeTime(time.toMillis(), TimeUnit.MILLISECONDS));
+      });
+      MongoTuningProperties.Socket socket = properties.getSocket();
+      builder.applyToSocketSettings(settings -> {
+        map.from(socket::getConnectTimeout)
+          .to(time -> settings.connectTimeout((int) time.toMillis(), TimeUnit.MILLISECONDS));
+        map.from(socket::getReadTimeout).to(time -> settings.readTimeout((int) time.toMillis(), TimeUnit.MILLISECONDS));
+      });
+      map.from(properties::getServerSelectionTimeout).to(time -> builder.applyToClusterSettings(
+        settings -> settings.serverSelectionTimeout(time.toMillis(), TimeUnit.MILLISECONDS)));
+      map.from(properties::getReadPreference).as(MongoTuningConfig::readPreference).to(builder::readPreference);
+      map.from(properties::getWriteConcern).as(MongoTuningConfig::writeConcern).to(builder::writeConcern);
+    };
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.mongo.codecs", name = "enabled", havingValue = "true")
+  public InventoryCodec inventoryCodec() {
+    return new InventoryCodec();
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.mongo.codecs", name = "enabled", havingValue = "true")
+  public ProductCodec productCodec() {
+    return new ProductCodec();
+  }
+
+  /**
+   * Template sharing the database and mapping of another, to be given its own read preference or write concern.
+   * It is not a bean, so Spring Boot's MongoTemplate stays the only one.
+   * @param template template to copy.
+   * @param applicationContext context publishing mapping events and running entity callbacks.
+   * @return New template.
+   */
+  static MongoTemplate copyOf(MongoTemplate template, ApplicationContext applicationContext) {
+    MongoTemplate copy = new MongoTemplate(template.getMongoDatabaseFactory(), template.getConverter());
+    copy.setApplicationContext(applicationContext);
+    return copy;
+  }
+
+  /**
+   * Parse a read preference name such as primary or secondaryPreferred.
+   * @param name name.
+   * @return Read Preference.
+   */
+  static ReadPreference readPreference(String name) {
+    return ReadPreference.valueOf(name);
+  }
+
+  /**
+   * Parse a write concern name such as w1, majority or acknowledged.
+   * @param name name.
+   * @return Write Concern.
+   */
+  static WriteConcern writeConcern(String name) {
+    WriteConcern writeConcern = WriteConcern.valueOf(name);
+    Assert.notNull(writeConcern, "Unknown write concern: " + name);
+    return writeConcern;
+  }
+}
@@ -0,0 +1,55 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.mongo")
+public class MongoTuningProperties {
+  private final Pool pool = new Pool();
+  private final Socket socket = new Socket();
+  private Duration serverSelectionTimeout;
+  private String readPreference;
+  private String writeConcern;
+  private final InventoryOverrides inventory = new InventoryOverrides();
+  private final Codecs codecs = new Codecs();
+
+  /**
+   * Connection pool settings, left to the driver or the connection string when unset.
+   */
+  @Data
+  public static class Pool {
+    private Integer maxSize;
+    private Integer minSize;
+    private Duration maxWaitTime;
+    private Duration maxConnectionIdleTime;
+    private Duration maxConnectionLifeTime;
+  }
+
+  /**
+   * Socket settings, left to the driver or the connection string when unset.
+   */
+  @Data
+  public static class Socket {
+    private Duration connectTimeout;
+    private Duration readTimeout;
+  }
+
+  /**
+   * Read preference and write concern of some Inventory operations, the client's when unset.
+   */
+  @Data
+  public static class InventoryOverrides {
+    private String listReadPreference;
+    private String bulkWriteConcern;
+  }
+
+  /**
+   * Hand-written Inventory and Product codecs decoding list reads instead of MappingMongoConverter.
+   */
+  @Data
+  public static class Codecs {
+    private boolean enabled;
+  }
+}
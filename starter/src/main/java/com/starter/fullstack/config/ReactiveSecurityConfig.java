@@ -0,0 +1,51 @@
+package com.starter.fullstack.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+/**
+ * This configuration class sets up web security for the reactive stack, mirroring {@link WebSecurityConfig}.
+ */
+@Profile("reactive")
+@Configuration
+@EnableWebFluxSecurity
+@EnableConfigurationProperties(WebSecurityProperties.class)
+public class ReactiveSecurityConfig {
+
+  /**
+   * Define which URL paths should be secured.
+   * @param http contains the url.
+   * @return filter chain.
+   */
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    return http.cors().and().csrf().disable().build();
+  }
+
+  /**
+   * Sets up Cors.
+   * @param webSecurityProperties webSecurityProperties.
+   * @return source.
+   */
+  @Bean
+  public CorsConfigurationSource reactiveCorsConfigurationSource(WebSecurityProperties webSecurityProperties) {
+    CorsConfiguration configuration = new CorsConfiguration();
+    configuration.setAllowedOrigins(Collections.singletonList(webSecurityProperties.getAllowedOrigins()));
+    configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+    configuration.setAllowedHeaders(Arrays.asList("Content-type", "Authorization", "X-XSRF-TOKEN", "Last-Event-ID"));
+    configuration.setAllowCredentials(true);
+    UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    source.registerCorsConfiguration("/**", configuration);
+    return source;
+  }
+}
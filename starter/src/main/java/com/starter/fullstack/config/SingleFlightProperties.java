@@ -0,0 +1,12 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.single-flight")
+public class SingleFlightProperties {
+  private boolean enabled = false;
+  private Duration freshness = Duration.ofMillis(100);
+}
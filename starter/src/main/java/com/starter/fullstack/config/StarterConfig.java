@@ -1,18 +1,265 @@
 package com.starter.fullstack.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.dao.CacheSync;
+import com.starter.fullstack.dao.ChangeFeed;
+import com.starter.fullstack.dao.CollectionVersionDAO;
+import com.starter.fullstack.dao.DeleteJobDAO;
+import com.starter.fullstack.dao.EntityCopies;
+import com.starter.fullstack.dao.ImportReportDAO;
+import com.starter.fullstack.dao.IndexRegistry;
+import com.starter.fullstack.dao.InventoryAggregateDAO;
+import com.starter.fullstack.dao.InventoryCodec;
 import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.InventoryDeleteJobs;
+import com.starter.fullstack.dao.InventoryExpiry;
+import com.starter.fullstack.dao.InventorySearchDAO;
+import com.starter.fullstack.dao.InventorySnapshotDAO;
+import com.starter.fullstack.dao.InventoryWriteBehind;
+import com.starter.fullstack.dao.MongoChangeStreamSource;
+import com.starter.fullstack.dao.ProductDAO;
+import com.starter.fullstack.dao.ProductDAOCustomImpl;
+import com.starter.fullstack.dao.QueryPlanVerifier;
+import com.starter.fullstack.dao.ReactiveInventoryDAO;
+import com.starter.fullstack.dao.VersionedCache;
+import com.starter.fullstack.rest.ProductCatalog;
+import com.starter.fullstack.rest.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Starter Configuration.
  */
+@Slf4j
 @Configuration
+@EnableConfigurationProperties({CacheProperties.class, ChangeFeedProperties.class, ExpiryProperties.class,
+  IndexProperties.class, InventoryProperties.class, SingleFlightProperties.class, WriteBehindProperties.class})
 public class StarterConfig {
 
   @Bean
-  public InventoryDAO inventoryDAO(MongoTemplate mongoTemplate) {
-    return new InventoryDAO(mongoTemplate);
+  public VersionedCache<String, Inventory> inventoryCache(CacheProperties cacheProperties) {
+    return newCache(cacheProperties, Inventory::getVersion, EntityCopies::copyOf);
+  }
+
+  @Bean
+  public VersionedCache<String, Product> productCache(CacheProperties cacheProperties) {
+    return newCache(cacheProperties, Product::getVersion, EntityCopies::copyOf);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.indexes", name = "verify-query-plans", havingValue = "true")
+  public QueryPlanVerifier queryPlanVerifier(MongoTemplate mongoTemplate) {
+    return new QueryPlanVerifier(mongoTemplate);
+  }
+
+  @Bean
+  public InventoryDAO inventoryDAO(MongoTemplate mongoTemplate, VersionedCache<String, Inventory> inventoryCache,
+                                   ObjectProvider<QueryPlanVerifier> queryPlanVerifier,
+                                   MongoTuningProperties mongoTuningProperties,
+                                   ObjectProvider<InventoryCodec> inventoryCodec,
+                                   ApplicationContext applicationContext) {
+    InventoryDAO inventoryDAO = new InventoryDAO(mongoTemplate, inventoryCache);
+    inventoryDAO.setQueryPlanVerifier(queryPlanVerifier.getIfAvailable());
+    MongoTuningProperties.InventoryOverrides overrides = mongoTuningProperties.getInventory();
+    ReadPreference readPreference = mongoTemplate.getDb().getReadPreference();
+    ReadPreference listReadPreference = readPreference;
+    if (overrides.getListReadPreference() != null) {
+      MongoTemplate listTemplate = MongoTuningConfig.copyOf(mongoTemplate, applicationContext);
+      listReadPreference = MongoTuningConfig.readPreference(overrides.getListReadPreference());
+      listTemplate.setReadPreference(listReadPreference);
+      inventoryDAO.setListTemplate(listTemplate);
+    }
+    inventoryDAO.setListReadFromSecondaries(readPreference.isSecondaryOk() || listReadPreference.isSecondaryOk());
+    if (overrides.getBulkWriteConcern() != null) {
+      MongoTemplate bulkTemplate = MongoTuningConfig.copyOf(mongoTemplate, applicationContext);
+      bulkTemplate.setWriteConcern(MongoTuningConfig.writeConcern(overrides.getBulkWriteConcern()));
+      inventoryDAO.setBulkTemplate(bulkTemplate);
+    }
+    inventoryDAO.setListCodec(inventoryCodec.getIfAvailable());
+    return inventoryDAO;
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.write-behind", name = "enabled", havingValue = "true")
+  public InventoryWriteBehind inventoryWriteBehind(InventoryDAO inventoryDAO,
+                                                   WriteBehindProperties writeBehindProperties,
+                                                   MeterRegistry meterRegistry) {
+    return new InventoryWriteBehind(inventoryDAO, writeBehindProperties.getWindow(),
+      writeBehindProperties.getStripes(), writeBehindProperties.getAck() == WriteBehindProperties.Ack.FLUSHED,
+      meterRegistry);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.single-flight", name = "enabled", havingValue = "true")
+  public SingleFlight singleFlight(SingleFlightProperties singleFlightProperties, MeterRegistry meterRegistry) {
+    return new SingleFlight(singleFlightProperties.getFreshness(), meterRegistry);
+  }
+
+  @Bean
+  @Profile("!reactive")
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.catalog", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+  public ProductCatalog productCatalog(ProductDAO productDAO, CollectionVersionDAO collectionVersionDAO,
+                                       ObjectMapper objectMapper) {
+    return new ProductCatalog(productDAO, collectionVersionDAO, objectMapper);
+  }
+
+  @Bean
+  public CollectionVersionDAO collectionVersionDAO(MongoTemplate mongoTemplate) {
+    return new CollectionVersionDAO(mongoTemplate);
+  }
+
+  @Bean
+  public ImportReportDAO importReportDAO(MongoTemplate mongoTemplate) {
+    return new ImportReportDAO(mongoTemplate);
+  }
+
+  @Bean
+  public DeleteJobDAO deleteJobDAO(MongoTemplate mongoTemplate) {
+    return new DeleteJobDAO(mongoTemplate);
+  }
+
+  @Bean
+  public InventoryDeleteJobs inventoryDeleteJobs(InventoryDAO inventoryDAO, DeleteJobDAO deleteJobDAO,
+                                                 InventoryProperties inventoryProperties, Clock clock) {
+    int threads = inventoryProperties.getDeleteJobThreads();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(inventoryProperties.getDeleteJobQueueCapacity()),
+      new CustomizableThreadFactory("inventory-delete-"));
+    return new InventoryDeleteJobs(inventoryDAO, deleteJobDAO, executor, inventoryProperties.getDeleteChunkSize(),
+      inventoryProperties.getDeletePause(), clock);
+  }
+
+  @Bean
+  public InventoryExpiry inventoryExpiry(InventoryDAO inventoryDAO, Clock clock, ExpiryProperties expiryProperties) {
+    return new InventoryExpiry(inventoryDAO, clock, expiryProperties.getBatchSize(), expiryProperties.getMaxBatches());
+  }
+
+  @Bean
+  public InventoryAggregateDAO inventoryAggregateDAO(MongoTemplate mongoTemplate) {
+    return new InventoryAggregateDAO(mongoTemplate);
+  }
+
+  @Bean
+  @Profile("reactive")
+  public ReactiveInventoryDAO reactiveInventoryDAO(ReactiveMongoTemplate reactiveMongoTemplate) {
+    return new ReactiveInventoryDAO(reactiveMongoTemplate);
+  }
+
+  @Bean
+  public ChangeFeed changeFeed(ChangeFeedProperties changeFeedProperties, MongoTemplate mongoTemplate,
+                               TaskExecutor applicationTaskExecutor) {
+    boolean local;
+    switch (changeFeedProperties.getSource()) {
+      case LOCAL:
+        local = true;
+        break;
+      case CHANGE_STREAM:
+        local = false;
+        break;
+      default:
+        local = !MongoChangeStreamSource.isSupported(mongoTemplate);
+    }
+    return new ChangeFeed(changeFeedProperties.getBufferSize(), applicationTaskExecutor, local);
+  }
+
+  @Bean
+  public MongoChangeStreamSource mongoChangeStreamSource(MongoTemplate mongoTemplate, ChangeFeed changeFeed,
+                                                         CollectionVersionDAO collectionVersionDAO) {
+    return new MongoChangeStreamSource(mongoTemplate, changeFeed, collectionVersionDAO);
+  }
+
+  @Bean
+  public CacheSync cacheSync(VersionedCache<String, Inventory> inventoryCache,
+                             VersionedCache<String, Product> productCache, ChangeFeed changeFeed,
+                             TaskExecutor applicationTaskExecutor) {
+    return new CacheSync(inventoryCache, productCache, changeFeed, applicationTaskExecutor);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.search", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+  public InventorySearchDAO inventorySearchDAO(MongoTemplate mongoTemplate, ChangeFeed changeFeed,
+                                               TaskExecutor applicationTaskExecutor) {
+    return new InventorySearchDAO(mongoTemplate, changeFeed, applicationTaskExecutor);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "com.starter.fullstack.snapshot", name = "enabled", havingValue = "true")
+  public InventorySnapshotDAO inventorySnapshotDAO(MongoTemplate mongoTemplate, ChangeFeed changeFeed,
+                                                   TaskExecutor applicationTaskExecutor) {
+    return new InventorySnapshotDAO(mongoTemplate, changeFeed, applicationTaskExecutor);
+  }
+
+  @Bean
+  public IndexRegistry indexRegistry(MongoTemplate mongoTemplate) {
+    return new IndexRegistry(mongoTemplate)
+      .register(Inventory.class, InventoryDAO.indexes())
+      .register(Product.class, ProductDAOCustomImpl.indexes());
+  }
+
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> indexBuilder(IndexRegistry indexRegistry,
+                                                                 IndexProperties indexProperties,
+                                                                 TaskExecutor applicationTaskExecutor) {
+    return event -> {
+      if (indexProperties.isBuildOnStartup()) {
+        indexRegistry.ensureIndexesAsync(applicationTaskExecutor);
+      }
+    };
+  }
+
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> aggregateBuilder(InventoryAggregateDAO inventoryAggregateDAO,
+                                                                     TaskExecutor applicationTaskExecutor) {
+    return event -> applicationTaskExecutor.execute(() -> {
+      try {
+        if (inventoryAggregateDAO.rebuildIfNeverBuilt()) {
+          log.info("Built the Inventory aggregates from the inventory collection.");
+        }
+      } catch (DataAccessException e) {
+        log.error("Inventory aggregate build failed", e);
+      }
+    });
+  }
+
+  /**
+   * Build a DAO cache from properties.
+   * @param cacheProperties cache properties.
+   * @param versionOf extracts the @Version of an entity.
+   * @param copyOf copies an entity before it is cached.
+   * @param <V> entity type.
+   * @return Cache.
+   */
+  private static <V> VersionedCache<String, V> newCache(CacheProperties cacheProperties, ToLongFunction<V> versionOf,
+                                                        UnaryOperator<V> copyOf) {
+    if (!cacheProperties.isEnabled()) {
+      return VersionedCache.disabled();
+    }
+    return VersionedCache.of(cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), versionOf,
+      copyOf);
   }
 }
@@ -0,0 +1,10 @@
+package com.starter.fullstack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.threads")
+public class ThreadProperties {
+  private boolean virtual = false;
+}
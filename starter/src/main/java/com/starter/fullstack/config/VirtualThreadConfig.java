@@ -0,0 +1,32 @@
+package com.starter.fullstack.config;
+
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Virtual Thread Configuration.
+ * Tomcat hands every request to a new virtual thread, so blocking MongoTemplate calls park the virtual
+ * thread rather than hold a pooled worker. The application task executor, which runs async MVC responses
+ * and background DAO work, spawns virtual threads too.
+ */
+@Configuration
+@EnableConfigurationProperties(ThreadProperties.class)
+@ConditionalOnProperty(prefix = "com.starter.fullstack.threads", name = "virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  @Bean
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+  }
+}
@@ -0,0 +1,84 @@
+package com.starter.fullstack.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wire Format Configuration -- Smile and CBOR, binary encodings of the same Jackson model, next to JSON.
+ * Spring registers both converters after JSON once the data formats are on the classpath, so JSON stays the
+ * answer to Accept: *&#47;* and clients opt in by asking. Spring builds them with a plain ObjectMapper though,
+ * so they are replaced with ones from the application's Jackson builder to write BigDecimal and Instant
+ * exactly like the JSON converter does.
+ */
+@Profile("!reactive")
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+  /**
+   * Default Constructor.
+   * @param objectMapperBuilder prototype builder of the application's ObjectMapper.
+   */
+  public WireFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+    Assert.notNull(objectMapperBuilder, "Jackson2ObjectMapperBuilder must not be null.");
+    this.objectMapperBuilder = objectMapperBuilder;
+  }
+
+  /**
+   * Swap Spring's Smile and CBOR converters for ones configured like the JSON converter, keeping them last.
+   * @param converters converters configured so far.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+      || converter instanceof MappingJackson2CborHttpMessageConverter);
+    converters.add(new MappingJackson2SmileHttpMessageConverter(
+      this.objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+    converters.add(new MappingJackson2CborHttpMessageConverter(
+      this.objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+  }
+
+  /**
+   * Mark every response as varying by Accept.
+   * @param registry interceptor registry.
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new VaryOnAccept());
+  }
+
+  /**
+   * Responses now depend on Accept, so shared caches must key on it.
+   */
+  private static final class VaryOnAccept implements HandlerInterceptor {
+    /**
+     * Add the Vary header before the handler writes the response.
+     * @param request request.
+     * @param response response.
+     * @param handler handler.
+     * @return always true.
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.starter.fullstack.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("com.starter.fullstack.write-behind")
+public class WriteBehindProperties {
+  private boolean enabled = false;
+  private Duration window = Duration.ofMillis(20);
+  private int stripes = 16;
+  private Ack ack = Ack.FLUSHED;
+
+  /**
+   * When an update is acknowledged to the client.
+   */
+  public enum Ack {
+    FLUSHED,
+    QUEUED
+  }
+}
@@ -0,0 +1,122 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+
+/**
+ * Cache Sync -- Keeps the Inventory and Product caches in step with writes made by other instances and outside
+ * the application, by applying the {@link ChangeFeed} to them whenever it runs on change streams. Changed
+ * documents are cached under their version, which cannot replace a newer one, so a read of the old version
+ * finishing after the change cannot put it back. When the feed drops this subscriber both caches are emptied,
+ * since changes may have been missed. In local mode the DAOs already update the caches on every write of this
+ * instance and nothing else writes, so the caches are only correct for a single instance without a change
+ * stream, and entries written elsewhere go stale until their time to live.
+ */
+@Slf4j
+public class CacheSync implements SmartLifecycle {
+  private final VersionedCache<String, Inventory> inventoryCache;
+  private final VersionedCache<String, Product> productCache;
+  private final ChangeFeed changeFeed;
+  private final Executor executor;
+  private ChangeFeed.Subscription subscription;
+  private volatile boolean running;
+
+  /**
+   * Default Constructor.
+   * @param inventoryCache Inventory cache.
+   * @param productCache Product cache.
+   * @param changeFeed feed of Inventory and Product changes.
+   * @param executor executor subscribing again after the feed dropped this subscriber.
+   */
+  public CacheSync(VersionedCache<String, Inventory> inventoryCache, VersionedCache<String, Product> productCache,
+                   ChangeFeed changeFeed, Executor executor) {
+    Assert.notNull(inventoryCache, "Inventory Cache must not be null.");
+    Assert.notNull(productCache, "Product Cache must not be null.");
+    Assert.notNull(changeFeed, "Change Feed must not be null.");
+    Assert.notNull(executor, "Executor must not be null.");
+    this.inventoryCache = inventoryCache;
+    this.productCache = productCache;
+    this.changeFeed = changeFeed;
+    this.executor = executor;
+  }
+
+  @Override
+  public boolean isAutoStartup() {
+    return !this.changeFeed.isLocal();
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!this.running) {
+      this.running = true;
+      this.subscribe();
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    this.running = false;
+    if (this.subscription != null) {
+      this.subscription.close();
+      this.subscription = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Subscribe from now on and empty the caches, since changes before now may have been missed.
+   */
+  private synchronized void subscribe() {
+    if (!this.running) {
+      return;
+    }
+    this.subscription = this.changeFeed.subscribe(null, this::onChange, () -> {
+      log.warn("Cache sync fell behind the change feed, emptying the caches.");
+      this.executor.execute(this::subscribe);
+    });
+    this.inventoryCache.invalidateAll();
+    this.productCache.invalidateAll();
+  }
+
+  /**
+   * Apply a change to the cache of its entity.
+   * @param change change.
+   */
+  private void onChange(EntityChange change) {
+    if (EntityChange.INVENTORY.equals(change.getEntity())) {
+      apply(this.inventoryCache, change, Inventory.class);
+    } else if (EntityChange.PRODUCT.equals(change.getEntity())) {
+      apply(this.productCache, change, Product.class);
+    }
+  }
+
+  /**
+   * Apply a change to a cache: tombstone deletes, cache created and updated documents under their version, and
+   * drop ids whose document the change does not carry.
+   * @param cache cache.
+   * @param change change.
+   * @param entity entity class.
+   * @param <V> entity type.
+   */
+  private static <V> void apply(VersionedCache<String, V> cache, EntityChange change, Class<V> entity) {
+    if (change.getOperation() == ChangeOperation.DELETE) {
+      cache.markDeleted(change.getId());
+    } else if (!entity.isInstance(change.getDocument())) {
+      cache.invalidate(change.getId());
+    } else if (change.getOperation() == ChangeOperation.CREATE) {
+      cache.putCreated(change.getId(), entity.cast(change.getDocument()));
+    } else {
+      cache.put(change.getId(), entity.cast(change.getDocument()));
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Product;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.Assert;
+
+/**
+ * Fans Inventory and Product changes out to subscribers, keeping the most recent ones so a subscriber
+ * can resume after the last token it saw. Changes come either from Mongo change streams through
+ * {@link MongoChangeStreamSource} or, in local mode, from the DAO change events of this process.
+ * Each subscriber is delivered to on the executor from its own bounded backlog, so a slow subscriber
+ * never holds up writers; one that falls a whole buffer behind is closed and has to resume.
+ */
+public class ChangeFeed {
+  private final int bufferSize;
+  private final Executor executor;
+  private final boolean local;
+  private final Deque<EntityChange> recent = new ArrayDeque<>();
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+  private final String epoch = UUID.randomUUID().toString();
+  private long sequence;
+
+  /**
+   * Default Constructor.
+   * @param bufferSize number of recent changes kept for resuming, also the backlog of each subscriber.
+   * @param executor executor delivering changes to subscribers.
+   * @param local whether changes come from this process' DAO events rather than change streams.
+   */
+  public ChangeFeed(int bufferSize, Executor executor, boolean local) {
+    Assert.isTrue(bufferSize > 0, "Change feed buffer size must be positive.");
+    Assert.notNull(executor, "Executor must not be null.");
+    this.bufferSize = bufferSize;
+    this.executor = executor;
+    this.local = local;
+  }
+
+  /**
+   * Whether changes come from this process' DAO events.
+   * @return true in local mode.
+   */
+  public boolean isLocal() {
+    return this.local;
+  }
+
+  /**
+   * Publish a change carrying its resume token to every subscriber.
+   * @param change change.
+   */
+  public synchronized void publish(EntityChange change) {
+    Assert.notNull(change.getToken(), "Change token must not be null.");
+    this.recent.addLast(change);
+    if (this.recent.size() > this.bufferSize) {
+      this.recent.removeFirst();
+    }
+    this.subscriptions.forEach(subscription -> subscription.offer(change));
+  }
+
+  /**
+   * Subscribe to changes, replaying the buffered changes after a token first.
+   * @param after token of the last change seen, null to only receive new changes.
+   * @param subscriber receives changes in order, on the executor.
+   * @param onOverflow called when the subscriber fell too far behind and was closed.
+   * @return Subscription, not resumed when the token is no longer buffered.
+   */
+  public synchronized Subscription subscribe(String after, Consumer<EntityChange> subscriber, Runnable onOverflow) {
+    Subscription subscription = new Subscription(subscriber, onOverflow);
+    if (after != null) {
+      Deque<EntityChange> missed = new ArrayDeque<>();
+      Iterator<EntityChange> newestFirst = this.recent.descendingIterator();
+      while (newestFirst.hasNext()) {
+        EntityChange change = newestFirst.next();
+        if (after.equals(change.getToken())) {
+          subscription.resumed = true;
+          break;
+        }
+        missed.addFirst(change);
+      }
+      if (subscription.resumed) {
+        missed.forEach(subscription::offer);
+      }
+    }
+    this.subscriptions.add(subscription);
+    return subscription;
+  }
+
+  /**
+   * Local mode: publish the Inventory written by this process.
+   * @param event Inventory change event.
+   */
+  @EventListener
+  public synchronized void onInventoryChange(InventoryChangeEvent event) {
+    if (!this.local) {
+      return;
+    }
+    for (InventoryChangeEvent.Change change : event.getChanges()) {
+      if (change.getBefore() == null) {
+        this.publishLocal(EntityChange.INVENTORY, ChangeOperation.CREATE, change.getAfter().getId(), change.getAfter());
+      } else if (change.getAfter() == null) {
+        this.publishLocal(EntityChange.INVENTORY, ChangeOperation.DELETE, change.getBefore().getId(), null);
+      } else {
+        this.publishLocal(EntityChange.INVENTORY, ChangeOperation.UPDATE, change.getAfter().getId(), change.getAfter());
+      }
+    }
+  }
+
+  /**
+   * Local mode: publish the Products written by this process.
+   * @param event Product change event.
+   */
+  @EventListener
+  public synchronized void onProductChange(ProductChangeEvent event) {
+    if (!this.local) {
+      return;
+    }
+    for (Product product : event.getProducts()) {
+      Object document = event.getOperation() == ChangeOperation.DELETE ? null : product;
+      this.publishLocal(EntityChange.PRODUCT, event.getOperation(), product.getId(), document);
+    }
+  }
+
+  /**
+   * Publish a change under the next token of this process.
+   * @param entity entity name.
+   * @param operation operation.
+   * @param id document id.
+   * @param document document, null when deleted.
+   */
+  private void publishLocal(String entity, ChangeOperation operation, String id, Object document) {
+    this.sequence++;
+    this.publish(new EntityChange(this.epoch + ":" + this.sequence, entity, operation, id, document));
+  }
+
+  /**
+   * One subscriber and its backlog of changes not yet delivered.
+   */
+  public final class Subscription {
+    private final Consumer<EntityChange> subscriber;
+    private final Runnable onOverflow;
+    private final BlockingQueue<EntityChange> backlog = new ArrayBlockingQueue<>(ChangeFeed.this.bufferSize);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    private boolean resumed;
+
+    /**
+     * Default Constructor.
+     * @param subscriber receives changes.
+     * @param onOverflow called when the backlog overflows.
+     */
+    private Subscription(Consumer<EntityChange> subscriber, Runnable onOverflow) {
+      this.subscriber = subscriber;
+      this.onOverflow = onOverflow;
+    }
+
+    /**
+     * Whether the changes after the requested token were replayed.
+     * @return false when the token was unknown and the subscriber must reload.
+     */
+    public boolean isResumed() {
+      return this.resumed;
+    }
+
+    /**
+     * Stop receiving changes.
+     */
+    public void close() {
+      this.closed = true;
+      ChangeFeed.this.subscriptions.remove(this);
+      this.backlog.clear();
+    }
+
+    /**
+     * Queue a change and make sure a drain is scheduled.
+     * @param change change.
+     */
+    private void offer(EntityChange change) {
+      if (this.closed) {
+        return;
+      }
+      if (!this.backlog.offer(change)) {
+        this.close();
+        this.onOverflow.run();
+        return;
+      }
+      if (this.draining.compareAndSet(false, true)) {
+        ChangeFeed.this.executor.execute(this::drain);
+      }
+    }
+
+    /**
+     * Deliver the backlog until it is empty. A subscriber that throws is closed.
+     */
+    private void drain() {
+      boolean delivered = false;
+      try {
+        do {
+          EntityChange change = this.backlog.poll();
+          while (change != null && !this.closed) {
+            this.subscriber.accept(change);
+            change = this.backlog.poll();
+          }
+          this.draining.set(false);
+        } while (!this.backlog.isEmpty() && !this.closed && this.draining.compareAndSet(false, true));
+        delivered = true;
+      } finally {
+        if (!delivered) {
+          this.close();
+        }
+      }
+    }
+  }
+}
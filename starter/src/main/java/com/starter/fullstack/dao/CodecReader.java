@@ -0,0 +1,75 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.client.FindIterable;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+/**
+ * Codec Reader -- Runs find queries through a template and decodes the results with a Codec, so documents go
+ * from the wire to the entity without a Document in between. Queries are mapped as the template maps them,
+ * and run on its collection with its read preference.
+ * @param <T> entity type.
+ */
+public class CodecReader<T> {
+  private final MongoTemplate mongoTemplate;
+  private final Class<T> type;
+  private final String collectionName;
+  private final CodecRegistry codecRegistry;
+  private final QueryMapper queryMapper;
+  private final MongoPersistentEntity<?> entity;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate template the queries run through.
+   * @param type entity type.
+   * @param codec codec of the entity.
+   */
+  public CodecReader(MongoTemplate mongoTemplate, Class<T> type, Codec<T> codec) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    Assert.notNull(type, "Type must not be null.");
+    Assert.notNull(codec, "Codec must not be null.");
+    this.mongoTemplate = mongoTemplate;
+    this.type = type;
+    this.collectionName = mongoTemplate.getCollectionName(type);
+    this.codecRegistry = CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codec),
+      mongoTemplate.getDb().getCodecRegistry());
+    this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    this.entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+  }
+
+  /**
+   * Find every entity.
+   * @return Entities.
+   */
+  public List<T> findAll() {
+    return this.find(new Query());
+  }
+
+  /**
+   * Find the entities matching a query, with its projection, sort, skip and limit.
+   * @param query query.
+   * @return Entities.
+   */
+  public List<T> find(Query query) {
+    Document filter = this.queryMapper.getMappedObject(query.getQueryObject(), this.entity);
+    Document fields = this.queryMapper.getMappedFields(query.getFieldsObject(), this.entity);
+    Document sort = this.queryMapper.getMappedSort(query.getSortObject(), this.entity);
+    return this.mongoTemplate.execute(this.collectionName, collection -> {
+      FindIterable<T> find = collection.withCodecRegistry(this.codecRegistry).find(filter, this.type)
+        .projection(fields).sort(sort).skip((int) query.getSkip());
+      if (query.getLimit() > 0) {
+        find.limit(query.getLimit());
+      }
+      return find.into(new ArrayList<>());
+    });
+  }
+}
@@ -0,0 +1,224 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+/**
+ * Collection Version DAO -- One change counter per collection, shared by every instance.
+ * Each DAO write event bumps the counter of its collection once, so reading a counter is enough to tell
+ * whether anything in the collection may have changed, and a client reading after its own write never gets
+ * the old version back.
+ * <p>
+ * Writes that bypass the DAOs (mongoimport, the shell, other applications) are seen only through the change
+ * stream: while {@link MongoChangeStreamSource} runs it records the cluster time of the last change it saw in
+ * each collection, at most once a second, and the version is the counter plus that cluster time. Without a
+ * change stream such writes do not move the version, and collection entity tags stay stale until the next DAO
+ * write.
+ * <p>
+ * {@link #currentWithCount(Class)} also reads the document count of the collection in the same round trip, so
+ * inserts and deletes made outside the application show in the watermark even without a change stream.
+ * <p>
+ * A failed bump never fails the write that triggered it. It is logged and retried before the next read, so a
+ * version is not served again until the bump went through.
+ */
+@Slf4j
+public class CollectionVersionDAO {
+  static final String COLLECTION = "collectionVersions";
+
+  private static final String ID = "_id";
+  private static final String VERSION = "version";
+  private static final String CLUSTER_TIME = "clusterTime";
+  private static final String COUNT = "count";
+
+  private final MongoTemplate mongoTemplate;
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public CollectionVersionDAO(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Current version of the collection of an entity, read from a single small document.
+   * @param entity entity class.
+   * @return Version, 0 before the first write.
+   * @throws DataAccessException when a bump that failed earlier still cannot be made.
+   */
+  public long current(Class<?> entity) {
+    String collection = this.mongoTemplate.getCollectionName(entity);
+    this.retryPending(collection);
+    Document version = this.mongoTemplate.findById(collection, Document.class, COLLECTION);
+    return version == null ? 0 : versionOf(version);
+  }
+
+  /**
+   * Current version of the collection of an entity together with its document count, read in one aggregation
+   * that looks the count up from the version document. Counting scans the collection, so this is meant for
+   * small collections.
+   * @param entity entity class.
+   * @return Watermark, version 0 before the first write.
+   * @throws DataAccessException when a bump that failed earlier still cannot be made.
+   */
+  public Watermark currentWithCount(Class<?> entity) {
+    String collection = this.mongoTemplate.getCollectionName(entity);
+    this.retryPending(collection);
+    AggregationOperation countLookup = context -> new Document("$lookup", new Document("from", collection)
+      .append("pipeline", List.of(new Document("$count", COUNT))).append("as", COUNT));
+    Document version = this.mongoTemplate.aggregate(
+      Aggregation.newAggregation(Aggregation.match(Criteria.where(ID).is(collection)), countLookup),
+      COLLECTION, Document.class).getUniqueMappedResult();
+    if (version == null) {
+      return new Watermark(0, this.mongoTemplate.count(new Query(), collection));
+    }
+    List<Document> counts = version.getList(COUNT, Document.class);
+    return new Watermark(versionOf(version), counts.isEmpty() ? 0 : longValue(counts.get(0), COUNT));
+  }
+
+  /**
+   * Move the version of the collection of an entity.
+   * @param entity entity class.
+   */
+  public void increment(Class<?> entity) {
+    this.increment(this.mongoTemplate.getCollectionName(entity));
+  }
+
+  /**
+   * Record the cluster time of a change seen on the change stream. Cluster times never go back, and every
+   * instance recording the same change writes nothing after the first.
+   * @param collection collection name.
+   * @param clusterTime cluster time of the change.
+   */
+  public void advance(String collection, long clusterTime) {
+    Query query = new Query(Criteria.where(ID).is(collection));
+    this.mongoTemplate.upsert(query, new Update().max(CLUSTER_TIME, clusterTime), COLLECTION);
+  }
+
+  /**
+   * Bump the inventory version after Inventory writes.
+   * @param event Inventory change event.
+   */
+  @EventListener
+  public void onInventoryChange(InventoryChangeEvent event) {
+    this.bump(Inventory.class);
+  }
+
+  /**
+   * Bump the product version after Product writes.
+   * @param event Product change event.
+   */
+  @EventListener
+  public void onProductChange(ProductChangeEvent event) {
+    this.bump(Product.class);
+  }
+
+  /**
+   * Move a collection version.
+   * @param collection collection name.
+   */
+  private void increment(String collection) {
+    Query query = new Query(Criteria.where(ID).is(collection));
+    this.mongoTemplate.upsert(query, new Update().inc(VERSION, 1L), COLLECTION);
+  }
+
+  /**
+   * Make a bump that failed earlier before reading the version.
+   * @param collection collection name.
+   * @throws DataAccessException when the bump still cannot be made.
+   */
+  private void retryPending(String collection) {
+    if (this.pending.remove(collection)) {
+      try {
+        this.increment(collection);
+      } catch (DataAccessException e) {
+        this.pending.add(collection);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Bump after a committed write, leaving the bump to the next read when it fails.
+   * @param entity entity class.
+   */
+  private void bump(Class<?> entity) {
+    String collection = this.mongoTemplate.getCollectionName(entity);
+    try {
+      this.increment(collection);
+    } catch (DataAccessException e) {
+      this.pending.add(collection);
+      log.warn("Could not bump the {} version, retrying on the next read.", collection, e);
+    }
+  }
+
+  /**
+   * Number field of a version document.
+   * @param version version document.
+   * @param field field name.
+   * @return Value, 0 when unset.
+   */
+  private static long longValue(Document version, String field) {
+    Number value = (Number) version.get(field);
+    return value == null ? 0 : value.longValue();
+  }
+
+  /**
+   * Version of a version document, the counter plus the last cluster time seen on the change stream.
+   * @param version version document.
+   * @return Version.
+   */
+  private static long versionOf(Document version) {
+    return longValue(version, VERSION) + longValue(version, CLUSTER_TIME);
+  }
+
+  /**
+   * Collection version and document count read together.
+   */
+  public static final class Watermark {
+    private final long version;
+    private final long count;
+
+    /**
+     * Default Constructor.
+     * @param version collection version.
+     * @param count number of documents in the collection.
+     */
+    public Watermark(long version, long count) {
+      this.version = version;
+      this.count = count;
+    }
+
+    /**
+     * Collection version.
+     * @return Version.
+     */
+    public long getVersion() {
+      return this.version;
+    }
+
+    /**
+     * Number of documents in the collection.
+     * @return Count.
+     */
+    public long getCount() {
+      return this.count;
+    }
+  }
+}
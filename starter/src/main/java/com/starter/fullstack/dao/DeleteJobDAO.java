@@ -0,0 +1,41 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.DeleteJob;
+import java.util.Optional;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Delete Job DAO -- Progress of asynchronous deletes, keyed by job id.
+ */
+public class DeleteJobDAO {
+  static final String COLLECTION = "deleteJobs";
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public DeleteJobDAO(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Find a Delete Job.
+   * @param id job id.
+   * @return Job, empty when no such job was started.
+   */
+  public Optional<DeleteJob> find(String id) {
+    return Optional.ofNullable(this.mongoTemplate.findById(id, DeleteJob.class, COLLECTION));
+  }
+
+  /**
+   * Save a Delete Job.
+   * @param job job.
+   */
+  public void save(DeleteJob job) {
+    this.mongoTemplate.save(job, COLLECTION);
+  }
+}
@@ -0,0 +1,54 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.util.ArrayList;
+
+/**
+ * Entity Copies -- Copies of Inventory and Product that share no mutable state with the original, for entities
+ * handed to caches and to more than one caller.
+ */
+public final class EntityCopies {
+
+  /**
+   * Utility Class.
+   */
+  private EntityCopies() {
+  }
+
+  /**
+   * Copy of an Inventory, with its own list of stores.
+   * @param inventory Inventory.
+   * @return Copy.
+   */
+  public static Inventory copyOf(Inventory inventory) {
+    Inventory copy = new Inventory();
+    copy.setId(inventory.getId());
+    copy.setVersion(inventory.getVersion());
+    copy.setName(inventory.getName());
+    copy.setProductType(inventory.getProductType());
+    copy.setDescription(inventory.getDescription());
+    copy.setAveragePrice(inventory.getAveragePrice());
+    copy.setAmount(inventory.getAmount());
+    copy.setUnitOfMeasurement(inventory.getUnitOfMeasurement());
+    copy.setBestBeforeDate(inventory.getBestBeforeDate());
+    copy.setNeverExpires(inventory.isNeverExpires());
+    copy.setExpired(inventory.isExpired());
+    copy.setAvailableStores(inventory.getAvailableStores() == null ? null
+      : new ArrayList<>(inventory.getAvailableStores()));
+    return copy;
+  }
+
+  /**
+   * Copy of a Product.
+   * @param product Product.
+   * @return Copy.
+   */
+  public static Product copyOf(Product product) {
+    Product copy = new Product();
+    copy.setId(product.getId());
+    copy.setVersion(product.getVersion());
+    copy.setName(product.getName());
+    return copy;
+  }
+}
@@ -0,0 +1,41 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ImportReport;
+import java.util.Optional;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Import Report DAO -- Progress of imports, keyed by import id.
+ */
+public class ImportReportDAO {
+  static final String COLLECTION = "imports";
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public ImportReportDAO(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Find the Report of an import.
+   * @param id import id.
+   * @return Report, empty when the import never committed a batch.
+   */
+  public Optional<ImportReport> find(String id) {
+    return Optional.ofNullable(this.mongoTemplate.findById(id, ImportReport.class, COLLECTION));
+  }
+
+  /**
+   * Save the Report of an import.
+   * @param report report.
+   */
+  public void save(ImportReport report) {
+    this.mongoTemplate.save(report, COLLECTION);
+  }
+}
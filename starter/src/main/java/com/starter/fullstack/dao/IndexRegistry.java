@@ -0,0 +1,152 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.IndexDrift;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.util.Assert;
+
+/**
+ * Declared indexes of every collection, built off the request path and checked for drift.
+ * Indexes keep the default name Mongo gives their keys, such as name_1, wherever one already exists under it,
+ * since Mongo refuses the same keys under a second name.
+ */
+@Slf4j
+public class IndexRegistry {
+  private static final String NAME = "name";
+  private static final String ID_INDEX = "_id_";
+  private static final String PARTIAL_FILTER = "partialFilterExpression";
+  private static final String UNIQUE = "unique";
+  private static final String SPARSE = "sparse";
+
+  private final MongoTemplate mongoTemplate;
+  private final Map<Class<?>, List<Index>> indexes = new LinkedHashMap<>();
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public IndexRegistry(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Declare the indexes of an entity's collection.
+   * @param entityClass entity class.
+   * @param definitions named index definitions.
+   * @return this registry.
+   */
+  public IndexRegistry register(Class<?> entityClass, List<Index> definitions) {
+    definitions.forEach(definition -> Assert.hasText((String) definition.getIndexOptions().get(NAME),
+      "Registered indexes must be named."));
+    this.indexes.computeIfAbsent(entityClass, key -> new ArrayList<>()).addAll(definitions);
+    return this;
+  }
+
+  /**
+   * Create every declared index that does not exist yet, each on its own so one failing, such as an index whose
+   * keys already exist under another name, does not keep the others from being built. Then log any drift.
+   * @return Failures, one per index not built, as collection.index: reason.
+   */
+  public List<String> ensureIndexes() {
+    List<String> failures = new ArrayList<>();
+    this.indexes.forEach((entityClass, definitions) -> {
+      IndexOperations indexOps = this.mongoTemplate.indexOps(entityClass);
+      for (Index definition : definitions) {
+        try {
+          indexOps.ensureIndex(definition);
+        } catch (DataAccessException e) {
+          String failure = this.mongoTemplate.getCollectionName(entityClass) + '.'
+            + definition.getIndexOptions().get(NAME) + ": " + e.getMessage();
+          log.error("Index build failed, {}", failure);
+          failures.add(failure);
+        }
+      }
+    });
+    this.drift().stream()
+      .filter(drift -> !drift.isInSync())
+      .forEach(drift -> log.warn("Index drift on {}: missing {}, unexpected {}, changed {}", drift.getCollection(),
+        drift.getMissing(), drift.getUnexpected(), drift.getChanged()));
+    return failures;
+  }
+
+  /**
+   * Create every declared index off the calling thread. Index builds run in the background on the server too.
+   * @param executor executor.
+   */
+  public void ensureIndexesAsync(Executor executor) {
+    executor.execute(() -> {
+      try {
+        this.ensureIndexes();
+      } catch (DataAccessException e) {
+        log.error("Index drift check failed", e);
+      }
+    });
+  }
+
+  /**
+   * Compare the declared indexes against the indexes each collection has.
+   * @return Drift per collection.
+   */
+  public List<IndexDrift> drift() {
+    List<IndexDrift> drift = new ArrayList<>(this.indexes.size());
+    this.indexes.forEach((entityClass, definitions) -> {
+      Map<String, IndexInfo> actual = this.mongoTemplate.indexOps(entityClass).getIndexInfo().stream()
+        .filter(info -> !ID_INDEX.equals(info.getName()))
+        .collect(Collectors.toMap(IndexInfo::getName, Function.identity()));
+      List<String> missing = new ArrayList<>();
+      List<String> changed = new ArrayList<>();
+      for (Index definition : definitions) {
+        String name = (String) definition.getIndexOptions().get(NAME);
+        IndexInfo info = actual.remove(name);
+        if (info == null) {
+          missing.add(name);
+        } else if (!keysOf(info).equals(new ArrayList<>(definition.getIndexKeys().keySet()))
+          || !sameOptions(info, definition.getIndexOptions())) {
+          changed.add(name);
+        }
+      }
+      drift.add(new IndexDrift(this.mongoTemplate.getCollectionName(entityClass), missing,
+        new ArrayList<>(actual.keySet()), changed));
+    });
+    return drift;
+  }
+
+  /**
+   * Whether an existing index has the partial filter, uniqueness and sparseness declared.
+   * @param info index info.
+   * @param options declared index options.
+   * @return true when the options match.
+   */
+  private static boolean sameOptions(IndexInfo info, Document options) {
+    Object declaredFilter = options.get(PARTIAL_FILTER);
+    Document actualFilter = info.getPartialFilterExpression() == null ? null
+      : Document.parse(info.getPartialFilterExpression());
+    return Objects.equals(declaredFilter, actualFilter)
+      && info.isUnique() == Boolean.TRUE.equals(options.get(UNIQUE))
+      && info.isSparse() == Boolean.TRUE.equals(options.get(SPARSE));
+  }
+
+  /**
+   * Key field names of an existing index, in index order.
+   * @param info index info.
+   * @return Keys.
+   */
+  private static List<String> keysOf(IndexInfo info) {
+    return info.getIndexFields().stream().map(IndexField::getKey).collect(Collectors.toList());
+  }
+}
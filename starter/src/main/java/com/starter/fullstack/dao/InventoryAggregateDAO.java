@@ -0,0 +1,358 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Aggregate DAO -- Materialized totals per product type and per store.
+ * Every Inventory write is applied as an exact BigDecimal delta through $inc on Decimal128 fields,
+ * so reading the totals never touches the inventory collection. An Inventory counts towards each
+ * of its available stores.
+ * <p>
+ * Since the totals are written after the Inventory, a delta that fails never fails the write: it is logged and
+ * the totals are marked stale, and the next read rebuilds them first with {@link #rebuild()}, which recomputes
+ * them from the inventory collection. Totals that were never rebuilt, such as those of a deployment that held
+ * Inventory before the totals existed, are rebuilt once by {@link #rebuildIfNeverBuilt()} at startup.
+ * <p>
+ * Writers never wait for a rebuild: deltas applied on this instance while it rebuilds are applied to the live
+ * totals as usual and again to the rebuilt ones once they are in place. Deltas applied by other instances
+ * during a rebuild may be lost or counted twice, so rebuild when Inventory writes are quiet.
+ */
+@Slf4j
+public class InventoryAggregateDAO {
+  static final String COLLECTION = "inventoryAggregates";
+
+  private static final String ID = "_id";
+  private static final String DIMENSION = "dimension";
+  private static final String KEY = "key";
+  private static final String COUNT = "count";
+  private static final String AMOUNT = "amount";
+  private static final String VALUE = "value";
+  private static final String KEY_SEPARATOR = ":";
+  private static final String REBUILT = "rebuilt";
+  private static final String REBUILT_AT = "rebuiltAt";
+  static final String REBUILD_PREFIX = COLLECTION + "_rebuild_";
+
+  private final MongoTemplate mongoTemplate;
+  private final Object rebuildLock = new Object();
+  private final AtomicBoolean stale = new AtomicBoolean();
+  private final AtomicReference<Queue<Map<String, Delta>>> rebuilding = new AtomicReference<>();
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public InventoryAggregateDAO(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Find the Aggregates of one Dimension, skipping keys no Inventory counts towards anymore. Totals marked stale
+   * by a failed delta are rebuilt first.
+   * @param dimension dimension.
+   * @return Aggregates ordered by key.
+   */
+  public List<InventoryAggregate> find(AggregateDimension dimension) {
+    if (this.stale.get()) {
+      synchronized (this.rebuildLock) {
+        if (this.stale.get()) {
+          this.rebuild();
+        }
+      }
+    }
+    Query query = new Query(Criteria.where(DIMENSION).is(dimension).and(COUNT).gt(0))
+      .with(Sort.by(KEY));
+    return this.mongoTemplate.find(query, InventoryAggregate.class, COLLECTION);
+  }
+
+  /**
+   * Apply the deltas of written Inventory in one unordered bulk write. A failure is logged and marks the totals
+   * stale rather than failing the write, which is already stored.
+   * @param event Inventory change event.
+   */
+  @EventListener
+  public void onChange(InventoryChangeEvent event) {
+    Map<String, Delta> deltas = new LinkedHashMap<>();
+    for (InventoryChangeEvent.Change change : event.getChanges()) {
+      accumulate(deltas, change.getBefore(), -1);
+      accumulate(deltas, change.getAfter(), 1);
+    }
+    deltas.values().removeIf(Delta::isZero);
+    if (deltas.isEmpty()) {
+      return;
+    }
+    Queue<Map<String, Delta>> replayed = this.rebuilding.get();
+    if (replayed != null) {
+      replayed.add(deltas);
+    }
+    this.apply(deltas);
+  }
+
+  /**
+   * Whether a delta failed since the last rebuild.
+   * @return true when the totals are rebuilt before the next read.
+   */
+  public boolean isStale() {
+    return this.stale.get();
+  }
+
+  /**
+   * Rebuild the totals when no rebuild ever completed, for deployments that held Inventory before the totals
+   * were kept.
+   * @return true when rebuilt.
+   */
+  public boolean rebuildIfNeverBuilt() {
+    synchronized (this.rebuildLock) {
+      if (this.mongoTemplate.exists(new Query(Criteria.where(ID).is(REBUILT)), COLLECTION)) {
+        return false;
+      }
+      this.rebuild();
+      return true;
+    }
+  }
+
+  /**
+   * Recompute every Aggregate from the inventory collection with the aggregation pipeline into a scratch
+   * collection, then rename it over the materialized totals, so readers see the old totals or the new ones and
+   * never an empty or partial collection. Deltas of Inventory writes on this instance keep going to the live
+   * totals during the rebuild and are applied again to the new totals after the rename. A write stored just
+   * before the rebuild whose delta has not been applied yet is counted twice, so reconcile when Inventory writes
+   * are quiet.
+   * @return Rebuilt Aggregates.
+   */
+  public List<InventoryAggregate> rebuild() {
+    synchronized (this.rebuildLock) {
+      Queue<Map<String, Delta>> replayed = new ConcurrentLinkedQueue<>();
+      this.rebuilding.set(replayed);
+      boolean wasStale = this.stale.getAndSet(false);
+      String scratch = REBUILD_PREFIX + ObjectId.get().toHexString();
+      boolean renamed = false;
+      List<Document> rows = new ArrayList<>();
+      try {
+        rows.addAll(this.aggregate(AggregateDimension.PRODUCT_TYPE, "productType", false));
+        rows.addAll(this.aggregate(AggregateDimension.STORE, "availableStores", true));
+        MongoCollection<Document> rebuilt = this.mongoTemplate.createCollection(scratch);
+        List<Document> inserted = new ArrayList<>(rows);
+        inserted.add(new Document(ID, REBUILT).append(REBUILT_AT, new Date()));
+        this.mongoTemplate.insert(inserted, scratch);
+        rebuilt.renameCollection(new MongoNamespace(this.mongoTemplate.getDb().getName(), COLLECTION),
+          new RenameCollectionOptions().dropTarget(true));
+        renamed = true;
+      } finally {
+        this.rebuilding.set(null);
+        if (!renamed) {
+          if (wasStale) {
+            this.stale.set(true);
+          }
+          this.mongoTemplate.dropCollection(scratch);
+        }
+      }
+      replayed.forEach(this::apply);
+      List<InventoryAggregate> aggregates = new ArrayList<>(rows.size());
+      for (Document row : rows) {
+        aggregates.add(new InventoryAggregate(AggregateDimension.valueOf(row.getString(DIMENSION)),
+          row.getString(KEY), row.getLong(COUNT), row.get(AMOUNT, Decimal128.class).bigDecimalValue(),
+          row.get(VALUE, Decimal128.class).bigDecimalValue()));
+      }
+      return aggregates;
+    }
+  }
+
+  /**
+   * Apply deltas in one unordered bulk write, marking the totals stale when it fails.
+   * @param deltas non zero deltas keyed by aggregate id.
+   */
+  private void apply(Map<String, Delta> deltas) {
+    BulkOperations bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+    for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+      Delta delta = entry.getValue();
+      Update update = new Update()
+        .setOnInsert(DIMENSION, delta.dimension.name())
+        .setOnInsert(KEY, delta.key)
+        .inc(COUNT, delta.count)
+        .inc(AMOUNT, new Decimal128(delta.amount))
+        .inc(VALUE, new Decimal128(delta.value));
+      bulk.upsert(new Query(Criteria.where(ID).is(entry.getKey())), update);
+    }
+    try {
+      bulk.execute();
+    } catch (DataAccessException e) {
+      this.stale.set(true);
+      log.warn("Could not apply Inventory aggregate deltas, the totals are rebuilt before the next read.", e);
+    }
+  }
+
+  /**
+   * Group the inventory collection by one field. Amounts and prices are converted to Decimal128 before being
+   * summed, since documents not migrated yet store them as strings.
+   * @param dimension dimension.
+   * @param field field grouped by.
+   * @param unwind whether the field is an array counting towards each element.
+   * @return Aggregate documents ready to be inserted.
+   */
+  private List<Document> aggregate(AggregateDimension dimension, String field, boolean unwind) {
+    String path = "$" + field;
+    List<AggregationOperation> stages = new ArrayList<>();
+    if (unwind) {
+      stages.add(Aggregation.unwind(field));
+    }
+    stages.add(Aggregation.match(Criteria.where(field).ne(null)));
+    stages.add(context -> new Document("$group", new Document(ID, path)
+      .append(COUNT, new Document("$sum", 1L))
+      .append(AMOUNT, new Document("$sum", toDecimal("$amount")))
+      .append(VALUE, new Document("$sum",
+        new Document("$multiply", List.of(toDecimal("$averagePrice"), toDecimal("$amount")))))));
+    AggregationResults<Document> groups = this.mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+      this.mongoTemplate.getCollectionName(Inventory.class), Document.class);
+    List<Document> rows = new ArrayList<>();
+    for (Document group : groups) {
+      String key = group.getString(ID);
+      rows.add(new Document(ID, id(dimension, key))
+        .append(DIMENSION, dimension.name())
+        .append(KEY, key)
+        .append(COUNT, ((Number) group.get(COUNT)).longValue())
+        .append(AMOUNT, group.get(AMOUNT, Decimal128.class))
+        .append(VALUE, group.get(VALUE, Decimal128.class)));
+    }
+    return rows;
+  }
+
+  /**
+   * Expression converting a possibly missing field to Decimal128, defaulting to zero.
+   * @param path field path.
+   * @return Expression.
+   */
+  private static Document toDecimal(String path) {
+    return new Document("$toDecimal", new Document("$ifNull", List.of(path, 0)));
+  }
+
+  /**
+   * Add the contribution of one Inventory to the deltas.
+   * @param deltas deltas keyed by aggregate id.
+   * @param inventory Inventory, null when there is nothing to add.
+   * @param sign 1 to add the Inventory, -1 to remove it.
+   */
+  private static void accumulate(Map<String, Delta> deltas, Inventory inventory, int sign) {
+    if (inventory == null) {
+      return;
+    }
+    BigDecimal amount = orZero(inventory.getAmount());
+    BigDecimal value = orZero(inventory.getAveragePrice()).multiply(amount);
+    if (sign < 0) {
+      amount = amount.negate();
+      value = value.negate();
+    }
+    if (inventory.getProductType() != null) {
+      delta(deltas, AggregateDimension.PRODUCT_TYPE, inventory.getProductType()).add(sign, amount, value);
+    }
+    if (inventory.getAvailableStores() != null) {
+      for (String store : inventory.getAvailableStores()) {
+        if (store != null) {
+          delta(deltas, AggregateDimension.STORE, store).add(sign, amount, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Delta of one aggregate, created on first use.
+   * @param deltas deltas keyed by aggregate id.
+   * @param dimension dimension.
+   * @param key key.
+   * @return Delta.
+   */
+  private static Delta delta(Map<String, Delta> deltas, AggregateDimension dimension, String key) {
+    return deltas.computeIfAbsent(id(dimension, key), id -> new Delta(dimension, key));
+  }
+
+  /**
+   * Aggregate document id.
+   * @param dimension dimension.
+   * @param key key.
+   * @return Id.
+   */
+  private static String id(AggregateDimension dimension, String key) {
+    return dimension.name() + KEY_SEPARATOR + key;
+  }
+
+  /**
+   * Null safe BigDecimal.
+   * @param decimal decimal, may be null.
+   * @return decimal or zero.
+   */
+  private static BigDecimal orZero(BigDecimal decimal) {
+    return decimal == null ? BigDecimal.ZERO : decimal;
+  }
+
+  /**
+   * Pending change to one aggregate.
+   */
+  private static final class Delta {
+    private final AggregateDimension dimension;
+    private final String key;
+    private long count;
+    private BigDecimal amount = BigDecimal.ZERO;
+    private BigDecimal value = BigDecimal.ZERO;
+
+    /**
+     * Default Constructor.
+     * @param dimension dimension.
+     * @param key key.
+     */
+    private Delta(AggregateDimension dimension, String key) {
+      this.dimension = dimension;
+      this.key = key;
+    }
+
+    /**
+     * Add to the delta.
+     * @param count count change.
+     * @param amount amount change.
+     * @param value value change.
+     */
+    private void add(long count, BigDecimal amount, BigDecimal value) {
+      this.count += count;
+      this.amount = this.amount.add(amount);
+      this.value = this.value.add(value);
+    }
+
+    /**
+     * Whether applying the delta would change nothing.
+     * @return true when nothing changes.
+     */
+    private boolean isZero() {
+      return this.count == 0 && this.amount.signum() == 0 && this.value.signum() == 0;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import java.util.List;
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+/**
+ * Published by the {@link InventoryDAO} after Inventory are written, one event per DAO call.
+ * Listeners run on the writing thread, after the write and must not mutate the Inventory.
+ */
+@Getter
+public class InventoryChangeEvent {
+  private final List<Change> changes;
+
+  /**
+   * Default Constructor.
+   * @param changes changes in the order they were written.
+   */
+  public InventoryChangeEvent(List<Change> changes) {
+    Assert.notNull(changes, "Changes must not be null.");
+    this.changes = List.copyOf(changes);
+  }
+
+  /**
+   * One Inventory as it was before and after a write.
+   */
+  @Getter
+  public static class Change {
+    private final Inventory before;
+    private final Inventory after;
+
+    /**
+     * Default Constructor.
+     * @param before Inventory before the write, null when created.
+     * @param after Inventory after the write, null when deleted.
+     */
+    public Change(Inventory before, Inventory after) {
+      Assert.isTrue(before != null || after != null, "Change must have a before or an after.");
+      this.before = before;
+      this.after = after;
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.UnitOfMeasurement;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+/**
+ * Inventory Codec -- Reads and writes Inventory straight off the BSON stream in the layout MappingMongoConverter
+ * uses, without building a Document or reflecting over the mapping metadata. Amounts and average prices written
+ * as strings before the Decimal128 migration are read too.
+ */
+public class InventoryCodec implements Codec<Inventory> {
+  private static final String ID = "_id";
+  private static final String CLASS = "_class";
+  private static final String VERSION = "version";
+  private static final String NAME = "name";
+  private static final String PRODUCT_TYPE = "productType";
+  private static final String DESCRIPTION = "description";
+  private static final String AVERAGE_PRICE = "averagePrice";
+  private static final String AMOUNT = "amount";
+  private static final String UNIT_OF_MEASUREMENT = "unitOfMeasurement";
+  private static final String BEST_BEFORE_DATE = "bestBeforeDate";
+  private static final String NEVER_EXPIRES = "neverExpires";
+  private static final String EXPIRED = "expired";
+  private static final String AVAILABLE_STORES = "availableStores";
+
+  @Override
+  public Inventory decode(BsonReader reader, DecoderContext decoderContext) {
+    Inventory inventory = new Inventory();
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (reader.getCurrentBsonType() == BsonType.NULL) {
+        reader.readNull();
+        continue;
+      }
+      switch (name) {
+        case ID:
+          inventory.setId(readId(reader));
+          break;
+        case VERSION:
+          inventory.setVersion(readLong(reader));
+          break;
+        case NAME:
+          inventory.setName(reader.readString());
+          break;
+        case PRODUCT_TYPE:
+          inventory.setProductType(reader.readString());
+          break;
+        case DESCRIPTION:
+          inventory.setDescription(reader.readString());
+          break;
+        case AVERAGE_PRICE:
+          inventory.setAveragePrice(readDecimal(reader));
+          break;
+        case AMOUNT:
+          inventory.setAmount(readDecimal(reader));
+          break;
+        case UNIT_OF_MEASUREMENT:
+          inventory.setUnitOfMeasurement(UnitOfMeasurement.valueOf(reader.readString()));
+          break;
+        case BEST_BEFORE_DATE:
+          inventory.setBestBeforeDate(Instant.ofEpochMilli(reader.readDateTime()));
+          break;
+        case NEVER_EXPIRES:
+          inventory.setNeverExpires(reader.readBoolean());
+          break;
+        case EXPIRED:
+          inventory.setExpired(reader.readBoolean());
+          break;
+        case AVAILABLE_STORES:
+          inventory.setAvailableStores(readStrings(reader));
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+    return inventory;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Inventory inventory, EncoderContext encoderContext) {
+    writer.writeStartDocument();
+    if (inventory.getId() != null) {
+      writeId(writer, inventory.getId());
+    }
+    writer.writeInt64(VERSION, inventory.getVersion());
+    writeString(writer, NAME, inventory.getName());
+    writeString(writer, PRODUCT_TYPE, inventory.getProductType());
+    writeString(writer, DESCRIPTION, inventory.getDescription());
+    writeDecimal(writer, AVERAGE_PRICE, inventory.getAveragePrice());
+    writeDecimal(writer, AMOUNT, inventory.getAmount());
+    if (inventory.getUnitOfMeasurement() != null) {
+      writer.writeString(UNIT_OF_MEASUREMENT, inventory.getUnitOfMeasurement().name());
+    }
+    if (inventory.getBestBeforeDate() != null) {
+      writer.writeDateTime(BEST_BEFORE_DATE, inventory.getBestBeforeDate().toEpochMilli());
+    }
+    writer.writeBoolean(NEVER_EXPIRES, inventory.isNeverExpires());
+    writer.writeBoolean(EXPIRED, inventory.isExpired());
+    if (inventory.getAvailableStores() != null) {
+      writer.writeStartArray(AVAILABLE_STORES);
+      inventory.getAvailableStores().forEach(writer::writeString);
+      writer.writeEndArray();
+    }
+    writer.writeString(CLASS, Inventory.class.getName());
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<Inventory> getEncoderClass() {
+    return Inventory.class;
+  }
+
+  /**
+   * Read an id, stored as an ObjectId when it is one and as a string otherwise.
+   * @param reader reader positioned on the value.
+   * @return Id.
+   */
+  static String readId(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+      return reader.readObjectId().toHexString();
+    }
+    return reader.readString();
+  }
+
+  /**
+   * Write an id the way MappingMongoConverter does, as an ObjectId when it is a valid one.
+   * @param writer writer.
+   * @param id id.
+   */
+  static void writeId(BsonWriter writer, String id) {
+    if (ObjectId.isValid(id)) {
+      writer.writeObjectId(ID, new ObjectId(id));
+    } else {
+      writer.writeString(ID, id);
+    }
+  }
+
+  /**
+   * Read a whole number of any BSON number type.
+   * @param reader reader positioned on the value.
+   * @return Number.
+   */
+  static long readLong(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case INT32:
+        return reader.readInt32();
+      case DOUBLE:
+        return (long) reader.readDouble();
+      default:
+        return reader.readInt64();
+    }
+  }
+
+  /**
+   * Write a string, left out when null as MappingMongoConverter does.
+   * @param writer writer.
+   * @param name field name.
+   * @param value value.
+   */
+  static void writeString(BsonWriter writer, String name, String value) {
+    if (value != null) {
+      writer.writeString(name, value);
+    }
+  }
+
+  /**
+   * Read a decimal stored as Decimal128, or as a string or number by older writes.
+   * @param reader reader positioned on the value.
+   * @return Decimal.
+   */
+  private static BigDecimal readDecimal(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case STRING:
+        return new BigDecimal(reader.readString());
+      case DOUBLE:
+        return BigDecimal.valueOf(reader.readDouble());
+      case INT32:
+        return BigDecimal.valueOf(reader.readInt32());
+      case INT64:
+        return BigDecimal.valueOf(reader.readInt64());
+      default:
+        return reader.readDecimal128().bigDecimalValue();
+    }
+  }
+
+  /**
+   * Write a decimal as Decimal128, left out when null.
+   * @param writer writer.
+   * @param name field name.
+   * @param value value.
+   */
+  private static void writeDecimal(BsonWriter writer, String name, BigDecimal value) {
+    if (value != null) {
+      writer.writeDecimal128(name, new Decimal128(value));
+    }
+  }
+
+  /**
+   * Read an array of strings.
+   * @param reader reader positioned on the array.
+   * @return Strings.
+   */
+  private static List<String> readStrings(BsonReader reader) {
+    List<String> strings = new ArrayList<>();
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      strings.add(reader.readString());
+    }
+    reader.readEndArray();
+    return strings;
+  }
+}
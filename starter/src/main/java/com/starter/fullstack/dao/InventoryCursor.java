@@ -0,0 +1,60 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+/**
+ * Opaque keyset cursor over Inventory ordered by name then id.
+ */
+@Getter
+final class InventoryCursor {
+  private static final char SEPARATOR = '\n';
+  private static final char NAME_PRESENT = '+';
+
+  private final String id;
+  private final String name;
+
+  /**
+   * Default Constructor.
+   * @param id id of the last Inventory on the page.
+   * @param name name of the last Inventory on the page, may be null.
+   */
+  private InventoryCursor(String id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  /**
+   * Build the Cursor positioned after an Inventory.
+   * @param inventory last Inventory returned.
+   * @return Encoded Cursor.
+   */
+  static String after(Inventory inventory) {
+    StringBuilder token = new StringBuilder(inventory.getId()).append(SEPARATOR);
+    if (inventory.getName() != null) {
+      token.append(NAME_PRESENT).append(inventory.getName());
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a Cursor previously produced by {@link #after(Inventory)}.
+   * @param token encoded Cursor.
+   * @return Decoded Cursor.
+   */
+  static InventoryCursor decode(String token) {
+    String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Inventory cursor is malformed.", e);
+    }
+    int separator = decoded.indexOf(SEPARATOR);
+    Assert.isTrue(separator > 0, "Inventory cursor is malformed.");
+    String name = separator + 1 < decoded.length() ? decoded.substring(separator + 2) : null;
+    return new InventoryCursor(decoded.substring(0, separator), name);
+  }
+}
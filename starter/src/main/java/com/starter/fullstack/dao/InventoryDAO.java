@@ -1,52 +1,324 @@
 package com.starter.fullstack.dao;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
 import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import com.starter.fullstack.api.StockAdjustment;
+import io.micrometer.core.annotation.Timed;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import javax.annotation.PostConstruct;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TypeMismatchDataAccessException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
 import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.util.Assert;
 
 /**
  * Inventory DAO
  */
-public class InventoryDAO {
+@Slf4j
+public class InventoryDAO implements ApplicationEventPublisherAware {
+  static final String TIMER = "inventory.dao";
+
   private final MongoTemplate mongoTemplate;
+  private final VersionedCache<String, Inventory> inventoryCache;
+  private MongoTemplate listTemplate;
+  private boolean listReadFromSecondaries;
+  private Codec<Inventory> listCodec;
+  private CodecReader<Inventory> listReader;
+  private MongoTemplate bulkTemplate;
+  private QueryPlanVerifier queryPlanVerifier;
+  private ApplicationEventPublisher eventPublisher;
   private static final String NAME = "name";
   private static final String PRODUCT_TYPE = "productType";
 
   private static final String ID = "id";
+  private static final String VERSION = "version";
+  private static final String AVAILABLE_STORES = "availableStores";
+  private static final String BEST_BEFORE_DATE = "bestBeforeDate";
+  private static final String NEVER_EXPIRES = "neverExpires";
+  private static final String EXPIRED = "expired";
+  private static final String AMOUNT = "amount";
+  private static final String AVERAGE_PRICE = "averagePrice";
+  private static final int AVERAGE_PRICE_SCALE = 4;
+  /** Id of the bulk update that last replaced a document, telling its own replacements from concurrent ones. */
+  private static final String MONGO_ID = "_id";
+  private static final int MAX_DELETE_ATTEMPTS = 3;
 
   /**
    * Default Constructor.
    * @param mongoTemplate MongoTemplate.
    */
   public InventoryDAO(MongoTemplate mongoTemplate) {
+    this(mongoTemplate, VersionedCache.disabled());
+  }
+
+  /**
+   * Constructor serving retrieve through a cache.
+   * @param mongoTemplate MongoTemplate.
+   * @param inventoryCache Inventory cache keyed by id.
+   */
+  public InventoryDAO(MongoTemplate mongoTemplate, VersionedCache<String, Inventory> inventoryCache) {
     Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    Assert.notNull(inventoryCache, "Inventory cache must not be null.");
     this.mongoTemplate = mongoTemplate;
+    this.inventoryCache = inventoryCache;
+    this.listTemplate = mongoTemplate;
+    this.bulkTemplate = mongoTemplate;
+  }
+
+  /**
+   * Indexes backing the Inventory queries, registered with the {@link IndexRegistry}.
+   * @return Named index definitions.
+   */
+  public static List<Index> indexes() {
+    return List.of(
+      new Index(NAME, Sort.Direction.ASC).named("name_1").background(),
+      new CompoundIndexDefinition(new Document(PRODUCT_TYPE, 1).append(NAME, 1))
+        .named("productType_name").background(),
+      new CompoundIndexDefinition(new Document(AVAILABLE_STORES, 1).append(BEST_BEFORE_DATE, 1))
+        .named("availableStores_bestBeforeDate").background(),
+      new Index(BEST_BEFORE_DATE, Sort.Direction.ASC).named("bestBeforeDate_expiring")
+        .partial(PartialIndexFilter.of(Criteria.where(NEVER_EXPIRES).is(false))).background(),
+      new CompoundIndexDefinition(new Document(EXPIRED, 1).append(BEST_BEFORE_DATE, 1))
+        .named("expired_bestBeforeDate")
+        .partial(PartialIndexFilter.of(Criteria.where(NEVER_EXPIRES).is(false))).background());
   }
 
   /**
-   * Constructor to build indexes for rate blackout object
+   * Build the Inventory indexes synchronously.
    */
-  @PostConstruct
   public void setupIndexes() {
     IndexOperations indexOps = this.mongoTemplate.indexOps(Inventory.class);
-    indexOps.ensureIndex(new Index(NAME, Sort.Direction.ASC));
-    indexOps.ensureIndex(new Index(PRODUCT_TYPE, Sort.Direction.ASC));
+    indexes().forEach(indexOps::ensureIndex);
+  }
+
+  /**
+   * Convert amounts and average prices written as strings, before they were stored as Decimal128, in place.
+   * Versions are left alone since the values do not change; documents already converted are not matched.
+   * Scans the whole collection, so it only runs when an operator asks for it, once every instance writes
+   * Decimal128.
+   * @return Number of fields converted.
+   */
+  public long migrateDecimals() {
+    String collection = this.mongoTemplate.getCollectionName(Inventory.class);
+    long converted = 0;
+    for (String field : List.of(AMOUNT, AVERAGE_PRICE)) {
+      Query legacy = new Query(Criteria.where(field).type(JsonSchemaObject.Type.stringType()));
+      AggregationUpdate toDecimal = AggregationUpdate.update()
+        .set(field).toValue(ConvertOperators.valueOf(field).convertToDecimal());
+      converted += this.mongoTemplate.updateMulti(legacy, toDecimal, collection).getModifiedCount();
+    }
+    return converted;
+  }
+
+  /**
+   * Diagnostic mode: explain every query before running it and fail queries that scan the collection.
+   * @param queryPlanVerifier verifier, null to switch verification off.
+   */
+  public void setQueryPlanVerifier(QueryPlanVerifier queryPlanVerifier) {
+    this.queryPlanVerifier = queryPlanVerifier;
+  }
+
+  /**
+   * Run the list reads, finds, pages and streams, through another template, such as one reading from secondaries.
+   * Single Inventory reads and the reads checking versions before a write stay on the main template.
+   * @param listTemplate template of list reads.
+   */
+  public void setListTemplate(MongoTemplate listTemplate) {
+    Assert.notNull(listTemplate, "List MongoTemplate must not be null.");
+    this.listTemplate = listTemplate;
+    this.setListCodec(this.listCodec);
+  }
+
+  /**
+   * Whether list reads may be answered by a member other than the primary, and so be older than anything read from
+   * the primary, such as the collection version.
+   * @return true when lists may be read from secondaries.
+   */
+  public boolean isListReadFromSecondaries() {
+    return this.listReadFromSecondaries;
+  }
+
+  /**
+   * Record whether list reads may be answered by a member other than the primary.
+   * @param listReadFromSecondaries true when the list template or the client may read from secondaries.
+   */
+  public void setListReadFromSecondaries(boolean listReadFromSecondaries) {
+    this.listReadFromSecondaries = listReadFromSecondaries;
+  }
+
+  /**
+   * Decode the list reads, finds, pages and expiring lists, with a codec instead of MappingMongoConverter.
+   * Streams and the reads checking versions before a write stay on the converter.
+   * @param listCodec Inventory codec, null to decode through the converter.
+   */
+  public void setListCodec(Codec<Inventory> listCodec) {
+    this.listCodec = listCodec;
+    this.listReader = listCodec == null ? null : new CodecReader<>(this.listTemplate, Inventory.class, listCodec);
+  }
+
+  /**
+   * Run the bulk writes through another template, such as one with a lighter write concern for imports.
+   * @param bulkTemplate template of bulk writes.
+   */
+  public void setBulkTemplate(MongoTemplate bulkTemplate) {
+    Assert.notNull(bulkTemplate, "Bulk MongoTemplate must not be null.");
+    this.bulkTemplate = bulkTemplate;
+  }
+
+  /**
+   * Publish an {@link InventoryChangeEvent} after every write.
+   * @param eventPublisher publisher, null to stop publishing.
+   */
+  @Override
+  public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
   }
 
   /**
    * Find All Inventory.
    * @return List of found Inventory.
    */
+  @Timed(TIMER)
   public List<Inventory> findAll() {
-    return this.mongoTemplate.findAll(Inventory.class);
+    return this.list(new Query());
+  }
+
+  /**
+   * Find Inventory matching a Filter, sorted and projected as the Filter asks.
+   * @param filter filter.
+   * @return List of found Inventory.
+   */
+  @Timed(TIMER)
+  public List<Inventory> find(InventoryFilter filter) {
+    return this.list(this.verified(InventoryQueries.list(filter)));
+  }
+
+  /**
+   * Find a Page of Inventory ordered by name then id, resuming after a cursor.
+   * @param cursor cursor returned with the previous page, null for the first page.
+   * @param limit maximum number of Inventory on the page.
+   * @return Page of Inventory, with a null cursor once the collection is exhausted.
+   */
+  @Timed(TIMER)
+  public InventoryPage findPage(String cursor, int limit) {
+    return this.findPage(new InventoryFilter(), cursor, limit);
+  }
+
+  /**
+   * Find a Page of Inventory matching a Filter, ordered by name then id, resuming after a cursor.
+   * The Filter's sort is ignored since the cursor is a position in name order.
+   * @param filter filter.
+   * @param cursor cursor returned with the previous page, null for the first page.
+   * @param limit maximum number of Inventory on the page.
+   * @return Page of Inventory, with a null cursor once the matches are exhausted.
+   */
+  @Timed(TIMER)
+  public InventoryPage findPage(InventoryFilter filter, String cursor, int limit) {
+    Query query = InventoryQueries.page(filter, cursor, limit);
+    return InventoryQueries.toPage(this.list(this.verified(query)), limit);
+  }
+
+  /**
+   * Stream All Inventory off an open cursor, so the collection is never held in memory at once.
+   * The caller must close the Stream.
+   * @return Stream of Inventory.
+   */
+  public Stream<Inventory> stream() {
+    return this.stream(new InventoryFilter());
+  }
+
+  /**
+   * Stream Inventory matching a Filter off an open cursor. The caller must close the Stream.
+   * @param filter filter.
+   * @return Stream of Inventory.
+   */
+  public Stream<Inventory> stream(InventoryFilter filter) {
+    Query query = this.verified(InventoryQueries.list(filter));
+    return StreamUtils.createStreamFromIterator(this.listTemplate.stream(query, Inventory.class));
+  }
+
+  /**
+   * Find Inventory not yet expired whose best before date falls in [from, to), soonest first.
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param limit maximum number of Inventory.
+   * @return List of expiring Inventory.
+   */
+  @Timed(TIMER)
+  public List<Inventory> findExpiring(Instant from, Instant to, int limit) {
+    return this.list(this.verified(InventoryQueries.expiring(from, to, limit)));
+  }
+
+  /**
+   * Mark one batch of Inventory past their best before date as expired, oldest first, through a version checked
+   * bulk update. Inventory written concurrently conflict and are left for the next batch.
+   * @param now current time.
+   * @param limit maximum number of Inventory marked.
+   * @return Number of Inventory marked, below limit once none are left or some conflicted.
+   */
+  @Timed(TIMER)
+  public int markExpired(Instant now, int limit) {
+    List<Inventory> due = this.mongoTemplate.find(this.verified(InventoryQueries.due(now, limit)), Inventory.class);
+    List<Inventory> expired = new ArrayList<>(due.size());
+    for (Inventory inventory : due) {
+      Inventory copy = EntityCopies.copyOf(inventory);
+      copy.setExpired(true);
+      expired.add(copy);
+    }
+    int marked = 0;
+    if (!expired.isEmpty()) {
+      for (BulkItemResult result : this.bulkUpdate(expired)) {
+        if (result.getStatus() == BulkItemStatus.UPDATED) {
+          marked++;
+        }
+      }
+    }
+    return marked;
   }
 
   /**
@@ -54,9 +326,159 @@ public class InventoryDAO {
    * @param inventory Inventory to Save/Update.
    * @return Created/Updated Inventory.
    */
+  @Timed(TIMER)
   public Inventory create(Inventory inventory) {
     inventory.setId(null);
-    return mongoTemplate.insert(inventory);
+    Inventory created = this.mongoTemplate.insert(inventory);
+    this.inventoryCache.putCreated(created.getId(), created);
+    this.publish(List.of(new InventoryChangeEvent.Change(null, created)));
+    return created;
+  }
+
+  /**
+   * Create Inventory in one unordered bulk write. Ids are assigned up front so they can be reported.
+   * @param inventories Inventory to Create.
+   * @return Result per Inventory, indexed by position in the list.
+   */
+  @Timed(TIMER)
+  public List<BulkItemResult> bulkCreate(List<Inventory> inventories) {
+    List<BulkItemResult> results = new ArrayList<>(inventories.size());
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      inventory.setId(ObjectId.get().toHexString());
+      inventory.setVersion(0);
+      results.add(new BulkItemResult(index, inventory.getId(), BulkItemStatus.CREATED, null));
+    }
+    if (!inventories.isEmpty()) {
+      BulkOperations bulk = this.bulkTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+      executeBulk(bulk.insert(inventories), results);
+    }
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(inventories.size());
+    for (int index = 0; index < inventories.size(); index++) {
+      if (results.get(index).getStatus() == BulkItemStatus.CREATED) {
+        this.inventoryCache.putCreated(inventories.get(index).getId(), inventories.get(index));
+        changes.add(new InventoryChangeEvent.Change(null, inventories.get(index)));
+      }
+    }
+    this.publish(changes);
+    return results;
+  }
+
+  /**
+   * Update Inventory in one unordered bulk write, replacing each document only at its current version.
+   * The batch is read first so stale and missing Inventory are reported without being written,
+   * and so every replacement knows the document it replaced.
+   * @param inventories Inventory to Update.
+   * @return Result per Inventory, indexed by position in the list; stale versions are reported as conflicts.
+   */
+  @Timed(TIMER)
+  public List<BulkItemResult> bulkUpdate(List<Inventory> inventories) {
+    Map<String, Inventory> stored = this.storedById(inventories);
+    List<BulkItemResult> results = new ArrayList<>(inventories.size());
+    BulkOperations bulk = this.bulkTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+    List<BulkItemResult> replacements = new ArrayList<>(inventories.size());
+    Set<String> ids = new HashSet<>();
+    Document[] written = new Document[inventories.size()];
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      String id = inventory.getId();
+      Inventory before = id == null ? null : stored.get(id);
+      if (id == null) {
+        results.add(new BulkItemResult(index, null, BulkItemStatus.FAILED, "Inventory id was not provided."));
+      } else if (!ids.add(id)) {
+        results.add(new BulkItemResult(index, id, BulkItemStatus.CONFLICT, "Inventory id is repeated in the batch."));
+      } else if (before == null) {
+        results.add(new BulkItemResult(index, id, BulkItemStatus.NOT_FOUND, "Inventory does not exist."));
+      } else if (before.getVersion() != inventory.getVersion()) {
+        results.add(new BulkItemResult(index, id, BulkItemStatus.CONFLICT,
+          "Inventory is at version " + before.getVersion() + "."));
+      } else {
+        Query current = new Query(Criteria.where(ID).is(id).and(VERSION).is(inventory.getVersion()));
+        Inventory next = EntityCopies.copyOf(inventory);
+        next.setVersion(inventory.getVersion() + 1);
+        written[index] = new Document();
+        this.bulkTemplate.getConverter().write(next, written[index]);
+        bulk.replaceOne(current, written[index]);
+        BulkItemResult result = new BulkItemResult(index, id, BulkItemStatus.UPDATED, null);
+        results.add(result);
+        replacements.add(result);
+      }
+    }
+    if (!replacements.isEmpty() && executeBulk(bulk, replacements).getMatchedCount() < replacements.size()) {
+      this.reportUnmatched(inventories, results, written);
+    }
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(replacements.size());
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      if (results.get(index).getStatus() == BulkItemStatus.UPDATED) {
+        inventory.setVersion(inventory.getVersion() + 1);
+        this.inventoryCache.put(inventory.getId(), inventory);
+        changes.add(new InventoryChangeEvent.Change(stored.get(inventory.getId()), inventory));
+      } else if (inventory.getId() != null) {
+        this.inventoryCache.invalidate(inventory.getId());
+      }
+    }
+    this.publish(changes);
+    return results;
+  }
+
+  /**
+   * Create or replace Inventory in one unordered bulk write, for imports. Inventory without an id is created,
+   * Inventory with one replaces the stored document whatever its version, or is created under that id.
+   * The batch is read first so every replacement knows the document and version it replaced.
+   * @param inventories Inventory to Create or Replace.
+   * @return Result per Inventory, indexed by position in the list.
+   */
+  @Timed(TIMER)
+  public List<BulkItemResult> bulkUpsert(List<Inventory> inventories) {
+    Map<String, Inventory> stored = this.storedById(inventories);
+    List<BulkItemResult> results = new ArrayList<>(inventories.size());
+    BulkOperations bulk = this.bulkTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+    List<BulkItemResult> upserts = new ArrayList<>(inventories.size());
+    Set<String> ids = new HashSet<>();
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      if (inventory.getId() == null) {
+        inventory.setId(ObjectId.get().toHexString());
+      }
+      String id = inventory.getId();
+      Inventory before = stored.get(id);
+      if (!ids.add(id)) {
+        results.add(new BulkItemResult(index, id, BulkItemStatus.CONFLICT, "Inventory id is repeated in the batch."));
+        continue;
+      }
+      Query current = new Query(Criteria.where(ID).is(id));
+      if (before == null) {
+        inventory.setVersion(0);
+      } else {
+        current.addCriteria(Criteria.where(VERSION).is(before.getVersion()));
+        inventory.setVersion(before.getVersion() + 1);
+      }
+      bulk.replaceOne(current, inventory, FindAndReplaceOptions.options().upsert());
+      BulkItemResult result =
+        new BulkItemResult(index, id, before == null ? BulkItemStatus.CREATED : BulkItemStatus.UPDATED, null);
+      results.add(result);
+      upserts.add(result);
+    }
+    if (!upserts.isEmpty()) {
+      executeBulk(bulk, upserts);
+    }
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(upserts.size());
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      BulkItemStatus status = results.get(index).getStatus();
+      if (status == BulkItemStatus.CREATED) {
+        this.inventoryCache.putCreated(inventory.getId(), inventory);
+        changes.add(new InventoryChangeEvent.Change(null, inventory));
+      } else if (status == BulkItemStatus.UPDATED) {
+        this.inventoryCache.put(inventory.getId(), inventory);
+        changes.add(new InventoryChangeEvent.Change(stored.get(inventory.getId()), inventory));
+      } else {
+        this.inventoryCache.invalidate(inventory.getId());
+      }
+    }
+    this.publish(changes);
+    return results;
   }
 
   /**
@@ -64,9 +486,12 @@ public class InventoryDAO {
    * @param id Inventory id to Retrieve.
    * @return Found Inventory.
    */
+  @Timed(TIMER)
   public Optional<Inventory> retrieve(String id) {
-    Query query = new Query(Criteria.where(ID).is(id));
-    return Optional.ofNullable(mongoTemplate.findOne(query, Inventory.class));
+    return this.inventoryCache.get(id, key -> {
+      Query query = new Query(Criteria.where(ID).is(key));
+      return Optional.ofNullable(this.mongoTemplate.findOne(this.verified(query), Inventory.class));
+    });
   }
 
   /**
@@ -74,8 +499,95 @@ public class InventoryDAO {
    * @param inventory Inventory to Update.
    * @return Updated Inventory.
    */
+  @Timed(TIMER)
   public Optional<Inventory> update(Inventory inventory) {
-    return Optional.of(mongoTemplate.save(inventory));
+    long expectedVersion = inventory.getVersion();
+    Query current = new Query(Criteria.where(ID).is(inventory.getId()).and(VERSION).is(expectedVersion));
+    inventory.setVersion(expectedVersion + 1);
+    Inventory before = this.mongoTemplate.findAndReplace(current, inventory);
+    if (before == null) {
+      inventory.setVersion(expectedVersion);
+      this.inventoryCache.invalidate(inventory.getId());
+      throw new OptimisticLockingFailureException(
+        "Inventory " + inventory.getId() + " is not at version " + expectedVersion + ".");
+    }
+    this.inventoryCache.put(inventory.getId(), inventory);
+    this.publish(List.of(new InventoryChangeEvent.Change(before, inventory)));
+    return Optional.of(inventory);
+  }
+
+  /**
+   * Adjust the amount of one Inventory in place, without reading it first or checking its version.
+   * Issues only apply while the amount covers them, so the amount never goes negative. Receipts carrying
+   * a unit price also fold it into the average price, weighted by amount, in the same atomic update.
+   * @param adjustment adjustment, valid as told by {@link #invalidAdjustment(StockAdjustment)}.
+   * @return Adjusted Inventory, empty when it does not exist.
+   * @throws DataIntegrityViolationException when an issue exceeds the amount.
+   * @throws TypeMismatchDataAccessException when the amount or average price is still stored as a string.
+   */
+  @Timed(TIMER)
+  public Optional<Inventory> adjust(StockAdjustment adjustment) {
+    Optional<InventoryChangeEvent.Change> change = this.applyAdjustment(adjustment);
+    change.ifPresent(applied -> this.publish(List.of(applied)));
+    return change.map(InventoryChangeEvent.Change::getAfter);
+  }
+
+  /**
+   * Adjust the amounts of Inventory one atomic update at a time, in list order, so several adjustments
+   * to the same Inventory all apply.
+   * @param adjustments adjustments.
+   * @return Result per adjustment, indexed by position in the list; issues exceeding the amount are conflicts,
+   *   and adjustments to amounts or average prices still stored as strings fail.
+   */
+  @Timed(TIMER)
+  public List<BulkItemResult> bulkAdjust(List<StockAdjustment> adjustments) {
+    List<BulkItemResult> results = new ArrayList<>(adjustments.size());
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(adjustments.size());
+    for (int index = 0; index < adjustments.size(); index++) {
+      StockAdjustment adjustment = adjustments.get(index);
+      String invalid = invalidAdjustment(adjustment);
+      if (invalid != null) {
+        results.add(new BulkItemResult(index, adjustment.getId(), BulkItemStatus.FAILED, invalid));
+        continue;
+      }
+      try {
+        Optional<InventoryChangeEvent.Change> change = this.applyAdjustment(adjustment);
+        if (change.isPresent()) {
+          changes.add(change.get());
+          results.add(new BulkItemResult(index, adjustment.getId(), BulkItemStatus.UPDATED, null));
+        } else {
+          results.add(new BulkItemResult(index, adjustment.getId(), BulkItemStatus.NOT_FOUND,
+            "Inventory does not exist."));
+        }
+      } catch (DataIntegrityViolationException e) {
+        results.add(new BulkItemResult(index, adjustment.getId(), BulkItemStatus.CONFLICT, e.getMessage()));
+      } catch (TypeMismatchDataAccessException e) {
+        results.add(new BulkItemResult(index, adjustment.getId(), BulkItemStatus.FAILED, e.getMessage()));
+      }
+    }
+    this.publish(changes);
+    return results;
+  }
+
+  /**
+   * Tell why an adjustment cannot be applied.
+   * @param adjustment adjustment.
+   * @return Message, null when the adjustment is valid.
+   */
+  public static String invalidAdjustment(StockAdjustment adjustment) {
+    if (adjustment.getId() == null) {
+      return "Inventory id was not provided.";
+    }
+    if (adjustment.getQuantity() == null || adjustment.getQuantity().signum() == 0) {
+      return "Adjustment quantity must not be zero.";
+    }
+    if (adjustment.getUnitPrice() != null && adjustment.getUnitPrice().signum() < 0) {
+      return "Adjustment unit price must not be negative.";
+    }
+    if (adjustment.getUnitPrice() != null && adjustment.getQuantity().signum() < 0) {
+      return "Adjustment unit price only applies to receipts.";
+    }
+    return null;
   }
 
   /**
@@ -83,9 +595,346 @@ public class InventoryDAO {
    * @param id id of Inventory.
    * @return Deleted Inventory.
    */
+  @Timed(TIMER)
   public Optional<List<Inventory>> delete(List<String> id) {
 
     Query query = new Query(Criteria.where(ID).in(id));
-    return Optional.of(mongoTemplate.findAllAndRemove(query, Inventory.class));
+    List<Inventory> deleted = this.mongoTemplate.findAllAndRemove(this.verified(query), Inventory.class);
+    this.markDeleted(id, deleted);
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(deleted.size());
+    deleted.forEach(inventory -> changes.add(new InventoryChangeEvent.Change(inventory, null)));
+    this.publish(changes);
+    return Optional.of(deleted);
+  }
+
+  /**
+   * Delete Inventory By Id with deleteMany, returning only the count. With a publisher set, the fields the
+   * change listeners need are read first in a projection, never the whole documents, and each Inventory is only
+   * deleted at the version read, so the fields published are those of the document removed. Inventory updated
+   * in between is read and deleted again, up to {@value #MAX_DELETE_ATTEMPTS} times.
+   * @param ids ids of Inventory.
+   * @return Number of Inventory deleted.
+   */
+  @Timed(TIMER)
+  public long deleteMany(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    if (this.eventPublisher == null) {
+      Query query = new Query(Criteria.where(ID).in(ids));
+      long count = this.mongoTemplate.remove(this.verified(query), Inventory.class).getDeletedCount();
+      this.markDeleted(ids, List.of());
+      return count;
+    }
+    List<Inventory> deleted = new ArrayList<>();
+    long count = 0;
+    Collection<String> remaining = ids;
+    for (int attempt = 0; attempt < MAX_DELETE_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+      List<String> updated = new ArrayList<>();
+      count += this.deleteAtVersion(remaining, deleted, updated);
+      remaining = updated;
+    }
+    this.markDeleted(ids, deleted);
+    List<InventoryChangeEvent.Change> changes = new ArrayList<>(deleted.size());
+    deleted.forEach(inventory -> changes.add(new InventoryChangeEvent.Change(inventory, null)));
+    this.publish(changes);
+    return count;
+  }
+
+  /**
+   * Find the ids of Inventory matching a Filter, in id order. The Filter's sort and fields are ignored.
+   * @param filter filter.
+   * @param limit maximum number of ids.
+   * @return Ids.
+   */
+  @Timed(TIMER)
+  public List<String> findIds(InventoryFilter filter, int limit) {
+    List<String> ids = new ArrayList<>(limit);
+    this.mongoTemplate.find(this.verified(InventoryQueries.ids(filter, limit)), Inventory.class)
+      .forEach(inventory -> ids.add(inventory.getId()));
+    return ids;
+  }
+
+  /**
+   * Find which product types are still used by some Inventory, in one aggregation for all of them.
+   * @param productTypes product types.
+   * @return Product types in use.
+   */
+  @Timed(TIMER)
+  public Set<String> findProductTypesInUse(Collection<String> productTypes) {
+    Criteria match = Criteria.where(PRODUCT_TYPE).in(productTypes);
+    this.verified(new Query(match));
+    Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(match), Aggregation.group(PRODUCT_TYPE));
+    Set<String> inUse = new HashSet<>();
+    this.mongoTemplate.aggregate(aggregation, Inventory.class, Document.class)
+      .forEach(group -> inUse.add(group.getString("_id")));
+    return inUse;
+  }
+
+  /**
+   * Read the fields the change listeners need, then delete each Inventory in one bulk write only at the version
+   * read. When some were not deleted, the ones still stored were updated in between; the others were deleted,
+   * by this write unless another writer deleted some of them at the same moment, which is logged.
+   * @param ids ids of Inventory.
+   * @param deleted collects the Inventory deleted, as read.
+   * @param updated collects the ids of Inventory updated after they were read.
+   * @return Number of Inventory deleted.
+   */
+  private long deleteAtVersion(Collection<String> ids, List<Inventory> deleted, List<String> updated) {
+    Query query = new Query(Criteria.where(ID).in(ids));
+    query.fields().include(VERSION, PRODUCT_TYPE, AVAILABLE_STORES, AMOUNT, AVERAGE_PRICE);
+    List<Inventory> found = this.mongoTemplate.find(this.verified(query), Inventory.class);
+    if (found.isEmpty()) {
+      return 0;
+    }
+    BulkOperations bulk = this.bulkTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+    List<String> foundIds = new ArrayList<>(found.size());
+    for (Inventory inventory : found) {
+      bulk.remove(new Query(Criteria.where(ID).is(inventory.getId()).and(VERSION).is(inventory.getVersion())));
+      foundIds.add(inventory.getId());
+    }
+    int removed = bulk.execute().getDeletedCount();
+    if (removed == found.size()) {
+      deleted.addAll(found);
+      return removed;
+    }
+    Query stillStored = new Query(Criteria.where(ID).in(foundIds));
+    stillStored.fields().include(ID);
+    Set<String> stored = new HashSet<>();
+    this.mongoTemplate.find(this.verified(stillStored), Inventory.class)
+      .forEach(inventory -> stored.add(inventory.getId()));
+    int gone = 0;
+    for (Inventory inventory : found) {
+      if (stored.contains(inventory.getId())) {
+        updated.add(inventory.getId());
+      } else {
+        deleted.add(inventory);
+        gone++;
+      }
+    }
+    if (gone != removed) {
+      log.warn("{} of {} Inventory gone were deleted by another writer at the same time, their changes may be "
+        + "published twice.", gone - removed, gone);
+    }
+    return removed;
+  }
+
+  /**
+   * Read the stored Inventory of a batch in one query.
+   * @param inventories Inventory of the batch.
+   * @return Stored Inventory keyed by id.
+   */
+  private Map<String, Inventory> storedById(List<Inventory> inventories) {
+    List<String> ids = new ArrayList<>(inventories.size());
+    inventories.forEach(inventory -> ids.add(inventory.getId()));
+    return this.findStored(ids);
+  }
+
+  /**
+   * Read stored Inventory by id in one query, bypassing the cache.
+   * @param ids ids.
+   * @return Stored Inventory keyed by id, missing ones left out.
+   */
+  Map<String, Inventory> findStored(Collection<String> ids) {
+    Map<String, Inventory> stored = new HashMap<>();
+    this.mongoTemplate.find(this.verified(new Query(Criteria.where(ID).in(ids))), Inventory.class)
+      .forEach(inventory -> stored.put(inventory.getId(), inventory));
+    return stored;
+  }
+
+  /**
+   * Apply one adjustment with findAndModify, then derive the adjusted Inventory from the one it replaced
+   * the way the update computed it, so the change is known without reading the document back. Amounts and
+   * average prices still stored as strings are left out by the filter, since the update would fail on them,
+   * and told apart from missing Inventory and insufficient amounts only when nothing matched.
+   * @param adjustment valid adjustment.
+   * @return Change, empty when the Inventory does not exist.
+   * @throws DataIntegrityViolationException when an issue exceeds the amount.
+   * @throws TypeMismatchDataAccessException when the amount or average price is still stored as a string.
+   */
+  private Optional<InventoryChangeEvent.Change> applyAdjustment(StockAdjustment adjustment) {
+    Assert.isNull(invalidAdjustment(adjustment), "Stock Adjustment must be valid.");
+    BigDecimal quantity = adjustment.getQuantity();
+    Query current = new Query(Criteria.where(ID).is(adjustment.getId()));
+    if (quantity.signum() < 0) {
+      current.addCriteria(Criteria.where(AMOUNT).gte(new Decimal128(quantity.negate())));
+    } else {
+      current.addCriteria(Criteria.where(AMOUNT).not().type(JsonSchemaObject.Type.stringType()));
+    }
+    if (adjustment.getUnitPrice() != null) {
+      current.addCriteria(Criteria.where(AVERAGE_PRICE).not().type(JsonSchemaObject.Type.stringType()));
+    }
+    Inventory before = this.mongoTemplate.findAndModify(current, adjustmentUpdate(adjustment),
+      FindAndModifyOptions.options().returnNew(false), Inventory.class);
+    if (before == null) {
+      this.inventoryCache.invalidate(adjustment.getId());
+      Query legacy = new Query(Criteria.where(ID).is(adjustment.getId()).orOperator(
+        Criteria.where(AMOUNT).type(JsonSchemaObject.Type.stringType()),
+        Criteria.where(AVERAGE_PRICE).type(JsonSchemaObject.Type.stringType())));
+      if (this.mongoTemplate.exists(legacy, Inventory.class)) {
+        throw new TypeMismatchDataAccessException("Inventory " + adjustment.getId()
+          + " stores its amount or average price as a string, run the decimal migration first.");
+      }
+      if (this.mongoTemplate.exists(new Query(Criteria.where(ID).is(adjustment.getId())), Inventory.class)) {
+        throw new DataIntegrityViolationException(
+          "Inventory " + adjustment.getId() + " holds less than " + quantity.negate() + ".");
+      }
+      return Optional.empty();
+    }
+    Inventory after = adjusted(before, adjustment);
+    this.inventoryCache.put(after.getId(), after);
+    return Optional.of(new InventoryChangeEvent.Change(before, after));
+  }
+
+  /**
+   * Update applying an adjustment: $inc on the amount and version, or for receipts with a unit price, a
+   * pipeline update setting the weighted average price from the amount before the receipt.
+   * @param adjustment valid adjustment.
+   * @return Update.
+   */
+  private static UpdateDefinition adjustmentUpdate(StockAdjustment adjustment) {
+    Decimal128 quantity = new Decimal128(adjustment.getQuantity());
+    if (adjustment.getUnitPrice() == null) {
+      return new Update().inc(AMOUNT, quantity).inc(VERSION, 1);
+    }
+    Document amount = new Document("$ifNull", List.of("$" + AMOUNT, Decimal128.POSITIVE_ZERO));
+    Document averagePrice = new Document("$ifNull", List.of("$" + AVERAGE_PRICE, Decimal128.POSITIVE_ZERO));
+    Decimal128 received = new Decimal128(adjustment.getUnitPrice().multiply(adjustment.getQuantity()));
+    Document total = new Document("$add", List.of(new Document("$multiply", List.of(averagePrice, amount)),
+      received));
+    Document newAmount = new Document("$add", List.of(amount, quantity));
+    AggregationExpression newAveragePrice = context -> new Document("$round",
+      List.of(new Document("$divide", List.of(total, newAmount)), AVERAGE_PRICE_SCALE));
+    AggregationExpression newAmountValue = context -> newAmount;
+    AggregationExpression newVersion = context -> new Document("$add", List.of("$" + VERSION, 1L));
+    return AggregationUpdate.update().set(SetOperation.set(AVERAGE_PRICE).toValue(newAveragePrice)
+      .and().set(AMOUNT).toValue(newAmountValue)
+      .and().set(VERSION).toValue(newVersion));
+  }
+
+  /**
+   * Inventory as an adjustment leaves it, computed in Decimal128 precision like the update does.
+   * @param before Inventory before the adjustment.
+   * @param adjustment adjustment applied.
+   * @return Adjusted copy.
+   */
+  static Inventory adjusted(Inventory before, StockAdjustment adjustment) {
+    BigDecimal amount = before.getAmount() == null ? BigDecimal.ZERO : before.getAmount();
+    BigDecimal newAmount = amount.add(adjustment.getQuantity());
+    Inventory after = EntityCopies.copyOf(before);
+    after.setVersion(before.getVersion() + 1);
+    after.setAmount(newAmount);
+    if (adjustment.getUnitPrice() != null) {
+      BigDecimal averagePrice = before.getAveragePrice() == null ? BigDecimal.ZERO : before.getAveragePrice();
+      BigDecimal received = adjustment.getUnitPrice().multiply(adjustment.getQuantity());
+      BigDecimal total = averagePrice.multiply(amount).add(received);
+      after.setAveragePrice(total.divide(newAmount, MathContext.DECIMAL128)
+        .setScale(AVERAGE_PRICE_SCALE, RoundingMode.HALF_EVEN));
+    }
+    return after;
+  }
+
+  /**
+   * Tombstone deleted ids in the cache at their deleted version, and drop the ids whose version was not read.
+   * @param ids ids deleted.
+   * @param deleted deleted Inventory read with their versions.
+   */
+  private void markDeleted(Collection<String> ids, List<Inventory> deleted) {
+    Set<String> versioned = new HashSet<>();
+    for (Inventory inventory : deleted) {
+      this.inventoryCache.markDeleted(inventory.getId(), inventory.getVersion());
+      versioned.add(inventory.getId());
+    }
+    for (String id : ids) {
+      if (!versioned.contains(id)) {
+        this.inventoryCache.markDeleted(id);
+      }
+    }
+  }
+
+  /**
+   * Publish the changes of one write, if there are any and a publisher is set.
+   * @param changes changes in write order.
+   */
+  private void publish(List<InventoryChangeEvent.Change> changes) {
+    if (this.eventPublisher != null && !changes.isEmpty()) {
+      this.eventPublisher.publishEvent(new InventoryChangeEvent(changes));
+    }
+  }
+
+  /**
+   * Explain the query first when running in diagnostic mode.
+   * @param query query about to run.
+   * @return the same query.
+   */
+  private Query verified(Query query) {
+    if (this.queryPlanVerifier != null) {
+      this.queryPlanVerifier.verify(query, Inventory.class);
+    }
+    return query;
+  }
+
+  /**
+   * Run a list read through the list template, decoded by the list codec when one is set.
+   * @param query query.
+   * @return List of found Inventory.
+   */
+  private List<Inventory> list(Query query) {
+    if (this.listReader != null) {
+      return this.listReader.find(query);
+    }
+    return this.listTemplate.find(query, Inventory.class);
+  }
+
+  /**
+   * Execute a bulk write, marking the items the server rejected as failed.
+   * @param bulk bulk write.
+   * @param results results in the order of the bulk write operations.
+   * @return Bulk Write Result.
+   */
+  private static BulkWriteResult executeBulk(BulkOperations bulk, List<BulkItemResult> results) {
+    try {
+      return bulk.execute();
+    } catch (BulkOperationException e) {
+      for (BulkWriteError error : e.getErrors()) {
+        BulkItemResult result = results.get(error.getIndex());
+        result.setStatus(BulkItemStatus.FAILED);
+        result.setMessage(error.getMessage());
+      }
+      return e.getResult();
+    }
+  }
+
+  /**
+   * Replacements that matched nothing lost the race on version or target a missing document.
+   * Reads the batch back: a replacement went through when its document is at the version it wrote and holds
+   * what it wrote, since a concurrent writer may have moved a document to the very version expected here.
+   * A concurrent write of the same content at that version cannot be told apart, and leaves the same document.
+   * @param inventories Inventory of the bulk update, still carrying their expected version.
+   * @param results results indexed like the inventories.
+   * @param written replacement documents indexed like the inventories.
+   */
+  private void reportUnmatched(List<Inventory> inventories, List<BulkItemResult> results, Document[] written) {
+    List<String> ids = new ArrayList<>(inventories.size());
+    inventories.forEach(inventory -> ids.add(inventory.getId()));
+    Query query = new Query(Criteria.where(MONGO_ID).in(ids));
+    Map<String, Document> storedById = new HashMap<>();
+    this.mongoTemplate.find(this.verified(query), Document.class, this.mongoTemplate.getCollectionName(Inventory.class))
+      .forEach(stored -> storedById.put(stored.get(MONGO_ID).toString(), stored));
+    MongoConverter converter = this.mongoTemplate.getConverter();
+    for (int index = 0; index < inventories.size(); index++) {
+      BulkItemResult result = results.get(index);
+      if (result.getStatus() != BulkItemStatus.UPDATED) {
+        continue;
+      }
+      Document stored = storedById.get(inventories.get(index).getId());
+      if (stored == null) {
+        result.setStatus(BulkItemStatus.NOT_FOUND);
+        result.setMessage("Inventory does not exist.");
+      } else if (!converter.read(Inventory.class, stored).equals(converter.read(Inventory.class, written[index]))) {
+        result.setStatus(BulkItemStatus.CONFLICT);
+        result.setMessage("Inventory is at version " + stored.get(VERSION) + ".");
+      }
+    }
   }
 }
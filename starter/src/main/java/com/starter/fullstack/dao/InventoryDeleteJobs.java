@@ -0,0 +1,171 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.DeleteJob;
+import com.starter.fullstack.api.DeleteJobState;
+import com.starter.fullstack.api.InventoryFilter;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Delete Jobs -- Mass deletes run off the request thread, one chunk of ids per deleteMany with a pause
+ * between chunks so the primary keeps serving other writes. Progress is saved after every chunk for polling.
+ * Jobs spend most of their time sleeping between chunks, so they run on an executor of their own rather than
+ * holding threads other background work needs; a job the executor cannot take is failed at once.
+ * Jobs left running when the application stops are interrupted and saved as failed, and are not resumed.
+ */
+@Slf4j
+public class InventoryDeleteJobs {
+  private final InventoryDAO inventoryDAO;
+  private final DeleteJobDAO deleteJobDAO;
+  private final Executor executor;
+  private final int chunkSize;
+  private final Duration pause;
+  private final Clock clock;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDAO inventoryDAO.
+   * @param deleteJobDAO deleteJobDAO.
+   * @param executor executor running the jobs, shut down with them when it is an ExecutorService.
+   * @param chunkSize ids deleted per deleteMany.
+   * @param pause pause between chunks.
+   * @param clock clock stamping the jobs.
+   */
+  public InventoryDeleteJobs(InventoryDAO inventoryDAO, DeleteJobDAO deleteJobDAO, Executor executor, int chunkSize,
+                             Duration pause, Clock clock) {
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.notNull(deleteJobDAO, "Delete Job DAO must not be null.");
+    Assert.notNull(executor, "Executor must not be null.");
+    Assert.isTrue(chunkSize > 0, "Chunk size must be positive.");
+    Assert.notNull(pause, "Pause must not be null.");
+    Assert.notNull(clock, "Clock must not be null.");
+    this.inventoryDAO = inventoryDAO;
+    this.deleteJobDAO = deleteJobDAO;
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+    this.pause = pause;
+    this.clock = clock;
+  }
+
+  /**
+   * Start deleting Inventory by id.
+   * @param ids ids of Inventory.
+   * @return Started Job.
+   * @throws RejectedExecutionException when too many jobs are running or queued, the job is saved as failed.
+   */
+  public DeleteJob start(List<String> ids) {
+    Assert.notEmpty(ids, "Delete job ids must not be empty.");
+    List<String> targets = List.copyOf(ids);
+    DeleteJob job = this.newJob();
+    job.setRequested(targets.size());
+    int[] offset = {0};
+    return this.run(job, () -> {
+      int from = offset[0];
+      offset[0] = Math.min(from + this.chunkSize, targets.size());
+      return targets.subList(from, offset[0]);
+    });
+  }
+
+  /**
+   * Start deleting every Inventory matching a Filter. Each chunk reads the ids of the first matches left.
+   * @param filter filter with at least one criterion, its sort and fields are ignored.
+   * @return Started Job.
+   * @throws RejectedExecutionException when too many jobs are running or queued, the job is saved as failed.
+   */
+  public DeleteJob start(InventoryFilter filter) {
+    Assert.isTrue(!InventoryQueries.matchesAll(filter), "Delete job filter must not match every Inventory.");
+    DeleteJob job = this.newJob();
+    job.setFilter(filter);
+    return this.run(job, () -> this.inventoryDAO.findIds(filter, this.chunkSize));
+  }
+
+  /**
+   * Find a Delete Job.
+   * @param id job id.
+   * @return Job, empty when no such job was started.
+   */
+  public Optional<DeleteJob> find(String id) {
+    return this.deleteJobDAO.find(id);
+  }
+
+  /**
+   * Stop the jobs' executor, interrupting running jobs. Spring calls it when the application stops.
+   */
+  public void shutdown() {
+    if (this.executor instanceof ExecutorService) {
+      ((ExecutorService) this.executor).shutdownNow();
+    }
+  }
+
+  /**
+   * New running Job.
+   * @return Job.
+   */
+  private DeleteJob newJob() {
+    DeleteJob job = new DeleteJob();
+    job.setId(UUID.randomUUID().toString());
+    job.setState(DeleteJobState.RUNNING);
+    job.setStartedAt(this.clock.instant());
+    return job;
+  }
+
+  /**
+   * Save a Job and hand it to the executor.
+   * @param job job.
+   * @param chunks next chunk of ids, empty once done.
+   * @return Job as saved before it runs.
+   */
+  private DeleteJob run(DeleteJob job, Supplier<List<String>> chunks) {
+    this.deleteJobDAO.save(job);
+    try {
+      this.executor.execute(() -> this.delete(job, chunks));
+    } catch (RejectedExecutionException e) {
+      job.setState(DeleteJobState.FAILED);
+      job.setError("Too many delete jobs are running.");
+      job.setFinishedAt(this.clock.instant());
+      this.deleteJobDAO.save(job);
+      throw e;
+    }
+    return job;
+  }
+
+  /**
+   * Delete chunk after chunk, saving progress after each, until no ids are left. The pause comes before the next
+   * chunk is read, so a filter is matched against the collection as it is when the chunk is deleted.
+   * @param job job.
+   * @param chunks next chunk of ids, empty once done.
+   */
+  private void delete(DeleteJob job, Supplier<List<String>> chunks) {
+    try {
+      List<String> chunk = chunks.get();
+      while (!chunk.isEmpty()) {
+        job.setDeleted(job.getDeleted() + this.inventoryDAO.deleteMany(chunk));
+        job.setChunks(job.getChunks() + 1);
+        this.deleteJobDAO.save(job);
+        Thread.sleep(this.pause.toMillis());
+        chunk = chunks.get();
+      }
+      job.setState(DeleteJobState.COMPLETE);
+    } catch (DataAccessException e) {
+      log.error("Delete job {} failed", job.getId(), e);
+      job.setState(DeleteJobState.FAILED);
+      job.setError(e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.setState(DeleteJobState.FAILED);
+      job.setError("Delete job was interrupted.");
+    }
+    job.setFinishedAt(this.clock.instant());
+    this.deleteJobDAO.save(job);
+  }
+}
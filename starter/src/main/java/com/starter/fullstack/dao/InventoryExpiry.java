@@ -0,0 +1,71 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Expiry -- Marks Inventory past their best before date as expired and lists the Inventory about
+ * to expire, both on the current time of a Clock.
+ */
+@Slf4j
+public class InventoryExpiry {
+  private final InventoryDAO inventoryDAO;
+  private final Clock clock;
+  private final int batchSize;
+  private final int maxBatches;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDAO inventoryDAO.
+   * @param clock clock.
+   * @param batchSize Inventory marked per bulk update.
+   * @param maxBatches batches per sweep, so one sweep never holds the primary for long.
+   */
+  public InventoryExpiry(InventoryDAO inventoryDAO, Clock clock, int batchSize, int maxBatches) {
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.notNull(clock, "Clock must not be null.");
+    Assert.isTrue(batchSize > 0, "Batch size must be positive.");
+    Assert.isTrue(maxBatches > 0, "Max batches must be positive.");
+    this.inventoryDAO = inventoryDAO;
+    this.clock = clock;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+  }
+
+  /**
+   * Mark the Inventory whose best before date has passed as expired, batch after batch until none are left
+   * or the sweep used its batches. Whatever is left is marked by the next sweep.
+   * @return Number of Inventory marked.
+   */
+  public int sweep() {
+    Instant now = this.clock.instant();
+    int marked = 0;
+    for (int batch = 0; batch < this.maxBatches; batch++) {
+      int batchMarked = this.inventoryDAO.markExpired(now, this.batchSize);
+      marked += batchMarked;
+      if (batchMarked < this.batchSize) {
+        break;
+      }
+    }
+    if (marked > 0) {
+      log.info("Marked {} Inventory expired.", marked);
+    }
+    return marked;
+  }
+
+  /**
+   * Find the Inventory not yet expired that expire within a window from now, soonest first.
+   * @param within window.
+   * @param limit maximum number of Inventory.
+   * @return List of expiring Inventory.
+   */
+  public List<Inventory> findExpiring(Duration within, int limit) {
+    Instant now = this.clock.instant();
+    return this.inventoryDAO.findExpiring(now, now.plus(within), limit);
+  }
+}
@@ -0,0 +1,241 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Queries shared by the blocking and reactive Inventory DAOs.
+ */
+final class InventoryQueries {
+  static final String NAME = "name";
+  static final String PRODUCT_TYPE = "productType";
+  static final String ID = "id";
+  static final String VERSION = "version";
+  static final String AVAILABLE_STORES = "availableStores";
+  static final String BEST_BEFORE_DATE = "bestBeforeDate";
+  static final String NEVER_EXPIRES = "neverExpires";
+  static final String EXPIRED = "expired";
+  private static final String DESCENDING = "-";
+  private static final Set<String> QUERYABLE_FIELDS = Set.of(ID, VERSION, NAME, PRODUCT_TYPE, "description",
+    "averagePrice", "amount", "unitOfMeasurement", BEST_BEFORE_DATE, NEVER_EXPIRES, EXPIRED, AVAILABLE_STORES);
+  private static final Pattern REGEX_SPECIAL_CHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+  /**
+   * Utility Class.
+   */
+  private InventoryQueries() {
+  }
+
+  /**
+   * Query listing Inventory matching a Filter, sorted and projected as the Filter asks.
+   * @param filter filter.
+   * @return Query.
+   */
+  static Query list(InventoryFilter filter) {
+    Query query = toQuery(filter, null);
+    if (filter.getSort() != null && !filter.getSort().isEmpty()) {
+      query.with(toSort(filter.getSort()));
+    }
+    return query;
+  }
+
+  /**
+   * Query of one keyset page of Inventory matching a Filter, ordered by name then id.
+   * Fetches one extra document to tell whether another page follows.
+   * @param filter filter.
+   * @param cursor cursor returned with the previous page, null for the first page.
+   * @param limit page size.
+   * @return Query.
+   */
+  static Query page(InventoryFilter filter, String cursor, int limit) {
+    Assert.isTrue(limit > 0, "Page limit must be positive.");
+    Criteria after = cursor == null ? null : afterCursor(InventoryCursor.decode(cursor));
+    Query query = toQuery(filter, after).with(Sort.by(Sort.Direction.ASC, NAME, ID)).limit(limit + 1);
+    if (filter.getFields() != null && !filter.getFields().isEmpty()) {
+      query.fields().include(NAME);
+    }
+    return query;
+  }
+
+  /**
+   * Turn the result of a {@link #page(InventoryFilter, String, int)} query into a Page.
+   * @param items found Inventory, at most limit + 1.
+   * @param limit page size.
+   * @return Page of Inventory, with a null cursor once the matches are exhausted.
+   */
+  static InventoryPage toPage(List<Inventory> items, int limit) {
+    if (items.size() <= limit) {
+      return new InventoryPage(items, null);
+    }
+    List<Inventory> page = items.subList(0, limit);
+    return new InventoryPage(page, InventoryCursor.after(page.get(limit - 1)));
+  }
+
+  /**
+   * Query of the ids of at most limit Inventory matching a Filter, in id order.
+   * @param filter filter, its sort and fields are ignored.
+   * @param limit maximum number of ids.
+   * @return Query.
+   */
+  static Query ids(InventoryFilter filter, int limit) {
+    Assert.isTrue(limit > 0, "Id limit must be positive.");
+    Query query = match(filter, null).with(Sort.by(Sort.Direction.ASC, ID)).limit(limit);
+    query.fields().include(ID);
+    return query;
+  }
+
+  /**
+   * Query of the Inventory not yet expired whose best before date falls in [from, to), soonest first.
+   * A range scan of the expired_bestBeforeDate index; documents written before the expired flag match as unexpired.
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param limit maximum number of Inventory.
+   * @return Query.
+   */
+  static Query expiring(Instant from, Instant to, int limit) {
+    Assert.isTrue(limit > 0, "Expiring limit must be positive.");
+    Criteria criteria = unexpired().and(BEST_BEFORE_DATE).gte(from).lt(to);
+    return new Query(criteria).with(Sort.by(Sort.Direction.ASC, BEST_BEFORE_DATE)).limit(limit);
+  }
+
+  /**
+   * Query of the Inventory past their best before date but not yet marked expired, oldest first.
+   * @param now current time.
+   * @param limit maximum number of Inventory.
+   * @return Query.
+   */
+  static Query due(Instant now, int limit) {
+    Assert.isTrue(limit > 0, "Due limit must be positive.");
+    Criteria criteria = unexpired().and(BEST_BEFORE_DATE).lte(now);
+    return new Query(criteria).with(Sort.by(Sort.Direction.ASC, BEST_BEFORE_DATE)).limit(limit);
+  }
+
+  /**
+   * Whether a Filter has no criteria, so it matches every Inventory.
+   * @param filter filter.
+   * @return true when the Filter matches everything.
+   */
+  static boolean matchesAll(InventoryFilter filter) {
+    return match(filter, null).getQueryObject().isEmpty();
+  }
+
+  /**
+   * Criteria of Inventory that expire and are not marked expired, matching the partial filter of the
+   * expired_bestBeforeDate index.
+   * @return Criteria.
+   */
+  private static Criteria unexpired() {
+    return Criteria.where(NEVER_EXPIRES).is(false).and(EXPIRED).in(false, null);
+  }
+
+  /**
+   * Push a Filter down to a Mongo Query, projected as the Filter asks.
+   * @param filter filter.
+   * @param after keyset criteria of a page, may be null.
+   * @return Query.
+   */
+  private static Query toQuery(InventoryFilter filter, Criteria after) {
+    Query query = match(filter, after);
+    if (filter.getFields() != null && !filter.getFields().isEmpty()) {
+      filter.getFields().forEach(field -> query.fields().include(queryable(field)));
+    }
+    return query;
+  }
+
+  /**
+   * Push the criteria of a Filter down to a Mongo Query. Criteria are only added for the parameters present,
+   * so the planner can pick the narrowest index for each combination.
+   * @param filter filter.
+   * @param after keyset criteria of a page, may be null.
+   * @return Query.
+   */
+  private static Query match(InventoryFilter filter, Criteria after) {
+    List<Criteria> criteria = new ArrayList<>();
+    if (filter.getProductType() != null) {
+      criteria.add(Criteria.where(PRODUCT_TYPE).is(filter.getProductType()));
+    }
+    if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+      String escaped = REGEX_SPECIAL_CHARACTERS.matcher(filter.getNamePrefix()).replaceAll("\\\\$0");
+      criteria.add(Criteria.where(NAME).regex("^" + escaped));
+    }
+    if (filter.getStore() != null) {
+      criteria.add(Criteria.where(AVAILABLE_STORES).is(filter.getStore()));
+    }
+    if (filter.getExpiresAfter() != null || filter.getExpiresBefore() != null) {
+      criteria.add(Criteria.where(NEVER_EXPIRES).is(false));
+      Criteria bestBefore = Criteria.where(BEST_BEFORE_DATE);
+      if (filter.getExpiresAfter() != null) {
+        bestBefore.gte(filter.getExpiresAfter());
+      }
+      if (filter.getExpiresBefore() != null) {
+        bestBefore.lte(filter.getExpiresBefore());
+      }
+      criteria.add(bestBefore);
+    }
+    if (after != null) {
+      criteria.add(after);
+    }
+    Query query;
+    if (criteria.isEmpty()) {
+      query = new Query();
+    } else if (criteria.size() == 1) {
+      query = new Query(criteria.get(0));
+    } else {
+      query = new Query(new Criteria().andOperator(criteria));
+    }
+    return query;
+  }
+
+  /**
+   * Parse sort fields, a leading '-' sorts descending.
+   * @param fields sort fields.
+   * @return Sort.
+   */
+  private static Sort toSort(List<String> fields) {
+    List<Sort.Order> orders = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      if (field.startsWith(DESCENDING)) {
+        orders.add(Sort.Order.desc(queryable(field.substring(DESCENDING.length()))));
+      } else {
+        orders.add(Sort.Order.asc(queryable(field)));
+      }
+    }
+    return Sort.by(orders);
+  }
+
+  /**
+   * Reject fields Inventory does not have.
+   * @param field field name.
+   * @return Field name.
+   */
+  private static String queryable(String field) {
+    Assert.isTrue(QUERYABLE_FIELDS.contains(field), "Inventory has no field " + field);
+    return field;
+  }
+
+  /**
+   * Keyset criteria selecting everything sorted after the cursor. Missing names sort first in Mongo.
+   * @param cursor decoded cursor.
+   * @return Criteria.
+   */
+  private static Criteria afterCursor(InventoryCursor cursor) {
+    if (cursor.getName() == null) {
+      return new Criteria().orOperator(
+        Criteria.where(NAME).is(null).and(ID).gt(cursor.getId()),
+        Criteria.where(NAME).ne(null));
+    }
+    return new Criteria().orOperator(
+      Criteria.where(NAME).gt(cursor.getName()),
+      Criteria.where(NAME).is(cursor.getName()).and(ID).gt(cursor.getId()));
+  }
+}
@@ -0,0 +1,228 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Replica -- An in-memory structure over every Inventory, such as an index, kept in step with the
+ * inventory collection. It is loaded from Mongo on the executor and kept in sync through the
+ * {@link ChangeFeed}, so it follows every instance's writes whenever the feed runs on change streams.
+ * Changes arriving during a load are replayed onto the new structure before it replaces the old one. The
+ * structure is rebuilt when the feed drops this subscriber or when the structure asks for it; a rebuild
+ * asked for while one runs follows it.
+ * @param <T> structure type.
+ */
+@Slf4j
+public abstract class InventoryReplica<T> implements SmartLifecycle {
+  private final MongoTemplate mongoTemplate;
+  private final ChangeFeed changeFeed;
+  private final Executor executor;
+  private volatile T current;
+  private List<EntityChange> pending;
+  private boolean rebuildAgain;
+  private ChangeFeed.Subscription subscription;
+  private volatile boolean running;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   * @param changeFeed feed of Inventory changes.
+   * @param executor executor loading the structure.
+   */
+  protected InventoryReplica(MongoTemplate mongoTemplate, ChangeFeed changeFeed, Executor executor) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    Assert.notNull(changeFeed, "Change Feed must not be null.");
+    Assert.notNull(executor, "Executor must not be null.");
+    this.mongoTemplate = mongoTemplate;
+    this.changeFeed = changeFeed;
+    this.executor = executor;
+  }
+
+  /**
+   * Subscribe to changes, then load the structure in the background.
+   */
+  @Override
+  public synchronized void start() {
+    if (!this.running) {
+      this.running = true;
+      this.subscribe();
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    this.running = false;
+    if (this.subscription != null) {
+      this.subscription.close();
+      this.subscription = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Load the structure again from the inventory collection, in the background.
+   */
+  public void rebuildAsync() {
+    this.executor.execute(this::rebuild);
+  }
+
+  /**
+   * Structure serving reads.
+   * @return Structure, null until the first load completed.
+   */
+  protected T current() {
+    return this.current;
+  }
+
+  /**
+   * New empty structure.
+   * @return Structure.
+   */
+  protected abstract T create();
+
+  /**
+   * Query loading the structure, projecting the fields it needs.
+   * @return Query.
+   */
+  protected abstract Query loadQuery();
+
+  /**
+   * Add an Inventory to the structure or replace an older version of it.
+   * @param target structure.
+   * @param inventory Inventory.
+   */
+  protected abstract void index(T target, Inventory inventory);
+
+  /**
+   * Add an Inventory just created to the structure, even under the id of one removed before.
+   * @param target structure.
+   * @param inventory Inventory.
+   */
+  protected void indexCreated(T target, Inventory inventory) {
+    this.index(target, inventory);
+  }
+
+  /**
+   * Remove an Inventory from the structure, ignoring changes no newer than the removal that arrive after it.
+   * @param target structure.
+   * @param id Inventory id.
+   */
+  protected abstract void remove(T target, String id);
+
+  /**
+   * Number of Inventories in the structure, for logging.
+   * @param target structure.
+   * @return Size.
+   */
+  protected abstract int size(T target);
+
+  /**
+   * Whether writes have left the structure in need of a rebuild.
+   * @param target structure.
+   * @return true to rebuild.
+   */
+  protected boolean needsRebuild(T target) {
+    return false;
+  }
+
+  /**
+   * Subscribe from now on and rebuild, since changes before now may have been missed.
+   */
+  private synchronized void subscribe() {
+    if (!this.running) {
+      return;
+    }
+    this.subscription = this.changeFeed.subscribe(null, this::onChange,
+      () -> this.executor.execute(this::subscribe));
+    this.rebuildAsync();
+  }
+
+  /**
+   * Load a new structure and swap it in once the changes that arrived meanwhile are applied to it.
+   */
+  private void rebuild() {
+    synchronized (this) {
+      if (!this.running) {
+        return;
+      }
+      if (this.pending != null) {
+        this.rebuildAgain = true;
+        return;
+      }
+      this.pending = new ArrayList<>();
+    }
+    T rebuilt = this.create();
+    boolean loaded = false;
+    try {
+      try (CloseableIterator<Inventory> inventories = this.mongoTemplate.stream(this.loadQuery(), Inventory.class)) {
+        inventories.forEachRemaining(inventory -> this.index(rebuilt, inventory));
+      }
+      loaded = true;
+    } catch (DataAccessException e) {
+      log.warn("Could not load {}.", this.getClass().getSimpleName(), e);
+    } finally {
+      synchronized (this) {
+        if (loaded) {
+          this.pending.forEach(change -> this.apply(rebuilt, change));
+          this.current = rebuilt;
+          log.info("{} loaded with {} documents.", this.getClass().getSimpleName(), this.size(rebuilt));
+        }
+        this.pending = null;
+        if (this.rebuildAgain) {
+          this.rebuildAgain = false;
+          this.rebuildAsync();
+        }
+      }
+    }
+  }
+
+  /**
+   * Apply an Inventory change to the structure, and to the one being loaded.
+   * @param change change.
+   */
+  private synchronized void onChange(EntityChange change) {
+    if (!EntityChange.INVENTORY.equals(change.getEntity())) {
+      return;
+    }
+    if (this.pending != null) {
+      this.pending.add(change);
+    }
+    T target = this.current;
+    if (target != null) {
+      this.apply(target, change);
+      if (this.pending == null && this.needsRebuild(target)) {
+        this.rebuildAsync();
+      }
+    }
+  }
+
+  /**
+   * Apply a change to a structure.
+   * @param target structure.
+   * @param change Inventory change.
+   */
+  private void apply(T target, EntityChange change) {
+    if (change.getOperation() == ChangeOperation.DELETE || !(change.getDocument() instanceof Inventory)) {
+      this.remove(target, change.getId());
+    } else if (change.getOperation() == ChangeOperation.CREATE) {
+      this.indexCreated(target, (Inventory) change.getDocument());
+    } else {
+      this.index(target, (Inventory) change.getDocument());
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.SearchHit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Inventory Search DAO -- Serves typeahead searches from an {@link InventorySearchIndex} held in memory.
+ * The index is loaded in name order, so a fresh index returns hits by name, and is rebuilt when updates
+ * have left too many dead postings.
+ */
+public class InventorySearchDAO extends InventoryReplica<InventorySearchIndex> {
+  private static final String VERSION = "version";
+  private static final String NAME = "name";
+  private static final String DESCRIPTION = "description";
+  private static final String PRODUCT_TYPE = "productType";
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   * @param changeFeed feed of Inventory changes.
+   * @param executor executor loading the index.
+   */
+  public InventorySearchDAO(MongoTemplate mongoTemplate, ChangeFeed changeFeed, Executor executor) {
+    super(mongoTemplate, changeFeed, executor);
+  }
+
+  /**
+   * Search Inventory names and descriptions.
+   * @param query words typed so far.
+   * @param limit maximum number of hits.
+   * @return Hits, empty until the first load completed.
+   */
+  public Optional<List<SearchHit>> search(String query, int limit) {
+    InventorySearchIndex index = this.current();
+    return index == null ? Optional.empty() : Optional.of(index.search(query, limit));
+  }
+
+  @Override
+  protected InventorySearchIndex create() {
+    return new InventorySearchIndex();
+  }
+
+  @Override
+  protected Query loadQuery() {
+    Query query = new Query().with(Sort.by(NAME));
+    query.fields().include(VERSION, NAME, DESCRIPTION, PRODUCT_TYPE);
+    return query;
+  }
+
+  @Override
+  protected void index(InventorySearchIndex target, Inventory inventory) {
+    target.index(inventory);
+  }
+
+  @Override
+  protected void indexCreated(InventorySearchIndex target, Inventory inventory) {
+    target.indexCreated(inventory);
+  }
+
+  @Override
+  protected void remove(InventorySearchIndex target, String id) {
+    target.remove(id);
+  }
+
+  @Override
+  protected int size(InventorySearchIndex target) {
+    return target.size();
+  }
+
+  @Override
+  protected boolean needsRebuild(InventorySearchIndex target) {
+    return target.needsCompaction();
+  }
+}
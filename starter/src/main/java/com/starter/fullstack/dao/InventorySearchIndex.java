@@ -0,0 +1,409 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.SearchHit;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over Inventory name and description for typeahead search.
+ * Text is folded to lower case without accents and split into words; every query word matches the words
+ * it prefixes, and a document has to match all of them. Documents matching in their name rank above those
+ * only matching through their description; within a rank, documents come in the order they were indexed,
+ * which is name order for a freshly built index. Postings are append-only: a write indexes the document
+ * under a new number and drops the old one, so after enough writes the index asks to be rebuilt.
+ * Top-k searches merge the postings of the most selective word in document order and stop after k hits.
+ */
+public class InventorySearchIndex {
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final String[] NO_WORDS = new String[0];
+  private static final int MIN_COMPACTION_SIZE = 10_000;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, Term> terms = new TreeMap<>();
+  private final List<Doc> docs = new ArrayList<>();
+  private final Map<String, Integer> docNumbers = new HashMap<>();
+  private final Tombstones tombstones = new Tombstones();
+
+  /**
+   * Index an Inventory, replacing an older version of it. Versions no newer than its
+   * removal are ignored.
+   * @param inventory Inventory with at least id, version, name and description.
+   * @return false when a newer or equal version is already indexed, or was removed.
+   */
+  public boolean index(Inventory inventory) {
+    return this.index(inventory, false);
+  }
+
+  /**
+   * Index an Inventory just created, even under the id of one removed before.
+   * @param inventory Inventory with at least id, version, name and description.
+   * @return false when a newer or equal version is already indexed.
+   */
+  public boolean indexCreated(Inventory inventory) {
+    return this.index(inventory, true);
+  }
+
+  /**
+   * Index an Inventory, replacing an older version of it.
+   * @param inventory Inventory.
+   * @param created whether the Inventory was just created, which outranks a removal under its id.
+   * @return false when a newer or equal version is already indexed, or was removed.
+   */
+  private boolean index(Inventory inventory, boolean created) {
+    this.lock.writeLock().lock();
+    try {
+      if (!created && this.tombstones.hides(inventory.getId(), inventory.getVersion())) {
+        return false;
+      }
+      this.tombstones.clear(inventory.getId());
+      Integer existing = this.docNumbers.get(inventory.getId());
+      if (existing != null) {
+        if (this.docs.get(existing).version >= inventory.getVersion()) {
+          return false;
+        }
+        this.docs.set(existing, null);
+      }
+      int number = this.docs.size();
+      String[] nameWords = this.intern(words(inventory.getName()));
+      String[] descriptionWords = this.intern(words(inventory.getDescription()));
+      this.docs.add(new Doc(inventory.getId(), inventory.getVersion(), inventory.getName(),
+        inventory.getProductType(), nameWords, descriptionWords));
+      this.docNumbers.put(inventory.getId(), number);
+      for (String word : nameWords) {
+        this.terms.get(word).name.add(number);
+      }
+      for (String word : descriptionWords) {
+        this.terms.get(word).description.add(number);
+      }
+      return true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an Inventory, keeping its version so older changes arriving late are ignored.
+   * @param id Inventory id.
+   */
+  public void remove(String id) {
+    this.lock.writeLock().lock();
+    try {
+      Integer existing = this.docNumbers.remove(id);
+      if (existing != null) {
+        this.tombstones.add(id, this.docs.get(existing).version);
+        this.docs.set(existing, null);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Number of Inventories indexed.
+   * @return Size.
+   */
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.docNumbers.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Whether dropped documents outnumber the live ones, so that a rebuild would halve the postings.
+   * @return true when the index should be rebuilt.
+   */
+  public boolean needsCompaction() {
+    this.lock.readLock().lock();
+    try {
+      return this.docs.size() > MIN_COMPACTION_SIZE && this.docs.size() > 2 * this.docNumbers.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Find the top Inventories whose name or description words are prefixed by every word of the query.
+   * @param query words typed so far.
+   * @param limit maximum number of hits.
+   * @return Hits, name matches first.
+   */
+  public List<SearchHit> search(String query, int limit) {
+    String[] queryWords = words(query);
+    if (queryWords.length == 0 || limit <= 0) {
+      return List.of();
+    }
+    this.lock.readLock().lock();
+    try {
+      String driver = null;
+      long fewest = Long.MAX_VALUE;
+      for (String word : queryWords) {
+        long postings = this.countPostings(word, fewest);
+        if (postings < fewest) {
+          fewest = postings;
+          driver = word;
+        }
+      }
+      List<SearchHit> hits = new ArrayList<>(limit);
+      if (fewest == 0) {
+        return hits;
+      }
+      Set<Integer> taken = new HashSet<>();
+      this.collect(driver, queryWords, false, limit, taken, hits);
+      if (hits.size() < limit) {
+        this.collect(driver, queryWords, true, limit, taken, hits);
+      }
+      return hits;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Fold text to distinct lower case words without accents.
+   * @param text text, may be null.
+   * @return Words in order of appearance.
+   */
+  static String[] words(String text) {
+    if (text == null || text.isBlank()) {
+      return NO_WORDS;
+    }
+    String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+      .toLowerCase(Locale.ROOT);
+    Set<String> words = new LinkedHashSet<>(Arrays.asList(SEPARATORS.split(folded)));
+    words.remove("");
+    return words.toArray(NO_WORDS);
+  }
+
+  /**
+   * Share the dictionary's instance of each word, adding new words to it.
+   * @param words words of a document.
+   * @return The same words.
+   */
+  private String[] intern(String[] words) {
+    for (int index = 0; index < words.length; index++) {
+      Map.Entry<String, Term> entry = this.terms.ceilingEntry(words[index]);
+      if (entry != null && entry.getKey().equals(words[index])) {
+        words[index] = entry.getKey();
+      } else {
+        this.terms.put(words[index], new Term());
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Count the postings of the words a query word prefixes, giving up past a cap.
+   * @param prefix query word.
+   * @param cap count that is already beaten.
+   * @return Postings, at least cap once it is reached.
+   */
+  private long countPostings(String prefix, long cap) {
+    long count = 0;
+    for (Term term : this.prefixed(prefix).values()) {
+      count += term.name.size + term.description.size;
+      if (count >= cap) {
+        return cap;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Collect hits in document order from the postings of a driving query word.
+   * @param driver query word whose postings are walked.
+   * @param queryWords all query words, each must prefix a word of the document.
+   * @param description whether description words count, otherwise only name words do.
+   * @param limit maximum number of hits.
+   * @param taken documents already hit.
+   * @param hits hits collected so far.
+   */
+  private void collect(String driver, String[] queryWords, boolean description, int limit, Set<Integer> taken,
+                       List<SearchHit> hits) {
+    PriorityQueue<PostingsCursor> cursors = new PriorityQueue<>();
+    for (Term term : this.prefixed(driver).values()) {
+      PostingsCursor.offer(cursors, term.name);
+      if (description) {
+        PostingsCursor.offer(cursors, term.description);
+      }
+    }
+    while (!cursors.isEmpty() && hits.size() < limit) {
+      PostingsCursor cursor = cursors.poll();
+      int number = cursor.current();
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+      Doc doc = this.docs.get(number);
+      if (doc != null && !taken.contains(number) && doc.matches(queryWords, description)) {
+        taken.add(number);
+        hits.add(new SearchHit(doc.id, doc.name, doc.productType));
+      }
+    }
+  }
+
+  /**
+   * Terms a query word prefixes.
+   * @param prefix query word.
+   * @return Terms in word order.
+   */
+  private NavigableMap<String, Term> prefixed(String prefix) {
+    return this.terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+  }
+
+  /**
+   * Documents containing a word, in name and in description.
+   */
+  private static final class Term {
+    private final Postings name = new Postings();
+    private final Postings description = new Postings();
+  }
+
+  /**
+   * Ascending document numbers, appended to as documents are indexed.
+   */
+  private static final class Postings {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] numbers = new int[0];
+    private int size;
+
+    /**
+     * Append a document number, larger than any before it.
+     * @param number document number.
+     */
+    private void add(int number) {
+      if (this.size == this.numbers.length) {
+        this.numbers = Arrays.copyOf(this.numbers, Math.max(INITIAL_CAPACITY, this.size * 2));
+      }
+      this.numbers[this.size++] = number;
+    }
+  }
+
+  /**
+   * Position in one postings list, ordered by the document number it points at.
+   */
+  private static final class PostingsCursor implements Comparable<PostingsCursor> {
+    private final Postings postings;
+    private int position;
+
+    /**
+     * Default Constructor.
+     * @param postings postings, not empty.
+     */
+    private PostingsCursor(Postings postings) {
+      this.postings = postings;
+    }
+
+    /**
+     * Add a cursor at the start of the postings, unless they are empty.
+     * @param cursors cursors.
+     * @param postings postings.
+     */
+    private static void offer(PriorityQueue<PostingsCursor> cursors, Postings postings) {
+      if (postings.size > 0) {
+        cursors.add(new PostingsCursor(postings));
+      }
+    }
+
+    /**
+     * Document number at the cursor.
+     * @return Document number.
+     */
+    private int current() {
+      return this.postings.numbers[this.position];
+    }
+
+    /**
+     * Move to the next document.
+     * @return false once the postings are exhausted.
+     */
+    private boolean advance() {
+      return ++this.position < this.postings.size;
+    }
+
+    @Override
+    public int compareTo(PostingsCursor other) {
+      return Integer.compare(this.current(), other.current());
+    }
+  }
+
+  /**
+   * An indexed Inventory version.
+   */
+  private static final class Doc {
+    private final String id;
+    private final long version;
+    private final String name;
+    private final String productType;
+    private final String[] nameWords;
+    private final String[] descriptionWords;
+
+    /**
+     * Default Constructor.
+     * @param id Inventory id.
+     * @param version Inventory version.
+     * @param name Inventory name.
+     * @param productType Inventory product type.
+     * @param nameWords words of the name.
+     * @param descriptionWords words of the description.
+     */
+    private Doc(String id, long version, String name, String productType, String[] nameWords,
+                String[] descriptionWords) {
+      this.id = id;
+      this.version = version;
+      this.name = name;
+      this.productType = productType;
+      this.nameWords = nameWords;
+      this.descriptionWords = descriptionWords;
+    }
+
+    /**
+     * Whether every query word prefixes a word of the document.
+     * @param queryWords query words.
+     * @param description whether description words count.
+     * @return true on a match.
+     */
+    private boolean matches(String[] queryWords, boolean description) {
+      for (String queryWord : queryWords) {
+        boolean inName = prefixesAny(queryWord, this.nameWords);
+        if (!inName && !(description && prefixesAny(queryWord, this.descriptionWords))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Whether a query word prefixes any of the words.
+     * @param queryWord query word.
+     * @param words words.
+     * @return true on a match.
+     */
+    private static boolean prefixesAny(String queryWord, String[] words) {
+      for (String word : words) {
+        if (word.startsWith(queryWord)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
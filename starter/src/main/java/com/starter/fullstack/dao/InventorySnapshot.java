@@ -0,0 +1,435 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.api.InventoryFilter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process columnar copy of every Inventory, held field by field in primitive arrays so filters and totals
+ * run over it without creating an object per row. Amounts are longs scaled to {@value #SCALE} decimals and
+ * values, average price times amount, to {@value #VALUE_SCALE}; best before dates are epoch millis; product
+ * types and stores are interned to int codes. An Inventory whose numbers do not fit exactly is kept but
+ * marked inexact, and totals over it are refused rather than rounded. Filters mean what they mean in Mongo.
+ * The rows of removed Inventories are reused by the next ones indexed.
+ */
+public class InventorySnapshot {
+  static final int SCALE = 4;
+  static final int VALUE_SCALE = 2 * SCALE;
+
+  private static final int NONE = -1;
+  private static final long NO_DATE = Long.MIN_VALUE;
+  private static final int[] NO_STORES = new int[0];
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Integer> rows = new HashMap<>();
+  private final Tombstones tombstones = new Tombstones();
+  private final Dictionary productTypes = new Dictionary();
+  private final Dictionary stores = new Dictionary();
+  private final BitSet live = new BitSet();
+  private final BitSet neverExpires = new BitSet();
+  private final BitSet inexact = new BitSet();
+  private int[] freeRows = new int[0];
+  private int freeCount;
+  private int rowCount;
+  private long[] versions = new long[INITIAL_CAPACITY];
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int[] productTypeCodes = new int[INITIAL_CAPACITY];
+  private int[][] storeCodes = new int[INITIAL_CAPACITY][];
+  private long[] amounts = new long[INITIAL_CAPACITY];
+  private long[] values = new long[INITIAL_CAPACITY];
+  private long[] bestBeforeDates = new long[INITIAL_CAPACITY];
+
+  /**
+   * Index an Inventory, replacing an older version of it in its row. Versions no newer than its
+   * removal are ignored.
+   * @param inventory Inventory.
+   * @return false when a newer or equal version is already indexed, or was removed.
+   */
+  public boolean index(Inventory inventory) {
+    return this.index(inventory, false);
+  }
+
+  /**
+   * Index an Inventory just created, even under the id of one removed before.
+   * @param inventory Inventory.
+   * @return false when a newer or equal version is already indexed.
+   */
+  public boolean indexCreated(Inventory inventory) {
+    return this.index(inventory, true);
+  }
+
+  /**
+   * Index an Inventory, replacing an older version of it.
+   * @param inventory Inventory.
+   * @param created whether the Inventory was just created, which outranks a removal under its id.
+   * @return false when a newer or equal version is already indexed, or was removed.
+   */
+  private boolean index(Inventory inventory, boolean created) {
+    this.lock.writeLock().lock();
+    try {
+      if (!created && this.tombstones.hides(inventory.getId(), inventory.getVersion())) {
+        return false;
+      }
+      this.tombstones.clear(inventory.getId());
+      Integer existing = this.rows.get(inventory.getId());
+      if (existing != null && this.versions[existing] >= inventory.getVersion()) {
+        return false;
+      }
+      int row = existing == null ? this.allocate() : existing;
+      this.rows.put(inventory.getId(), row);
+      this.versions[row] = inventory.getVersion();
+      this.names[row] = inventory.getName();
+      this.productTypeCodes[row] =
+        inventory.getProductType() == null ? NONE : this.productTypes.intern(inventory.getProductType());
+      this.storeCodes[row] = this.internStores(inventory.getAvailableStores());
+      this.bestBeforeDates[row] =
+        inventory.getBestBeforeDate() == null ? NO_DATE : inventory.getBestBeforeDate().toEpochMilli();
+      this.neverExpires.set(row, inventory.isNeverExpires());
+      this.live.set(row);
+      BigDecimal amount = orZero(inventory.getAmount());
+      BigDecimal averagePrice = orZero(inventory.getAveragePrice());
+      try {
+        this.amounts[row] = scaled(amount, SCALE);
+        this.values[row] = scaled(averagePrice.multiply(amount), VALUE_SCALE);
+        this.inexact.clear(row);
+      } catch (ArithmeticException e) {
+        this.inexact.set(row);
+      }
+      return true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an Inventory, freeing its row and keeping its version so older changes arriving late are ignored.
+   * @param id Inventory id.
+   */
+  public void remove(String id) {
+    this.lock.writeLock().lock();
+    try {
+      Integer row = this.rows.remove(id);
+      if (row == null) {
+        return;
+      }
+      this.tombstones.add(id, this.versions[row]);
+      this.live.clear(row);
+      this.inexact.clear(row);
+      this.names[row] = null;
+      this.storeCodes[row] = null;
+      if (this.freeCount == this.freeRows.length) {
+        this.freeRows = Arrays.copyOf(this.freeRows, Math.max(INITIAL_CAPACITY, this.freeCount * 2));
+      }
+      this.freeRows[this.freeCount++] = row;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Number of Inventories indexed.
+   * @return Size.
+   */
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.rows.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Count the Inventories matching a Filter; sort and fields are ignored.
+   * @param filter filter.
+   * @return Count.
+   */
+  public long count(InventoryFilter filter) {
+    this.lock.readLock().lock();
+    try {
+      Selection selection = this.select(filter);
+      long count = 0;
+      if (!selection.empty) {
+        for (int row = this.live.nextSetBit(0); row >= 0; row = this.live.nextSetBit(row + 1)) {
+          if (this.matches(selection, row)) {
+            count++;
+          }
+        }
+      }
+      return count;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Total the Inventories matching a Filter by product type or by store, like the materialized Aggregates
+   * but for any Filter. An Inventory counts towards each of its available stores.
+   * @param filter filter, sort and fields are ignored.
+   * @param dimension dimension.
+   * @return Aggregates ordered by key, empty when a matching Inventory is inexact or a total overflows.
+   */
+  public Optional<List<InventoryAggregate>> aggregate(InventoryFilter filter, AggregateDimension dimension) {
+    this.lock.readLock().lock();
+    try {
+      Selection selection = this.select(filter);
+      Dictionary keys = dimension == AggregateDimension.PRODUCT_TYPE ? this.productTypes : this.stores;
+      long[] counts = new long[keys.size()];
+      long[] amountTotals = new long[keys.size()];
+      long[] valueTotals = new long[keys.size()];
+      try {
+        for (int row = this.live.nextSetBit(0); row >= 0 && !selection.empty; row = this.live.nextSetBit(row + 1)) {
+          if (!this.matches(selection, row)) {
+            continue;
+          }
+          if (this.inexact.get(row)) {
+            return Optional.empty();
+          }
+          if (dimension == AggregateDimension.PRODUCT_TYPE) {
+            accumulate(this.productTypeCodes[row], this.amounts[row], this.values[row], counts, amountTotals,
+              valueTotals);
+          } else {
+            for (int store : this.storeCodes[row]) {
+              accumulate(store, this.amounts[row], this.values[row], counts, amountTotals, valueTotals);
+            }
+          }
+        }
+      } catch (ArithmeticException e) {
+        return Optional.empty();
+      }
+      List<InventoryAggregate> aggregates = new ArrayList<>();
+      for (int code = 0; code < counts.length; code++) {
+        if (counts[code] > 0) {
+          aggregates.add(new InventoryAggregate(dimension, keys.name(code), counts[code],
+            BigDecimal.valueOf(amountTotals[code], SCALE), BigDecimal.valueOf(valueTotals[code], VALUE_SCALE)));
+        }
+      }
+      aggregates.sort(Comparator.comparing(InventoryAggregate::getKey));
+      return Optional.of(aggregates);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Add one row to the totals of a key.
+   * @param code key code, NONE for no key.
+   * @param amount scaled amount.
+   * @param value scaled value.
+   * @param counts counts by key.
+   * @param amountTotals amounts by key.
+   * @param valueTotals values by key.
+   */
+  private static void accumulate(int code, long amount, long value, long[] counts, long[] amountTotals,
+                                 long[] valueTotals) {
+    if (code != NONE) {
+      counts[code]++;
+      amountTotals[code] = Math.addExact(amountTotals[code], amount);
+      valueTotals[code] = Math.addExact(valueTotals[code], value);
+    }
+  }
+
+  /**
+   * Resolve a Filter against the dictionaries once, before scanning rows.
+   * @param filter filter.
+   * @return Selection.
+   */
+  private Selection select(InventoryFilter filter) {
+    Selection selection = new Selection();
+    if (filter.getProductType() != null) {
+      selection.productType = this.productTypes.code(filter.getProductType());
+      selection.empty = selection.productType == NONE;
+    }
+    if (filter.getStore() != null) {
+      selection.store = this.stores.code(filter.getStore());
+      selection.empty |= selection.store == NONE;
+    }
+    if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+      selection.namePrefix = filter.getNamePrefix();
+    }
+    if (filter.getExpiresAfter() != null || filter.getExpiresBefore() != null) {
+      selection.expiring = true;
+      selection.expiresAfter = filter.getExpiresAfter() == null ? Long.MIN_VALUE
+        : filter.getExpiresAfter().toEpochMilli();
+      selection.expiresBefore = filter.getExpiresBefore() == null ? Long.MAX_VALUE
+        : filter.getExpiresBefore().toEpochMilli();
+    }
+    return selection;
+  }
+
+  /**
+   * Whether a row matches a Selection.
+   * @param selection selection.
+   * @param row live row.
+   * @return true on a match.
+   */
+  private boolean matches(Selection selection, int row) {
+    if (selection.productType != NONE && this.productTypeCodes[row] != selection.productType) {
+      return false;
+    }
+    if (selection.store != NONE && !contains(this.storeCodes[row], selection.store)) {
+      return false;
+    }
+    String name = this.names[row];
+    if (selection.namePrefix != null && (name == null || !name.startsWith(selection.namePrefix))) {
+      return false;
+    }
+    if (selection.expiring) {
+      long bestBefore = this.bestBeforeDates[row];
+      return !this.neverExpires.get(row) && bestBefore != NO_DATE
+        && bestBefore >= selection.expiresAfter && bestBefore <= selection.expiresBefore;
+    }
+    return true;
+  }
+
+  /**
+   * Row for a new Inventory, a freed one when there is one.
+   * @return Row.
+   */
+  private int allocate() {
+    if (this.freeCount > 0) {
+      return this.freeRows[--this.freeCount];
+    }
+    if (this.rowCount == this.versions.length) {
+      int capacity = this.versions.length * 2;
+      this.versions = Arrays.copyOf(this.versions, capacity);
+      this.names = Arrays.copyOf(this.names, capacity);
+      this.productTypeCodes = Arrays.copyOf(this.productTypeCodes, capacity);
+      this.storeCodes = Arrays.copyOf(this.storeCodes, capacity);
+      this.amounts = Arrays.copyOf(this.amounts, capacity);
+      this.values = Arrays.copyOf(this.values, capacity);
+      this.bestBeforeDates = Arrays.copyOf(this.bestBeforeDates, capacity);
+    }
+    return this.rowCount++;
+  }
+
+  /**
+   * Intern the stores of an Inventory, skipping null ones like Mongo's grouping does.
+   * @param availableStores stores, may be null.
+   * @return Store codes.
+   */
+  private int[] internStores(List<String> availableStores) {
+    if (availableStores == null || availableStores.isEmpty()) {
+      return NO_STORES;
+    }
+    int[] codes = new int[availableStores.size()];
+    int size = 0;
+    for (String store : availableStores) {
+      if (store != null) {
+        codes[size++] = this.stores.intern(store);
+      }
+    }
+    return size == codes.length ? codes : Arrays.copyOf(codes, size);
+  }
+
+  /**
+   * Whether an array holds a code.
+   * @param codes codes.
+   * @param code code.
+   * @return true when found.
+   */
+  private static boolean contains(int[] codes, int code) {
+    for (int candidate : codes) {
+      if (candidate == code) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Decimal as a long of fixed scale.
+   * @param decimal decimal.
+   * @param scale scale.
+   * @return Unscaled value.
+   * @throws ArithmeticException when the decimal has more digits than the scale or does not fit a long.
+   */
+  static long scaled(BigDecimal decimal, int scale) {
+    return decimal.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Null safe BigDecimal, missing amounts and prices count as zero like in the Mongo aggregates.
+   * @param decimal decimal, may be null.
+   * @return decimal or zero.
+   */
+  private static BigDecimal orZero(BigDecimal decimal) {
+    return decimal == null ? BigDecimal.ZERO : decimal;
+  }
+
+  /**
+   * A Filter resolved to codes and millis.
+   */
+  private static final class Selection {
+    private int productType = NONE;
+    private int store = NONE;
+    private String namePrefix;
+    private boolean expiring;
+    private long expiresAfter;
+    private long expiresBefore;
+    private boolean empty;
+  }
+
+  /**
+   * Strings interned to dense int codes, never released.
+   */
+  private static final class Dictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Code of a string, adding it when new.
+     * @param name string.
+     * @return Code.
+     */
+    private int intern(String name) {
+      Integer code = this.codes.get(name);
+      if (code == null) {
+        code = this.names.size();
+        this.codes.put(name, code);
+        this.names.add(name);
+      }
+      return code;
+    }
+
+    /**
+     * Code of a known string.
+     * @param name string.
+     * @return Code, NONE when unknown.
+     */
+    private int code(String name) {
+      return this.codes.getOrDefault(name, NONE);
+    }
+
+    /**
+     * String of a code.
+     * @param code code.
+     * @return String.
+     */
+    private String name(int code) {
+      return this.names.get(code);
+    }
+
+    /**
+     * Number of codes.
+     * @return Size.
+     */
+    private int size() {
+      return this.names.size();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.api.InventoryFilter;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Inventory Snapshot DAO -- Serves counts and totals over any Inventory Filter from an {@link InventorySnapshot}
+ * held in memory, so hot read-only queries neither reach Mongo nor map a document per matching Inventory.
+ * Descriptions are not loaded since no Filter reads them.
+ */
+public class InventorySnapshotDAO extends InventoryReplica<InventorySnapshot> {
+  private static final String[] FIELDS = {"version", "name", "productType", "amount", "averagePrice",
+    "bestBeforeDate", "neverExpires", "availableStores"};
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   * @param changeFeed feed of Inventory changes.
+   * @param executor executor loading the snapshot.
+   */
+  public InventorySnapshotDAO(MongoTemplate mongoTemplate, ChangeFeed changeFeed, Executor executor) {
+    super(mongoTemplate, changeFeed, executor);
+  }
+
+  /**
+   * Count the Inventories matching a Filter.
+   * @param filter filter.
+   * @return Count, empty until the first load completed.
+   */
+  public Optional<Long> count(InventoryFilter filter) {
+    InventorySnapshot snapshot = this.current();
+    return snapshot == null ? Optional.empty() : Optional.of(snapshot.count(filter));
+  }
+
+  /**
+   * Total the Inventories matching a Filter by a Dimension.
+   * @param filter filter.
+   * @param dimension dimension.
+   * @return Aggregates ordered by key, empty until the first load completed or when the snapshot cannot total
+   *   the matches exactly.
+   */
+  public Optional<List<InventoryAggregate>> aggregate(InventoryFilter filter, AggregateDimension dimension) {
+    InventorySnapshot snapshot = this.current();
+    return snapshot == null ? Optional.empty() : snapshot.aggregate(filter, dimension);
+  }
+
+  @Override
+  protected InventorySnapshot create() {
+    return new InventorySnapshot();
+  }
+
+  @Override
+  protected Query loadQuery() {
+    Query query = new Query();
+    query.fields().include(FIELDS);
+    return query;
+  }
+
+  @Override
+  protected void index(InventorySnapshot target, Inventory inventory) {
+    target.index(inventory);
+  }
+
+  @Override
+  protected void indexCreated(InventorySnapshot target, Inventory inventory) {
+    target.indexCreated(inventory);
+  }
+
+  @Override
+  protected void remove(InventorySnapshot target, String id) {
+    target.remove(id);
+  }
+
+  @Override
+  protected int size(InventorySnapshot target) {
+    return target.size();
+  }
+}
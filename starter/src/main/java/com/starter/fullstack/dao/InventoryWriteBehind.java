@@ -0,0 +1,434 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.UnitOfMeasurement;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.util.Assert;
+
+/**
+ * Inventory Write Behind -- Coalesces Inventory updates arriving within a short window into one bulk write.
+ * Updates queue in stripes picked by id, so concurrent callers rarely share a lock. Updates to the same Inventory
+ * must replace the same version, and are merged field by field at the flush: each keeps the fields it changed
+ * from the stored document, and one changing a field that an earlier queued update already set to another value
+ * fails as a version conflict instead of silently undoing it. Every window the stripes are drained into one
+ * {@link InventoryDAO#bulkUpdate(List)}. Callers either wait until Mongo acknowledged the write or return once
+ * their update is queued, trading durability for latency; queued updates are flushed when the application stops.
+ */
+@Slf4j
+public class InventoryWriteBehind implements SmartLifecycle {
+  static final String BATCH_METRIC = "inventory.write.behind.batch";
+  static final String COALESCED_METRIC = "inventory.write.behind.coalesced";
+  static final String FLUSH_METRIC = "inventory.write.behind.flush";
+
+  /** Fields an update may change, compared with the stored document to merge updates to one Inventory. */
+  private static final List<Field<?>> FIELDS = List.of(
+    new Field<String>("name", Inventory::getName, Inventory::setName),
+    new Field<String>("productType", Inventory::getProductType, Inventory::setProductType),
+    new Field<String>("description", Inventory::getDescription, Inventory::setDescription),
+    new Field<BigDecimal>("averagePrice", Inventory::getAveragePrice, Inventory::setAveragePrice),
+    new Field<BigDecimal>("amount", Inventory::getAmount, Inventory::setAmount),
+    new Field<UnitOfMeasurement>("unitOfMeasurement", Inventory::getUnitOfMeasurement, Inventory::setUnitOfMeasurement),
+    new Field<Instant>("bestBeforeDate", Inventory::getBestBeforeDate, Inventory::setBestBeforeDate),
+    new Field<Boolean>("neverExpires", Inventory::isNeverExpires, Inventory::setNeverExpires),
+    new Field<Boolean>("expired", Inventory::isExpired, Inventory::setExpired),
+    new Field<List<String>>("availableStores", Inventory::getAvailableStores, Inventory::setAvailableStores));
+
+  private final InventoryDAO inventoryDAO;
+  private final long windowNanos;
+  private final Stripe[] stripes;
+  private final boolean waitForFlush;
+  private final DistributionSummary batches;
+  private final DistributionSummary coalesced;
+  private final Timer flushes;
+  private final Object flushLock = new Object();
+  private volatile boolean running;
+  private Thread flusher;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDAO DAO writing the updates.
+   * @param window how long updates are collected before a flush.
+   * @param stripes number of queues updates are spread over.
+   * @param waitForFlush whether {@link #update(Inventory)} waits for the write.
+   * @param meterRegistry registry.
+   */
+  public InventoryWriteBehind(InventoryDAO inventoryDAO, Duration window, int stripes, boolean waitForFlush,
+                              MeterRegistry meterRegistry) {
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.isTrue(window != null && !window.isNegative() && !window.isZero(), "Window must be positive.");
+    Assert.isTrue(stripes > 0, "Stripes must be positive.");
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.inventoryDAO = inventoryDAO;
+    this.windowNanos = window.toNanos();
+    this.stripes = new Stripe[stripes];
+    for (int index = 0; index < stripes; index++) {
+      this.stripes[index] = new Stripe();
+    }
+    this.waitForFlush = waitForFlush;
+    this.batches = DistributionSummary.builder(BATCH_METRIC)
+      .description("Inventories written by each flush")
+      .register(meterRegistry);
+    this.coalesced = DistributionSummary.builder(COALESCED_METRIC)
+      .description("Updates merged into each written Inventory, its mean is the coalescing ratio")
+      .register(meterRegistry);
+    this.flushes = Timer.builder(FLUSH_METRIC)
+      .description("Time to write one flush of queued Inventory updates")
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!this.running) {
+      this.running = true;
+      this.flusher = new Thread(this::flushEveryWindow, "inventory-write-behind");
+      this.flusher.setDaemon(true);
+      this.flusher.start();
+    }
+  }
+
+  /**
+   * Stop flushing every window, then flush what is still queued.
+   */
+  @Override
+  public synchronized void stop() {
+    this.running = false;
+    if (this.flusher != null) {
+      LockSupport.unpark(this.flusher);
+      try {
+        this.flusher.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      this.flusher = null;
+    }
+    this.flush();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Start before and stop after the web server. Lifecycles stop in descending phase order: graceful shutdown
+   * runs in {@link WebServerGracefulShutdownLifecycle#SMART_LIFECYCLE_PHASE}, the web server stops one phase
+   * below, and the queue one below that, so the updates of the last requests are drained too.
+   * @return Phase.
+   */
+  @Override
+  public int getPhase() {
+    return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2;
+  }
+
+  /**
+   * Update an Inventory through the queue.
+   * @param inventory Inventory at the version it replaces.
+   * @return Updated Inventory once written, empty when acknowledged as soon as queued.
+   * @throws OptimisticLockingFailureException when the Inventory is not at that version, when updates to it are
+   *   queued at another version, even when not waiting for the write, or when an update queued before it set
+   *   one of its fields to another value.
+   */
+  public Optional<Inventory> update(Inventory inventory) {
+    CompletableFuture<Inventory> written = this.submit(inventory);
+    if (!this.waitForFlush && !written.isDone()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(written.join());
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof DataAccessException) {
+        throw (DataAccessException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Queue an update, next to the updates queued for the same Inventory.
+   * @param inventory Inventory at the version it replaces.
+   * @return Updated Inventory, completed once written; failed with an OptimisticLockingFailureException when
+   *   the Inventory is not at that version, updates to it are queued at another version, or an update queued
+   *   before it set one of its fields to another value.
+   */
+  public CompletableFuture<Inventory> submit(Inventory inventory) {
+    Assert.notNull(inventory.getId(), "Inventory id must not be null.");
+    CompletableFuture<Inventory> written = new CompletableFuture<>();
+    Stripe stripe = this.stripes[Math.floorMod(inventory.getId().hashCode(), this.stripes.length)];
+    synchronized (stripe) {
+      Pending queued = stripe.pending.computeIfAbsent(inventory.getId(), id -> new Pending(inventory.getVersion()));
+      if (queued.version != inventory.getVersion()) {
+        written.completeExceptionally(new OptimisticLockingFailureException(
+          "Inventory " + inventory.getId() + " has updates queued at version " + queued.version + "."));
+        return written;
+      }
+      queued.updates.add(new Queued(inventory, written));
+    }
+    if (!this.running) {
+      this.flush();
+    }
+    return written;
+  }
+
+  /**
+   * Flush once per window until stopped.
+   */
+  private void flushEveryWindow() {
+    while (this.running) {
+      LockSupport.parkNanos(this.windowNanos);
+      this.flush();
+    }
+  }
+
+  /**
+   * Drain every stripe, merge the updates queued for each Inventory and write them in one bulk write,
+   * completing their callers. Only Inventories with several updates queued are read first.
+   */
+  void flush() {
+    synchronized (this.flushLock) {
+      List<Pending> batch = new ArrayList<>();
+      for (Stripe stripe : this.stripes) {
+        synchronized (stripe) {
+          batch.addAll(stripe.pending.values());
+          stripe.pending.clear();
+        }
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        this.write(batch);
+      } catch (DataAccessException e) {
+        log.warn("Could not write {} queued Inventory updates.", batch.size(), e);
+        batch.forEach(pending -> pending.fail(e));
+      } finally {
+        this.flushes.record(Duration.ofNanos(System.nanoTime() - start));
+      }
+    }
+  }
+
+  /**
+   * Merge and write one drained batch.
+   * @param batch updates queued per Inventory.
+   */
+  private void write(List<Pending> batch) {
+    List<String> merging = new ArrayList<>();
+    batch.stream().filter(pending -> pending.updates.size() > 1).forEach(pending -> merging.add(pending.id()));
+    Map<String, Inventory> stored = merging.isEmpty() ? Map.of() : this.inventoryDAO.findStored(merging);
+    List<Pending> writing = new ArrayList<>(batch.size());
+    List<Inventory> inventories = new ArrayList<>(batch.size());
+    for (Pending pending : batch) {
+      Inventory merged = pending.merge(stored.get(pending.id()));
+      if (merged != null) {
+        writing.add(pending);
+        inventories.add(merged);
+      }
+    }
+    if (inventories.isEmpty()) {
+      return;
+    }
+    List<BulkItemResult> results = this.inventoryDAO.bulkUpdate(inventories);
+    this.batches.record(inventories.size());
+    for (int index = 0; index < writing.size(); index++) {
+      Pending pending = writing.get(index);
+      BulkItemResult result = results.get(index);
+      this.coalesced.record(pending.accepted.size());
+      if (result.getStatus() == BulkItemStatus.UPDATED) {
+        pending.complete(inventories.get(index));
+        continue;
+      }
+      if (!this.waitForFlush) {
+        log.warn("Queued update of Inventory {} was not written: {}", result.getId(), result.getMessage());
+      }
+      pending.fail(result.getStatus() == BulkItemStatus.FAILED
+        ? new DataIntegrityViolationException(result.getMessage())
+        : new OptimisticLockingFailureException(result.getMessage()));
+    }
+  }
+
+  /**
+   * Updates queued for the Inventories whose id hashes to one stripe.
+   */
+  private static final class Stripe {
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+  }
+
+  /**
+   * The updates queued for one Inventory, all replacing the same version.
+   */
+  private static final class Pending {
+    private final long version;
+    private final List<Queued> updates = new ArrayList<>();
+    private final List<Queued> accepted = new ArrayList<>();
+
+    /**
+     * Default Constructor.
+     * @param version version the updates replace.
+     */
+    private Pending(long version) {
+      this.version = version;
+    }
+
+    /**
+     * Id of the Inventory.
+     * @return Id.
+     */
+    private String id() {
+      return this.updates.get(0).inventory.getId();
+    }
+
+    /**
+     * Merge the queued updates in arrival order into the stored Inventory, failing the ones that conflict.
+     * A single update is written as it is, leaving the version check to the bulk write.
+     * @param stored stored Inventory, read only when several updates are queued.
+     * @return Inventory to write, null when every update failed.
+     */
+    private Inventory merge(Inventory stored) {
+      if (this.updates.size() == 1) {
+        this.accepted.addAll(this.updates);
+        return this.updates.get(0).inventory;
+      }
+      if (stored == null || stored.getVersion() != this.version) {
+        this.fail(new OptimisticLockingFailureException(stored == null ? "Inventory does not exist."
+          : "Inventory is at version " + stored.getVersion() + "."));
+        return null;
+      }
+      Inventory merged = EntityCopies.copyOf(stored);
+      Set<String> changed = new HashSet<>();
+      for (Queued update : this.updates) {
+        List<Field<?>> changes = new ArrayList<>();
+        Field<?> clash = null;
+        for (Field<?> field : FIELDS) {
+          if (!field.same(update.inventory, stored)) {
+            changes.add(field);
+            if (changed.contains(field.name) && !field.same(update.inventory, merged)) {
+              clash = field;
+            }
+          }
+        }
+        if (clash != null) {
+          update.written.completeExceptionally(new OptimisticLockingFailureException("Inventory " + stored.getId()
+            + " " + clash.name + " was changed by an update queued before."));
+          continue;
+        }
+        for (Field<?> field : changes) {
+          field.copy(update.inventory, merged);
+          changed.add(field.name);
+        }
+        this.accepted.add(update);
+      }
+      return this.accepted.isEmpty() ? null : merged;
+    }
+
+    /**
+     * Complete the merged updates with the written Inventory, each with its own copy.
+     * @param written written Inventory.
+     */
+    private void complete(Inventory written) {
+      if (this.updates.size() == 1) {
+        this.updates.get(0).written.complete(written);
+        return;
+      }
+      this.accepted.forEach(update -> update.written.complete(EntityCopies.copyOf(written)));
+    }
+
+    /**
+     * Fail every caller not failed yet.
+     * @param failure failure.
+     */
+    private void fail(DataAccessException failure) {
+      this.updates.forEach(update -> update.written.completeExceptionally(failure));
+    }
+  }
+
+  /**
+   * One queued update and its caller's future.
+   */
+  private static final class Queued {
+    private final Inventory inventory;
+    private final CompletableFuture<Inventory> written;
+
+    /**
+     * Default Constructor.
+     * @param inventory Inventory at the version it replaces.
+     * @param written completed once written.
+     */
+    private Queued(Inventory inventory, CompletableFuture<Inventory> written) {
+      this.inventory = inventory;
+      this.written = written;
+    }
+  }
+
+  /**
+   * One Inventory field, compared and copied when merging updates.
+   * @param <T> field type.
+   */
+  private static final class Field<T> {
+    private final String name;
+    private final Function<Inventory, T> getter;
+    private final BiConsumer<Inventory, T> setter;
+
+    /**
+     * Default Constructor.
+     * @param name field name.
+     * @param getter reads the field.
+     * @param setter writes the field.
+     */
+    private Field(String name, Function<Inventory, T> getter, BiConsumer<Inventory, T> setter) {
+      this.name = name;
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    /**
+     * Whether two Inventories hold the same value, decimals compared by value whatever their scale.
+     * @param left Inventory.
+     * @param right Inventory.
+     * @return true when the same.
+     */
+    private boolean same(Inventory left, Inventory right) {
+      T leftValue = this.getter.apply(left);
+      T rightValue = this.getter.apply(right);
+      if (leftValue instanceof BigDecimal && rightValue instanceof BigDecimal) {
+        return ((BigDecimal) leftValue).compareTo((BigDecimal) rightValue) == 0;
+      }
+      return Objects.equals(leftValue, rightValue);
+    }
+
+    /**
+     * Copy the field from one Inventory to another.
+     * @param from Inventory read.
+     * @param to Inventory written.
+     */
+    private void copy(Inventory from, Inventory to) {
+      this.setter.accept(to, this.getter.apply(from));
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Feeds the {@link ChangeFeed} from one Mongo change stream over the inventory and product collections,
+ * so writes from every instance and from outside the application reach subscribers. Mongo resume tokens
+ * are used as change tokens, and the stream resumes after the last one when it fails. The cluster time of
+ * the last change to each collection is recorded in the {@link CollectionVersionDAO} whenever the stream is
+ * drained, and at least once a second under steady load, so writes made outside the application move
+ * collection versions too.
+ */
+@Slf4j
+public class MongoChangeStreamSource implements SmartLifecycle {
+  private static final long MAX_AWAIT_MILLIS = 1000;
+  private static final long RETRY_MILLIS = 1000;
+  private static final String RESUME_DATA = "_data";
+  private static final String ID = "_id";
+
+  private final MongoTemplate mongoTemplate;
+  private final ChangeFeed changeFeed;
+  private final CollectionVersionDAO collectionVersionDAO;
+  private final String inventoryCollection;
+  private final String productCollection;
+  private final Map<String, Long> clusterTimes = new HashMap<>();
+  private volatile boolean running;
+  private Thread watcher;
+  private BsonDocument resumeToken;
+  private long recordedAt;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   * @param changeFeed feed to publish to, the stream only runs when the feed is not local.
+   * @param collectionVersionDAO collection versions advanced by the changes seen.
+   */
+  public MongoChangeStreamSource(MongoTemplate mongoTemplate, ChangeFeed changeFeed,
+                                 CollectionVersionDAO collectionVersionDAO) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    Assert.notNull(changeFeed, "Change Feed must not be null.");
+    Assert.notNull(collectionVersionDAO, "Collection Version DAO must not be null.");
+    this.mongoTemplate = mongoTemplate;
+    this.changeFeed = changeFeed;
+    this.collectionVersionDAO = collectionVersionDAO;
+    this.inventoryCollection = mongoTemplate.getCollectionName(Inventory.class);
+    this.productCollection = mongoTemplate.getCollectionName(Product.class);
+  }
+
+  /**
+   * Change streams need a replica set or a sharded cluster.
+   * @param mongoTemplate MongoTemplate.
+   * @return true when the server supports change streams.
+   */
+  public static boolean isSupported(MongoTemplate mongoTemplate) {
+    try {
+      Document isMaster = mongoTemplate.executeCommand(new Document("isMaster", 1));
+      return isMaster.containsKey("setName") || "isdbgrid".equals(isMaster.getString("msg"));
+    } catch (DataAccessException e) {
+      log.warn("Could not tell whether Mongo supports change streams.", e);
+      return false;
+    }
+  }
+
+  @Override
+  public boolean isAutoStartup() {
+    return !this.changeFeed.isLocal();
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!this.running) {
+      this.running = true;
+      this.watcher = new Thread(this::watch, "change-stream");
+      this.watcher.setDaemon(true);
+      this.watcher.start();
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    this.running = false;
+    if (this.watcher != null) {
+      try {
+        this.watcher.join(MAX_AWAIT_MILLIS + RETRY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      this.watcher = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Watch until stopped, reopening the stream after the last resume token whenever it fails.
+   */
+  private void watch() {
+    List<Bson> pipeline = List.of(
+      Aggregates.match(Filters.in("ns.coll", this.inventoryCollection, this.productCollection)));
+    while (this.running) {
+      ChangeStreamIterable<Document> stream = this.mongoTemplate.getDb().watch(pipeline)
+        .fullDocument(FullDocument.UPDATE_LOOKUP)
+        .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+      if (this.resumeToken != null) {
+        stream = stream.resumeAfter(this.resumeToken);
+      }
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+        while (this.running) {
+          ChangeStreamDocument<Document> event = cursor.tryNext();
+          if (event != null && this.publish(event)) {
+            break;
+          }
+          if (event == null || System.currentTimeMillis() - this.recordedAt >= MAX_AWAIT_MILLIS) {
+            this.recordVersions();
+          }
+        }
+      } catch (MongoCommandException e) {
+        log.warn("Change stream cannot resume, restarting from now.", e);
+        this.resumeToken = null;
+        this.pause();
+      } catch (MongoException e) {
+        log.warn("Change stream failed, resuming.", e);
+        this.pause();
+      }
+    }
+  }
+
+  /**
+   * Publish one change stream event.
+   * @param event change stream event.
+   * @return true when the stream was invalidated and has to be reopened.
+   */
+  private boolean publish(ChangeStreamDocument<Document> event) {
+    if (event.getOperationType() == OperationType.INVALIDATE) {
+      this.resumeToken = null;
+      return true;
+    }
+    this.resumeToken = event.getResumeToken();
+    ChangeOperation operation = operation(event.getOperationType());
+    if (operation == null || event.getNamespace() == null) {
+      return false;
+    }
+    String collection = event.getNamespace().getCollectionName();
+    if (event.getClusterTime() != null) {
+      this.clusterTimes.merge(collection, event.getClusterTime().getValue(), Math::max);
+    }
+    boolean inventory = this.inventoryCollection.equals(collection);
+    Object document = null;
+    if (operation != ChangeOperation.DELETE && event.getFullDocument() != null) {
+      document = this.mongoTemplate.getConverter()
+        .read(inventory ? Inventory.class : Product.class, event.getFullDocument());
+    }
+    this.changeFeed.publish(new EntityChange(token(event.getResumeToken()),
+      inventory ? EntityChange.INVENTORY : EntityChange.PRODUCT, operation, id(event.getDocumentKey()), document));
+    return false;
+  }
+
+  /**
+   * Record the cluster times of the changes seen since the last call, keeping the ones that failed for the
+   * next call.
+   */
+  private void recordVersions() {
+    this.recordedAt = System.currentTimeMillis();
+    Iterator<Map.Entry<String, Long>> clusterTimes = this.clusterTimes.entrySet().iterator();
+    while (clusterTimes.hasNext()) {
+      Map.Entry<String, Long> clusterTime = clusterTimes.next();
+      try {
+        this.collectionVersionDAO.advance(clusterTime.getKey(), clusterTime.getValue());
+        clusterTimes.remove();
+      } catch (DataAccessException e) {
+        log.warn("Could not record the {} version.", clusterTime.getKey(), e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Sleep before retrying, giving up when stopped.
+   */
+  private void pause() {
+    try {
+      Thread.sleep(RETRY_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.running = false;
+    }
+  }
+
+  /**
+   * Operation of a document change, null for events that do not change a document.
+   * @param type change stream operation type.
+   * @return Operation.
+   */
+  private static ChangeOperation operation(OperationType type) {
+    switch (type) {
+      case INSERT:
+        return ChangeOperation.CREATE;
+      case UPDATE:
+      case REPLACE:
+        return ChangeOperation.UPDATE;
+      case DELETE:
+        return ChangeOperation.DELETE;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Change token of a resume token.
+   * @param resumeToken resume token.
+   * @return Token.
+   */
+  private static String token(BsonDocument resumeToken) {
+    BsonValue data = resumeToken.get(RESUME_DATA);
+    return data != null && data.isString() ? data.asString().getValue() : resumeToken.toJson();
+  }
+
+  /**
+   * Document id as exposed through the API.
+   * @param documentKey document key of the change.
+   * @return Id.
+   */
+  private static String id(BsonDocument documentKey) {
+    BsonValue id = documentKey == null ? null : documentKey.get(ID);
+    if (id == null) {
+      return null;
+    }
+    if (id.isObjectId()) {
+      return id.asObjectId().getValue().toHexString();
+    }
+    return id.isString() ? id.asString().getValue() : id.toString();
+  }
+}
@@ -0,0 +1,29 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.Product;
+import java.util.List;
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+/**
+ * Published by the Product DAO after Products are written, one event per DAO call.
+ * Listeners run on the writing thread, after the write and must not mutate the Products.
+ */
+@Getter
+public class ProductChangeEvent {
+  private final ChangeOperation operation;
+  private final List<Product> products;
+
+  /**
+   * Default Constructor.
+   * @param operation what happened to the Products.
+   * @param products Products as written, or as they were when deleted.
+   */
+  public ProductChangeEvent(ChangeOperation operation, List<Product> products) {
+    Assert.notNull(operation, "Operation must not be null.");
+    Assert.notNull(products, "Products must not be null.");
+    this.operation = operation;
+    this.products = List.copyOf(products);
+  }
+}
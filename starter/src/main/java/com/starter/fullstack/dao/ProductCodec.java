@@ -0,0 +1,64 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Product;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Product Codec -- Reads and writes Product straight off the BSON stream in the layout MappingMongoConverter uses.
+ */
+public class ProductCodec implements Codec<Product> {
+  private static final String ID = "_id";
+  private static final String CLASS = "_class";
+  private static final String VERSION = "version";
+  private static final String NAME = "name";
+
+  @Override
+  public Product decode(BsonReader reader, DecoderContext decoderContext) {
+    Product product = new Product();
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (reader.getCurrentBsonType() == BsonType.NULL) {
+        reader.readNull();
+        continue;
+      }
+      switch (name) {
+        case ID:
+          product.setId(InventoryCodec.readId(reader));
+          break;
+        case VERSION:
+          product.setVersion(InventoryCodec.readLong(reader));
+          break;
+        case NAME:
+          product.setName(reader.readString());
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+    return product;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, Product product, EncoderContext encoderContext) {
+    writer.writeStartDocument();
+    if (product.getId() != null) {
+      InventoryCodec.writeId(writer, product.getId());
+    }
+    writer.writeInt64(VERSION, product.getVersion());
+    InventoryCodec.writeString(writer, NAME, product.getName());
+    writer.writeString(CLASS, Product.class.getName());
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public Class<Product> getEncoderClass() {
+    return Product.class;
+  }
+}
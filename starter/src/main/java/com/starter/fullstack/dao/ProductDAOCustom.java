@@ -0,0 +1,67 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.Product;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Product DAO operations served through the product cache.
+ */
+public interface ProductDAOCustom {
+
+  /**
+   * Find All Products, decoded by the product codec when one is configured.
+   * @return List of found Products.
+   */
+  List<Product> findAll();
+
+  /**
+   * Find Products By Their Name.
+   * @param name The Product Name to Query by.
+   * @return Found Product.
+   */
+  Optional<Product> findProductByName(String name);
+
+  /**
+   * Find the Products of several names in one query.
+   * @param names Product names.
+   * @return Found Products.
+   */
+  List<Product> findByNameIn(Collection<String> names);
+
+  /**
+   * Save Product.
+   * @param product Product to Save/Update.
+   * @param <S> Product type.
+   * @return Saved Product.
+   */
+  <S extends Product> S save(S product);
+
+  /**
+   * Delete Product.
+   * @param product Product to Delete.
+   */
+  void delete(Product product);
+
+  /**
+   * Remove all products by ids.
+   * @param ids ids.
+   */
+  void deleteProductsByIdIn(List<String> ids);
+
+  /**
+   * Create or replace Products in one unordered bulk write, whatever their stored version.
+   * @param products Products to Create or Replace.
+   * @return Result per Product, indexed by position in the list.
+   */
+  List<BulkItemResult> bulkUpsert(List<Product> products);
+
+  /**
+   * Stream every Product ordered by name, one document at a time off the Mongo cursor.
+   * @return Stream of Product, to be closed.
+   */
+  Stream<Product> streamAll();
+}
@@ -0,0 +1,235 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Product DAO operations served through the product cache.
+ * Products are cached by name, so every write drops the whole cache since a save may rename.
+ */
+public class ProductDAOCustomImpl implements ProductDAOCustom, ApplicationEventPublisherAware {
+  private static final String NAME = "name";
+  private static final String ID = "id";
+  private static final String VERSION = "version";
+
+  private final MongoTemplate mongoTemplate;
+  private final VersionedCache<String, Product> productCache;
+  private final CodecReader<Product> productReader;
+  private final QueryPlanVerifier queryPlanVerifier;
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   * @param productCache product cache, caching is disabled when not configured.
+   * @param productCodec product codec, reads decode through MappingMongoConverter when not configured.
+   * @param queryPlanVerifier verifier explaining every filtered query first, queries run unchecked when not
+   *   configured.
+   */
+  public ProductDAOCustomImpl(MongoTemplate mongoTemplate,
+                              ObjectProvider<VersionedCache<String, Product>> productCache,
+                              ObjectProvider<ProductCodec> productCodec,
+                              ObjectProvider<QueryPlanVerifier> queryPlanVerifier) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+    this.productCache = productCache.getIfAvailable(VersionedCache::disabled);
+    ProductCodec codec = productCodec.getIfAvailable();
+    this.productReader = codec == null ? null : new CodecReader<>(mongoTemplate, Product.class, codec);
+    this.queryPlanVerifier = queryPlanVerifier.getIfAvailable();
+  }
+
+  /**
+   * Indexes backing the Product queries, registered with the {@link IndexRegistry}.
+   * @return Named index definitions.
+   */
+  public static List<Index> indexes() {
+    return List.of(new Index(NAME, Sort.Direction.ASC).named("name_1").background());
+  }
+
+  /**
+   * Publish a {@link ProductChangeEvent} after every write.
+   * @param eventPublisher publisher, null to stop publishing.
+   */
+  @Override
+  public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public List<Product> findAll() {
+    if (this.productReader != null) {
+      return this.productReader.findAll();
+    }
+    return this.mongoTemplate.findAll(Product.class);
+  }
+
+  @Override
+  public Optional<Product> findProductByName(String name) {
+    return this.productCache.get(name, key ->
+      Optional.ofNullable(this.mongoTemplate.findOne(this.verified(new Query(Criteria.where(NAME).is(key))),
+        Product.class)));
+  }
+
+  @Override
+  public List<Product> findByNameIn(Collection<String> names) {
+    return this.mongoTemplate.find(this.verified(new Query(Criteria.where(NAME).in(names))), Product.class);
+  }
+
+  @Override
+  public <S extends Product> S save(S product) {
+    ChangeOperation operation = product.getId() == null ? ChangeOperation.CREATE : ChangeOperation.UPDATE;
+    try {
+      S saved = this.mongoTemplate.save(product);
+      this.productCache.invalidateAll();
+      this.productCache.put(saved.getName(), saved);
+      this.publish(operation, List.of(saved));
+      return saved;
+    } catch (OptimisticLockingFailureException e) {
+      this.productCache.invalidateAll();
+      throw e;
+    }
+  }
+
+  @Override
+  public void delete(Product product) {
+    if (this.mongoTemplate.remove(product).getDeletedCount() > 0) {
+      this.publish(ChangeOperation.DELETE, List.of(product));
+    }
+    this.productCache.invalidateAll();
+  }
+
+  @Override
+  public void deleteProductsByIdIn(List<String> ids) {
+    List<Product> deleted = this.mongoTemplate.findAllAndRemove(this.verified(new Query(Criteria.where(ID).in(ids))),
+      Product.class);
+    this.productCache.invalidateAll();
+    this.publish(ChangeOperation.DELETE, deleted);
+  }
+
+  @Override
+  public List<BulkItemResult> bulkUpsert(List<Product> products) {
+    List<String> ids = new ArrayList<>(products.size());
+    products.forEach(product -> ids.add(product.getId()));
+    Map<String, Product> stored = new HashMap<>();
+    this.mongoTemplate.find(this.verified(new Query(Criteria.where(ID).in(ids))), Product.class)
+      .forEach(product -> stored.put(product.getId(), product));
+    List<BulkItemResult> results = new ArrayList<>(products.size());
+    BulkOperations bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+    List<BulkItemResult> upserts = new ArrayList<>(products.size());
+    Set<String> batchIds = new HashSet<>();
+    for (int index = 0; index < products.size(); index++) {
+      Product product = products.get(index);
+      if (product.getId() == null) {
+        product.setId(ObjectId.get().toHexString());
+      }
+      Product before = stored.get(product.getId());
+      if (!batchIds.add(product.getId())) {
+        results.add(new BulkItemResult(index, product.getId(), BulkItemStatus.CONFLICT,
+          "Product id is repeated in the batch."));
+        continue;
+      }
+      Query current = new Query(Criteria.where(ID).is(product.getId()));
+      if (before == null) {
+        product.setVersion(0);
+      } else {
+        current.addCriteria(Criteria.where(VERSION).is(before.getVersion()));
+        product.setVersion(before.getVersion() + 1);
+      }
+      bulk.replaceOne(current, product, FindAndReplaceOptions.options().upsert());
+      BulkItemResult result = new BulkItemResult(index, product.getId(),
+        before == null ? BulkItemStatus.CREATED : BulkItemStatus.UPDATED, null);
+      results.add(result);
+      upserts.add(result);
+    }
+    if (!upserts.isEmpty()) {
+      executeBulk(bulk, upserts);
+    }
+    this.productCache.invalidateAll();
+    List<Product> created = new ArrayList<>();
+    List<Product> updated = new ArrayList<>();
+    for (int index = 0; index < products.size(); index++) {
+      BulkItemStatus status = results.get(index).getStatus();
+      if (status == BulkItemStatus.CREATED) {
+        created.add(products.get(index));
+      } else if (status == BulkItemStatus.UPDATED) {
+        updated.add(products.get(index));
+      }
+    }
+    this.publish(ChangeOperation.CREATE, created);
+    this.publish(ChangeOperation.UPDATE, updated);
+    return results;
+  }
+
+  @Override
+  public Stream<Product> streamAll() {
+    return StreamUtils.createStreamFromIterator(
+      this.mongoTemplate.stream(new Query().with(Sort.by(NAME)), Product.class));
+  }
+
+  /**
+   * Explain the query first when running in diagnostic mode.
+   * @param query query about to run.
+   * @return the same query.
+   */
+  private Query verified(Query query) {
+    if (this.queryPlanVerifier != null) {
+      this.queryPlanVerifier.verify(query, Product.class);
+    }
+    return query;
+  }
+
+  /**
+   * Execute a bulk write, marking the items the server rejected as failed.
+   * @param bulk bulk write.
+   * @param results results in the order of the bulk write operations.
+   */
+  private static void executeBulk(BulkOperations bulk, List<BulkItemResult> results) {
+    try {
+      bulk.execute();
+    } catch (BulkOperationException e) {
+      for (BulkWriteError error : e.getErrors()) {
+        BulkItemResult result = results.get(error.getIndex());
+        result.setStatus(BulkItemStatus.FAILED);
+        result.setMessage(error.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Publish the Products of one write, if there are any and a publisher is set.
+   * @param operation what happened to the Products.
+   * @param products Products written.
+   */
+  private void publish(ChangeOperation operation, List<Product> products) {
+    if (this.eventPublisher != null && !products.isEmpty()) {
+      this.eventPublisher.publishEvent(new ProductChangeEvent(operation, products));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.starter.fullstack.dao;
+
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+/**
+ * Diagnostic that explains a query before it runs and fails it when the winning plan scans the collection.
+ * Queries with neither a filter nor a sort are full reads by design and are not checked.
+ */
+public class QueryPlanVerifier {
+  private static final String COLLSCAN = "COLLSCAN";
+  private static final String STAGE = "stage";
+  private static final String INPUT_STAGE = "inputStage";
+  private static final String INPUT_STAGES = "inputStages";
+
+  private final MongoTemplate mongoTemplate;
+  private final QueryMapper queryMapper;
+
+  /**
+   * Default Constructor.
+   * @param mongoTemplate MongoTemplate.
+   */
+  public QueryPlanVerifier(MongoTemplate mongoTemplate) {
+    Assert.notNull(mongoTemplate, "MongoTemplate must not be null.");
+    this.mongoTemplate = mongoTemplate;
+    this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+  }
+
+  /**
+   * Explain a query and fail when its winning plan contains a COLLSCAN.
+   * @param query query about to run.
+   * @param entityClass entity class queried.
+   */
+  public void verify(Query query, Class<?> entityClass) {
+    if (query.getQueryObject().isEmpty() && query.getSortObject().isEmpty()) {
+      return;
+    }
+    MongoPersistentEntity<?> entity = this.mongoTemplate.getConverter().getMappingContext()
+      .getRequiredPersistentEntity(entityClass);
+    Document find = new Document("find", this.mongoTemplate.getCollectionName(entityClass))
+      .append("filter", this.queryMapper.getMappedObject(query.getQueryObject(), entity))
+      .append("sort", this.queryMapper.getMappedSort(query.getSortObject(), entity));
+    Document explain = this.mongoTemplate.executeCommand(
+      new Document("explain", find).append("verbosity", "queryPlanner"));
+    Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    if (scansCollection(winningPlan)) {
+      throw new IllegalStateException("Query " + find.toJson() + " falls back to a " + COLLSCAN);
+    }
+  }
+
+  /**
+   * Walk a plan stage and its inputs looking for a collection scan.
+   * @param stage plan stage.
+   * @return true when any stage is a COLLSCAN.
+   */
+  private static boolean scansCollection(Document stage) {
+    if (stage == null) {
+      return false;
+    }
+    if (COLLSCAN.equals(stage.getString(STAGE)) || scansCollection(stage.get(INPUT_STAGE, Document.class))) {
+      return true;
+    }
+    List<Document> inputStages = stage.getList(INPUT_STAGES, Document.class);
+    return inputStages != null && inputStages.stream().anyMatch(QueryPlanVerifier::scansCollection);
+  }
+}
@@ -0,0 +1,136 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive Inventory DAO, the non-blocking counterpart of {@link InventoryDAO}.
+ * Change events are published off the event loop since their listeners may block.
+ */
+public class ReactiveInventoryDAO implements ApplicationEventPublisherAware {
+  private final ReactiveMongoTemplate reactiveMongoTemplate;
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Default Constructor.
+   * @param reactiveMongoTemplate ReactiveMongoTemplate.
+   */
+  public ReactiveInventoryDAO(ReactiveMongoTemplate reactiveMongoTemplate) {
+    Assert.notNull(reactiveMongoTemplate, "ReactiveMongoTemplate must not be null.");
+    this.reactiveMongoTemplate = reactiveMongoTemplate;
+  }
+
+  /**
+   * Publish an {@link InventoryChangeEvent} after every write.
+   * @param eventPublisher publisher, null to stop publishing.
+   */
+  @Override
+  public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Find Inventory matching a Filter. Documents are pulled off the cursor as the subscriber requests them.
+   * @param filter filter.
+   * @return Flux of found Inventory.
+   */
+  public Flux<Inventory> find(InventoryFilter filter) {
+    return this.reactiveMongoTemplate.find(InventoryQueries.list(filter), Inventory.class);
+  }
+
+  /**
+   * Find a Page of Inventory matching a Filter, ordered by name then id, resuming after a cursor.
+   * @param filter filter.
+   * @param cursor cursor returned with the previous page, null for the first page.
+   * @param limit maximum number of Inventory on the page.
+   * @return Page of Inventory.
+   */
+  public Mono<InventoryPage> findPage(InventoryFilter filter, String cursor, int limit) {
+    return this.reactiveMongoTemplate.find(InventoryQueries.page(filter, cursor, limit), Inventory.class)
+      .collectList()
+      .map(items -> InventoryQueries.toPage(items, limit));
+  }
+
+  /**
+   * Save Inventory.
+   * @param inventory Inventory to Save.
+   * @return Created Inventory.
+   */
+  public Mono<Inventory> create(Inventory inventory) {
+    inventory.setId(null);
+    return this.reactiveMongoTemplate.insert(inventory)
+      .flatMap(created -> this.publish(List.of(new InventoryChangeEvent.Change(null, created))).thenReturn(created));
+  }
+
+  /**
+   * Retrieve Inventory.
+   * @param id Inventory id to Retrieve.
+   * @return Found Inventory, empty when missing.
+   */
+  public Mono<Inventory> retrieve(String id) {
+    return this.reactiveMongoTemplate.findOne(new Query(Criteria.where(InventoryQueries.ID).is(id)),
+      Inventory.class);
+  }
+
+  /**
+   * Update Inventory.
+   * @param inventory Inventory to Update.
+   * @return Updated Inventory.
+   */
+  public Mono<Inventory> update(Inventory inventory) {
+    long expectedVersion = inventory.getVersion();
+    Query current = new Query(Criteria.where(InventoryQueries.ID).is(inventory.getId())
+      .and(InventoryQueries.VERSION).is(expectedVersion));
+    inventory.setVersion(expectedVersion + 1);
+    return this.reactiveMongoTemplate.findAndReplace(current, inventory)
+      .switchIfEmpty(Mono.defer(() -> {
+        inventory.setVersion(expectedVersion);
+        return Mono.error(new OptimisticLockingFailureException(
+          "Inventory " + inventory.getId() + " is not at version " + expectedVersion + "."));
+      }))
+      .flatMap(before -> this.publish(List.of(new InventoryChangeEvent.Change(before, inventory)))
+        .thenReturn(inventory));
+  }
+
+  /**
+   * Delete Inventory By Id.
+   * @param ids ids of Inventory.
+   * @return Deleted Inventory.
+   */
+  public Flux<Inventory> delete(List<String> ids) {
+    return this.reactiveMongoTemplate.findAllAndRemove(new Query(Criteria.where(InventoryQueries.ID).in(ids)),
+      Inventory.class)
+      .collectList()
+      .flatMapMany(deleted -> {
+        List<InventoryChangeEvent.Change> changes = new ArrayList<>(deleted.size());
+        deleted.forEach(inventory -> changes.add(new InventoryChangeEvent.Change(inventory, null)));
+        return this.publish(changes).thenMany(Flux.fromIterable(deleted));
+      });
+  }
+
+  /**
+   * Publish the changes of one write on a thread that may block.
+   * @param changes changes in write order.
+   * @return Completion of the listeners.
+   */
+  private Mono<Void> publish(List<InventoryChangeEvent.Change> changes) {
+    if (this.eventPublisher == null || changes.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.<Void>fromRunnable(() -> this.eventPublisher.publishEvent(new InventoryChangeEvent(changes)))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+}
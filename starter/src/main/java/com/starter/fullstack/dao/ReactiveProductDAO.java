@@ -0,0 +1,18 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Product;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Product DAO, the non-blocking counterpart of {@link ProductDAO}.
+ */
+public interface ReactiveProductDAO extends ReactiveMongoRepository<Product, String>, ReactiveProductDAOCustom {
+
+  /**
+   * Find Products By Their Name.
+   * @param name The Product Name to Query by.
+   * @return Found Product.
+   */
+  Mono<Product> findProductByName(String name);
+}
@@ -0,0 +1,26 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Product;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Product DAO writes publishing the same {@link ProductChangeEvent}s as {@link ProductDAOCustom}.
+ */
+public interface ReactiveProductDAOCustom {
+
+  /**
+   * Save Product.
+   * @param product Product to Save/Update.
+   * @param <S> Product type.
+   * @return Saved Product.
+   */
+  <S extends Product> Mono<S> save(S product);
+
+  /**
+   * Remove all products by ids.
+   * @param ids ids.
+   * @return Completion.
+   */
+  Mono<Void> deleteProductsByIdIn(List<String> ids);
+}
@@ -0,0 +1,71 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.Product;
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive Product DAO writes publishing the same {@link ProductChangeEvent}s as {@link ProductDAOCustomImpl},
+ * so the product cache, collection version and change feed follow writes made under the reactive profile.
+ * Events are published off the event loop since their listeners may block.
+ */
+public class ReactiveProductDAOCustomImpl implements ReactiveProductDAOCustom, ApplicationEventPublisherAware {
+  private static final String ID = "id";
+
+  private final ReactiveMongoTemplate reactiveMongoTemplate;
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Default Constructor.
+   * @param reactiveMongoTemplate ReactiveMongoTemplate.
+   */
+  public ReactiveProductDAOCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+    Assert.notNull(reactiveMongoTemplate, "ReactiveMongoTemplate must not be null.");
+    this.reactiveMongoTemplate = reactiveMongoTemplate;
+  }
+
+  /**
+   * Publish a {@link ProductChangeEvent} after every write.
+   * @param eventPublisher publisher, null to stop publishing.
+   */
+  @Override
+  public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public <S extends Product> Mono<S> save(S product) {
+    ChangeOperation operation = product.getId() == null ? ChangeOperation.CREATE : ChangeOperation.UPDATE;
+    return this.reactiveMongoTemplate.save(product)
+      .flatMap(saved -> this.publish(operation, List.of(saved)).thenReturn(saved));
+  }
+
+  @Override
+  public Mono<Void> deleteProductsByIdIn(List<String> ids) {
+    return this.reactiveMongoTemplate.findAllAndRemove(new Query(Criteria.where(ID).in(ids)), Product.class)
+      .collectList()
+      .flatMap(deleted -> this.publish(ChangeOperation.DELETE, deleted));
+  }
+
+  /**
+   * Publish the Products of one write on a thread that may block, if there are any and a publisher is set.
+   * @param operation what happened to the Products.
+   * @param products Products written.
+   * @return Completion of the listeners.
+   */
+  private Mono<Void> publish(ChangeOperation operation, List<Product> products) {
+    if (this.eventPublisher == null || products.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.<Void>fromRunnable(() -> this.eventPublisher.publishEvent(new ProductChangeEvent(operation, products)))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+}
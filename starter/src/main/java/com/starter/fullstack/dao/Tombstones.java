@@ -0,0 +1,48 @@
+package com.starter.fullstack.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Versions of the most recently removed Inventories, so a change to an Inventory that arrives after its removal
+ * does not bring it back unless it is newer. Changes are only ever reordered within moments, so the oldest
+ * tombstones are dropped past {@value #MAX_SIZE}. Not thread safe, callers hold their own lock.
+ */
+final class Tombstones {
+  private static final int MAX_SIZE = 10_000;
+
+  private final Map<String, Long> versions = new LinkedHashMap<>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+      return this.size() > MAX_SIZE;
+    }
+  };
+
+  /**
+   * Record the removal of an Inventory.
+   * @param id Inventory id.
+   * @param version last version of the Inventory seen.
+   */
+  void add(String id, long version) {
+    this.versions.merge(id, version, Math::max);
+  }
+
+  /**
+   * Whether a version of an Inventory is no newer than its removal, and so must not be indexed.
+   * @param id Inventory id.
+   * @param version version about to be indexed.
+   * @return true when removed at this version or a later one.
+   */
+  boolean hides(String id, long version) {
+    Long removed = this.versions.get(id);
+    return removed != null && removed >= version;
+  }
+
+  /**
+   * Forget the removal of an Inventory, once it is created again or indexed at a newer version.
+   * @param id Inventory id.
+   */
+  void clear(String id) {
+    this.versions.remove(id);
+  }
+}
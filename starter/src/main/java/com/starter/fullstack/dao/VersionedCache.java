@@ -0,0 +1,229 @@
+package com.starter.fullstack.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.starter.fullstack.api.CacheStatistics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded read-through cache keyed by entity and guarded by the entity's @Version.
+ * An entry is only ever replaced by a higher version, so a slow read racing a write can never
+ * put an older document back. Deleted keys are remembered as tombstones at the deleted version, which only a
+ * create or a higher version replaces. Entities are copied on the way in, so callers keep their own objects;
+ * cached values are shared between readers and must not be mutated.
+ * @param <K> key type.
+ * @param <V> entity type.
+ */
+public final class VersionedCache<K, V> {
+  private final Cache<K, Entry<V>> cache;
+  private final ToLongFunction<V> versionOf;
+  private final UnaryOperator<V> copyOf;
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Default Constructor.
+   * @param cache backing cache, null when caching is disabled.
+   * @param versionOf extracts the @Version of an entity.
+   * @param copyOf copies an entity before it is cached.
+   */
+  private VersionedCache(Cache<K, Entry<V>> cache, ToLongFunction<V> versionOf, UnaryOperator<V> copyOf) {
+    this.cache = cache;
+    this.versionOf = versionOf;
+    this.copyOf = copyOf;
+  }
+
+  /**
+   * Build a Cache with size and time based eviction.
+   * @param maximumSize maximum number of entries.
+   * @param timeToLive time after write an entry is evicted.
+   * @param versionOf extracts the @Version of an entity.
+   * @param copyOf copies an entity before it is cached.
+   * @param <K> key type.
+   * @param <V> entity type.
+   * @return Cache.
+   */
+  public static <K, V> VersionedCache<K, V> of(long maximumSize, Duration timeToLive, ToLongFunction<V> versionOf,
+                                               UnaryOperator<V> copyOf) {
+    Assert.isTrue(maximumSize > 0, "Cache maximum size must be positive.");
+    Assert.notNull(timeToLive, "Cache time to live must not be null.");
+    Assert.notNull(versionOf, "Version function must not be null.");
+    Assert.notNull(copyOf, "Copy function must not be null.");
+    Cache<K, Entry<V>> cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(timeToLive)
+      .recordStats()
+      .build();
+    return new VersionedCache<>(cache, versionOf, copyOf);
+  }
+
+  /**
+   * Build a pass-through Cache that never holds anything.
+   * @param <K> key type.
+   * @param <V> entity type.
+   * @return Cache.
+   */
+  public static <K, V> VersionedCache<K, V> disabled() {
+    return new VersionedCache<>(null, value -> 0L, UnaryOperator.identity());
+  }
+
+  /**
+   * Get a cached entity, loading and caching it on a miss.
+   * @param key key.
+   * @param loader loads the entity from Mongo.
+   * @return Found entity.
+   */
+  public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+    if (this.cache == null || key == null) {
+      return loader.apply(key);
+    }
+    Entry<V> cached = this.cache.getIfPresent(key);
+    if (cached != null) {
+      return Optional.ofNullable(cached.value);
+    }
+    long loadGeneration = this.generation.get();
+    Optional<V> loaded = loader.apply(key);
+    loaded.ifPresent(value -> {
+      Entry<V> entry = this.merge(key, this.entryOf(value));
+      if (this.generation.get() != loadGeneration) {
+        this.cache.asMap().remove(key, entry);
+      }
+    });
+    return loaded;
+  }
+
+  /**
+   * Cache an entity just written, unless a newer version is already cached.
+   * @param key key.
+   * @param value written entity.
+   */
+  public void put(K key, V value) {
+    if (this.cache != null && key != null) {
+      this.merge(key, this.entryOf(value));
+    }
+  }
+
+  /**
+   * Cache an entity just created, replacing the tombstone of a deleted entity of the same key whatever its
+   * version. Loads that started before the create are discarded, so they cannot put the deleted entity back.
+   * @param key key.
+   * @param value created entity.
+   */
+  public void putCreated(K key, V value) {
+    if (this.cache != null && key != null) {
+      Entry<V> created = this.entryOf(value);
+      this.cache.asMap().compute(key, (ignored, current) -> {
+        if (current == null) {
+          return created;
+        }
+        if (current.value == null) {
+          this.generation.incrementAndGet();
+          return created;
+        }
+        return created.version > current.version ? created : current;
+      });
+    }
+  }
+
+  /**
+   * Drop an entry whose version is unknown, e.g. after a failed write.
+   * @param key key.
+   */
+  public void invalidate(K key) {
+    if (this.cache != null && key != null) {
+      this.cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Remember a key as deleted at the version it was deleted at, so in-flight reads of that version or older
+   * cannot resurrect it.
+   * @param key key.
+   * @param version version of the deleted entity.
+   */
+  public void markDeleted(K key, long version) {
+    if (this.cache != null && key != null) {
+      this.merge(key, new Entry<>(null, version));
+    }
+  }
+
+  /**
+   * Forget a key deleted at an unknown version, discarding any load that started before the call.
+   * @param key key.
+   */
+  public void markDeleted(K key) {
+    if (this.cache != null && key != null) {
+      this.generation.incrementAndGet();
+      this.cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Drop every entry, discarding any load that started before the call.
+   */
+  public void invalidateAll() {
+    if (this.cache != null) {
+      this.generation.incrementAndGet();
+      this.cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Hit, miss and eviction counters.
+   * @return Statistics.
+   */
+  public CacheStatistics statistics() {
+    if (this.cache == null) {
+      return new CacheStatistics(false, 0, 0, 0, 0);
+    }
+    CacheStats stats = this.cache.stats();
+    return new CacheStatistics(true, this.cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+      stats.evictionCount());
+  }
+
+  /**
+   * Entry of a copy of an entity.
+   * @param value entity.
+   * @return Entry.
+   */
+  private Entry<V> entryOf(V value) {
+    return new Entry<>(this.copyOf.apply(value), this.versionOf.applyAsLong(value));
+  }
+
+  /**
+   * Put an entry, keeping whichever of the current and candidate entries has the higher version.
+   * @param key key.
+   * @param candidate candidate entry.
+   * @return Entry now cached.
+   */
+  private Entry<V> merge(K key, Entry<V> candidate) {
+    return this.cache.asMap().merge(key, candidate,
+      (current, replacement) -> replacement.version > current.version
+        || replacement.version == current.version && replacement.value == null ? replacement : current);
+  }
+
+  /**
+   * Cached entity and its version, a null value marks a deleted key.
+   * @param <V> entity type.
+   */
+  private static final class Entry<V> {
+    private final V value;
+    private final long version;
+
+    /**
+     * Default Constructor.
+     * @param value entity.
+     * @param version entity version.
+     */
+    private Entry(V value, long version) {
+      this.value = value;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.starter.fullstack.metrics;
+
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Heap allocation of the JVM's platform threads, as a cumulative counter and as a rate gauge. The gauge
+ * is the allocation since it was last sampled, at most once a second, so any scrape interval sees a
+ * recent rate. Unlike jvm.gc.memory.allocated it does not wait for a collection to move.
+ * <p>
+ * Thread allocation counters do not include virtual threads, so with virtual threads serving requests they
+ * would miss most of the application's allocation. The thread counter is then left out and the rate gauge
+ * follows jvm.gc.memory.allocated instead, which counts every thread but only moves at collections.
+ */
+public class AllocationMetrics implements MeterBinder {
+  private static final long MIN_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final String GC_ALLOCATED = "jvm.gc.memory.allocated";
+
+  private final ThreadMXBean threads;
+  private final boolean virtualThreads;
+  private LongSupplier allocatedBytes;
+  private long sampledAt;
+  private long sampledBytes;
+  private double rate;
+
+  /**
+   * Default Constructor.
+   * @param virtualThreads whether requests run on virtual threads.
+   */
+  public AllocationMetrics(boolean virtualThreads) {
+    this.threads = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean
+      ? (ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Register the meters, unless the JVM does not measure thread allocation and virtual threads are off.
+   * @param registry registry.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (this.virtualThreads) {
+      this.allocatedBytes = () -> {
+        Counter allocated = registry.find(GC_ALLOCATED).counter();
+        return allocated == null ? 0 : (long) allocated.count();
+      };
+      this.registerRate(registry, "Heap memory allocated per second by all threads, as of the last collection");
+      return;
+    }
+    if (this.threads == null || !this.threads.isThreadAllocatedMemorySupported()
+      || !this.threads.isThreadAllocatedMemoryEnabled()) {
+      return;
+    }
+    this.allocatedBytes = this.threads::getTotalThreadAllocatedBytes;
+    FunctionCounter.builder("jvm.memory.allocated.threads", this.threads, ThreadMXBean::getTotalThreadAllocatedBytes)
+      .description("Heap memory allocated by live and terminated platform threads")
+      .baseUnit(BaseUnits.BYTES)
+      .register(registry);
+    this.registerRate(registry, "Heap memory allocated per second by platform threads");
+  }
+
+  /**
+   * Register the rate gauge, starting from the allocation counted so far.
+   * @param registry registry.
+   * @param description gauge description.
+   */
+  private void registerRate(MeterRegistry registry, String description) {
+    this.sampledAt = System.nanoTime();
+    this.sampledBytes = this.allocatedBytes.getAsLong();
+    Gauge.builder("jvm.memory.allocation.rate", this, AllocationMetrics::sample)
+      .description(description)
+      .baseUnit("bytes.per.second")
+      .register(registry);
+  }
+
+  /**
+   * Allocation rate since the previous sample, reusing the last rate within a second of it.
+   * @return Bytes per second.
+   */
+  private synchronized double sample() {
+    long now = System.nanoTime();
+    long elapsed = now - this.sampledAt;
+    if (elapsed >= MIN_SAMPLE_NANOS) {
+      long bytes = this.allocatedBytes.getAsLong();
+      this.rate = (bytes - this.sampledBytes) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+      this.sampledAt = now;
+      this.sampledBytes = bytes;
+    }
+    return this.rate;
+  }
+}
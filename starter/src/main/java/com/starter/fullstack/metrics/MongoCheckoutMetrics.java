@@ -0,0 +1,79 @@
+package com.starter.fullstack.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.Assert;
+
+/**
+ * Times how long operations wait to check a connection out of the Mongo pool. The driver reports the
+ * start and the end of a checkout without correlating them, so the wait is measured per thread; this
+ * covers the blocking driver, where both happen on the calling thread. Checkouts of the reactive driver
+ * complete on other threads and are not timed. Pool size and wait queue gauges come from Spring Boot.
+ */
+public class MongoCheckoutMetrics implements ConnectionPoolListener {
+  static final String METRIC = "mongodb.driver.pool.checkout";
+
+  private final MeterRegistry meterRegistry;
+  private final ThreadLocal<Long> started = new ThreadLocal<>();
+
+  /**
+   * Default Constructor.
+   * @param meterRegistry registry.
+   */
+  public MongoCheckoutMetrics(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Start timing a checkout on this thread.
+   * @param event checkout started.
+   */
+  @Override
+  public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+    this.started.set(System.nanoTime());
+  }
+
+  /**
+   * Record a successful checkout.
+   * @param event connection checked out.
+   */
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    this.record(event.getConnectionId().getServerId().getAddress().toString(), "success");
+  }
+
+  /**
+   * Record a failed checkout.
+   * @param event checkout failed.
+   */
+  @Override
+  public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+    this.record(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Record the wait of the checkout started on this thread, if any.
+   * @param serverAddress server the connection is for.
+   * @param outcome outcome of the checkout.
+   */
+  private void record(String serverAddress, String outcome) {
+    Long start = this.started.get();
+    if (start == null) {
+      return;
+    }
+    this.started.remove();
+    Timer.builder(METRIC)
+      .description("Time waiting to check a connection out of the Mongo pool")
+      .tag("server.address", serverAddress)
+      .tag("outcome", outcome)
+      .register(this.meterRegistry)
+      .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+}
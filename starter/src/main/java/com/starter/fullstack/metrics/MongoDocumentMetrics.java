@@ -0,0 +1,55 @@
+package com.starter.fullstack.metrics;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.util.Assert;
+
+/**
+ * Records how many documents each Mongo command returns, read from the batches of cursor replies.
+ * Command latency itself is recorded by Spring Boot's Mongo command listener.
+ */
+public class MongoDocumentMetrics implements CommandListener {
+  static final String METRIC = "mongodb.driver.commands.documents";
+
+  private static final String CURSOR = "cursor";
+  private static final String FIRST_BATCH = "firstBatch";
+  private static final String NEXT_BATCH = "nextBatch";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Default Constructor.
+   * @param meterRegistry registry.
+   */
+  public MongoDocumentMetrics(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Record the batch size of a cursor reply, ignoring commands that do not return documents.
+   * @param event succeeded command.
+   */
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    BsonValue cursor = event.getResponse().get(CURSOR);
+    if (cursor == null || !cursor.isDocument()) {
+      return;
+    }
+    BsonDocument batches = cursor.asDocument();
+    BsonValue batch = batches.containsKey(FIRST_BATCH) ? batches.get(FIRST_BATCH) : batches.get(NEXT_BATCH);
+    if (batch == null || !batch.isArray()) {
+      return;
+    }
+    DistributionSummary.builder(METRIC)
+      .description("Documents returned per Mongo command")
+      .baseUnit("documents")
+      .tag("command", event.getCommandName())
+      .register(this.meterRegistry)
+      .record(batch.asArray().size());
+  }
+}
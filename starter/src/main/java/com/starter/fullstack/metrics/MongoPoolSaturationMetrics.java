@@ -0,0 +1,111 @@
+package com.starter.fullstack.metrics;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.util.Assert;
+
+/**
+ * Gauges the share of each Mongo connection pool in use: connections checked out over the pool's maximum size.
+ * A pool staying near 1 makes operations queue for connections, which shows in the checkout timer and in
+ * Spring Boot's wait queue gauge; the maximum size is set by com.starter.fullstack.mongo.pool.max-size.
+ */
+public class MongoPoolSaturationMetrics implements ConnectionPoolListener {
+  static final String METRIC = "mongodb.driver.pool.saturation";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<ServerId, Pool> pools = new ConcurrentHashMap<>();
+
+  /**
+   * Default Constructor.
+   * @param meterRegistry registry.
+   */
+  public MongoPoolSaturationMetrics(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Start gauging a new pool.
+   * @param event pool created.
+   */
+  @Override
+  public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+    Pool pool = new Pool(event.getSettings().getMaxSize());
+    pool.gauge = Gauge.builder(METRIC, pool, Pool::saturation)
+      .description("Share of the Mongo connection pool checked out")
+      .tag("server.address", event.getServerId().getAddress().toString())
+      .tag("cluster.id", event.getServerId().getClusterId().getValue())
+      .register(this.meterRegistry);
+    this.pools.put(event.getServerId(), pool);
+  }
+
+  /**
+   * Count a connection in use.
+   * @param event connection checked out.
+   */
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    Pool pool = this.pools.get(event.getConnectionId().getServerId());
+    if (pool != null) {
+      pool.checkedOut.incrementAndGet();
+    }
+  }
+
+  /**
+   * Count a connection back in the pool.
+   * @param event connection checked in.
+   */
+  @Override
+  public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+    Pool pool = this.pools.get(event.getConnectionId().getServerId());
+    if (pool != null) {
+      pool.checkedOut.decrementAndGet();
+    }
+  }
+
+  /**
+   * Stop gauging a closed pool.
+   * @param event pool closed.
+   */
+  @Override
+  public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+    Pool pool = this.pools.remove(event.getServerId());
+    if (pool != null) {
+      this.meterRegistry.remove(pool.gauge);
+    }
+  }
+
+  /**
+   * Connections checked out of one pool.
+   */
+  private static final class Pool {
+    private final int maxSize;
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private Gauge gauge;
+
+    /**
+     * Default Constructor.
+     * @param maxSize maximum size of the pool, 0 when unbounded.
+     */
+    private Pool(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    /**
+     * Share of the pool checked out.
+     * @return Saturation between 0 and 1, 0 for an unbounded pool.
+     */
+    private double saturation() {
+      return this.maxSize == 0 ? 0 : (double) this.checkedOut.get() / this.maxSize;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package com.starter.fullstack.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the size of each response body per endpoint, counting bytes as the application writes them.
+ * Tomcat compresses below this filter, so sizes are before compression. Async responses, such as
+ * streamed Inventory and server-sent events, are recorded once they complete.
+ */
+public class ResponseSizeFilter extends OncePerRequestFilter {
+  static final String METRIC = "http.server.response.size";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Default Constructor.
+   * @param meterRegistry registry.
+   */
+  public ResponseSizeFilter(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Count the body written through the chain.
+   * @param request request.
+   * @param response response.
+   * @param filterChain chain.
+   * @throws ServletException if the chain fails.
+   * @throws IOException if the chain fails.
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    CountingResponse counting = new CountingResponse(response);
+    filterChain.doFilter(request, counting);
+    if (request.isAsyncStarted()) {
+      request.getAsyncContext().addListener(new AsyncListener() {
+        @Override
+        public void onComplete(AsyncEvent event) {
+          ResponseSizeFilter.this.record(request, counting);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+      });
+    } else {
+      this.record(request, counting);
+    }
+  }
+
+  /**
+   * Record the bytes written so far.
+   * @param request request.
+   * @param response counting response.
+   */
+  private void record(HttpServletRequest request, CountingResponse response) {
+    response.flushWriter();
+    DistributionSummary.builder(METRIC)
+      .description("Size of response bodies before compression")
+      .baseUnit(BaseUnits.BYTES)
+      .tags(WebMvcTags.method(request), WebMvcTags.uri(request, response), WebMvcTags.status(response))
+      .register(this.meterRegistry)
+      .record(response.bytes());
+  }
+
+  /**
+   * Response counting the bytes written to its body.
+   */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+    private CountingOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * Default Constructor.
+     * @param response response wrapped.
+     */
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (this.outputStream == null) {
+        this.outputStream = new CountingOutputStream(super.getOutputStream());
+      }
+      return this.outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (this.writer == null) {
+        this.writer = new PrintWriter(new OutputStreamWriter(this.getOutputStream(), this.getCharacterEncoding()));
+      }
+      return this.writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      this.flushWriter();
+      super.flushBuffer();
+    }
+
+    /**
+     * Push characters buffered in the writer down to the counted stream.
+     */
+    private void flushWriter() {
+      if (this.writer != null) {
+        this.writer.flush();
+      }
+    }
+
+    /**
+     * Bytes written to the body.
+     * @return Bytes.
+     */
+    private long bytes() {
+      return this.outputStream == null ? 0 : this.outputStream.count;
+    }
+  }
+
+  /**
+   * Output stream counting the bytes passed through.
+   */
+  private static final class CountingOutputStream extends ServletOutputStream {
+    private final ServletOutputStream delegate;
+    private long count;
+
+    /**
+     * Default Constructor.
+     * @param delegate stream written to.
+     */
+    private CountingOutputStream(ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      this.delegate.write(b);
+      this.count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      this.delegate.write(b, off, len);
+      this.count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      this.delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return this.delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      this.delegate.setWriteListener(writeListener);
+    }
+  }
+}
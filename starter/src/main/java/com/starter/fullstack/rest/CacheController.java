@@ -0,0 +1,39 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.CacheStatistics;
+import com.starter.fullstack.dao.VersionedCache;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cache Controller -- Statistics of the DAO caches. Blocking only, the reactive profile does not map it.
+ */
+@Profile("!reactive")
+@RestController
+public class CacheController {
+  private final Map<String, VersionedCache<?, ?>> caches;
+
+  /**
+   * Default Constructor.
+   * @param caches DAO caches by bean name.
+   */
+  public CacheController(Map<String, VersionedCache<?, ?>> caches) {
+    Assert.notNull(caches, "Caches must not be null.");
+    this.caches = caches;
+  }
+
+  /**
+   * Find Cache Statistics.
+   * @return Statistics by cache name.
+   */
+  @GetMapping("/cache/stats")
+  public Map<String, CacheStatistics> findCacheStatistics() {
+    Map<String, CacheStatistics> statistics = new TreeMap<>();
+    this.caches.forEach((name, cache) -> statistics.put(name, cache.statistics()));
+    return statistics;
+  }
+}
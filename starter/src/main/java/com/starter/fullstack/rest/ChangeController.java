@@ -0,0 +1,78 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.config.ChangeFeedProperties;
+import com.starter.fullstack.dao.ChangeFeed;
+import java.io.IOException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change Controller, pushing Inventory and Product changes as server-sent events.
+ * Every change event carries its token as the event id, so a reconnecting EventSource resumes through
+ * Last-Event-ID. A reset event tells the client its token is too old and it has to reload.
+ */
+@Profile("!reactive")
+@RestController
+public class ChangeController {
+  static final String CHANGE_EVENT = "change";
+  static final String RESET_EVENT = "reset";
+
+  private final ChangeFeed changeFeed;
+  private final ChangeFeedProperties changeFeedProperties;
+
+  /**
+   * Default Constructor.
+   * @param changeFeed changeFeed.
+   * @param changeFeedProperties changeFeedProperties.
+   */
+  public ChangeController(ChangeFeed changeFeed, ChangeFeedProperties changeFeedProperties) {
+    Assert.notNull(changeFeed, "Change Feed must not be null.");
+    Assert.notNull(changeFeedProperties, "Change Feed Properties must not be null.");
+    this.changeFeed = changeFeed;
+    this.changeFeedProperties = changeFeedProperties;
+  }
+
+  /**
+   * Stream Changes.
+   * @param lastEventId token of the last change seen, sent by a reconnecting EventSource.
+   * @param after token of the last change seen, for clients that cannot set headers.
+   * @return Server-sent events.
+   * @throws IOException if the reset event cannot be sent.
+   */
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                  @RequestParam(required = false) String after) throws IOException {
+    String resumeAfter = lastEventId != null ? lastEventId : after;
+    SseEmitter emitter = new SseEmitter(this.changeFeedProperties.getStreamTimeout().toMillis());
+    ChangeFeed.Subscription subscription =
+      this.changeFeed.subscribe(resumeAfter, change -> send(emitter, change), emitter::complete);
+    emitter.onCompletion(subscription::close);
+    emitter.onTimeout(subscription::close);
+    emitter.onError(error -> subscription.close());
+    if (resumeAfter != null && !subscription.isResumed()) {
+      emitter.send(SseEmitter.event().name(RESET_EVENT).data(resumeAfter));
+    }
+    return emitter;
+  }
+
+  /**
+   * Send one change, ending the stream when the client went away.
+   * @param emitter emitter.
+   * @param change change.
+   */
+  private static void send(SseEmitter emitter, EntityChange change) {
+    try {
+      emitter.send(SseEmitter.event().id(change.getToken()).name(CHANGE_EVENT)
+        .data(change, MediaType.APPLICATION_JSON));
+    } catch (IOException e) {
+      emitter.completeWithError(e);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.config.WireFormatConfig;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Entity tags built from @Version fields and collection versions. The same version is served as JSON, Smile
+ * or CBOR, so binary representations get their own suffixed tag. Document tags are strong, as If-Match needs
+ * them. Collection tags are weak: lists are large enough for Tomcat to gzip them, and Tomcat does not
+ * compress responses carrying a strong tag, which would have to differ between the two encodings.
+ */
+final class ETags {
+  private static final String QUOTE = "\"";
+  private static final String WEAK_PREFIX = "W/";
+  private static final String ANY = "*";
+  private static final String SEPARATOR = "-";
+  private static final MediaType APPLICATION_SMILE = MediaType.valueOf(WireFormatConfig.APPLICATION_SMILE_VALUE);
+
+  /**
+   * Utility Class.
+   */
+  private ETags() {
+  }
+
+  /**
+   * Entity tag of a single document.
+   * @param version document @Version.
+   * @param request request, its Accept header picks the representation.
+   * @return Quoted entity tag.
+   */
+  static String ofDocument(long version, WebRequest request) {
+    return QUOTE + version + variant(request) + QUOTE;
+  }
+
+  /**
+   * Weak entity tag of a collection endpoint, shared by its identity and gzip encodings.
+   * @param collection collection name.
+   * @param version collection version.
+   * @param request request, its Accept header picks the representation.
+   * @return Weak quoted entity tag.
+   */
+  static String ofCollection(String collection, long version, WebRequest request) {
+    return WEAK_PREFIX + QUOTE + collection + SEPARATOR + version + variant(request) + QUOTE;
+  }
+
+  /**
+   * Weak entity tag of a collection endpoint that also changes with the number of documents, so inserts and
+   * deletes the version did not see still change the tag.
+   * @param collection collection name.
+   * @param version collection version.
+   * @param count number of documents in the collection.
+   * @param request request, its Accept header picks the representation.
+   * @return Weak quoted entity tag.
+   */
+  static String ofCollection(String collection, long version, long count, WebRequest request) {
+    return WEAK_PREFIX + QUOTE + collection + SEPARATOR + version + SEPARATOR + count + variant(request) + QUOTE;
+  }
+
+  /**
+   * Whether the response will be written as JSON rather than one of the binary formats.
+   * @param request request.
+   * @return true for JSON.
+   */
+  static boolean isJson(WebRequest request) {
+    return variant(request).isEmpty();
+  }
+
+  /**
+   * Whether an If-Match header asks for a specific version.
+   * @param ifMatch If-Match header, may be null.
+   * @return true unless absent or *.
+   */
+  static boolean isConditional(String ifMatch) {
+    return ifMatch != null && !ANY.equals(ifMatch.trim());
+  }
+
+  /**
+   * Document version an If-Match header requires. Only a single strong tag can match, since the
+   * version check happens in the write itself. The tag of any representation matches.
+   * @param ifMatch If-Match header.
+   * @return Version, null when the header cannot match any document.
+   */
+  static Long versionOf(String ifMatch) {
+    String tag = ifMatch.trim();
+    if (tag.startsWith(WEAK_PREFIX) || tag.length() < 2 || !tag.startsWith(QUOTE) || !tag.endsWith(QUOTE)) {
+      return null;
+    }
+    String opaque = tag.substring(1, tag.length() - 1);
+    int separator = opaque.indexOf(SEPARATOR);
+    try {
+      return Long.valueOf(separator < 0 ? opaque : opaque.substring(0, separator));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Suffix of the representation the response will be written in, following the converter order where
+   * JSON wins over the binary formats unless the client prefers one of them.
+   * @param request request.
+   * @return Suffix, empty for JSON.
+   */
+  private static String variant(WebRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept == null) {
+      return "";
+    }
+    List<MediaType> mediaTypes;
+    try {
+      mediaTypes = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      return "";
+    }
+    MediaType.sortBySpecificityAndQuality(mediaTypes);
+    for (MediaType mediaType : mediaTypes) {
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return "";
+      }
+      if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+        return SEPARATOR + "smile";
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+        return SEPARATOR + "cbor";
+      }
+    }
+    return "";
+  }
+}
@@ -0,0 +1,270 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.ImportReport;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.config.InventoryProperties;
+import com.starter.fullstack.dao.ImportReportDAO;
+import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.ProductDAO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Import Export Controller -- Inventory and Products streamed to and from Mongo as newline delimited JSON
+ * or CSV with a header line. CSV lists are separated by semicolons.
+ */
+@Profile("!reactive")
+@RestController
+public class ImportExportController {
+  private static final String TEXT_CSV = "text/csv";
+  private static final String ARRAY_SEPARATOR = ";";
+  private static final int NEW_LINE = '\n';
+
+  private final InventoryDAO inventoryDAO;
+  private final ProductDAO productDAO;
+  private final ImportReportDAO importReportDAO;
+  private final ObjectMapper objectMapper;
+  private final CsvMapper csvMapper;
+  private final Importer<Inventory> inventoryImporter;
+  private final Importer<Product> productImporter;
+  private final ProductResolver productResolver;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDAO inventoryDAO.
+   * @param productDAO productDAO.
+   * @param importReportDAO importReportDAO.
+   * @param objectMapper objectMapper.
+   * @param objectMapperBuilder builder configuring the CSV mapper like the objectMapper.
+   * @param validator bean validator.
+   * @param inventoryProperties inventoryProperties, the bulk chunk size is the import batch size.
+   * @param productResolver checks the product types of imported Inventory, once per request.
+   */
+  public ImportExportController(InventoryDAO inventoryDAO, ProductDAO productDAO, ImportReportDAO importReportDAO,
+                                ObjectMapper objectMapper, Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                Validator validator, InventoryProperties inventoryProperties,
+                                ProductResolver productResolver) {
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.notNull(productDAO, "Product DAO must not be null.");
+    Assert.notNull(importReportDAO, "Import Report DAO must not be null.");
+    Assert.notNull(objectMapper, "Object Mapper must not be null.");
+    Assert.notNull(objectMapperBuilder, "Jackson2ObjectMapperBuilder must not be null.");
+    Assert.notNull(inventoryProperties, "Inventory Properties must not be null.");
+    Assert.notNull(productResolver, "Product Resolver must not be null.");
+    this.inventoryDAO = inventoryDAO;
+    this.productDAO = productDAO;
+    this.importReportDAO = importReportDAO;
+    this.objectMapper = objectMapper;
+    this.productResolver = productResolver;
+    this.csvMapper = new CsvMapper();
+    objectMapperBuilder.configure(this.csvMapper);
+    int batchSize = inventoryProperties.getBulkChunkSize();
+    this.inventoryImporter = new Importer<>(importReportDAO, validator, batchSize, Inventory::getId, Inventory::setId,
+      batch -> this.productResolver.writeKnownProductTypes(batch, inventoryDAO::bulkUpsert));
+    this.productImporter = new Importer<>(importReportDAO, validator, batchSize, Product::getId, Product::setId,
+      productDAO::bulkUpsert);
+  }
+
+  /**
+   * Import Inventory from newline delimited JSON, creating or replacing each line.
+   * @param importId id of the import to resume, omitted to start a new one.
+   * @param body request body.
+   * @return Import Report.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/inventory/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ImportReport importInventoryStream(@RequestParam(required = false) String importId, InputStream body)
+    throws IOException {
+    return this.inventoryImporter.run(this.report(importId, EntityChange.INVENTORY),
+      Importer.ndjson(body, this.objectMapper.readerFor(Inventory.class)));
+  }
+
+  /**
+   * Import Inventory from CSV, creating or replacing each record.
+   * @param importId id of the import to resume, omitted to start a new one.
+   * @param body request body.
+   * @return Import Report.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/inventory/import", consumes = TEXT_CSV)
+  public ImportReport importInventoryCsv(@RequestParam(required = false) String importId, InputStream body)
+    throws IOException {
+    return this.inventoryImporter.run(this.report(importId, EntityChange.INVENTORY),
+      Importer.csv(body, this.csvReader(Inventory.class)));
+  }
+
+  /**
+   * Import Products from newline delimited JSON, creating or replacing each line.
+   * @param importId id of the import to resume, omitted to start a new one.
+   * @param body request body.
+   * @return Import Report.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/products/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ImportReport importProductStream(@RequestParam(required = false) String importId, InputStream body)
+    throws IOException {
+    return this.productImporter.run(this.report(importId, EntityChange.PRODUCT),
+      Importer.ndjson(body, this.objectMapper.readerFor(Product.class)));
+  }
+
+  /**
+   * Import Products from CSV, creating or replacing each record.
+   * @param importId id of the import to resume, omitted to start a new one.
+   * @param body request body.
+   * @return Import Report.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/products/import", consumes = TEXT_CSV)
+  public ImportReport importProductCsv(@RequestParam(required = false) String importId, InputStream body)
+    throws IOException {
+    return this.productImporter.run(this.report(importId, EntityChange.PRODUCT),
+      Importer.csv(body, this.csvReader(Product.class)));
+  }
+
+  /**
+   * Retrieve the Report of an import, as saved after its last batch.
+   * @param id import id.
+   * @return Import Report.
+   */
+  @GetMapping("/imports/{id}")
+  public ResponseEntity<ImportReport> retrieveImport(@PathVariable String id) {
+    return ResponseEntity.of(this.importReportDAO.find(id));
+  }
+
+  /**
+   * Export every Inventory as newline delimited JSON.
+   * @return Streamed Inventories.
+   */
+  @GetMapping(value = "/inventory/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public StreamingResponseBody exportInventoryStream() {
+    return ndjson(this.inventoryDAO::stream, this.objectMapper.writerFor(Inventory.class));
+  }
+
+  /**
+   * Export every Inventory as CSV.
+   * @return Streamed Inventories.
+   */
+  @GetMapping(value = "/inventory/export", produces = TEXT_CSV)
+  public StreamingResponseBody exportInventoryCsv() {
+    return csv(this.inventoryDAO::stream, this.csvWriter(Inventory.class));
+  }
+
+  /**
+   * Export every Product as newline delimited JSON.
+   * @return Streamed Products.
+   */
+  @GetMapping(value = "/products/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public StreamingResponseBody exportProductStream() {
+    return ndjson(this.productDAO::streamAll, this.objectMapper.writerFor(Product.class));
+  }
+
+  /**
+   * Export every Product as CSV.
+   * @return Streamed Products.
+   */
+  @GetMapping(value = "/products/export", produces = TEXT_CSV)
+  public StreamingResponseBody exportProductCsv() {
+    return csv(this.productDAO::streamAll, this.csvWriter(Product.class));
+  }
+
+  /**
+   * Report of the import to run: loaded to resume it, or new.
+   * @param importId import id, null for a new import.
+   * @param entity entity imported.
+   * @return Import Report.
+   */
+  private ImportReport report(String importId, String entity) {
+    ImportReport report = importId == null ? null : this.importReportDAO.find(importId).orElse(null);
+    if (report == null) {
+      report = new ImportReport();
+      report.setId(importId == null ? UUID.randomUUID().toString() : importId);
+      report.setEntity(entity);
+    }
+    Assert.isTrue(entity.equals(report.getEntity()), "Import " + importId + " imports " + report.getEntity());
+    return report;
+  }
+
+  /**
+   * CSV reader taking its columns from the header line. Empty values are read as null.
+   * @param type entity type.
+   * @return Object Reader.
+   */
+  private ObjectReader csvReader(Class<?> type) {
+    return this.csvMapper.readerFor(type)
+      .with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator(ARRAY_SEPARATOR))
+      .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+  }
+
+  /**
+   * CSV writer with a header line of every property.
+   * @param type entity type.
+   * @return Object Writer.
+   */
+  private ObjectWriter csvWriter(Class<?> type) {
+    return this.csvMapper.writer(this.csvMapper.schemaFor(type).withHeader().withArrayElementSeparator(ARRAY_SEPARATOR))
+      .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Stream entities as newline delimited JSON, one document at a time off the Mongo cursor.
+   * @param entities opens the stream of entities.
+   * @param writer writer of one entity.
+   * @param <T> entity type.
+   * @return Streamed entities.
+   */
+  private static <T> StreamingResponseBody ndjson(Supplier<Stream<T>> entities, ObjectWriter writer) {
+    return outputStream -> {
+      try (Stream<T> stream = entities.get()) {
+        Iterator<T> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+          outputStream.write(writer.writeValueAsBytes(iterator.next()));
+          outputStream.write(NEW_LINE);
+        }
+      }
+    };
+  }
+
+  /**
+   * Stream entities as CSV, one document at a time off the Mongo cursor.
+   * @param entities opens the stream of entities.
+   * @param writer CSV writer.
+   * @param <T> entity type.
+   * @return Streamed entities.
+   */
+  private static <T> StreamingResponseBody csv(Supplier<Stream<T>> entities, ObjectWriter writer) {
+    return outputStream -> {
+      try (Stream<T> stream = entities.get(); SequenceWriter rows = writer.writeValues(outputStream)) {
+        Iterator<T> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+          rows.write(iterator.next());
+        }
+      }
+    };
+  }
+}
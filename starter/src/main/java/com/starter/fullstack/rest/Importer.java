@@ -0,0 +1,310 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.ImportError;
+import com.starter.fullstack.api.ImportReport;
+import com.starter.fullstack.dao.ImportReportDAO;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Streams the records of an import into bulk writes of bounded batches, validating each record first, so
+ * memory stays constant whatever the size of the file. Progress is saved after every batch: sending the
+ * same file again under the same import id skips the records up to the last saved line. Records without
+ * an id get one derived from the import id and their line, so a batch written again after a failure
+ * replaces its own documents instead of duplicating them. A body that cannot be parsed any further stops
+ * the import, incomplete, with an error that is not counted as a failed record.
+ * @param <T> entity type.
+ */
+final class Importer<T> {
+  private static final int MAX_ERRORS = 1000;
+  private static final int OBJECT_ID_BYTES = 12;
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final ImportReportDAO importReportDAO;
+  private final Validator validator;
+  private final int batchSize;
+  private final Function<T, String> idOf;
+  private final BiConsumer<T, String> assignId;
+  private final Function<List<T>, List<BulkItemResult>> write;
+
+  /**
+   * Default Constructor.
+   * @param importReportDAO saves progress.
+   * @param validator bean validator.
+   * @param batchSize records per bulk write.
+   * @param idOf id of a record.
+   * @param assignId assigns an id to a record.
+   * @param write bulk upsert of one batch.
+   */
+  Importer(ImportReportDAO importReportDAO, Validator validator, int batchSize, Function<T, String> idOf,
+           BiConsumer<T, String> assignId, Function<List<T>, List<BulkItemResult>> write) {
+    Assert.notNull(importReportDAO, "Import Report DAO must not be null.");
+    Assert.notNull(validator, "Validator must not be null.");
+    Assert.isTrue(batchSize > 0, "Import batch size must be positive.");
+    this.importReportDAO = importReportDAO;
+    this.validator = validator;
+    this.batchSize = batchSize;
+    this.idOf = idOf;
+    this.assignId = assignId;
+    this.write = write;
+  }
+
+  /**
+   * Run an import, or resume it after the last line it committed.
+   * @param report report of the import, new or loaded.
+   * @param records records of the whole file.
+   * @return Report, incomplete when the file could not be read to its end.
+   * @throws IOException if the body cannot be read; progress up to the last batch is kept.
+   */
+  ImportReport run(ImportReport report, RecordReader<T> records) throws IOException {
+    long started = System.nanoTime();
+    long resumeAfter = report.getCommittedLine();
+    report.setResumedAfterLine(resumeAfter);
+    report.setRecords(0);
+    report.setComplete(false);
+    List<T> batch = new ArrayList<>(this.batchSize);
+    List<Long> lines = new ArrayList<>(this.batchSize);
+    long lastLine = resumeAfter;
+    boolean complete = true;
+    try (records) {
+      while (records.next()) {
+        long line = records.line();
+        if (line <= resumeAfter) {
+          continue;
+        }
+        lastLine = line;
+        report.setRecords(report.getRecords() + 1);
+        T record;
+        try {
+          record = records.read();
+        } catch (JsonProcessingException e) {
+          fail(report, line, e.getOriginalMessage());
+          continue;
+        }
+        String invalid = this.validate(record);
+        if (invalid != null) {
+          fail(report, line, invalid);
+          continue;
+        }
+        if (this.idOf.apply(record) == null) {
+          this.assignId.accept(record, derivedId(report.getId(), line));
+        }
+        batch.add(record);
+        lines.add(line);
+        if (batch.size() == this.batchSize) {
+          this.commit(report, batch, lines, lastLine);
+        }
+      }
+    } catch (JsonProcessingException e) {
+      report.getErrors().add(new ImportError(lastLine + 1, "Import stopped: " + e.getOriginalMessage()));
+      complete = false;
+    }
+    report.setComplete(complete);
+    long elapsed = System.nanoTime() - started;
+    report.setElapsedMillis(elapsed / 1_000_000);
+    report.setRecordsPerSecond(elapsed == 0 ? 0 : report.getRecords() * NANOS_PER_SECOND / elapsed);
+    this.commit(report, batch, lines, lastLine);
+    return report;
+  }
+
+  /**
+   * Write the batch and save the progress up to a line.
+   * @param report report.
+   * @param batch valid records not written yet.
+   * @param lines line of each record of the batch.
+   * @param lastLine last line read.
+   */
+  private void commit(ImportReport report, List<T> batch, List<Long> lines, long lastLine) {
+    if (!batch.isEmpty()) {
+      for (BulkItemResult result : this.write.apply(batch)) {
+        if (result.getStatus() == BulkItemStatus.CREATED || result.getStatus() == BulkItemStatus.UPDATED) {
+          report.setImported(report.getImported() + 1);
+        } else {
+          fail(report, lines.get(result.getIndex()),
+            result.getMessage() == null ? result.getStatus().name() : result.getMessage());
+        }
+      }
+      batch.clear();
+      lines.clear();
+    }
+    report.setCommittedLine(lastLine);
+    this.importReportDAO.save(report);
+  }
+
+  /**
+   * Bean validation messages of a record.
+   * @param record record.
+   * @return Messages, null when the record is valid.
+   */
+  private String validate(T record) {
+    Set<ConstraintViolation<T>> violations = this.validator.validate(record);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    Set<String> messages = new TreeSet<>();
+    violations.forEach(violation -> messages.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+    return String.join(" ", messages);
+  }
+
+  /**
+   * Count a failed record, keeping its error while the report holds fewer than the maximum.
+   * @param report report.
+   * @param line line of the record.
+   * @param message why it failed.
+   */
+  private static void fail(ImportReport report, long line, String message) {
+    report.setFailed(report.getFailed() + 1);
+    if (report.getErrors().size() < MAX_ERRORS) {
+      report.getErrors().add(new ImportError(line, message));
+    }
+  }
+
+  /**
+   * Id of the record at a line of an import, the same every time the line is imported.
+   * @param importId import id.
+   * @param line line.
+   * @return ObjectId hex string.
+   */
+  static String derivedId(String importId, long line) {
+    byte[] digest = DigestUtils.md5Digest((importId + ":" + line).getBytes(StandardCharsets.UTF_8));
+    return new ObjectId(Arrays.copyOf(digest, OBJECT_ID_BYTES)).toHexString();
+  }
+
+  /**
+   * Read newline delimited JSON, one line at a time; blank lines are skipped.
+   * @param body body.
+   * @param reader reader of one record.
+   * @param <T> entity type.
+   * @return Record Reader.
+   */
+  static <T> RecordReader<T> ndjson(InputStream body, ObjectReader reader) {
+    BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    return new RecordReader<>() {
+      private long line;
+      private String current;
+
+      @Override
+      public boolean next() throws IOException {
+        do {
+          this.current = lines.readLine();
+          this.line++;
+        } while (this.current != null && this.current.isBlank());
+        return this.current != null;
+      }
+
+      @Override
+      public long line() {
+        return this.line;
+      }
+
+      @Override
+      public T read() throws JsonProcessingException {
+        return reader.readValue(this.current);
+      }
+
+      @Override
+      public void close() throws IOException {
+        lines.close();
+      }
+    };
+  }
+
+  /**
+   * Read CSV with a header line, counting one line per record after the header. A record the mapper rejects
+   * is skipped; malformed CSV ends the import.
+   * @param body body.
+   * @param reader CSV reader with a header schema.
+   * @param <T> entity type.
+   * @return Record Reader.
+   * @throws IOException if the header cannot be read.
+   */
+  static <T> RecordReader<T> csv(InputStream body, ObjectReader reader) throws IOException {
+    MappingIterator<T> records = reader.readValues(body);
+    return new RecordReader<>() {
+      private long line = 1;
+      private boolean unread;
+
+      @Override
+      public boolean next() throws IOException {
+        if (this.unread) {
+          this.unread = false;
+          try {
+            records.nextValue();
+          } catch (JsonMappingException e) {
+            // Skipped records were committed before, their errors are already reported.
+          }
+        }
+        if (!records.hasNextValue()) {
+          return false;
+        }
+        this.line++;
+        this.unread = true;
+        return true;
+      }
+
+      @Override
+      public long line() {
+        return this.line;
+      }
+
+      @Override
+      public T read() throws IOException {
+        this.unread = false;
+        return records.nextValue();
+      }
+
+      @Override
+      public void close() throws IOException {
+        records.close();
+      }
+    };
+  }
+
+  /**
+   * Records of an import with their line.
+   * @param <T> entity type.
+   */
+  interface RecordReader<T> extends Closeable {
+    /**
+     * Move to the next record.
+     * @return false at the end of the body.
+     * @throws IOException if the body cannot be read, or cannot be parsed any further.
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Line the current record starts on.
+     * @return Line, from 1.
+     */
+    long line();
+
+    /**
+     * Map the current record; records that are skipped are never mapped.
+     * @return Record.
+     * @throws IOException if the record cannot be mapped.
+     */
+    T read() throws IOException;
+  }
+}
@@ -0,0 +1,37 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.IndexDrift;
+import com.starter.fullstack.dao.IndexRegistry;
+import java.util.List;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Index Controller -- Index drift and rebuilds. Not mapped under the reactive profile, since its registry calls
+ * block.
+ */
+@Profile("!reactive")
+@RestController
+public class IndexController {
+  private final IndexRegistry indexRegistry;
+
+  /**
+   * Default Constructor.
+   * @param indexRegistry indexRegistry.
+   */
+  public IndexController(IndexRegistry indexRegistry) {
+    Assert.notNull(indexRegistry, "Index Registry must not be null.");
+    this.indexRegistry = indexRegistry;
+  }
+
+  /**
+   * Find Index Drift.
+   * @return Drift per collection.
+   */
+  @GetMapping("/indexes/drift")
+  public List<IndexDrift> findIndexDrift() {
+    return this.indexRegistry.drift();
+  }
+}
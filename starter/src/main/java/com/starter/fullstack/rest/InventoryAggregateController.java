@@ -0,0 +1,53 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.dao.InventoryAggregateDAO;
+import java.util.List;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Inventory Aggregate Controller -- Reads the aggregates through the blocking DAO, so WebFlux does not map it
+ * under the reactive profile.
+ */
+@Profile("!reactive")
+@RestController
+@RequestMapping("/inventory/aggregates")
+public class InventoryAggregateController {
+  private final InventoryAggregateDAO inventoryAggregateDAO;
+
+  /**
+   * Default Constructor.
+   * @param inventoryAggregateDAO inventoryAggregateDAO.
+   */
+  public InventoryAggregateController(InventoryAggregateDAO inventoryAggregateDAO) {
+    Assert.notNull(inventoryAggregateDAO, "Inventory Aggregate DAO must not be null.");
+    this.inventoryAggregateDAO = inventoryAggregateDAO;
+  }
+
+  /**
+   * Find Inventory Aggregates.
+   * @param dimension PRODUCT_TYPE or STORE.
+   * @return Aggregates ordered by key.
+   */
+  @GetMapping
+  public List<InventoryAggregate> findAggregates(
+    @RequestParam(defaultValue = "PRODUCT_TYPE") AggregateDimension dimension) {
+    return this.inventoryAggregateDAO.find(dimension);
+  }
+
+  /**
+   * Rebuild Inventory Aggregates from the inventory collection.
+   * @return Rebuilt Aggregates.
+   */
+  @PostMapping("/rebuild")
+  public List<InventoryAggregate> rebuildAggregates() {
+    return this.inventoryAggregateDAO.rebuild();
+  }
+}
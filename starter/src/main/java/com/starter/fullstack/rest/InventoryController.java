@@ -1,69 +1,379 @@
 package com.starter.fullstack.rest;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.EntityChange;
 import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import com.starter.fullstack.api.StockAdjustment;
+import com.starter.fullstack.config.InventoryProperties;
+import com.starter.fullstack.dao.CollectionVersionDAO;
 import com.starter.fullstack.dao.InventoryDAO;
+import com.starter.fullstack.dao.InventoryWriteBehind;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TypeMismatchDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Inventory Controller.
  */
+@Profile("!reactive")
 @RestController
 @RequestMapping("/inventory")
 public class InventoryController {
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int NEW_LINE = '\n';
+
   private final InventoryDAO inventoryDAO;
+  private final CollectionVersionDAO collectionVersionDAO;
+  private final ObjectMapper objectMapper;
+  private final InventoryProperties inventoryProperties;
+  private final ProductResolver productResolver;
+  private final InventoryWriteBehind writeBehind;
+  private final SingleFlight singleFlight;
+  private final ObjectWriter listWriter;
 
   /**
    * Default Constructor.
    * @param inventoryDAO inventoryDAO.
+   * @param collectionVersionDAO collectionVersionDAO.
+   * @param objectMapper objectMapper.
+   * @param inventoryProperties inventoryProperties.
+   * @param productResolver resolves product types, once per request.
+   * @param writeBehind queue coalescing updates, updates are written one by one when not configured.
+   * @param singleFlight shares identical concurrent JSON reads, every read loads its own when not configured.
    */
-  public InventoryController(InventoryDAO inventoryDAO) {
+  public InventoryController(InventoryDAO inventoryDAO, CollectionVersionDAO collectionVersionDAO,
+                             ObjectMapper objectMapper, InventoryProperties inventoryProperties,
+                             ProductResolver productResolver, ObjectProvider<InventoryWriteBehind> writeBehind,
+                             ObjectProvider<SingleFlight> singleFlight) {
     Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.notNull(collectionVersionDAO, "Collection Version DAO must not be null.");
+    Assert.notNull(objectMapper, "Object Mapper must not be null.");
+    Assert.notNull(inventoryProperties, "Inventory Properties must not be null.");
+    Assert.notNull(productResolver, "Product Resolver must not be null.");
     this.inventoryDAO = inventoryDAO;
+    this.collectionVersionDAO = collectionVersionDAO;
+    this.objectMapper = objectMapper;
+    this.inventoryProperties = inventoryProperties;
+    this.productResolver = productResolver;
+    this.writeBehind = writeBehind.getIfAvailable();
+    this.singleFlight = singleFlight.getIfAvailable();
+    this.listWriter = objectMapper.writerFor(
+      objectMapper.getTypeFactory().constructCollectionType(List.class, Inventory.class));
   }
 
   /**
    * Find Inventories.
-   * @return List of Inventories.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore, sort and fields query parameters.
+   * @param request request, answered with 304 while the inventory collection version is unchanged.
+   * @return List of Inventories, as JSON shared with identical concurrent reads when single flight is on. Lists
+   *   read from secondaries are neither tagged nor shared, as they may be older than the version.
    */
   @GetMapping
-  public List<Inventory> findInventories() {
-    return this.inventoryDAO.findAll();
+  public ResponseEntity<Object> findInventories(InventoryFilter filter, WebRequest request) {
+    if (this.inventoryDAO.isListReadFromSecondaries()) {
+      return ResponseEntity.ok(this.inventoryDAO.find(filter));
+    }
+    String tag = this.collectionETag(request);
+    if (request.checkNotModified(tag)) {
+      return null;
+    }
+    if (this.singleFlight == null || !ETags.isJson(request)) {
+      return ResponseEntity.ok(this.inventoryDAO.find(filter));
+    }
+    byte[] body = this.singleFlight.get(EntityChange.INVENTORY, SingleFlight.key(tag, filter),
+      SingleFlight.json(this.listWriter, () -> this.inventoryDAO.find(filter)));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  /**
+   * Find a Page of Inventories ordered by name.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore and fields query parameters.
+   * @param cursor nextCursor of the previous page, omitted for the first page.
+   * @param limit page size.
+   * @param request request, answered with 304 while the inventory collection version is unchanged, unless pages
+   *   are read from secondaries.
+   * @return Page of Inventories.
+   */
+  @GetMapping("/page")
+  public InventoryPage findInventoryPage(InventoryFilter filter,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int limit,
+                                         WebRequest request) {
+    Assert.isTrue(limit > 0 && limit <= MAX_PAGE_SIZE, "Page limit must be between 1 and " + MAX_PAGE_SIZE);
+    if (!this.inventoryDAO.isListReadFromSecondaries() && request.checkNotModified(this.collectionETag(request))) {
+      return null;
+    }
+    return this.inventoryDAO.findPage(filter, cursor, limit);
+  }
+
+  /**
+   * Stream Inventories as newline delimited JSON, one document at a time off the Mongo cursor.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore, sort and fields query parameters.
+   * @return Streamed Inventories.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public StreamingResponseBody streamInventories(InventoryFilter filter) {
+    ObjectWriter writer = this.objectMapper.writerFor(Inventory.class);
+    return outputStream -> {
+      try (Stream<Inventory> inventories = this.inventoryDAO.stream(filter)) {
+        Iterator<Inventory> iterator = inventories.iterator();
+        while (iterator.hasNext()) {
+          outputStream.write(writer.writeValueAsBytes(iterator.next()));
+          outputStream.write(NEW_LINE);
+        }
+      }
+    };
   }
 
   /**
    * Create a new inventory
    * @param inventory from request
-   * @return a newly created Inventory object.
+   * @return a newly created Inventory object, 400 when its product type names no Product.
    */
   @PostMapping
-  public Inventory createInventory(@RequestBody Inventory inventory) {
-    return this.inventoryDAO.create(inventory);
+  public ResponseEntity<Inventory> createInventory(@RequestBody Inventory inventory) {
+    if (this.isUnknownProductType(inventory)) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(this.inventoryDAO.create(inventory));
+  }
 
+  /**
+   * Retrieve an Inventory.
+   * @param id id of the Inventory.
+   * @param request request, answered with 304 while the Inventory version is unchanged.
+   * @return Inventory tagged with its version.
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<Inventory> retrieveInventory(@PathVariable String id, WebRequest request) {
+    Optional<Inventory> inventory = this.inventoryDAO.retrieve(id);
+    if (inventory.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    if (request.checkNotModified(ETags.ofDocument(inventory.get().getVersion(), request))) {
+      return null;
+    }
+    return ResponseEntity.ok(inventory.get());
   }
 
+  /**
+   * Update an Inventory at the version in If-Match, or at the version it carries without one.
+   * @param inventory from request.
+   * @param ifMatch entity tag of the version being replaced.
+   * @param request request, its Accept header picks the representation tagged.
+   * @return Updated Inventory tagged with its new version, 412 on a stale If-Match, 409 on a stale body version,
+   *   400 when its product type names no Product, 202 when queued for write-behind without waiting.
+   */
   @PutMapping
-  public Inventory updateInventory(@RequestBody Inventory inventory) {
-    return this.inventoryDAO.update(inventory).orElse(null);
+  public ResponseEntity<Inventory> updateInventory(
+    @RequestBody Inventory inventory, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+    WebRequest request) {
+    if (this.isUnknownProductType(inventory)) {
+      return ResponseEntity.badRequest().build();
+    }
+    boolean conditional = ETags.isConditional(ifMatch);
+    if (conditional) {
+      Long version = ETags.versionOf(ifMatch);
+      if (version == null) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+      }
+      inventory.setVersion(version);
+    }
+    try {
+      Optional<Inventory> updated = this.writeBehind == null || inventory.getId() == null
+        ? this.inventoryDAO.update(inventory) : this.writeBehind.update(inventory);
+      if (updated.isEmpty()) {
+        return ResponseEntity.accepted().build();
+      }
+      return ResponseEntity.ok().eTag(ETags.ofDocument(updated.get().getVersion(), request)).body(updated.get());
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+    }
+  }
+
+  /**
+   * Create Inventories in chunked bulk writes.
+   * @param inventories from request.
+   * @return Result per Inventory.
+   */
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public List<BulkItemResult> createInventories(@RequestBody List<Inventory> inventories) {
+    return this.inChunks(inventories.iterator(), this::createKnownProductTypes);
+  }
+
+  /**
+   * Create Inventories streamed as newline delimited JSON, in chunked bulk writes.
+   * @param body request body.
+   * @return Result per Inventory.
+   * @throws IOException if the body cannot be read.
+   */
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public List<BulkItemResult> createInventoryStream(InputStream body) throws IOException {
+    try (MappingIterator<Inventory> inventories = this.objectMapper.readerFor(Inventory.class).readValues(body)) {
+      return this.inChunks(inventories, this::createKnownProductTypes);
+    }
+  }
+
+  /**
+   * Update Inventories in chunked bulk writes.
+   * @param inventories from request.
+   * @return Result per Inventory, with version conflicts reported per item.
+   */
+  @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public List<BulkItemResult> updateInventories(@RequestBody List<Inventory> inventories) {
+    return this.inChunks(inventories.iterator(), this::updateKnownProductTypes);
+  }
+
+  /**
+   * Update Inventories streamed as newline delimited JSON, in chunked bulk writes.
+   * @param body request body.
+   * @return Result per Inventory, with version conflicts reported per item.
+   * @throws IOException if the body cannot be read.
+   */
+  @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public List<BulkItemResult> updateInventoryStream(InputStream body) throws IOException {
+    try (MappingIterator<Inventory> inventories = this.objectMapper.readerFor(Inventory.class).readValues(body)) {
+      return this.inChunks(inventories, this::updateKnownProductTypes);
+    }
+  }
+
+  /**
+   * Adjust the amount of an Inventory in place, without a version check, so concurrent adjustments never conflict.
+   * @param id id of the Inventory.
+   * @param adjustment quantity received when positive or issued when negative, and the unit price of a receipt.
+   * @param request request, its Accept header picks the representation tagged.
+   * @return Adjusted Inventory tagged with its new version, 404 when it does not exist, 409 when an issue exceeds
+   *   the amount, 400 when the adjustment is invalid, 422 when the amount or average price is still stored as a
+   *   string.
+   */
+  @PostMapping("/{id}/adjustments")
+  public ResponseEntity<Inventory> adjustInventory(@PathVariable String id, @RequestBody StockAdjustment adjustment,
+                                                   WebRequest request) {
+    adjustment.setId(id);
+    if (InventoryDAO.invalidAdjustment(adjustment) != null) {
+      return ResponseEntity.badRequest().build();
+    }
+    try {
+      return this.inventoryDAO.adjust(adjustment)
+        .map(adjusted -> ResponseEntity.ok().eTag(ETags.ofDocument(adjusted.getVersion(), request)).body(adjusted))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+    } catch (DataIntegrityViolationException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (TypeMismatchDataAccessException e) {
+      return ResponseEntity.unprocessableEntity().build();
+    }
   }
 
   /**
-   * deletes an inventory, if it exists
-   * @param id is the id of the inventory
+   * Adjust the amounts of Inventories in place, in request order, in chunks.
+   * @param adjustments from request.
+   * @return Result per adjustment, with issues exceeding the amount reported as conflicts.
+   */
+  @PostMapping(value = "/adjustments", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public List<BulkItemResult> adjustInventories(@RequestBody List<StockAdjustment> adjustments) {
+    return this.inChunks(adjustments.iterator(), this.inventoryDAO::bulkAdjust);
+  }
+
+  /**
+   * Delete Inventories by id with deleteMany.
+   * @param id ids of the Inventories.
+   * @return Number of Inventories deleted.
    */
   @DeleteMapping
-  public void deleteInventory(@RequestBody List<String> id) {
-    Optional<List<Inventory>> deletedInventory = this.inventoryDAO.delete(id);
+  public long deleteInventory(@RequestBody List<String> id) {
+    return this.inventoryDAO.deleteMany(id);
+  }
 
-    // return deletedInventory.orElse(null);
+  /**
+   * Whether the product type of an Inventory is set but names no Product.
+   * @param inventory Inventory.
+   * @return true when the Inventory must not be written.
+   */
+  private boolean isUnknownProductType(Inventory inventory) {
+    return inventory.getProductType() != null && this.productResolver.resolve(inventory.getProductType()).isEmpty();
   }
-}
 
+  /**
+   * Create the Inventories of a chunk whose product type names a Product.
+   * @param inventories chunk.
+   * @return Result per Inventory.
+   */
+  private List<BulkItemResult> createKnownProductTypes(List<Inventory> inventories) {
+    return this.productResolver.writeKnownProductTypes(inventories, this.inventoryDAO::bulkCreate);
+  }
+
+  /**
+   * Update the Inventories of a chunk whose product type names a Product.
+   * @param inventories chunk.
+   * @return Result per Inventory.
+   */
+  private List<BulkItemResult> updateKnownProductTypes(List<Inventory> inventories) {
+    return this.productResolver.writeKnownProductTypes(inventories, this.inventoryDAO::bulkUpdate);
+  }
+
+  /**
+   * Entity tag of the Inventory collection endpoints, read before the Inventory so it is never newer than them.
+   * @param request request, its Accept header picks the representation tagged.
+   * @return Entity tag.
+   */
+  private String collectionETag(WebRequest request) {
+    return ETags.ofCollection(EntityChange.INVENTORY, this.collectionVersionDAO.current(Inventory.class), request);
+  }
+
+  /**
+   * Write Inventories, or adjustments, in chunks of the configured bulk size.
+   * @param items items to write.
+   * @param write bulk write of one chunk.
+   * @param <T> item type.
+   * @return Result per item, indexed by position in the request.
+   */
+  private <T> List<BulkItemResult> inChunks(Iterator<T> items, Function<List<T>, List<BulkItemResult>> write) {
+    int chunkSize = this.inventoryProperties.getBulkChunkSize();
+    List<BulkItemResult> results = new ArrayList<>();
+    List<T> chunk = new ArrayList<>(chunkSize);
+    while (items.hasNext()) {
+      chunk.add(items.next());
+      if (chunk.size() == chunkSize || !items.hasNext()) {
+        int offset = results.size();
+        write.apply(chunk).forEach(result -> {
+          result.setIndex(result.getIndex() + offset);
+          results.add(result);
+        });
+        chunk.clear();
+      }
+    }
+    return results;
+  }
+}
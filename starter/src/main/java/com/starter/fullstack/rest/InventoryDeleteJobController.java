@@ -0,0 +1,67 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.DeleteJob;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.dao.InventoryDeleteJobs;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Inventory Delete Job Controller.
+ */
+@Profile("!reactive")
+@RestController
+@RequestMapping("/inventory/delete-jobs")
+public class InventoryDeleteJobController {
+  private final InventoryDeleteJobs inventoryDeleteJobs;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDeleteJobs inventoryDeleteJobs.
+   */
+  public InventoryDeleteJobController(InventoryDeleteJobs inventoryDeleteJobs) {
+    Assert.notNull(inventoryDeleteJobs, "Inventory Delete Jobs must not be null.");
+    this.inventoryDeleteJobs = inventoryDeleteJobs;
+  }
+
+  /**
+   * Start deleting the Inventories listed in the body, or without a body every Inventory matching the filter.
+   * @param ids ids of the Inventories, optional.
+   * @param filter productType, namePrefix, store, expiresAfter and expiresBefore query parameters.
+   * @return Started Job with its location, 400 without ids or filter criteria, 503 when too many jobs are running.
+   */
+  @PostMapping
+  public ResponseEntity<DeleteJob> startDeleteJob(@RequestBody(required = false) List<String> ids,
+                                                  InventoryFilter filter) {
+    DeleteJob job;
+    try {
+      job = ids == null ? this.inventoryDeleteJobs.start(filter) : this.inventoryDeleteJobs.start(ids);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (RejectedExecutionException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+    return ResponseEntity.accepted().location(URI.create("/inventory/delete-jobs/" + job.getId())).body(job);
+  }
+
+  /**
+   * Retrieve the progress of a Delete Job.
+   * @param id job id.
+   * @return Job, 404 when unknown.
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<DeleteJob> retrieveDeleteJob(@PathVariable String id) {
+    return ResponseEntity.of(this.inventoryDeleteJobs.find(id));
+  }
+}
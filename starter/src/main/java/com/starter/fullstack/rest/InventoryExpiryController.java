@@ -0,0 +1,50 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.dao.InventoryExpiry;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Inventory Expiry Controller.
+ */
+@Profile("!reactive")
+@RestController
+@RequestMapping("/inventory/expiring")
+public class InventoryExpiryController {
+  private static final int MAX_DAYS = 366;
+  private static final int MAX_LIMIT = 1000;
+
+  private final InventoryExpiry inventoryExpiry;
+
+  /**
+   * Default Constructor.
+   * @param inventoryExpiry inventoryExpiry.
+   */
+  public InventoryExpiryController(InventoryExpiry inventoryExpiry) {
+    Assert.notNull(inventoryExpiry, "Inventory Expiry must not be null.");
+    this.inventoryExpiry = inventoryExpiry;
+  }
+
+  /**
+   * Find the Inventories not yet expired that expire within a number of days, soonest first.
+   * @param days window in days from now.
+   * @param limit maximum number of Inventories.
+   * @return Expiring Inventories, 400 when days or limit are out of range.
+   */
+  @GetMapping
+  public ResponseEntity<List<Inventory>> findExpiring(@RequestParam(defaultValue = "7") int days,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+    if (days <= 0 || days > MAX_DAYS || limit <= 0 || limit > MAX_LIMIT) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(this.inventoryExpiry.findExpiring(Duration.ofDays(days), limit));
+  }
+}
@@ -0,0 +1,51 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.SearchHit;
+import com.starter.fullstack.dao.InventorySearchDAO;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Inventory Search Controller -- Typeahead over the in-process index, on the servlet stack only; the reactive
+ * profile leaves it unmapped.
+ */
+@ConditionalOnProperty(prefix = "com.starter.fullstack.search", name = "enabled", havingValue = "true",
+  matchIfMissing = true)
+@Profile("!reactive")
+@RestController
+public class InventorySearchController {
+  private static final int MAX_LIMIT = 100;
+
+  private final InventorySearchDAO inventorySearchDAO;
+
+  /**
+   * Default Constructor.
+   * @param inventorySearchDAO inventorySearchDAO.
+   */
+  public InventorySearchController(InventorySearchDAO inventorySearchDAO) {
+    Assert.notNull(inventorySearchDAO, "Inventory Search DAO must not be null.");
+    this.inventorySearchDAO = inventorySearchDAO;
+  }
+
+  /**
+   * Search Inventory names and descriptions as the user types; every word matches as a prefix.
+   * @param q words typed so far.
+   * @param limit maximum number of hits.
+   * @return Hits with name matches first, 503 while the search index is loading.
+   */
+  @GetMapping("/inventory/search")
+  public ResponseEntity<List<SearchHit>> searchInventory(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+    Assert.isTrue(limit > 0 && limit <= MAX_LIMIT, "Search limit must be between 1 and " + MAX_LIMIT);
+    return this.inventorySearchDAO.search(q, limit)
+      .map(ResponseEntity::ok)
+      .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+  }
+}
@@ -0,0 +1,63 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.dao.InventorySnapshotDAO;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Inventory Snapshot Controller -- Counts and totals of filtered Inventory, served from memory. Servlet stack
+ * only, it is not mapped under the reactive profile.
+ */
+@ConditionalOnProperty(prefix = "com.starter.fullstack.snapshot", name = "enabled", havingValue = "true")
+@Profile("!reactive")
+@RestController
+@RequestMapping("/inventory/snapshot")
+public class InventorySnapshotController {
+  private final InventorySnapshotDAO inventorySnapshotDAO;
+
+  /**
+   * Default Constructor.
+   * @param inventorySnapshotDAO inventorySnapshotDAO.
+   */
+  public InventorySnapshotController(InventorySnapshotDAO inventorySnapshotDAO) {
+    Assert.notNull(inventorySnapshotDAO, "Inventory Snapshot DAO must not be null.");
+    this.inventorySnapshotDAO = inventorySnapshotDAO;
+  }
+
+  /**
+   * Count Inventories.
+   * @param filter productType, namePrefix, store, expiresAfter and expiresBefore query parameters.
+   * @return Count, 503 while the snapshot is loading.
+   */
+  @GetMapping("/count")
+  public ResponseEntity<Long> countInventories(InventoryFilter filter) {
+    return this.inventorySnapshotDAO.count(filter)
+      .map(ResponseEntity::ok)
+      .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+  }
+
+  /**
+   * Total Inventories by product type or store.
+   * @param filter productType, namePrefix, store, expiresAfter and expiresBefore query parameters.
+   * @param dimension PRODUCT_TYPE or STORE.
+   * @return Aggregates ordered by key, 503 while the snapshot is loading or cannot total the matches exactly.
+   */
+  @GetMapping("/aggregates")
+  public ResponseEntity<List<InventoryAggregate>> aggregateInventories(
+    InventoryFilter filter, @RequestParam(defaultValue = "PRODUCT_TYPE") AggregateDimension dimension) {
+    return this.inventorySnapshotDAO.aggregate(filter, dimension)
+      .map(ResponseEntity::ok)
+      .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+  }
+}
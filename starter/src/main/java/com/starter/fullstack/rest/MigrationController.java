@@ -0,0 +1,35 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.dao.InventoryDAO;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Migration Controller -- Data migrations run once by an operator, never at startup.
+ */
+@Profile("!reactive")
+@RestController
+public class MigrationController {
+  private final InventoryDAO inventoryDAO;
+
+  /**
+   * Default Constructor.
+   * @param inventoryDAO inventoryDAO.
+   */
+  public MigrationController(InventoryDAO inventoryDAO) {
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    this.inventoryDAO = inventoryDAO;
+  }
+
+  /**
+   * Convert Inventory amounts and average prices still stored as strings to Decimal128. Scans the inventory
+   * collection, so run it once, after every instance writes Decimal128.
+   * @return Number of fields converted.
+   */
+  @PostMapping("/migrations/decimals")
+  public long migrateDecimals() {
+    return this.inventoryDAO.migrateDecimals();
+  }
+}
@@ -0,0 +1,166 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.dao.CollectionVersionDAO;
+import com.starter.fullstack.dao.ProductDAO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.Assert;
+
+/**
+ * Product Catalog -- The Product list encoded once as JSON and gzipped JSON, tagged with the product collection
+ * version it was read at. Requests share the same bytes until the version in Mongo moves past the snapshot,
+ * whichever instance wrote, and writes through this instance swap in a new snapshot right away. Inserts and
+ * deletes made around the DAOs do not always move the version, so the snapshot also keeps the Product count it
+ * was read at and is rebuilt when the count read with the version for the request differs.
+ */
+public class ProductCatalog {
+  private final ProductDAO productDAO;
+  private final CollectionVersionDAO collectionVersionDAO;
+  private final ObjectWriter listWriter;
+  private final Object rebuildLock = new Object();
+  private volatile Snapshot snapshot;
+
+  /**
+   * Default Constructor.
+   * @param productDAO productDAO.
+   * @param collectionVersionDAO collectionVersionDAO.
+   * @param objectMapper objectMapper.
+   */
+  public ProductCatalog(ProductDAO productDAO, CollectionVersionDAO collectionVersionDAO, ObjectMapper objectMapper) {
+    Assert.notNull(productDAO, "Product DAO must not be null.");
+    Assert.notNull(collectionVersionDAO, "Collection Version DAO must not be null.");
+    Assert.notNull(objectMapper, "Object Mapper must not be null.");
+    this.productDAO = productDAO;
+    this.collectionVersionDAO = collectionVersionDAO;
+    this.listWriter = objectMapper.writerFor(
+      objectMapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+  }
+
+  /**
+   * Snapshot at least as new as a collection version, rebuilt by one request when the current one is older
+   * while the others wait for it.
+   * @param watermark product collection version and count read for the request.
+   * @return Snapshot.
+   */
+  public Snapshot snapshot(CollectionVersionDAO.Watermark watermark) {
+    Snapshot current = this.snapshot;
+    if (current != null && current.isCurrent(watermark)) {
+      return current;
+    }
+    synchronized (this.rebuildLock) {
+      current = this.snapshot;
+      if (current != null && current.isCurrent(watermark)) {
+        return current;
+      }
+      return this.rebuild();
+    }
+  }
+
+  /**
+   * Rebuild the snapshot after a write.
+   * @return Snapshot.
+   */
+  public Snapshot refresh() {
+    synchronized (this.rebuildLock) {
+      return this.rebuild();
+    }
+  }
+
+  /**
+   * Read the version, then the Products, so the snapshot is never older than its version, and swap it in.
+   * @return Snapshot.
+   */
+  private Snapshot rebuild() {
+    long version = this.collectionVersionDAO.current(Product.class);
+    List<Product> products = this.productDAO.findAll();
+    byte[] json;
+    try {
+      json = this.listWriter.writeValueAsBytes(products);
+    } catch (JsonProcessingException e) {
+      throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+    }
+    Snapshot rebuilt = new Snapshot(version, products.size(), json, gzip(json));
+    this.snapshot = rebuilt;
+    return rebuilt;
+  }
+
+  /**
+   * Gzip bytes.
+   * @param bytes bytes.
+   * @return Gzipped bytes.
+   */
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Encoded Product list at one collection version. Never modified once built.
+   */
+  public static final class Snapshot {
+    private final long version;
+    private final long count;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    /**
+     * Default Constructor.
+     * @param version product collection version.
+     * @param count number of Products.
+     * @param json JSON.
+     * @param gzip gzipped JSON.
+     */
+    private Snapshot(long version, long count, byte[] json, byte[] gzip) {
+      this.version = version;
+      this.count = count;
+      this.json = json;
+      this.gzip = gzip;
+    }
+
+    /**
+     * Whether the snapshot can be served for a request.
+     * @param watermark product collection version and count read for the request.
+     * @return true when the snapshot is at least as new as the version and holds as many Products.
+     */
+    private boolean isCurrent(CollectionVersionDAO.Watermark watermark) {
+      return this.version >= watermark.getVersion() && this.count == watermark.getCount();
+    }
+
+    /**
+     * Product collection version the snapshot was read at.
+     * @return Version.
+     */
+    public long getVersion() {
+      return this.version;
+    }
+
+    /**
+     * Shared JSON bytes, must not be modified.
+     * @return JSON.
+     */
+    public byte[] getJson() {
+      return this.json;
+    }
+
+    /**
+     * Shared gzipped JSON bytes, must not be modified.
+     * @return Gzipped JSON.
+     */
+    public byte[] getGzip() {
+      return this.gzip;
+    }
+  }
+}
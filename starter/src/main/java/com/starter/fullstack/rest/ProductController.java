@@ -1,39 +1,129 @@
 package com.starter.fullstack.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.starter.fullstack.api.EntityChange;
 import com.starter.fullstack.api.Product;
+import com.starter.fullstack.dao.CollectionVersionDAO;
+import com.starter.fullstack.dao.InventoryDAO;
 import com.starter.fullstack.dao.ProductDAO;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import javax.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Product Controller.
  */
+@Slf4j
+@Profile("!reactive")
 @RestController
 public class ProductController {
+  private static final String GZIP = "gzip";
+  private static final String ANY = "*";
+  private static final Pattern NO_QUALITY = Pattern.compile("\\s*q\\s*=\\s*0(\\.0{0,3})?\\s*");
+
   private final ProductDAO productDAO;
+  private final CollectionVersionDAO collectionVersionDAO;
+  private final InventoryDAO inventoryDAO;
+  private final SingleFlight singleFlight;
+  private final ProductCatalog productCatalog;
+  private final ObjectWriter listWriter;
 
   /**
    * Default Constructor.
    * @param productDAO productDAO.
+   * @param collectionVersionDAO collectionVersionDAO.
+   * @param inventoryDAO inventoryDAO, checks no Inventory uses a Product being deleted.
+   * @param objectMapper objectMapper.
+   * @param singleFlight shares identical concurrent JSON reads, every read loads its own when not configured.
+   * @param productCatalog pre-encoded Product list served as JSON, read through the DAO when not configured.
    */
-  public ProductController(ProductDAO productDAO) {
+  public ProductController(ProductDAO productDAO, CollectionVersionDAO collectionVersionDAO,
+                           InventoryDAO inventoryDAO, ObjectMapper objectMapper,
+                           ObjectProvider<SingleFlight> singleFlight, ObjectProvider<ProductCatalog> productCatalog) {
     Assert.notNull(productDAO, "Product DAO must not be null.");
+    Assert.notNull(collectionVersionDAO, "Collection Version DAO must not be null.");
+    Assert.notNull(inventoryDAO, "Inventory DAO must not be null.");
+    Assert.notNull(objectMapper, "Object Mapper must not be null.");
     this.productDAO = productDAO;
+    this.collectionVersionDAO = collectionVersionDAO;
+    this.inventoryDAO = inventoryDAO;
+    this.singleFlight = singleFlight.getIfAvailable();
+    this.productCatalog = productCatalog.getIfAvailable();
+    this.listWriter = objectMapper.writerFor(
+      objectMapper.getTypeFactory().constructCollectionType(List.class, Product.class));
   }
 
   /**
    * Find Products.
-   * @return List of Product.
+   * @param acceptEncoding Accept-Encoding header, the catalog is sent gzipped when it allows gzip.
+   * @param request request, answered with 304 while the product collection version and count are unchanged.
+   * @return List of Product, written from the catalog snapshot as JSON when the catalog is on.
    */
   @GetMapping("/products")
-  public List<Product> findProducts() {
-    return this.productDAO.findAll();
+  public ResponseEntity<Object> findProducts(
+    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+    WebRequest request) {
+    CollectionVersionDAO.Watermark watermark = this.collectionVersionDAO.currentWithCount(Product.class);
+    String tag = ETags.ofCollection(EntityChange.PRODUCT, watermark.getVersion(), watermark.getCount(), request);
+    if (request.checkNotModified(tag)) {
+      return null;
+    }
+    if (this.productCatalog != null && ETags.isJson(request)) {
+      ProductCatalog.Snapshot snapshot = this.productCatalog.snapshot(watermark);
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+      if (acceptsGzip(acceptEncoding)) {
+        return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(snapshot.getGzip());
+      }
+      return response.body(snapshot.getJson());
+    }
+    if (this.singleFlight == null || !ETags.isJson(request)) {
+      return ResponseEntity.ok(this.productDAO.findAll());
+    }
+    byte[] body = this.singleFlight.get(EntityChange.PRODUCT, tag,
+      SingleFlight.json(this.listWriter, this.productDAO::findAll));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  /**
+   * Retrieve a Product.
+   * @param id id of the Product.
+   * @param request request, answered with 304 while the Product version is unchanged.
+   * @return Product tagged with its version.
+   */
+  @GetMapping("/products/{id}")
+  public ResponseEntity<Product> retrieveProduct(@PathVariable String id, WebRequest request) {
+    Optional<Product> product = this.productDAO.findById(id);
+    if (product.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    if (request.checkNotModified(ETags.ofDocument(product.get().getVersion(), request))) {
+      return null;
+    }
+    return ResponseEntity.ok(product.get());
   }
 
   /**
@@ -43,18 +133,104 @@ public class ProductController {
    */
   @PostMapping("/products")
   public Product saveProduct(@Valid @RequestBody Product product) {
-    return this.productDAO.save(product);
+    Product saved = this.productDAO.save(product);
+    this.refreshCatalog();
+    return saved;
+  }
+
+  /**
+   * Update a Product at the version in If-Match, or at the version it carries without one.
+   * @param product product.
+   * @param ifMatch entity tag of the version being replaced.
+   * @param request request, its Accept header picks the representation tagged.
+   * @return Updated Product tagged with its new version, 412 on a stale If-Match, 409 on a stale body version.
+   */
+  @PutMapping("/products")
+  public ResponseEntity<Product> updateProduct(@Valid @RequestBody Product product,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                               String ifMatch, WebRequest request) {
+    Assert.notNull(product.getId(), "Product Id was not provided");
+    boolean conditional = ETags.isConditional(ifMatch);
+    if (conditional) {
+      Long version = ETags.versionOf(ifMatch);
+      if (version == null) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+      }
+      product.setVersion(version);
+    }
+    try {
+      Product updated = this.productDAO.save(product);
+      this.refreshCatalog();
+      return ResponseEntity.ok().eTag(ETags.ofDocument(updated.getVersion(), request)).body(updated);
+    } catch (OptimisticLockingFailureException e) {
+      return ResponseEntity.status(conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+    }
   }
 
   /**
-   * Delete Product By Id.
+   * Delete Product By Id, unless some Inventory still has the product type of one of them.
    *
    * @param ids ids.
+   * @return 409 with the ids of the Products still in use, in which case none is deleted.
    */
   @DeleteMapping("/products")
-  public void deleteProductById(@RequestBody List<String> ids) {
+  public ResponseEntity<List<String>> deleteProductById(@RequestBody List<String> ids) {
     Assert.notEmpty(ids, "Product Ids were not provided");
+    List<Product> products = new ArrayList<>();
+    this.productDAO.findAllById(ids).forEach(products::add);
+    List<String> names = new ArrayList<>(products.size());
+    products.forEach(product -> names.add(product.getName()));
+    Set<String> inUse = names.isEmpty() ? Set.of() : this.inventoryDAO.findProductTypesInUse(names);
+    if (!inUse.isEmpty()) {
+      List<String> used = new ArrayList<>();
+      for (Product product : products) {
+        if (inUse.contains(product.getName())) {
+          used.add(product.getId());
+        }
+      }
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(used);
+    }
     this.productDAO.deleteProductsByIdIn(ids);
+    this.refreshCatalog();
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Swap in a catalog snapshot holding a write. The write already succeeded when this fails, and the next read
+   * rebuilds the snapshot since the collection version moved past it.
+   */
+  private void refreshCatalog() {
+    if (this.productCatalog == null) {
+      return;
+    }
+    try {
+      this.productCatalog.refresh();
+    } catch (DataAccessException e) {
+      log.warn("Product catalog refresh failed", e);
+    }
   }
-}
 
+  /**
+   * Whether an Accept-Encoding header allows gzip.
+   * @param acceptEncoding header, may be null.
+   * @return true when gzip or any encoding is accepted with a non zero quality.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      String name = parameters[0].trim();
+      if (GZIP.equalsIgnoreCase(name) || ANY.equals(name)) {
+        for (int index = 1; index < parameters.length; index++) {
+          if (NO_QUALITY.matcher(parameters[index]).matches()) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+}
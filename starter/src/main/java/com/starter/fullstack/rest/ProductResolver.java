@@ -0,0 +1,127 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.dao.ProductDAO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Product Resolver -- Resolves Inventory product types to Products for the length of one request.
+ * The names not resolved yet are looked up together in one query and every answer, found or not, is
+ * remembered, so checking a batch of Inventories costs one Mongo round trip at most and a product type
+ * repeated across the batches of a request is looked up once.
+ */
+@Profile("!reactive")
+@Component
+@RequestScope
+public class ProductResolver {
+  private final ProductDAO productDAO;
+  private final Map<String, Optional<Product>> resolved = new HashMap<>();
+
+  /**
+   * Default Constructor.
+   * @param productDAO productDAO.
+   */
+  public ProductResolver(ProductDAO productDAO) {
+    Assert.notNull(productDAO, "Product DAO must not be null.");
+    this.productDAO = productDAO;
+  }
+
+  /**
+   * Resolve one product type.
+   * @param productType product type, may be null.
+   * @return Product named by the product type.
+   */
+  public Optional<Product> resolve(String productType) {
+    return Optional.ofNullable(this.resolveAll(List.of(productType)).get(productType));
+  }
+
+  /**
+   * Resolve product types, looking up the ones not resolved yet in one query.
+   * @param productTypes product types, nulls are ignored.
+   * @return Products keyed by the product types naming one.
+   */
+  public Map<String, Product> resolveAll(Collection<String> productTypes) {
+    Set<String> unresolved = new HashSet<>();
+    for (String productType : productTypes) {
+      if (productType != null && !this.resolved.containsKey(productType)) {
+        unresolved.add(productType);
+      }
+    }
+    if (!unresolved.isEmpty()) {
+      unresolved.forEach(productType -> this.resolved.put(productType, Optional.empty()));
+      this.productDAO.findByNameIn(unresolved)
+        .forEach(product -> this.resolved.put(product.getName(), Optional.of(product)));
+    }
+    Map<String, Product> products = new HashMap<>();
+    for (String productType : productTypes) {
+      if (productType != null) {
+        this.resolved.get(productType).ifPresent(product -> products.put(productType, product));
+      }
+    }
+    return products;
+  }
+
+  /**
+   * Write the Inventories of a batch whose product type names a Product, failing the others unwritten.
+   * Inventories without a product type are left to bean validation and written as they are.
+   * @param inventories Inventories of one batch.
+   * @param write bulk write.
+   * @return Result per Inventory, indexed by position in the batch.
+   */
+  public List<BulkItemResult> writeKnownProductTypes(List<Inventory> inventories,
+                                                     Function<List<Inventory>, List<BulkItemResult>> write) {
+    List<String> productTypes = new ArrayList<>(inventories.size());
+    inventories.forEach(inventory -> productTypes.add(inventory.getProductType()));
+    Map<String, Product> products = this.resolveAll(productTypes);
+    BulkItemResult[] results = new BulkItemResult[inventories.size()];
+    List<Inventory> known = new ArrayList<>(inventories.size());
+    List<Integer> positions = new ArrayList<>(inventories.size());
+    for (int index = 0; index < inventories.size(); index++) {
+      Inventory inventory = inventories.get(index);
+      String productType = inventory.getProductType();
+      if (productType == null || products.containsKey(productType)) {
+        known.add(inventory);
+        positions.add(index);
+      } else {
+        results[index] = new BulkItemResult(index, inventory.getId(), BulkItemStatus.FAILED,
+          unknownProductType(productType));
+      }
+    }
+    if (known.size() == inventories.size()) {
+      return write.apply(inventories);
+    }
+    if (!known.isEmpty()) {
+      for (BulkItemResult result : write.apply(known)) {
+        int index = positions.get(result.getIndex());
+        result.setIndex(index);
+        results[index] = result;
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Message for a product type no Product is named after.
+   * @param productType product type.
+   * @return Message.
+   */
+  static String unknownProductType(String productType) {
+    return "Product Type " + productType + " does not exist.";
+  }
+}
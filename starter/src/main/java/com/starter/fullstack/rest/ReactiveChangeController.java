@@ -0,0 +1,52 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.dao.ChangeFeed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive Change Controller, serving the change stream on WebFlux under the reactive profile.
+ */
+@Profile("reactive")
+@RestController
+public class ReactiveChangeController {
+  private final ChangeFeed changeFeed;
+
+  /**
+   * Default Constructor.
+   * @param changeFeed changeFeed.
+   */
+  public ReactiveChangeController(ChangeFeed changeFeed) {
+    Assert.notNull(changeFeed, "Change Feed must not be null.");
+    this.changeFeed = changeFeed;
+  }
+
+  /**
+   * Stream Changes.
+   * @param lastEventId token of the last change seen, sent by a reconnecting EventSource.
+   * @param after token of the last change seen, for clients that cannot set headers.
+   * @return Server-sent events.
+   */
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<Object>> streamChanges(
+    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+    @RequestParam(required = false) String after) {
+    String resumeAfter = lastEventId != null ? lastEventId : after;
+    return Flux.create(sink -> {
+      ChangeFeed.Subscription subscription = this.changeFeed.subscribe(resumeAfter,
+        change -> sink.next(ServerSentEvent.<Object>builder(change).id(change.getToken())
+          .event(ChangeController.CHANGE_EVENT).build()), sink::complete);
+      sink.onDispose(subscription::close);
+      if (resumeAfter != null && !subscription.isResumed()) {
+        sink.next(ServerSentEvent.<Object>builder(resumeAfter).event(ChangeController.RESET_EVENT).build());
+      }
+    });
+  }
+}
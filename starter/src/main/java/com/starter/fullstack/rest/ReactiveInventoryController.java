@@ -0,0 +1,106 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import com.starter.fullstack.dao.ReactiveInventoryDAO;
+import java.util.List;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Inventory Controller, serving the Inventory endpoints on WebFlux under the reactive profile.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/inventory")
+public class ReactiveInventoryController {
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  private final ReactiveInventoryDAO reactiveInventoryDAO;
+
+  /**
+   * Default Constructor.
+   * @param reactiveInventoryDAO reactiveInventoryDAO.
+   */
+  public ReactiveInventoryController(ReactiveInventoryDAO reactiveInventoryDAO) {
+    Assert.notNull(reactiveInventoryDAO, "Reactive Inventory DAO must not be null.");
+    this.reactiveInventoryDAO = reactiveInventoryDAO;
+  }
+
+  /**
+   * Find Inventories.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore, sort and fields query parameters.
+   * @return Inventories.
+   */
+  @GetMapping
+  public Flux<Inventory> findInventories(InventoryFilter filter) {
+    return this.reactiveInventoryDAO.find(filter);
+  }
+
+  /**
+   * Find a Page of Inventories ordered by name.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore and fields query parameters.
+   * @param cursor nextCursor of the previous page, omitted for the first page.
+   * @param limit page size.
+   * @return Page of Inventories.
+   */
+  @GetMapping("/page")
+  public Mono<InventoryPage> findInventoryPage(InventoryFilter filter,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "100") int limit) {
+    Assert.isTrue(limit > 0 && limit <= MAX_PAGE_SIZE, "Page limit must be between 1 and " + MAX_PAGE_SIZE);
+    return this.reactiveInventoryDAO.findPage(filter, cursor, limit);
+  }
+
+  /**
+   * Stream Inventories as newline delimited JSON, written as the client reads them.
+   * @param filter productType, namePrefix, store, expiresAfter, expiresBefore, sort and fields query parameters.
+   * @return Streamed Inventories.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Inventory> streamInventories(InventoryFilter filter) {
+    return this.reactiveInventoryDAO.find(filter);
+  }
+
+  /**
+   * Create a new inventory
+   * @param inventory from request
+   * @return a newly created Inventory object.
+   */
+  @PostMapping
+  public Mono<Inventory> createInventory(@RequestBody Inventory inventory) {
+    return this.reactiveInventoryDAO.create(inventory);
+  }
+
+  /**
+   * Update an inventory
+   * @param inventory from request
+   * @return the updated Inventory object.
+   */
+  @PutMapping
+  public Mono<Inventory> updateInventory(@RequestBody Inventory inventory) {
+    return this.reactiveInventoryDAO.update(inventory);
+  }
+
+  /**
+   * deletes an inventory, if it exists
+   * @param ids ids of the inventory
+   * @return Completion.
+   */
+  @DeleteMapping
+  public Mono<Void> deleteInventory(@RequestBody List<String> ids) {
+    return this.reactiveInventoryDAO.delete(ids).then();
+  }
+}
@@ -0,0 +1,64 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.dao.ReactiveProductDAO;
+import java.util.List;
+import javax.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Product Controller, serving the Product endpoints on WebFlux under the reactive profile.
+ */
+@Profile("reactive")
+@RestController
+public class ReactiveProductController {
+  private final ReactiveProductDAO reactiveProductDAO;
+
+  /**
+   * Default Constructor.
+   * @param reactiveProductDAO reactiveProductDAO.
+   */
+  public ReactiveProductController(ReactiveProductDAO reactiveProductDAO) {
+    Assert.notNull(reactiveProductDAO, "Reactive Product DAO must not be null.");
+    this.reactiveProductDAO = reactiveProductDAO;
+  }
+
+  /**
+   * Find Products.
+   * @return Products.
+   */
+  @GetMapping("/products")
+  public Flux<Product> findProducts() {
+    return this.reactiveProductDAO.findAll();
+  }
+
+  /**
+   * Save Product.
+   * @param product product.
+   * @return Product.
+   */
+  @PostMapping("/products")
+  public Mono<Product> saveProduct(@Valid @RequestBody Product product) {
+    return this.reactiveProductDAO.save(product);
+  }
+
+  /**
+   * Delete Product By Id.
+   *
+   * @param ids ids.
+   * @return Completion.
+   */
+  @DeleteMapping("/products")
+  public Mono<Void> deleteProductById(@RequestBody List<String> ids) {
+    Assert.notEmpty(ids, "Product Ids were not provided");
+    return this.reactiveProductDAO.deleteProductsByIdIn(ids);
+  }
+}
@@ -0,0 +1,170 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.starter.fullstack.api.InventoryFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.Assert;
+
+/**
+ * Single Flight -- Identical concurrent reads share one load and one serialized body. The first request of a key
+ * loads it on its own thread while the others wait for the same bytes, which are then served for a short
+ * freshness window. Keys carry the collection version, so a write starts a new flight rather than waiting the
+ * window out. Flights are held in a bounded cache that drops them a while after they started, so neither old
+ * versions nor many distinct filters pile up.
+ */
+public class SingleFlight {
+  static final String METRIC = "single.flight.requests";
+  private static final String ENTITY = "entity";
+  private static final String OUTCOME = "outcome";
+  private static final int MAX_FLIGHTS = 10_000;
+  private static final Duration MAX_LOAD_TIME = Duration.ofMinutes(1);
+
+  private final ConcurrentMap<Object, Flight> flights;
+  private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+  private final long freshnessNanos;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Default Constructor.
+   * @param freshness how long a loaded body is served to later requests, zero to share in-flight loads only.
+   * @param meterRegistry registry counting executed and collapsed requests.
+   */
+  public SingleFlight(Duration freshness, MeterRegistry meterRegistry) {
+    Assert.notNull(freshness, "Freshness must not be null.");
+    Assert.isTrue(!freshness.isNegative(), "Freshness must not be negative.");
+    Assert.notNull(meterRegistry, "MeterRegistry must not be null.");
+    this.freshnessNanos = freshness.toNanos();
+    this.meterRegistry = meterRegistry;
+    this.flights = Caffeine.newBuilder()
+      .maximumSize(MAX_FLIGHTS)
+      .expireAfterWrite(freshness.plus(MAX_LOAD_TIME))
+      .<Object, Flight>build()
+      .asMap();
+  }
+
+  /**
+   * Key of a filtered read: the entity tag of the collection version and representation, and the filter the
+   * query parameters were bound to, so parameters the read ignores do not make new keys.
+   * @param tag entity tag.
+   * @param filter bound filter.
+   * @return Key.
+   */
+  static Object key(String tag, InventoryFilter filter) {
+    return List.of(tag, filter);
+  }
+
+  /**
+   * Load serialized to JSON.
+   * @param writer JSON writer of the loaded value.
+   * @param load loads the value.
+   * @return Load of the JSON body.
+   */
+  static Supplier<byte[]> json(ObjectWriter writer, Supplier<?> load) {
+    return () -> {
+      try {
+        return writer.writeValueAsBytes(load.get());
+      } catch (JsonProcessingException e) {
+        throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+      }
+    };
+  }
+
+  /**
+   * Body of a read, loaded by this request or shared with an identical one in flight or fresh.
+   * @param entity entity read, tags the metrics.
+   * @param key key of the read.
+   * @param load loads and serializes the body.
+   * @return Body.
+   */
+  public byte[] get(String entity, Object key, Supplier<byte[]> load) {
+    long now = System.nanoTime();
+    Flight flight = this.flights.get(key);
+    if (flight == null || !flight.isFresh(now, this.freshnessNanos)) {
+      Flight started = new Flight();
+      flight = this.flights.compute(key,
+        (ignored, current) -> current != null && current.isFresh(now, this.freshnessNanos) ? current : started);
+      if (flight == started) {
+        this.count(entity, "executed");
+        return this.load(key, started, load);
+      }
+    }
+    this.count(entity, "collapsed");
+    try {
+      return flight.body.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof DataAccessException) {
+        throw (DataAccessException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Load the body of a flight on the calling thread. When the load fails the flight is dropped, so the next
+   * request tries again, and the requests waiting on it fail too.
+   * @param key key of the read.
+   * @param flight flight started by this request.
+   * @param load loads and serializes the body.
+   * @return Body.
+   */
+  private byte[] load(Object key, Flight flight, Supplier<byte[]> load) {
+    try {
+      byte[] body = load.get();
+      flight.loadedAt = System.nanoTime();
+      flight.body.complete(body);
+      return body;
+    } finally {
+      if (!flight.body.isDone()) {
+        this.flights.remove(key, flight);
+        flight.body.completeExceptionally(new DataRetrievalFailureException("Shared read " + key + " failed."));
+      }
+    }
+  }
+
+  /**
+   * Count a request.
+   * @param entity entity read.
+   * @param outcome executed or collapsed.
+   */
+  private void count(String entity, String outcome) {
+    this.counters.computeIfAbsent(entity + '.' + outcome, ignored -> Counter.builder(METRIC)
+      .description("Reads that loaded a body, or were collapsed into a load in flight or fresh")
+      .tag(ENTITY, entity)
+      .tag(OUTCOME, outcome)
+      .register(this.meterRegistry)).increment();
+  }
+
+  /**
+   * One shared load.
+   */
+  private static final class Flight {
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private volatile long loadedAt;
+
+    /**
+     * Whether a request arriving now may share this flight: while it loads, and for the freshness window after.
+     * @param now current nano time.
+     * @param freshnessNanos freshness window.
+     * @return true when shareable.
+     */
+    private boolean isFresh(long now, long freshnessNanos) {
+      if (!this.body.isDone()) {
+        return true;
+      }
+      return !this.body.isCompletedExceptionally() && now - this.loadedAt < freshnessNanos;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Cache Sync.
+ */
+public class CacheSyncTest {
+  private static final String ID = "id";
+
+  private VersionedCache<String, Inventory> inventoryCache;
+  private ChangeFeed changeFeed;
+  private CacheSync cacheSync;
+
+  @Before
+  public void setup() {
+    this.inventoryCache = VersionedCache.of(10, Duration.ofMinutes(1), Inventory::getVersion, EntityCopies::copyOf);
+    VersionedCache<String, Product> productCache = VersionedCache.of(10, Duration.ofMinutes(1), Product::getVersion,
+      EntityCopies::copyOf);
+    this.changeFeed = new ChangeFeed(3, Runnable::run, false);
+    this.cacheSync = new CacheSync(this.inventoryCache, productCache, this.changeFeed, Runnable::run);
+    this.cacheSync.start();
+  }
+
+  @After
+  public void tearDown() {
+    this.cacheSync.stop();
+  }
+
+  /**
+   * Test an update from another instance replaces the cached version, and an older read cannot put it back.
+   */
+  @Test
+  public void remoteUpdate() {
+    this.inventoryCache.put(ID, inventory(1));
+    this.changeFeed.publish(new EntityChange("1", EntityChange.INVENTORY, ChangeOperation.UPDATE, ID, inventory(2)));
+    this.inventoryCache.put(ID, inventory(1));
+    Assert.assertEquals(2, this.inventoryCache.get(ID, id -> Optional.empty()).orElseThrow().getVersion());
+  }
+
+  /**
+   * Test a delete from another instance drops the cached entry.
+   */
+  @Test
+  public void remoteDelete() {
+    this.inventoryCache.put(ID, inventory(1));
+    this.changeFeed.publish(new EntityChange("1", EntityChange.INVENTORY, ChangeOperation.DELETE, ID, null));
+    Assert.assertFalse(this.inventoryCache.get(ID, id -> Optional.empty()).isPresent());
+  }
+
+  /**
+   * Test falling behind the feed empties the cache.
+   */
+  @Test
+  public void overflow() {
+    this.cacheSync.stop();
+    this.changeFeed = new ChangeFeed(1, runnable -> { }, false);
+    this.cacheSync = new CacheSync(this.inventoryCache, VersionedCache.disabled(), this.changeFeed, Runnable::run);
+    this.cacheSync.start();
+    this.inventoryCache.put(ID, inventory(1));
+    this.changeFeed.publish(new EntityChange("1", EntityChange.PRODUCT, ChangeOperation.DELETE, "other", null));
+    this.changeFeed.publish(new EntityChange("2", EntityChange.PRODUCT, ChangeOperation.DELETE, "other", null));
+    Assert.assertFalse(this.inventoryCache.get(ID, id -> Optional.empty()).isPresent());
+  }
+
+  /**
+   * Inventory at a version.
+   * @param version version.
+   * @return Inventory.
+   */
+  private static Inventory inventory(long version) {
+    Inventory inventory = new Inventory();
+    inventory.setId(ID);
+    inventory.setVersion(version);
+    return inventory;
+  }
+}
@@ -0,0 +1,97 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Change Feed.
+ */
+public class ChangeFeedTest {
+  private ChangeFeed changeFeed;
+
+  @Before
+  public void setup() {
+    this.changeFeed = new ChangeFeed(3, Runnable::run, true);
+  }
+
+  /**
+   * Test DAO events reach subscribers with their operation.
+   */
+  @Test
+  public void localEvents() {
+    List<EntityChange> received = new ArrayList<>();
+    this.changeFeed.subscribe(null, received::add, () -> { });
+    Inventory inventory = inventory("a");
+    this.changeFeed.onInventoryChange(new InventoryChangeEvent(List.of(
+      new InventoryChangeEvent.Change(null, inventory),
+      new InventoryChangeEvent.Change(inventory, inventory),
+      new InventoryChangeEvent.Change(inventory, null))));
+    Assert.assertEquals(3, received.size());
+    Assert.assertEquals(ChangeOperation.CREATE, received.get(0).getOperation());
+    Assert.assertEquals(ChangeOperation.UPDATE, received.get(1).getOperation());
+    Assert.assertEquals(ChangeOperation.DELETE, received.get(2).getOperation());
+    Assert.assertNull(received.get(2).getDocument());
+  }
+
+  /**
+   * Test resuming replays the changes after the token, and an unknown token asks for a reload.
+   */
+  @Test
+  public void resume() {
+    List<EntityChange> first = new ArrayList<>();
+    this.changeFeed.subscribe(null, first::add, () -> { });
+    for (String id : List.of("a", "b", "c")) {
+      this.changeFeed.onInventoryChange(created(id));
+    }
+    List<EntityChange> resumed = new ArrayList<>();
+    Assert.assertTrue(this.changeFeed.subscribe(first.get(0).getToken(), resumed::add, () -> { }).isResumed());
+    Assert.assertEquals(List.of("b", "c"), List.of(resumed.get(0).getId(), resumed.get(1).getId()));
+
+    this.changeFeed.onInventoryChange(created("d"));
+    Assert.assertEquals("d", resumed.get(2).getId());
+    Assert.assertFalse(this.changeFeed.subscribe(first.get(0).getToken(), change -> { }, () -> { }).isResumed());
+  }
+
+  /**
+   * Test a subscriber falling a whole buffer behind is closed.
+   */
+  @Test
+  public void overflow() {
+    List<Runnable> pending = new ArrayList<>();
+    ChangeFeed queued = new ChangeFeed(2, pending::add, true);
+    AtomicBoolean overflowed = new AtomicBoolean();
+    queued.subscribe(null, change -> { }, () -> overflowed.set(true));
+    queued.onInventoryChange(created("a"));
+    queued.onInventoryChange(created("b"));
+    Assert.assertFalse(overflowed.get());
+    queued.onInventoryChange(created("c"));
+    Assert.assertTrue(overflowed.get());
+  }
+
+  /**
+   * Build a creation event.
+   * @param id Inventory id.
+   * @return Event.
+   */
+  private static InventoryChangeEvent created(String id) {
+    return new InventoryChangeEvent(List.of(new InventoryChangeEvent.Change(null, inventory(id))));
+  }
+
+  /**
+   * Build an Inventory.
+   * @param id id.
+   * @return Inventory.
+   */
+  private static Inventory inventory(String id) {
+    Inventory inventory = new Inventory();
+    inventory.setId(id);
+    return inventory;
+  }
+}
@@ -0,0 +1,101 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.client.result.UpdateResult;
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Resource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test Collection Version DAO.
+ */
+@DataMongoTest
+@RunWith(SpringRunner.class)
+public class CollectionVersionDAOTest {
+  @ClassRule
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+
+  @Resource
+  private MongoTemplate mongoTemplate;
+
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(CollectionVersionDAO.COLLECTION);
+    this.mongoTemplate.dropCollection(Product.class);
+  }
+
+  /**
+   * Test DAO writes and change stream cluster times both move the version, and cluster times never go back.
+   */
+  @Test
+  public void advanceTest() throws Throwable {
+    CollectionVersionDAO collectionVersionDAO = new CollectionVersionDAO(this.mongoTemplate);
+    String collection = this.mongoTemplate.getCollectionName(Inventory.class);
+    Assert.assertEquals(0, collectionVersionDAO.current(Inventory.class));
+    collectionVersionDAO.onInventoryChange(new InventoryChangeEvent(List.of()));
+    Assert.assertEquals(1, collectionVersionDAO.current(Inventory.class));
+    collectionVersionDAO.advance(collection, 100);
+    Assert.assertEquals(101, collectionVersionDAO.current(Inventory.class));
+    collectionVersionDAO.advance(collection, 50);
+    Assert.assertEquals(101, collectionVersionDAO.current(Inventory.class));
+    collectionVersionDAO.onInventoryChange(new InventoryChangeEvent(List.of()));
+    Assert.assertEquals(102, collectionVersionDAO.current(Inventory.class));
+  }
+
+  /**
+   * Test the watermark counts documents written around the DAOs, before and after the first version bump.
+   */
+  @Test
+  public void currentWithCountTest() throws Throwable {
+    CollectionVersionDAO collectionVersionDAO = new CollectionVersionDAO(this.mongoTemplate);
+    Product product = new Product();
+    product.setName("TEST");
+    this.mongoTemplate.save(product);
+    CollectionVersionDAO.Watermark watermark = collectionVersionDAO.currentWithCount(Product.class);
+    Assert.assertEquals(0, watermark.getVersion());
+    Assert.assertEquals(1, watermark.getCount());
+    collectionVersionDAO.onProductChange(new ProductChangeEvent(ChangeOperation.CREATE, List.of()));
+    Product other = new Product();
+    other.setName("OTHER");
+    this.mongoTemplate.save(other);
+    watermark = collectionVersionDAO.currentWithCount(Product.class);
+    Assert.assertEquals(1, watermark.getVersion());
+    Assert.assertEquals(2, watermark.getCount());
+  }
+
+  /**
+   * Test a failed bump does not fail the write and is made before the version is read again.
+   */
+  @Test
+  public void failedBumpTest() throws Throwable {
+    AtomicBoolean down = new AtomicBoolean(true);
+    CollectionVersionDAO collectionVersionDAO = new CollectionVersionDAO(
+      new MongoTemplate(this.mongoTemplate.getMongoDatabaseFactory(), this.mongoTemplate.getConverter()) {
+        @Override
+        public UpdateResult upsert(Query query, UpdateDefinition update, String collectionName) {
+          if (down.getAndSet(false)) {
+            throw new DataAccessResourceFailureException("down");
+          }
+          return super.upsert(query, update, collectionName);
+        }
+      });
+    collectionVersionDAO.onInventoryChange(new InventoryChangeEvent(List.of()));
+    Assert.assertEquals(1, collectionVersionDAO.current(Inventory.class));
+    Assert.assertEquals(1, collectionVersionDAO.current(Inventory.class));
+  }
+}
@@ -0,0 +1,150 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Resource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test Inventory Aggregate DAO.
+ */
+@DataMongoTest
+@RunWith(SpringRunner.class)
+public class InventoryAggregateDAOTest {
+  @ClassRule
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+
+  @Resource
+  private MongoTemplate mongoTemplate;
+  private InventoryDAO inventoryDAO;
+  private InventoryAggregateDAO inventoryAggregateDAO;
+  private static final String HOPS = "hops";
+  private static final String MALT = "malt";
+  private static final String STORE = "Denver";
+
+  @Before
+  public void setup() {
+    this.inventoryAggregateDAO = new InventoryAggregateDAO(this.mongoTemplate);
+    this.inventoryDAO = new InventoryDAO(this.mongoTemplate);
+    this.inventoryDAO.setApplicationEventPublisher(
+      event -> this.inventoryAggregateDAO.onChange((InventoryChangeEvent) event));
+  }
+
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(InventoryAggregateDAO.COLLECTION);
+  }
+
+  /**
+   * Test totals follow create, update and delete exactly and agree with a rebuild.
+   */
+  @Test
+  public void incrementalTest() {
+    Inventory amber = this.inventoryDAO.create(inventory("Amber", HOPS, "0.10", "3"));
+    Inventory cascade = this.inventoryDAO.create(inventory("Cascade", HOPS, "1.25", "2"));
+    this.inventoryDAO.create(inventory("Pilsner", MALT, "2.00", "5"));
+
+    cascade.setAmount(new BigDecimal("4"));
+    this.inventoryDAO.update(cascade);
+    cascade.setProductType(MALT);
+    this.inventoryDAO.update(cascade);
+    this.inventoryDAO.delete(List.of(amber.getId()));
+
+    List<InventoryAggregate> productTypes = this.inventoryAggregateDAO.find(AggregateDimension.PRODUCT_TYPE);
+    Assert.assertEquals(1, productTypes.size());
+    InventoryAggregate malt = productTypes.get(0);
+    Assert.assertEquals(MALT, malt.getKey());
+    Assert.assertEquals(2, malt.getCount());
+    Assert.assertEquals(0, new BigDecimal("9").compareTo(malt.getAmount()));
+    Assert.assertEquals(0, new BigDecimal("15.00").compareTo(malt.getValue()));
+
+    List<InventoryAggregate> stores = this.inventoryAggregateDAO.find(AggregateDimension.STORE);
+    Assert.assertEquals(1, stores.size());
+    Assert.assertEquals(0, new BigDecimal("15.00").compareTo(stores.get(0).getValue()));
+
+    this.inventoryAggregateDAO.rebuild();
+    Assert.assertEquals(productTypes, this.inventoryAggregateDAO.find(AggregateDimension.PRODUCT_TYPE));
+    Assert.assertEquals(stores, this.inventoryAggregateDAO.find(AggregateDimension.STORE));
+    Assert.assertTrue(this.mongoTemplate.getCollectionNames().stream()
+      .noneMatch(name -> name.startsWith(InventoryAggregateDAO.REBUILD_PREFIX)));
+
+    this.inventoryDAO.create(inventory("Munich", MALT, "1.00", "1"));
+    Assert.assertEquals(3, this.inventoryAggregateDAO.find(AggregateDimension.PRODUCT_TYPE).get(0).getCount());
+  }
+
+  /**
+   * Test a failed delta does not fail the write, and the stale totals are rebuilt before the next read.
+   */
+  @Test
+  public void failedDeltaTest() {
+    AtomicBoolean down = new AtomicBoolean(true);
+    InventoryAggregateDAO failingDAO = new InventoryAggregateDAO(
+      new MongoTemplate(this.mongoTemplate.getMongoDatabaseFactory(), this.mongoTemplate.getConverter()) {
+        @Override
+        public BulkOperations bulkOps(BulkOperations.BulkMode mode, String collectionName) {
+          if (down.getAndSet(false)) {
+            throw new DataAccessResourceFailureException("down");
+          }
+          return super.bulkOps(mode, collectionName);
+        }
+      });
+    this.inventoryDAO.setApplicationEventPublisher(event -> failingDAO.onChange((InventoryChangeEvent) event));
+    this.inventoryDAO.create(inventory("Amber", HOPS, "0.10", "3"));
+    Assert.assertTrue(failingDAO.isStale());
+
+    List<InventoryAggregate> productTypes = failingDAO.find(AggregateDimension.PRODUCT_TYPE);
+    Assert.assertFalse(failingDAO.isStale());
+    Assert.assertEquals(1, productTypes.size());
+    Assert.assertEquals(1, productTypes.get(0).getCount());
+  }
+
+  /**
+   * Test Inventory stored before the totals were kept are counted by the first build, and only by it.
+   */
+  @Test
+  public void neverBuiltTest() {
+    this.mongoTemplate.insert(inventory("Amber", HOPS, "0.10", "3"));
+    this.mongoTemplate.insert(inventory("Cascade", HOPS, "1.25", "2"));
+    Assert.assertTrue(this.inventoryAggregateDAO.rebuildIfNeverBuilt());
+    Assert.assertEquals(2, this.inventoryAggregateDAO.find(AggregateDimension.PRODUCT_TYPE).get(0).getCount());
+
+    this.inventoryDAO.create(inventory("Pilsner", HOPS, "2.00", "5"));
+    Assert.assertFalse(this.inventoryAggregateDAO.rebuildIfNeverBuilt());
+    Assert.assertEquals(3, this.inventoryAggregateDAO.find(AggregateDimension.PRODUCT_TYPE).get(0).getCount());
+  }
+
+  /**
+   * Build an Inventory stocked in the test store.
+   * @param name name.
+   * @param productType product type.
+   * @param averagePrice average price.
+   * @param amount amount.
+   * @return Inventory.
+   */
+  private static Inventory inventory(String name, String productType, String averagePrice, String amount) {
+    Inventory inventory = new Inventory();
+    inventory.setName(name);
+    inventory.setProductType(productType);
+    inventory.setAveragePrice(new BigDecimal(averagePrice));
+    inventory.setAmount(new BigDecimal(amount));
+    inventory.setAvailableStores(List.of(STORE));
+    return inventory;
+  }
+}
@@ -0,0 +1,154 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.api.UnitOfMeasurement;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import javax.annotation.Resource;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test the Inventory and Product codecs read what MappingMongoConverter reads.
+ */
+@DataMongoTest
+@RunWith(SpringRunner.class)
+public class InventoryCodecTest {
+  @ClassRule
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+
+  private static final Instant NOW = Instant.parse("2024-06-01T12:00:00.123Z");
+  private static final String PRODUCT_TYPE = "hops";
+
+  @Resource
+  private MongoTemplate mongoTemplate;
+  private InventoryDAO converterDAO;
+  private InventoryDAO codecDAO;
+
+  @Before
+  public void setup() {
+    this.converterDAO = new InventoryDAO(this.mongoTemplate);
+    this.codecDAO = new InventoryDAO(this.mongoTemplate);
+    this.codecDAO.setListCodec(new InventoryCodec());
+  }
+
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(Product.class);
+  }
+
+  /**
+   * Test every field, and fields left unset, decode as the converter decodes them.
+   */
+  @Test
+  public void findAllTest() throws Throwable {
+    this.converterDAO.create(this.inventory("Amber", NOW));
+    Inventory sparse = new Inventory();
+    sparse.setName("Sparse");
+    sparse.setProductType(PRODUCT_TYPE);
+    this.converterDAO.create(sparse);
+    Inventory named = this.inventory("Named", NOW);
+    named.setId("named-id");
+    this.mongoTemplate.insert(named);
+    List<Inventory> decoded = this.codecDAO.findAll();
+    Assert.assertEquals(3, decoded.size());
+    Assert.assertEquals(this.converterDAO.findAll(), decoded);
+  }
+
+  /**
+   * Test filters, sorts, projections, limits and Instant criteria are mapped as the converter maps them.
+   */
+  @Test
+  public void findTest() throws Throwable {
+    for (int day = 0; day < 5; day++) {
+      this.converterDAO.create(this.inventory("Amber " + day, NOW.plusSeconds(day * 86400L)));
+    }
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(PRODUCT_TYPE);
+    filter.setNamePrefix("Amber");
+    filter.setSort(List.of("-name"));
+    filter.setFields(List.of("name", "amount"));
+    Assert.assertEquals(this.converterDAO.find(filter), this.codecDAO.find(filter));
+    Assert.assertNull(this.codecDAO.find(filter).get(0).getDescription());
+    Assert.assertEquals(this.converterDAO.findPage(null, 2), this.codecDAO.findPage(null, 2));
+    Instant from = NOW.plusSeconds(86400);
+    Instant to = NOW.plusSeconds(4 * 86400);
+    List<Inventory> expiring = this.codecDAO.findExpiring(from, to, 10);
+    Assert.assertEquals(3, expiring.size());
+    Assert.assertEquals(this.converterDAO.findExpiring(from, to, 10), expiring);
+  }
+
+  /**
+   * Test amounts and average prices written as strings before the Decimal128 migration are read.
+   */
+  @Test
+  public void legacyDecimalTest() throws Throwable {
+    this.mongoTemplate.insert(new Document("_id", new ObjectId()).append("name", "Legacy")
+      .append("productType", PRODUCT_TYPE).append("amount", "12.50").append("averagePrice", 3),
+      this.mongoTemplate.getCollectionName(Inventory.class));
+    Inventory legacy = this.codecDAO.findAll().get(0);
+    Assert.assertEquals(new BigDecimal("12.50"), legacy.getAmount());
+    Assert.assertEquals(BigDecimal.valueOf(3), legacy.getAveragePrice());
+  }
+
+  /**
+   * Test an Inventory encoded by the codec decodes back unchanged.
+   */
+  @Test
+  public void roundTripTest() throws Throwable {
+    Inventory inventory = this.inventory("Amber", NOW);
+    inventory.setId(ObjectId.get().toHexString());
+    inventory.setVersion(3);
+    InventoryCodec codec = new InventoryCodec();
+    Assert.assertEquals(inventory, new RawBsonDocument(inventory, codec).decode(codec));
+  }
+
+  /**
+   * Test Products decode as the converter decodes them.
+   */
+  @Test
+  public void productTest() throws Throwable {
+    for (String name : List.of("Hops", "Malt")) {
+      Product product = new Product();
+      product.setName(name);
+      this.mongoTemplate.save(product);
+    }
+    CodecReader<Product> productReader = new CodecReader<>(this.mongoTemplate, Product.class, new ProductCodec());
+    Assert.assertEquals(this.mongoTemplate.findAll(Product.class), productReader.findAll());
+  }
+
+  /**
+   * Build an Inventory with every field set.
+   * @param name name.
+   * @param bestBeforeDate best before date.
+   * @return Inventory.
+   */
+  private Inventory inventory(String name, Instant bestBeforeDate) {
+    Inventory inventory = new Inventory();
+    inventory.setName(name);
+    inventory.setProductType(PRODUCT_TYPE);
+    inventory.setDescription(name + " hops");
+    inventory.setAveragePrice(new BigDecimal("4.2500"));
+    inventory.setAmount(new BigDecimal("12.5"));
+    inventory.setUnitOfMeasurement(UnitOfMeasurement.POUND);
+    inventory.setBestBeforeDate(bestBeforeDate);
+    inventory.setAvailableStores(List.of("Downtown", "Harbor"));
+    return inventory;
+  }
+}
@@ -1,41 +1,65 @@
 package com.starter.fullstack.dao;
 
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.IndexDrift;
 import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import com.starter.fullstack.api.InventoryPage;
+import com.starter.fullstack.api.StockAdjustment;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Resource;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TypeMismatchDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.utility.DockerImageName;
 
 /**
- * Test Inventory DAO.
+ * Test Inventory DAO. The queryPlanTest task runs it with com.starter.fullstack.indexes.verify-query-plans on.
  */
 @DataMongoTest
 @RunWith(SpringRunner.class)
 public class InventoryDAOTest {
   @ClassRule
-  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.0.10"));
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
 
   @Resource
   private MongoTemplate mongoTemplate;
+  @Value("${com.starter.fullstack.indexes.verify-query-plans:false}")
+  private boolean verifyQueryPlans;
   private InventoryDAO inventoryDAO;
   private static final String NAME = "Amber";
   private static final String PRODUCT_TYPE = "hops";
 
   private static final String ID = "id";
 
+  private static final String NAME_FIELD = "name";
+
   private static final String TEST_ID = "testID";
 
   private static final String TEST_ID_TWO = "testIDTwo";
@@ -44,6 +68,10 @@ public class InventoryDAOTest {
   @Before
   public void setup() {
     this.inventoryDAO = new InventoryDAO(this.mongoTemplate);
+    if (this.verifyQueryPlans) {
+      this.inventoryDAO.setupIndexes();
+      this.inventoryDAO.setQueryPlanVerifier(new QueryPlanVerifier(this.mongoTemplate));
+    }
   }
 
   @After
@@ -64,6 +92,117 @@ public class InventoryDAOTest {
     Assert.assertFalse(actualInventory.isEmpty());
   }
 
+  /**
+   * Test filtering, sorting and projection are applied by Mongo.
+   */
+  @Test
+  public void findFilteredTest() {
+    for (String name : List.of("Amarillo", NAME, "Cascade")) {
+      Inventory inventory = new Inventory();
+      inventory.setName(name);
+      inventory.setProductType(PRODUCT_TYPE);
+      inventory.setDescription(name);
+      this.mongoTemplate.save(inventory);
+    }
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(PRODUCT_TYPE);
+    filter.setNamePrefix("Am");
+    filter.setSort(List.of("-name"));
+    filter.setFields(List.of("name"));
+    List<Inventory> found = this.inventoryDAO.find(filter);
+    Assert.assertEquals(2, found.size());
+    Assert.assertEquals(NAME, found.get(0).getName());
+    Assert.assertEquals("Amarillo", found.get(1).getName());
+    Assert.assertNull(found.get(0).getDescription());
+  }
+
+  /**
+   * Test declared indexes are built and reported in sync.
+   */
+  @Test
+  public void indexRegistryTest() {
+    IndexRegistry indexRegistry = new IndexRegistry(this.mongoTemplate)
+      .register(Inventory.class, InventoryDAO.indexes());
+    indexRegistry.ensureIndexes();
+    List<IndexDrift> drift = indexRegistry.drift();
+    Assert.assertEquals(1, drift.size());
+    Assert.assertTrue(drift.get(0).isInSync());
+  }
+
+  /**
+   * Test an index deployed before the registry under its default name is kept, and that an index existing
+   * with other options, or with its keys under another name, fails alone and is reported.
+   */
+  @Test
+  public void indexRegistryLegacyTest() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    IndexOperations indexOps = this.mongoTemplate.indexOps(Inventory.class);
+    indexOps.ensureIndex(new Index(NAME_FIELD, Sort.Direction.ASC));
+    indexOps.ensureIndex(new Index("bestBeforeDate", Sort.Direction.ASC).named("bestBeforeDate_expiring"));
+    IndexRegistry indexRegistry = new IndexRegistry(this.mongoTemplate)
+      .register(Inventory.class, InventoryDAO.indexes());
+    List<String> failures = indexRegistry.ensureIndexes();
+    Assert.assertEquals(1, failures.size());
+    Assert.assertTrue(failures.get(0).startsWith("inventory.bestBeforeDate_expiring"));
+    IndexDrift drift = indexRegistry.drift().get(0);
+    Assert.assertTrue(drift.getMissing().isEmpty());
+    Assert.assertEquals(List.of("bestBeforeDate_expiring"), drift.getChanged());
+
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.indexOps(Inventory.class).ensureIndex(new Index(NAME_FIELD, Sort.Direction.ASC).named("legacy"));
+    failures = indexRegistry.ensureIndexes();
+    Assert.assertEquals(1, failures.size());
+    Assert.assertTrue(failures.get(0).startsWith("inventory.name_1"));
+    Assert.assertEquals(List.of("name_1"), indexRegistry.drift().get(0).getMissing());
+  }
+
+  /**
+   * Test filtered DAO queries are served by indexes and a collection scan is rejected.
+   */
+  @Test
+  public void queryPlanTest() {
+    this.inventoryDAO.setupIndexes();
+    QueryPlanVerifier queryPlanVerifier = new QueryPlanVerifier(this.mongoTemplate);
+    this.inventoryDAO.setQueryPlanVerifier(queryPlanVerifier);
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(PRODUCT_TYPE);
+    this.inventoryDAO.find(filter);
+    filter = new InventoryFilter();
+    filter.setStore("Downtown");
+    this.inventoryDAO.findPage(filter, null, 10);
+    this.inventoryDAO.retrieve(TEST_ID);
+    Instant now = Instant.now();
+    this.inventoryDAO.findExpiring(now, now.plus(Duration.ofDays(7)), 10);
+    this.inventoryDAO.markExpired(now, 10);
+    this.inventoryDAO.findProductTypesInUse(List.of(PRODUCT_TYPE));
+
+    Query unindexed = new Query(Criteria.where("description").is(NAME));
+    Assert.assertThrows(IllegalStateException.class, () -> queryPlanVerifier.verify(unindexed, Inventory.class));
+  }
+
+  /**
+   * Test keyset pagination walks every Inventory exactly once.
+   */
+  @Test
+  public void findPageTest() {
+    // Unfiltered pages sort on name then id, which no index provides.
+    this.inventoryDAO.setQueryPlanVerifier(null);
+    for (String name : List.of("Cascade", NAME, "Bravo")) {
+      Inventory inventory = new Inventory();
+      inventory.setName(name);
+      this.mongoTemplate.save(inventory);
+    }
+    InventoryPage first = this.inventoryDAO.findPage(null, 2);
+    Assert.assertEquals(2, first.getItems().size());
+    Assert.assertEquals(NAME, first.getItems().get(0).getName());
+    Assert.assertNotNull(first.getNextCursor());
+
+    InventoryPage second = this.inventoryDAO.findPage(first.getNextCursor(), 2);
+    Assert.assertEquals(1, second.getItems().size());
+    Assert.assertEquals("Cascade", second.getItems().get(0).getName());
+    Assert.assertNull(second.getNextCursor());
+  }
+
   /*
    * Test Function for create(Inventory inventory)
    * This function will create a new inventory, assert that the Mongo ID is null, 
@@ -84,6 +223,64 @@ public class InventoryDAOTest {
     Assert.assertEquals(mongoTemplate.findOne(query2, Inventory.class), addedInventory);
   }
 
+  /**
+   * Test bulk create and a bulk update carrying a stale version.
+   */
+  @Test
+  public void bulkCreateAndUpdateTest() {
+    Inventory first = new Inventory();
+    first.setName(NAME);
+    Inventory second = new Inventory();
+    second.setName(NAME);
+    List<BulkItemResult> created = this.inventoryDAO.bulkCreate(List.of(first, second));
+    Assert.assertEquals(2, created.size());
+    Assert.assertTrue(created.stream().allMatch(result -> result.getStatus() == BulkItemStatus.CREATED));
+    Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
+
+    Inventory stale = new Inventory();
+    stale.setId(second.getId());
+    stale.setName(NAME);
+    stale.setVersion(7);
+    List<BulkItemResult> updated = this.inventoryDAO.bulkUpdate(List.of(first, stale));
+    Assert.assertEquals(BulkItemStatus.UPDATED, updated.get(0).getStatus());
+    Assert.assertEquals(BulkItemStatus.CONFLICT, updated.get(1).getStatus());
+    Assert.assertEquals(1, this.mongoTemplate.findById(first.getId(), Inventory.class).getVersion());
+    Assert.assertEquals(1, first.getVersion());
+    Assert.assertEquals(7, stale.getVersion());
+    Document stored = this.mongoTemplate.findById(first.getId(), Document.class,
+      this.mongoTemplate.getCollectionName(Inventory.class));
+    Assert.assertFalse(stored.containsKey("_bulkWrite"));
+  }
+
+  /**
+   * Test a replacement beaten by a concurrent writer to the version it expected is reported as a conflict,
+   * and the concurrent document is neither cached nor published as this update.
+   */
+  @Test
+  public void bulkUpdateLostRaceTest() {
+    Inventory inventory = new Inventory();
+    inventory.setName(NAME);
+    this.inventoryDAO.create(inventory);
+    String id = inventory.getId();
+    this.inventoryDAO.setBulkTemplate(new MongoTemplate(this.mongoTemplate.getMongoDatabaseFactory(),
+      this.mongoTemplate.getConverter()) {
+      @Override
+      public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityType) {
+        Query current = new Query(Criteria.where(ID).is(id).and("version").is(0));
+        InventoryDAOTest.this.mongoTemplate.updateFirst(current,
+          new Update().set(NAME_FIELD, "concurrent").set("version", 1L), Inventory.class);
+        return super.bulkOps(mode, entityType);
+      }
+    });
+    Inventory lost = new Inventory();
+    lost.setId(id);
+    lost.setName("lost");
+    List<BulkItemResult> updated = this.inventoryDAO.bulkUpdate(List.of(lost));
+    Assert.assertEquals(BulkItemStatus.CONFLICT, updated.get(0).getStatus());
+    Assert.assertEquals(0, lost.getVersion());
+    Assert.assertEquals("concurrent", this.mongoTemplate.findById(id, Inventory.class).getName());
+  }
+
   @Test
   public void retrieveTest() {
     Inventory inventory = new Inventory();
@@ -114,4 +311,122 @@ public class InventoryDAOTest {
     Query query = new Query(Criteria.where(ID).is(addedInventory.getId()));
     Assert.assertNull(mongoTemplate.findOne(query, Inventory.class));
   }
+
+  /**
+   * Test deleteMany counts only the Inventory it removed.
+   */
+  @Test
+  public void deleteManyTest() {
+    Inventory inventory = new Inventory();
+    inventory.setName(NAME);
+    inventory.setId(TEST_ID);
+    this.mongoTemplate.save(inventory);
+    Assert.assertEquals(1, this.inventoryDAO.deleteMany(List.of(TEST_ID, TEST_ID_TWO)));
+    Assert.assertEquals(0, this.inventoryDAO.deleteMany(List.of(TEST_ID)));
+    Assert.assertEquals(0, this.mongoTemplate.count(new Query(), Inventory.class));
+  }
+
+  /**
+   * Test deleteMany publishes the Inventory as it removed it when an adjustment lands between the read and the
+   * delete.
+   */
+  @Test
+  public void deleteManyAtVersionTest() {
+    Inventory inventory = new Inventory();
+    inventory.setName(NAME);
+    inventory.setAmount(BigDecimal.ONE);
+    String id = this.mongoTemplate.save(inventory).getId();
+    List<InventoryChangeEvent.Change> published = new ArrayList<>();
+    this.inventoryDAO.setApplicationEventPublisher(
+      event -> published.addAll(((InventoryChangeEvent) event).getChanges()));
+    AtomicBoolean adjusted = new AtomicBoolean();
+    this.inventoryDAO.setBulkTemplate(new MongoTemplate(this.mongoTemplate.getMongoDatabaseFactory(),
+      this.mongoTemplate.getConverter()) {
+      @Override
+      public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityType) {
+        if (!adjusted.getAndSet(true)) {
+          InventoryDAOTest.this.mongoTemplate.updateFirst(new Query(Criteria.where(ID).is(id)),
+            new Update().inc("amount", new Decimal128(BigDecimal.TEN)).inc("version", 1), Inventory.class);
+        }
+        return super.bulkOps(mode, entityType);
+      }
+    });
+    Assert.assertEquals(1, this.inventoryDAO.deleteMany(List.of(id)));
+    Assert.assertEquals(1, published.size());
+    Assert.assertEquals(1, published.get(0).getBefore().getVersion());
+    Assert.assertEquals(0, new BigDecimal("11").compareTo(published.get(0).getBefore().getAmount()));
+    Assert.assertEquals(0, this.mongoTemplate.count(new Query(), Inventory.class));
+  }
+
+  /**
+   * Test receipts fold their price into the average, issues stop at zero and missing Inventory is reported.
+   */
+  @Test
+  public void adjustTest() {
+    Inventory inventory = new Inventory();
+    inventory.setName(NAME);
+    inventory.setAmount(new BigDecimal("10"));
+    inventory.setAveragePrice(new BigDecimal("2"));
+    inventory = this.mongoTemplate.save(inventory);
+
+    StockAdjustment receipt = new StockAdjustment();
+    receipt.setId(inventory.getId());
+    receipt.setQuantity(new BigDecimal("5"));
+    receipt.setUnitPrice(new BigDecimal("3.5"));
+    Inventory received = this.inventoryDAO.adjust(receipt).orElseThrow();
+    Inventory stored = this.mongoTemplate.findById(inventory.getId(), Inventory.class);
+    Assert.assertEquals(0, new BigDecimal("15").compareTo(stored.getAmount()));
+    Assert.assertEquals(0, new BigDecimal("2.5").compareTo(stored.getAveragePrice()));
+    Assert.assertEquals(1, stored.getVersion());
+    Assert.assertEquals(0, stored.getAveragePrice().compareTo(received.getAveragePrice()));
+
+    StockAdjustment issue = new StockAdjustment();
+    issue.setId(inventory.getId());
+    issue.setQuantity(new BigDecimal("-16"));
+    Assert.assertThrows(DataIntegrityViolationException.class, () -> this.inventoryDAO.adjust(issue));
+    issue.setQuantity(new BigDecimal("-15"));
+    StockAdjustment missing = new StockAdjustment();
+    missing.setId(TEST_ID);
+    missing.setQuantity(BigDecimal.ONE);
+    List<BulkItemResult> results = this.inventoryDAO.bulkAdjust(List.of(issue, issue, missing));
+    Assert.assertEquals(BulkItemStatus.UPDATED, results.get(0).getStatus());
+    Assert.assertEquals(BulkItemStatus.CONFLICT, results.get(1).getStatus());
+    Assert.assertEquals(BulkItemStatus.NOT_FOUND, results.get(2).getStatus());
+    stored = this.mongoTemplate.findById(inventory.getId(), Inventory.class);
+    Assert.assertEquals(0, BigDecimal.ZERO.compareTo(stored.getAmount()));
+    Assert.assertEquals(2, stored.getVersion());
+  }
+
+  /**
+   * Test amounts written as strings are converted to Decimal128 once.
+   */
+  @Test
+  public void migrateDecimalsTest() {
+    String collection = this.mongoTemplate.getCollectionName(Inventory.class);
+    this.mongoTemplate.insert(new Document(NAME_FIELD, NAME).append("amount", "1.5"), collection);
+    Assert.assertEquals(1, this.inventoryDAO.migrateDecimals());
+    Assert.assertEquals(0, this.inventoryDAO.migrateDecimals());
+    Document stored = this.mongoTemplate.findOne(new Query(), Document.class, collection);
+    Assert.assertEquals(new Decimal128(new BigDecimal("1.5")), stored.get("amount"));
+  }
+
+  /**
+   * Test adjusting an amount still stored as a string fails clearly and leaves it alone until migrated.
+   */
+  @Test
+  public void adjustLegacyAmountTest() {
+    String collection = this.mongoTemplate.getCollectionName(Inventory.class);
+    Document legacy = new Document(NAME_FIELD, NAME).append("amount", "1.5");
+    this.mongoTemplate.insert(legacy, collection);
+    StockAdjustment receipt = new StockAdjustment();
+    receipt.setId(legacy.getObjectId("_id").toHexString());
+    receipt.setQuantity(BigDecimal.ONE);
+    Assert.assertThrows(TypeMismatchDataAccessException.class, () -> this.inventoryDAO.adjust(receipt));
+    List<BulkItemResult> results = this.inventoryDAO.bulkAdjust(List.of(receipt));
+    Assert.assertEquals(BulkItemStatus.FAILED, results.get(0).getStatus());
+    Assert.assertTrue(results.get(0).getMessage().contains("decimal migration"));
+
+    this.inventoryDAO.migrateDecimals();
+    Assert.assertEquals(0, new BigDecimal("2.5").compareTo(this.inventoryDAO.adjust(receipt).get().getAmount()));
+  }
 }
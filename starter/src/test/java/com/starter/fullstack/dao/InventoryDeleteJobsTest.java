@@ -0,0 +1,124 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.DeleteJob;
+import com.starter.fullstack.api.DeleteJobState;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryFilter;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Resource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test Inventory Delete Jobs, run on the calling thread.
+ */
+@DataMongoTest
+@RunWith(SpringRunner.class)
+public class InventoryDeleteJobsTest {
+  @ClassRule
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+
+  private static final String HOPS = "Hops";
+  private static final String MALT = "Malt";
+
+  @Resource
+  private MongoTemplate mongoTemplate;
+  private InventoryDeleteJobs inventoryDeleteJobs;
+
+  @Before
+  public void setup() {
+    this.inventoryDeleteJobs = new InventoryDeleteJobs(new InventoryDAO(this.mongoTemplate),
+      new DeleteJobDAO(this.mongoTemplate), new SyncTaskExecutor(), 2, Duration.ZERO, Clock.systemUTC());
+  }
+
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(DeleteJobDAO.COLLECTION);
+  }
+
+  /**
+   * Test listed ids are deleted in chunks and the progress is saved.
+   */
+  @Test
+  public void deleteIdsTest() throws Throwable {
+    List<String> ids = new ArrayList<>();
+    this.save(5, HOPS).forEach(inventory -> ids.add(inventory.getId()));
+    ids.add("missing");
+    DeleteJob started = this.inventoryDeleteJobs.start(ids);
+    DeleteJob job = this.inventoryDeleteJobs.find(started.getId()).orElseThrow();
+    Assert.assertEquals(DeleteJobState.COMPLETE, job.getState());
+    Assert.assertEquals(Integer.valueOf(6), job.getRequested());
+    Assert.assertEquals(5, job.getDeleted());
+    Assert.assertEquals(3, job.getChunks());
+    Assert.assertNotNull(job.getFinishedAt());
+    Assert.assertEquals(0, this.mongoTemplate.count(new Query(), Inventory.class));
+  }
+
+  /**
+   * Test a filter purge deletes only the matching Inventory and refuses to match everything.
+   */
+  @Test
+  public void deleteFilterTest() throws Throwable {
+    this.save(3, HOPS);
+    this.save(2, MALT);
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(HOPS);
+    DeleteJob job = this.inventoryDeleteJobs.find(this.inventoryDeleteJobs.start(filter).getId()).orElseThrow();
+    Assert.assertEquals(DeleteJobState.COMPLETE, job.getState());
+    Assert.assertEquals(3, job.getDeleted());
+    Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
+    Assert.assertThrows(IllegalArgumentException.class, () -> this.inventoryDeleteJobs.start(new InventoryFilter()));
+  }
+
+  /**
+   * Test a job the executor cannot take is saved as failed and nothing is deleted.
+   */
+  @Test
+  public void rejectedTest() throws Throwable {
+    this.save(2, HOPS);
+    InventoryDeleteJobs full = new InventoryDeleteJobs(new InventoryDAO(this.mongoTemplate),
+      new DeleteJobDAO(this.mongoTemplate), command -> {
+        throw new RejectedExecutionException("full");
+      }, 2, Duration.ZERO, Clock.systemUTC());
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(HOPS);
+    Assert.assertThrows(RejectedExecutionException.class, () -> full.start(filter));
+    DeleteJob job = this.mongoTemplate.findAll(DeleteJob.class, DeleteJobDAO.COLLECTION).get(0);
+    Assert.assertEquals(DeleteJobState.FAILED, job.getState());
+    Assert.assertNotNull(job.getFinishedAt());
+    Assert.assertEquals(2, this.mongoTemplate.count(new Query(), Inventory.class));
+  }
+
+  /**
+   * Save Inventories of a product type.
+   * @param count number of Inventories.
+   * @param productType product type.
+   * @return Saved Inventories.
+   */
+  private List<Inventory> save(int count, String productType) {
+    List<Inventory> inventories = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      Inventory inventory = new Inventory();
+      inventory.setName(productType + index);
+      inventory.setProductType(productType);
+      inventories.add(inventory);
+    }
+    return new ArrayList<>(this.mongoTemplate.insert(inventories, Inventory.class));
+  }
+}
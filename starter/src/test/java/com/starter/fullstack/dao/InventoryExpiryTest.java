@@ -0,0 +1,104 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import javax.annotation.Resource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test Inventory Expiry against a fixed Clock.
+ */
+@DataMongoTest
+@RunWith(SpringRunner.class)
+public class InventoryExpiryTest {
+  @ClassRule
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
+
+  private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+  @Resource
+  private MongoTemplate mongoTemplate;
+  private InventoryDAO inventoryDAO;
+
+  @Before
+  public void setup() {
+    this.inventoryDAO = new InventoryDAO(this.mongoTemplate);
+    this.inventoryDAO.setupIndexes();
+  }
+
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+  }
+
+  /**
+   * Test a sweep marks only Inventory past their best before date, in bounded batches, and bumps their version.
+   */
+  @Test
+  public void sweepTest() throws Throwable {
+    Inventory past = this.save("past", NOW.minus(Duration.ofDays(2)), false);
+    this.save("yesterday", NOW.minus(Duration.ofDays(1)), false);
+    this.save("now", NOW, false);
+    this.save("never", NOW.minus(Duration.ofDays(2)), true);
+    this.save("soon", NOW.plus(Duration.ofDays(3)), false);
+    Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    Assert.assertEquals(2, new InventoryExpiry(this.inventoryDAO, clock, 1, 2).sweep());
+    Inventory marked = this.inventoryDAO.retrieve(past.getId()).orElseThrow();
+    Assert.assertTrue(marked.isExpired());
+    Assert.assertEquals(past.getVersion() + 1, marked.getVersion());
+    Assert.assertEquals(1, new InventoryExpiry(this.inventoryDAO, clock, 10, 2).sweep());
+    Assert.assertEquals(0, new InventoryExpiry(this.inventoryDAO, clock, 10, 2).sweep());
+    Clock later = Clock.offset(clock, Duration.ofDays(4));
+    Assert.assertEquals(1, new InventoryExpiry(this.inventoryDAO, later, 10, 2).sweep());
+  }
+
+  /**
+   * Test the expiring window is bounded on both ends and skips expired and never expiring Inventory.
+   */
+  @Test
+  public void findExpiringTest() throws Throwable {
+    this.save("past", NOW.minus(Duration.ofDays(1)), false);
+    this.save("never", NOW.plus(Duration.ofDays(1)), true);
+    this.save("later", NOW.plus(Duration.ofDays(5)), false);
+    this.save("soon", NOW.plus(Duration.ofDays(2)), false);
+    this.save("beyond", NOW.plus(Duration.ofDays(8)), false);
+    Inventory expired = this.save("expired", NOW.plus(Duration.ofDays(1)), false);
+    expired.setExpired(true);
+    this.mongoTemplate.save(expired);
+    InventoryExpiry expiry = new InventoryExpiry(this.inventoryDAO, Clock.fixed(NOW, ZoneOffset.UTC), 10, 1);
+    List<Inventory> expiring = expiry.findExpiring(Duration.ofDays(7), 10);
+    Assert.assertEquals(2, expiring.size());
+    Assert.assertEquals("soon", expiring.get(0).getName());
+    Assert.assertEquals("later", expiring.get(1).getName());
+    Assert.assertEquals(1, expiry.findExpiring(Duration.ofDays(7), 1).size());
+  }
+
+  /**
+   * Save an Inventory.
+   * @param name name.
+   * @param bestBeforeDate best before date.
+   * @param neverExpires whether it never expires.
+   * @return Saved Inventory.
+   */
+  private Inventory save(String name, Instant bestBeforeDate, boolean neverExpires) {
+    Inventory inventory = new Inventory();
+    inventory.setName(name);
+    inventory.setBestBeforeDate(bestBeforeDate);
+    inventory.setNeverExpires(neverExpires);
+    return this.mongoTemplate.save(inventory);
+  }
+}
@@ -0,0 +1,94 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.SearchHit;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Inventory Search Index.
+ */
+public class InventorySearchIndexTest {
+  private InventorySearchIndex index;
+
+  @Before
+  public void setup() {
+    this.index = new InventorySearchIndex();
+    this.index.index(inventory("1", 0, "Cascade Hops", "Citrus aroma"));
+    this.index.index(inventory("2", 0, "Pale Malt", "Base malt for cascade pale ales"));
+    this.index.index(inventory("3", 0, "Crème Brûlée Yeast", null));
+  }
+
+  /**
+   * Test every query word matches as a prefix of some word.
+   */
+  @Test
+  public void prefixWords() {
+    Assert.assertEquals(List.of("1"), ids(this.index.search("casc ho", 10)));
+    Assert.assertEquals(List.of("2"), ids(this.index.search("MALT pa", 10)));
+    Assert.assertTrue(this.index.search("hops pale", 10).isEmpty());
+    Assert.assertTrue(this.index.search(" - ", 10).isEmpty());
+  }
+
+  /**
+   * Test name matches rank above description matches and the limit holds.
+   */
+  @Test
+  public void nameMatchesFirst() {
+    Assert.assertEquals(List.of("1", "2"), ids(this.index.search("cascade", 10)));
+    Assert.assertEquals(List.of("1"), ids(this.index.search("cascade", 1)));
+  }
+
+  /**
+   * Test accents are ignored on both sides.
+   */
+  @Test
+  public void accentsFolded() {
+    Assert.assertEquals(List.of("3"), ids(this.index.search("creme brul", 10)));
+    Assert.assertEquals(List.of("3"), ids(this.index.search("brûl", 10)));
+  }
+
+  /**
+   * Test updates replace the indexed words unless they are stale, and removed documents are not found.
+   */
+  @Test
+  public void updateAndRemove() {
+    Assert.assertTrue(this.index.index(inventory("1", 1, "Centennial Hops", null)));
+    Assert.assertFalse(this.index.index(inventory("1", 1, "Cascade Hops", null)));
+    Assert.assertTrue(this.index.search("cascade h", 10).isEmpty());
+    Assert.assertEquals(List.of("1"), ids(this.index.search("cent", 10)));
+    this.index.remove("1");
+    Assert.assertTrue(this.index.search("hops", 10).isEmpty());
+    Assert.assertEquals(2, this.index.size());
+  }
+
+  /**
+   * Test a removed document is not brought back by an older change arriving late, only by a newer one or a create.
+   */
+  @Test
+  public void removedStaysRemoved() {
+    this.index.remove("1");
+    Assert.assertFalse(this.index.index(inventory("1", 0, "Cascade Hops", null)));
+    Assert.assertTrue(this.index.search("cascade h", 10).isEmpty());
+    Assert.assertTrue(this.index.index(inventory("1", 1, "Cascade Hops", null)));
+    this.index.remove("1");
+    Assert.assertTrue(this.index.indexCreated(inventory("1", 0, "Cascade Hops", null)));
+    Assert.assertEquals(List.of("1"), ids(this.index.search("cascade h", 10)));
+  }
+
+  private static Inventory inventory(String id, long version, String name, String description) {
+    Inventory inventory = new Inventory();
+    inventory.setId(id);
+    inventory.setVersion(version);
+    inventory.setName(name);
+    inventory.setDescription(description);
+    return inventory;
+  }
+
+  private static List<String> ids(List<SearchHit> hits) {
+    return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+  }
+}
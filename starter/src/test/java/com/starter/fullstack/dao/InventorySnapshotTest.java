@@ -0,0 +1,120 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.AggregateDimension;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.InventoryAggregate;
+import com.starter.fullstack.api.InventoryFilter;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Inventory Snapshot.
+ */
+public class InventorySnapshotTest {
+  private static final String HOPS = "Hops";
+  private static final String MALT = "Malt";
+  private static final Instant NOW = Instant.parse("2022-08-01T00:00:00Z");
+
+  private InventorySnapshot snapshot;
+
+  @Before
+  public void setup() {
+    this.snapshot = new InventorySnapshot();
+    this.snapshot.index(inventory("1", "Cascade", HOPS, "2.5", "4", List.of("Downtown", "Harbor")));
+    this.snapshot.index(inventory("2", "Centennial", HOPS, "1.25", "2", List.of("Downtown")));
+    this.snapshot.index(inventory("3", "Pilsner", MALT, "0.5", "10", List.of()));
+  }
+
+  /**
+   * Test totals by product type and by store, filtered.
+   */
+  @Test
+  public void aggregates() {
+    List<InventoryAggregate> productTypes =
+      this.snapshot.aggregate(new InventoryFilter(), AggregateDimension.PRODUCT_TYPE).orElseThrow();
+    Assert.assertEquals(2, productTypes.size());
+    InventoryAggregate hops = productTypes.get(0);
+    Assert.assertEquals(HOPS, hops.getKey());
+    Assert.assertEquals(2, hops.getCount());
+    Assert.assertEquals(0, new BigDecimal("3.75").compareTo(hops.getAmount()));
+    Assert.assertEquals(0, new BigDecimal("12.5").compareTo(hops.getValue()));
+
+    InventoryFilter filter = new InventoryFilter();
+    filter.setNamePrefix("Ce");
+    List<InventoryAggregate> stores = this.snapshot.aggregate(filter, AggregateDimension.STORE).orElseThrow();
+    Assert.assertEquals(1, stores.size());
+    Assert.assertEquals("Downtown", stores.get(0).getKey());
+    Assert.assertEquals(1, stores.get(0).getCount());
+  }
+
+  /**
+   * Test counts follow updates and removals, and filters mean what they mean in Mongo.
+   */
+  @Test
+  public void counts() {
+    InventoryFilter filter = new InventoryFilter();
+    filter.setStore("Downtown");
+    Assert.assertEquals(2, this.snapshot.count(filter));
+    filter.setExpiresBefore(NOW);
+    Assert.assertEquals(2, this.snapshot.count(filter));
+
+    Inventory moved = inventory("2", "Centennial", HOPS, "1.25", "2", List.of("Airport"));
+    moved.setVersion(1);
+    Assert.assertTrue(this.snapshot.index(moved));
+    Assert.assertFalse(this.snapshot.index(moved));
+    this.snapshot.remove("1");
+    Assert.assertEquals(0, this.snapshot.count(filter));
+    filter.setStore("Unknown");
+    Assert.assertEquals(0, this.snapshot.count(filter));
+
+    this.snapshot.index(inventory("4", "Saaz", HOPS, "1", "1", null));
+    Assert.assertEquals(3, this.snapshot.size());
+    Assert.assertEquals(3, this.snapshot.count(new InventoryFilter()));
+  }
+
+  /**
+   * Test totals that cannot be exact are refused.
+   */
+  @Test
+  public void inexactRefused() {
+    this.snapshot.index(inventory("4", "Saaz", HOPS, "0.00001", "1", null));
+    Assert.assertTrue(this.snapshot.aggregate(new InventoryFilter(), AggregateDimension.PRODUCT_TYPE).isEmpty());
+    InventoryFilter filter = new InventoryFilter();
+    filter.setProductType(MALT);
+    Assert.assertTrue(this.snapshot.aggregate(filter, AggregateDimension.PRODUCT_TYPE).isPresent());
+  }
+
+  /**
+   * Test a removed Inventory is not brought back by an older change arriving late, only by a newer one or a create.
+   */
+  @Test
+  public void removedStaysRemoved() {
+    Inventory pilsner = inventory("3", "Pilsner", MALT, "0.5", "10", List.of());
+    this.snapshot.remove(pilsner.getId());
+    Assert.assertFalse(this.snapshot.index(pilsner));
+    Assert.assertEquals(2, this.snapshot.size());
+    pilsner.setVersion(1);
+    Assert.assertTrue(this.snapshot.index(pilsner));
+    this.snapshot.remove(pilsner.getId());
+    pilsner.setVersion(0);
+    Assert.assertTrue(this.snapshot.indexCreated(pilsner));
+    Assert.assertEquals(3, this.snapshot.size());
+  }
+
+  private static Inventory inventory(String id, String name, String productType, String amount, String averagePrice,
+                                     List<String> stores) {
+    Inventory inventory = new Inventory();
+    inventory.setId(id);
+    inventory.setName(name);
+    inventory.setProductType(productType);
+    inventory.setAmount(new BigDecimal(amount));
+    inventory.setAveragePrice(new BigDecimal(averagePrice));
+    inventory.setBestBeforeDate(NOW.minusSeconds(60));
+    inventory.setAvailableStores(stores);
+    return inventory;
+  }
+}
@@ -0,0 +1,199 @@
+package com.starter.fullstack.dao;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.starter.fullstack.api.BulkItemResult;
+import com.starter.fullstack.api.BulkItemStatus;
+import com.starter.fullstack.api.Inventory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Test Inventory Write Behind against a DAO recording its bulk writes.
+ */
+public class InventoryWriteBehindTest {
+  private static final double DELTA = 1e-9;
+
+  private MongoClient mongoClient;
+  private RecordingInventoryDAO inventoryDAO;
+  private SimpleMeterRegistry meterRegistry;
+  private InventoryWriteBehind writeBehind;
+
+  @Before
+  public void setup() {
+    this.mongoClient = MongoClients.create();
+    this.inventoryDAO = new RecordingInventoryDAO(new MongoTemplate(this.mongoClient, "test"));
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.writeBehind = new InventoryWriteBehind(this.inventoryDAO, Duration.ofHours(1), 4, true, this.meterRegistry);
+  }
+
+  @After
+  public void teardown() {
+    this.writeBehind.stop();
+    this.mongoClient.close();
+  }
+
+  /**
+   * Test queued updates go out in one write, and stale or clashing updates to a queued Inventory fail.
+   */
+  @Test
+  public void batchesUpdates() throws Throwable {
+    this.inventoryDAO.stored.put("A", inventory("A", 3, "A"));
+    this.writeBehind.start();
+    CompletableFuture<Inventory> first = this.writeBehind.submit(inventory("A", 3, "first"));
+    CompletableFuture<Inventory> second = this.writeBehind.submit(inventory("A", 3, "second"));
+    CompletableFuture<Inventory> stale = this.writeBehind.submit(inventory("A", 2, "stale"));
+    CompletableFuture<Inventory> other = this.writeBehind.submit(inventory("B", 0, "other"));
+    Assert.assertTrue(stale.isCompletedExceptionally());
+    Assert.assertFalse(first.isDone());
+    Assert.assertFalse(second.isDone());
+
+    this.writeBehind.flush();
+    Assert.assertEquals(1, this.inventoryDAO.batches.size());
+    Assert.assertEquals(2, this.inventoryDAO.batches.get(0).size());
+    Assert.assertEquals("first", first.get().getName());
+    Assert.assertEquals(4, first.get().getVersion());
+    Assert.assertTrue(second.isCompletedExceptionally());
+    Assert.assertEquals("other", other.get().getName());
+    DistributionSummary batches = this.meterRegistry.get(InventoryWriteBehind.BATCH_METRIC).summary();
+    Assert.assertEquals(2, batches.mean(), DELTA);
+    Assert.assertEquals(1, this.meterRegistry.get(InventoryWriteBehind.FLUSH_METRIC).timer().count());
+
+    CompletableFuture<Inventory> next = this.writeBehind.submit(inventory("A", 4, "next"));
+    this.writeBehind.flush();
+    Assert.assertEquals(5, next.get().getVersion());
+  }
+
+  /**
+   * Test concurrent updates to one Inventory changing different fields merge into one write, none failing.
+   */
+  @Test
+  public void mergesConcurrentUpdates() throws Throwable {
+    Inventory stored = inventory("A", 3, "A");
+    this.inventoryDAO.stored.put("A", stored);
+    this.writeBehind.start();
+    List<Consumer<Inventory>> edits = List.of(
+      inventory -> inventory.setName("renamed"),
+      inventory -> inventory.setDescription("described"),
+      inventory -> inventory.setAmount(BigDecimal.TEN),
+      inventory -> inventory.setAvailableStores(List.of("Downtown")),
+      inventory -> inventory.setName("renamed"));
+    List<CompletableFuture<Inventory>> written = new CopyOnWriteArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (Consumer<Inventory> edit : edits) {
+      Inventory update = EntityCopies.copyOf(stored);
+      edit.accept(update);
+      threads.add(new Thread(() -> written.add(this.writeBehind.submit(update))));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    this.writeBehind.flush();
+    Assert.assertEquals(1, this.inventoryDAO.batches.size());
+    Assert.assertEquals(1, this.inventoryDAO.batches.get(0).size());
+    Assert.assertEquals(edits.size(), written.size());
+    for (CompletableFuture<Inventory> update : written) {
+      Inventory merged = update.get();
+      Assert.assertEquals(4, merged.getVersion());
+      Assert.assertEquals("renamed", merged.getName());
+      Assert.assertEquals("described", merged.getDescription());
+      Assert.assertEquals(BigDecimal.TEN, merged.getAmount());
+      Assert.assertEquals(List.of("Downtown"), merged.getAvailableStores());
+    }
+    DistributionSummary coalesced = this.meterRegistry.get(InventoryWriteBehind.COALESCED_METRIC).summary();
+    Assert.assertEquals(edits.size(), coalesced.mean(), DELTA);
+  }
+
+  /**
+   * Test the queue stops after the web server, which stops after graceful shutdown.
+   */
+  @Test
+  public void stopsAfterWebServer() {
+    Assert.assertTrue(this.writeBehind.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1);
+  }
+
+  /**
+   * Test queued updates are written when stopping, and written at once afterwards.
+   */
+  @Test
+  public void drainsOnStop() throws Throwable {
+    this.writeBehind.start();
+    CompletableFuture<Inventory> queued = this.writeBehind.submit(inventory("A", 0, "queued"));
+    this.writeBehind.stop();
+    Assert.assertTrue(queued.isDone());
+    Assert.assertEquals(1, queued.get().getVersion());
+
+    CompletableFuture<Inventory> late = this.writeBehind.submit(inventory("A", 1, "late"));
+    Assert.assertTrue(late.isDone());
+    Assert.assertEquals(2, this.inventoryDAO.batches.size());
+  }
+
+  /**
+   * Build an Inventory.
+   * @param id id.
+   * @param version version.
+   * @param name name.
+   * @return Inventory.
+   */
+  private static Inventory inventory(String id, long version, String name) {
+    Inventory inventory = new Inventory();
+    inventory.setId(id);
+    inventory.setVersion(version);
+    inventory.setName(name);
+    return inventory;
+  }
+
+  /**
+   * Inventory DAO recording bulk updates instead of writing them.
+   */
+  private static final class RecordingInventoryDAO extends InventoryDAO {
+    private final List<List<Inventory>> batches = new ArrayList<>();
+    private final Map<String, Inventory> stored = new HashMap<>();
+
+    /**
+     * Default Constructor.
+     * @param mongoTemplate MongoTemplate, never used.
+     */
+    private RecordingInventoryDAO(MongoTemplate mongoTemplate) {
+      super(mongoTemplate);
+    }
+
+    @Override
+    Map<String, Inventory> findStored(Collection<String> ids) {
+      Map<String, Inventory> found = new HashMap<>();
+      ids.stream().filter(this.stored::containsKey)
+        .forEach(id -> found.put(id, EntityCopies.copyOf(this.stored.get(id))));
+      return found;
+    }
+
+    @Override
+    public List<BulkItemResult> bulkUpdate(List<Inventory> inventories) {
+      this.batches.add(List.copyOf(inventories));
+      List<BulkItemResult> results = new ArrayList<>(inventories.size());
+      for (int index = 0; index < inventories.size(); index++) {
+        Inventory inventory = inventories.get(index);
+        inventory.setVersion(inventory.getVersion() + 1);
+        results.add(new BulkItemResult(index, inventory.getId(), BulkItemStatus.UPDATED, null));
+      }
+      return results;
+    }
+  }
+}
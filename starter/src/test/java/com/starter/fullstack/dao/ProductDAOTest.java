@@ -1,39 +1,53 @@
 package com.starter.fullstack.dao;
 
 import com.starter.fullstack.api.Product;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Resource;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.utility.DockerImageName;
 
 /**
- * Test Product DAO.
+ * Test Product DAO. The queryPlanTest task runs it with com.starter.fullstack.indexes.verify-query-plans on.
  */
 @EnableMongoRepositories(basePackages = "com.starter.fullstack.dao")
 @DataMongoTest
 @RunWith(SpringRunner.class)
 public class ProductDAOTest {
   @ClassRule
-  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.0.10"));
+  public static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.4.15"));
   @Resource
   private ProductDAO productDAO;
+  @Resource
+  private MongoTemplate mongoTemplate;
   private static final String PRODUCT_NAME = "name";
 
   @Before
   public void setup() {
+    new IndexRegistry(this.mongoTemplate).register(Product.class, ProductDAOCustomImpl.indexes()).ensureIndexes();
     Product product = new Product();
     product.setName(PRODUCT_NAME);
     this.productDAO.save(product);
   }
 
+  @After
+  public void tearDown() {
+    this.mongoTemplate.dropCollection(Product.class);
+  }
+
   /**
    * Test Get Count Distinct method.
    */
@@ -43,4 +57,27 @@ public class ProductDAOTest {
     Assert.assertTrue(optionalProduct.isPresent());
     this.productDAO.delete(optionalProduct.get());
   }
+
+  /**
+   * Test Products are found by several names and deleted by id.
+   */
+  @Test
+  public void findByNameInAndDelete() {
+    List<Product> found = this.productDAO.findByNameIn(List.of(PRODUCT_NAME, "missing"));
+    Assert.assertEquals(1, found.size());
+    this.productDAO.deleteProductsByIdIn(List.of(found.get(0).getId()));
+    Assert.assertTrue(this.productDAO.findByNameIn(List.of(PRODUCT_NAME)).isEmpty());
+  }
+
+  /**
+   * Explains every Product query when com.starter.fullstack.indexes.verify-query-plans is on.
+   */
+  @TestConfiguration
+  static class QueryPlans {
+    @Bean
+    @ConditionalOnProperty(prefix = "com.starter.fullstack.indexes", name = "verify-query-plans", havingValue = "true")
+    public QueryPlanVerifier queryPlanVerifier(MongoTemplate mongoTemplate) {
+      return new QueryPlanVerifier(mongoTemplate);
+    }
+  }
 }
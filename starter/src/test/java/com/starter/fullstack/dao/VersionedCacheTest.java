@@ -0,0 +1,97 @@
+package com.starter.fullstack.dao;
+
+import com.starter.fullstack.api.Inventory;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Versioned Cache.
+ */
+public class VersionedCacheTest {
+  private static final String ID = "id";
+
+  private VersionedCache<String, Inventory> cache;
+  private AtomicInteger loads;
+
+  @Before
+  public void setup() {
+    this.cache = VersionedCache.of(10, Duration.ofMinutes(1), Inventory::getVersion, EntityCopies::copyOf);
+    this.loads = new AtomicInteger();
+  }
+
+  /**
+   * Test a second read is served from the cache.
+   */
+  @Test
+  public void readThrough() {
+    Assert.assertTrue(this.cache.get(ID, this::load).isPresent());
+    Assert.assertTrue(this.cache.get(ID, this::load).isPresent());
+    Assert.assertEquals(1, this.loads.get());
+    Assert.assertEquals(1, this.cache.statistics().getHits());
+    Assert.assertEquals(1, this.cache.statistics().getMisses());
+  }
+
+  /**
+   * Test an older version never replaces a newer one.
+   */
+  @Test
+  public void olderVersionIgnored() {
+    this.cache.put(ID, inventory(2));
+    this.cache.put(ID, inventory(1));
+    Assert.assertEquals(2, this.cache.get(ID, this::load).orElseThrow().getVersion());
+    Assert.assertEquals(0, this.loads.get());
+  }
+
+  /**
+   * Test deleted keys are not reloaded at the deleted version or older.
+   */
+  @Test
+  public void deletedStaysDeleted() {
+    this.cache.put(ID, inventory(5));
+    this.cache.markDeleted(ID, 5);
+    this.cache.put(ID, inventory(5));
+    Assert.assertFalse(this.cache.get(ID, this::load).isPresent());
+    Assert.assertEquals(0, this.loads.get());
+  }
+
+  /**
+   * Test a create replaces the tombstone of a deleted key, whatever the versions.
+   */
+  @Test
+  public void createdReplacesTombstone() {
+    this.cache.markDeleted(ID, 5);
+    this.cache.putCreated(ID, inventory(0));
+    Assert.assertEquals(0, this.cache.get(ID, this::load).orElseThrow().getVersion());
+    this.cache.put(ID, inventory(1));
+    Assert.assertEquals(1, this.cache.get(ID, this::load).orElseThrow().getVersion());
+    Assert.assertEquals(0, this.loads.get());
+  }
+
+  /**
+   * Test the cache keeps its own copy of a written entity.
+   */
+  @Test
+  public void putCopies() {
+    Inventory written = inventory(1);
+    written.setName("written");
+    this.cache.put(ID, written);
+    written.setName("changed");
+    Assert.assertEquals("written", this.cache.get(ID, this::load).orElseThrow().getName());
+  }
+
+  private Optional<Inventory> load(String id) {
+    this.loads.incrementAndGet();
+    return Optional.of(inventory(1));
+  }
+
+  private static Inventory inventory(long version) {
+    Inventory inventory = new Inventory();
+    inventory.setId(ID);
+    inventory.setVersion(version);
+    return inventory;
+  }
+}
@@ -0,0 +1,50 @@
+package com.starter.fullstack.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test Mongo Pool Saturation Metrics.
+ */
+public class MongoPoolSaturationMetricsTest {
+  private static final double DELTA = 1e-9;
+
+  private SimpleMeterRegistry meterRegistry;
+  private MongoPoolSaturationMetrics metrics;
+  private ServerId serverId;
+
+  @Before
+  public void setup() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.metrics = new MongoPoolSaturationMetrics(this.meterRegistry);
+    this.serverId = new ServerId(new ClusterId(), new ServerAddress());
+    this.metrics.connectionPoolCreated(
+      new ConnectionPoolCreatedEvent(this.serverId, ConnectionPoolSettings.builder().maxSize(4).build()));
+  }
+
+  /**
+   * Test the gauge follows checkouts and goes away with the pool.
+   */
+  @Test
+  public void gaugesCheckedOutShare() {
+    ConnectionId connectionId = new ConnectionId(this.serverId);
+    this.metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(connectionId));
+    this.metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(connectionId));
+    this.metrics.connectionCheckedIn(new ConnectionCheckedInEvent(connectionId));
+    Assert.assertEquals(0.25, this.meterRegistry.get(MongoPoolSaturationMetrics.METRIC).gauge().value(), DELTA);
+
+    this.metrics.connectionPoolClosed(new ConnectionPoolClosedEvent(this.serverId));
+    Assert.assertNull(this.meterRegistry.find(MongoPoolSaturationMetrics.METRIC).gauge());
+  }
+}
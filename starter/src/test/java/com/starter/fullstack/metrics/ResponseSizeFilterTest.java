@@ -0,0 +1,47 @@
+package com.starter.fullstack.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Test Response Size Filter.
+ */
+public class ResponseSizeFilterTest {
+  private SimpleMeterRegistry meterRegistry;
+  private ResponseSizeFilter filter;
+
+  @Before
+  public void setup() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.filter = new ResponseSizeFilter(this.meterRegistry);
+  }
+
+  /**
+   * Test bytes written through the stream and the writer are recorded under the endpoint pattern.
+   */
+  @Test
+  public void recordsBodySize() throws Throwable {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventory/abc");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/inventory/{id}");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    this.filter.doFilter(request, response, (req, res) -> {
+      res.getOutputStream().write(new byte[10]);
+      res.getWriter().write("ab");
+    });
+
+    DistributionSummary summary = this.meterRegistry.get(ResponseSizeFilter.METRIC)
+      .tag("uri", "/inventory/{id}")
+      .tag("method", "GET")
+      .summary();
+    Assert.assertEquals(1, summary.count());
+    Assert.assertEquals(12, summary.totalAmount(), 0);
+  }
+}
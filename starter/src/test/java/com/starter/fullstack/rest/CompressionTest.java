@@ -0,0 +1,72 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.Inventory;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Test list responses are compressed by Tomcat, which needs the real server rather than MockMvc.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringRunner.class)
+public class CompressionTest {
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @After
+  public void teardown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+  }
+
+  /**
+   * Test GET /inventory is gzipped under a weak collection tag, and the tag still answers 304.
+   * @throws Throwable see TestRestTemplate
+   */
+  @Test
+  public void inventoryGzipTest() throws Throwable {
+    for (int i = 0; i < 50; i++) {
+      Inventory inventory = new Inventory();
+      inventory.setName("Inventory " + i);
+      inventory.setDescription("Inventory " + i + " stocked to test response compression");
+      this.mongoTemplate.save(inventory);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+    headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    ResponseEntity<byte[]> response = this.restTemplate.exchange("/inventory", HttpMethod.GET,
+      new HttpEntity<>(headers), byte[].class);
+    Assert.assertEquals(200, response.getStatusCodeValue());
+    Assert.assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    String tag = response.getHeaders().getETag();
+    Assert.assertTrue(tag.startsWith("W/"));
+    try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+      Assert.assertEquals(50, this.objectMapper.readValue(json.readAllBytes(), Inventory[].class).length);
+    }
+
+    headers.setIfNoneMatch(tag);
+    Assert.assertEquals(304, this.restTemplate.exchange("/inventory", HttpMethod.GET,
+      new HttpEntity<>(headers), byte[].class).getStatusCodeValue());
+  }
+}
@@ -0,0 +1,124 @@
+package com.starter.fullstack.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.ImportReport;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class ImportExportControllerTest {
+  private static final String NDJSON = String.join("\n",
+    "{\"name\":\"Cascade\",\"productType\":\"Hops\",\"amount\":10}",
+    "{\"productType\":\"Hops\"}",
+    "",
+    "{\"name\":\"Pilsner\",\"productType\":\"Malt\",\"amount\":\"lots\"}",
+    "{\"name\":\"Saaz\",\"productType\":\"Hops\",\"amount\":2.5}");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Before
+  public void setup() {
+    for (String name : new String[] {"Hops", "Malt"}) {
+      Product product = new Product();
+      product.setName(name);
+      this.mongoTemplate.save(product);
+    }
+  }
+
+  @After
+  public void teardown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(Product.class);
+    this.mongoTemplate.dropCollection("imports");
+  }
+
+  /**
+   * Test invalid lines are reported and importing the same file again writes nothing twice.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void importResumes() throws Throwable {
+    ImportReport report = this.importInventory("resumable");
+    Assert.assertTrue(report.isComplete());
+    Assert.assertEquals(2, report.getImported());
+    Assert.assertEquals(2, report.getFailed());
+    Assert.assertEquals(2, report.getErrors().get(0).getLine());
+    Assert.assertEquals(4, report.getErrors().get(1).getLine());
+    Assert.assertEquals(5, report.getCommittedLine());
+    Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
+
+    report = this.importInventory("resumable");
+    Assert.assertEquals(0, report.getRecords());
+    Assert.assertEquals(2, report.getImported());
+    Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
+  }
+
+  /**
+   * Test CSV imports and exports with semicolon separated lists.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void csvRoundTrip() throws Throwable {
+    String csv = "name,productType,amount,availableStores\nCascade,Hops,10,Downtown;Harbor\n,Malt,1,\n";
+    ImportReport report = this.objectMapper.readValue(this.mockMvc.perform(post("/inventory/import")
+        .contentType("text/csv")
+        .content(csv))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getContentAsString(), ImportReport.class);
+    Assert.assertEquals(1, report.getImported());
+    Assert.assertEquals(1, report.getFailed());
+    Assert.assertEquals(3, report.getErrors().get(0).getLine());
+
+    MvcResult export = this.mockMvc.perform(get("/inventory/export").accept("text/csv"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    String exported = this.mockMvc.perform(asyncDispatch(export))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getContentAsString();
+    Assert.assertTrue(exported.startsWith("id,version,name,productType"));
+    Assert.assertTrue(exported.contains("Cascade,Hops"));
+    Assert.assertTrue(exported.contains("Downtown;Harbor"));
+  }
+
+  /**
+   * Import the NDJSON fixture.
+   * @param importId import id.
+   * @return Import Report.
+   * @throws Throwable see MockMvc
+   */
+  private ImportReport importInventory(String importId) throws Throwable {
+    return this.objectMapper.readValue(this.mockMvc.perform(post("/inventory/import")
+        .param("importId", importId)
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .content(NDJSON))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getContentAsString(), ImportReport.class);
+  }
+}
@@ -1,6 +1,10 @@
 package com.starter.fullstack.rest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import com.starter.fullstack.config.WireFormatConfig;
+import com.starter.fullstack.dao.InventoryDAO;
 import java.util.List;
 import org.junit.After;
 import org.junit.Assert;
@@ -11,11 +15,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -28,6 +39,9 @@ public class InventoryControllerTest {
   @Autowired
   private MongoTemplate mongoTemplate;
 
+  @Autowired
+  private InventoryDAO inventoryDAO;
+
   @Autowired
   private ObjectMapper objectMapper;
 
@@ -45,6 +59,7 @@ public class InventoryControllerTest {
   @After
   public void teardown() {
     this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(Product.class);
   }
 
 
@@ -62,14 +77,119 @@ public class InventoryControllerTest {
     Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
   }
 
+  @Test
+  public void productTypeTest() throws Throwable {
+    Product hops = new Product();
+    hops.setName("Hops");
+    this.mongoTemplate.save(hops);
+    Inventory unknown = new Inventory();
+    unknown.setName("Pilsner");
+    unknown.setProductType("Malt");
+    this.mockMvc.perform(post("/inventory")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsString(unknown)))
+      .andExpect(status().isBadRequest());
+
+    Inventory known = new Inventory();
+    known.setName("Cascade");
+    known.setProductType(hops.getName());
+    this.mockMvc.perform(post("/inventory/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsString(List.of(unknown, known))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].status").value("FAILED"))
+      .andExpect(jsonPath("$[1].index").value(1))
+      .andExpect(jsonPath("$[1].status").value("CREATED"));
+
+    Assert.assertEquals(2, this.mongoTemplate.findAll(Inventory.class).size());
+  }
+
+  @Test
+  public void findPageTest() throws Throwable {
+    this.mockMvc.perform(get("/inventory/page")
+        .param("limit", "1")
+        .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.items[0].name").value("TEST"))
+      .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
   @Test
   public void removeTest() throws Throwable {
     this.mockMvc.perform(delete("/inventory")
             .accept(MediaType.APPLICATION_JSON)
             .contentType(MediaType.APPLICATION_JSON)
             .content(this.objectMapper.writeValueAsString(List.of(this.inventory.getId()))))
-        .andExpect(status().isOk());
+        .andExpect(status().isOk())
+        .andExpect(content().string("1"));
 
     Assert.assertEquals(0, this.mongoTemplate.findAll(Inventory.class).size());
   }
+
+  @Test
+  public void conditionalTest() throws Throwable {
+    Inventory tagged = new Inventory();
+    tagged.setId("taggedID");
+    tagged.setName("tagged");
+    tagged = this.mongoTemplate.save(tagged);
+    String itemTag = this.mockMvc.perform(get("/inventory/" + tagged.getId()))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.ETAG, "\"" + tagged.getVersion() + "\""))
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    this.mockMvc.perform(get("/inventory/" + tagged.getId()).header(HttpHeaders.IF_NONE_MATCH, itemTag))
+      .andExpect(status().isNotModified());
+
+    String collectionTag = this.mockMvc.perform(get("/inventory"))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    this.mockMvc.perform(get("/inventory").header(HttpHeaders.IF_NONE_MATCH, collectionTag))
+      .andExpect(status().isNotModified());
+
+    this.mockMvc.perform(put("/inventory")
+        .header(HttpHeaders.IF_MATCH, "\"" + (tagged.getVersion() + 1) + "\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsString(tagged)))
+      .andExpect(status().isPreconditionFailed());
+    this.mockMvc.perform(put("/inventory")
+        .header(HttpHeaders.IF_MATCH, itemTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsString(tagged)))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.ETAG, "\"" + (tagged.getVersion() + 1) + "\""));
+    this.mockMvc.perform(get("/inventory").header(HttpHeaders.IF_NONE_MATCH, collectionTag))
+      .andExpect(status().isOk());
+  }
+
+  @Test
+  public void secondaryListTest() throws Throwable {
+    this.inventoryDAO.setListReadFromSecondaries(true);
+    try {
+      this.mockMvc.perform(get("/inventory"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+        .andExpect(jsonPath("$.length()").value(1));
+      this.mockMvc.perform(get("/inventory/page"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    } finally {
+      this.inventoryDAO.setListReadFromSecondaries(false);
+    }
+  }
+
+  @Test
+  public void smileTest() throws Throwable {
+    this.mockMvc.perform(get("/inventory"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+      .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+
+    byte[] smile = this.mockMvc.perform(get("/inventory/" + this.inventory.getId())
+        .accept(WireFormatConfig.APPLICATION_SMILE_VALUE))
+      .andExpect(status().isOk())
+      .andExpect(content().contentTypeCompatibleWith(WireFormatConfig.APPLICATION_SMILE_VALUE))
+      .andExpect(header().string(HttpHeaders.ETAG, "\"" + this.inventory.getVersion() + "-smile\""))
+      .andReturn().getResponse().getContentAsByteArray();
+    Inventory read = new ObjectMapper(new SmileFactory()).findAndRegisterModules().readValue(smile, Inventory.class);
+    Assert.assertEquals(this.inventory.getName(), read.getName());
+  }
 }
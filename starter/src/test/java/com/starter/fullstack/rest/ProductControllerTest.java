@@ -1,7 +1,11 @@
 package com.starter.fullstack.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.starter.fullstack.api.Inventory;
 import com.starter.fullstack.api.Product;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -11,13 +15,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -48,6 +56,7 @@ public class ProductControllerTest {
   @After
   public void teardown() {
     this.mongoTemplate.dropCollection(Product.class);
+    this.mongoTemplate.dropCollection(Inventory.class);
   }
 
   /**
@@ -62,6 +71,78 @@ public class ProductControllerTest {
       .andExpect(content().json("[" + this.objectMapper.writeValueAsString(product) + "]"));
   }
 
+  /**
+   * Test the catalog is sent gzipped when the client accepts it, under a weak tag shared with the JSON bytes.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void findAllGzip() throws Throwable {
+    byte[] body = this.mockMvc.perform(get("/products")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+      .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+      .andReturn().getResponse().getContentAsByteArray();
+    try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      Assert.assertEquals("[" + this.objectMapper.writeValueAsString(this.product) + "]",
+        new String(json.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Test a save through the controller swaps the catalog at once.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void findAllAfterSave() throws Throwable {
+    this.mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1));
+    Product other = new Product();
+    other.setName("OTHER");
+    this.mockMvc.perform(post("/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsString(other)))
+      .andExpect(status().isOk());
+    this.mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2));
+  }
+
+  /**
+   * Test a Product inserted around the DAO, which does not move the collection version, changes the entity tag
+   * and rebuilds the catalog.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void findAllAfterInsertAroundDAO() throws Throwable {
+    String tag = this.mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    this.mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag))
+      .andExpect(status().isNotModified());
+    Product other = new Product();
+    other.setName("OTHER");
+    this.mongoTemplate.save(other);
+    this.mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2));
+  }
+
+  /**
+   * Test Accept-Encoding parsing honours zero qualities.
+   */
+  @Test
+  public void acceptsGzip() {
+    Assert.assertTrue(ProductController.acceptsGzip("gzip, deflate, br"));
+    Assert.assertTrue(ProductController.acceptsGzip("*"));
+    Assert.assertFalse(ProductController.acceptsGzip("gzip;q=0, identity"));
+    Assert.assertFalse(ProductController.acceptsGzip("identity"));
+    Assert.assertFalse(ProductController.acceptsGzip(null));
+  }
+
   /**
    * Test create endpoint.
    * @throws Throwable see MockMvc
@@ -94,5 +175,25 @@ public class ProductControllerTest {
     
     Assert.assertEquals(0, this.mongoTemplate.findAll(Product.class).size());
   }
+
+  /**
+   * Test a Product some Inventory still uses is not removed.
+   * @throws Throwable see MockMvc
+   */
+  @Test
+  public void removeInUse() throws Throwable {
+    Inventory inventory = new Inventory();
+    inventory.setName("Cascade");
+    inventory.setProductType(this.product.getName());
+    this.mongoTemplate.save(inventory);
+    this.mockMvc.perform(delete("/products")
+        .accept(MediaType.APPLICATION_JSON)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"" + this.product.getId() + "\"]"))
+      .andExpect(status().isConflict())
+      .andExpect(content().json("[\"" + this.product.getId() + "\"]"));
+
+    Assert.assertEquals(1, this.mongoTemplate.findAll(Product.class).size());
+  }
 }
 
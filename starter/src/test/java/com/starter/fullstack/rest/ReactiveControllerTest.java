@@ -0,0 +1,154 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.ChangeOperation;
+import com.starter.fullstack.api.EntityChange;
+import com.starter.fullstack.api.Inventory;
+import com.starter.fullstack.api.Product;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Test the WebFlux controllers served under the reactive profile.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+@RunWith(SpringRunner.class)
+public class ReactiveControllerTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private Inventory inventory;
+
+  @Before
+  public void setup() {
+    this.inventory = new Inventory();
+    this.inventory.setName("TEST");
+    this.inventory.setProductType("TYPE");
+    this.inventory = this.mongoTemplate.save(this.inventory);
+  }
+
+  @After
+  public void teardown() {
+    this.mongoTemplate.dropCollection(Inventory.class);
+    this.mongoTemplate.dropCollection(Product.class);
+  }
+
+  /**
+   * Test the Inventory list is read through the reactive DAO.
+   */
+  @Test
+  public void findInventories() {
+    Flux<Inventory> inventories = this.webTestClient.get().uri("/inventory")
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(Inventory.class).getResponseBody();
+    StepVerifier.create(inventories)
+      .expectNextMatches(found -> this.inventory.getId().equals(found.getId()))
+      .expectComplete()
+      .verify(TIMEOUT);
+  }
+
+  /**
+   * Test Inventory is streamed as newline delimited JSON.
+   */
+  @Test
+  public void streamInventories() {
+    Flux<Inventory> inventories = this.webTestClient.get().uri("/inventory/stream")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+      .returnResult(Inventory.class).getResponseBody();
+    StepVerifier.create(inventories)
+      .expectNextMatches(found -> "TEST".equals(found.getName()))
+      .expectComplete()
+      .verify(TIMEOUT);
+  }
+
+  /**
+   * Test a page reports no next cursor when everything fits.
+   */
+  @Test
+  public void findInventoryPage() {
+    this.webTestClient.get().uri("/inventory/page?limit=10")
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.items.length()").isEqualTo(1)
+      .jsonPath("$.nextCursor").doesNotExist();
+  }
+
+  /**
+   * Test a Product saved through the reactive controller is listed.
+   */
+  @Test
+  public void saveProduct() {
+    Product product = new Product();
+    product.setName("PRODUCT");
+    this.webTestClient.post().uri("/products")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(product)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody().jsonPath("$.name").isEqualTo("PRODUCT");
+    Flux<Product> products = this.webTestClient.get().uri("/products")
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(Product.class).getResponseBody();
+    StepVerifier.create(products)
+      .expectNextMatches(found -> "PRODUCT".equals(found.getName()))
+      .expectComplete()
+      .verify(TIMEOUT);
+  }
+
+  /**
+   * Test a reactive Product write reaches a change stream subscriber.
+   */
+  @Test
+  public void streamChanges() {
+    Flux<ServerSentEvent<Map<String, Object>>> events = this.webTestClient.get().uri("/changes")
+      .accept(MediaType.TEXT_EVENT_STREAM)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() { })
+      .getResponseBody();
+    Product product = new Product();
+    product.setName("CHANGED");
+    StepVerifier.create(events)
+      .then(() -> this.webTestClient.post().uri("/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(product)
+        .exchange()
+        .expectStatus().isOk())
+      .expectNextMatches(event -> ChangeController.CHANGE_EVENT.equals(event.event())
+        && EntityChange.PRODUCT.equals(event.data().get("entity"))
+        && ChangeOperation.CREATE.name().equals(event.data().get("operation")))
+      .thenCancel()
+      .verify(TIMEOUT);
+  }
+}
@@ -0,0 +1,134 @@
+package com.starter.fullstack.rest;
+
+import com.starter.fullstack.api.InventoryFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * Test Single Flight.
+ */
+public class SingleFlightTest {
+  private static final String ENTITY = "inventory";
+  private static final String KEY = "\"inventory-1\"";
+  private static final byte[] BODY = {'[', ']'};
+  private static final double DELTA = 1e-9;
+
+  private SimpleMeterRegistry meterRegistry;
+  private AtomicInteger loads;
+
+  @Before
+  public void setup() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.loads = new AtomicInteger();
+  }
+
+  /**
+   * Test a request arriving while another loads waits for its body instead of loading again.
+   */
+  @Test
+  public void collapsesInFlightReads() throws Throwable {
+    SingleFlight singleFlight = new SingleFlight(Duration.ZERO, this.meterRegistry);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> singleFlight.get(ENTITY, KEY, () -> {
+      this.loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return BODY;
+    }));
+    Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+    CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> singleFlight.get(ENTITY, KEY, this::load));
+    while (this.count("collapsed") < 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+    Assert.assertSame(BODY, first.get(10, TimeUnit.SECONDS));
+    Assert.assertSame(BODY, second.get(10, TimeUnit.SECONDS));
+    Assert.assertEquals(1, this.loads.get());
+    Assert.assertEquals(1, this.count("executed"), DELTA);
+
+    singleFlight.get(ENTITY, KEY, this::load);
+    Assert.assertEquals(2, this.loads.get());
+  }
+
+  /**
+   * Test a loaded body is served for the freshness window, and a new key loads again.
+   */
+  @Test
+  public void servesFreshBodies() throws Throwable {
+    SingleFlight singleFlight = new SingleFlight(Duration.ofMinutes(1), this.meterRegistry);
+    Assert.assertSame(BODY, singleFlight.get(ENTITY, KEY, this::load));
+    Assert.assertSame(BODY, singleFlight.get(ENTITY, KEY, this::load));
+    Assert.assertEquals(1, this.loads.get());
+    singleFlight.get(ENTITY, "\"inventory-2\"", this::load);
+    Assert.assertEquals(2, this.loads.get());
+    Assert.assertEquals(1, this.count("collapsed"), DELTA);
+  }
+
+  /**
+   * Test a failed load is not shared with later requests.
+   */
+  @Test
+  public void retriesFailedLoads() throws Throwable {
+    SingleFlight singleFlight = new SingleFlight(Duration.ofMinutes(1), this.meterRegistry);
+    Assert.assertThrows(DataRetrievalFailureException.class, () -> singleFlight.get(ENTITY, KEY, () -> {
+      throw new DataRetrievalFailureException("Mongo is down.");
+    }));
+    Assert.assertSame(BODY, singleFlight.get(ENTITY, KEY, this::load));
+  }
+
+  /**
+   * Test keys follow the bound filter and the tag, not the raw query parameters.
+   */
+  @Test
+  public void keysFollowFilter() throws Throwable {
+    InventoryFilter hops = new InventoryFilter();
+    hops.setProductType("Hops");
+    InventoryFilter sameHops = new InventoryFilter();
+    sameHops.setProductType("Hops");
+    Assert.assertEquals(SingleFlight.key(KEY, hops), SingleFlight.key(KEY, sameHops));
+    Assert.assertNotEquals(SingleFlight.key(KEY, hops), SingleFlight.key(KEY, new InventoryFilter()));
+    Assert.assertNotEquals(SingleFlight.key(KEY, hops), SingleFlight.key("\"inventory-2\"", hops));
+  }
+
+  /**
+   * Count a load.
+   * @return Body.
+   */
+  private byte[] load() {
+    this.loads.incrementAndGet();
+    return BODY;
+  }
+
+  /**
+   * Requests counted with an outcome.
+   * @param outcome outcome.
+   * @return Count.
+   */
+  private double count(String outcome) {
+    Counter counter = this.meterRegistry.find(SingleFlight.METRIC).tag("outcome", outcome).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  /**
+   * Wait for a latch.
+   * @param latch latch.
+   */
+  private static void await(CountDownLatch latch) {
+    try {
+      Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+import * as inventoryDuck from '../inventory'
+import * as productsDuck from '../products'
+import { createAction, handleActions } from 'redux-actions'
+
+const actions = {
+  CHANGES_LISTEN: 'changes/listen',
+}
+
+export let defaultState = {
+  listening: false,
+}
+
+export const listenForChanges = createAction(actions.CHANGES_LISTEN, () =>
+  (dispatch, getState, config) => {
+    const source = new EventSource(`${config.restAPIUrl}/changes`, { withCredentials: true })
+    source.addEventListener('change', (event) => {
+      const change = JSON.parse(event.data)
+      if (change.entity === 'inventory') {
+        dispatch(inventoryDuck.applyInventoryChange(change))
+      } else if (change.entity === 'product') {
+        dispatch(productsDuck.applyProductChange(change))
+      }
+    })
+    source.addEventListener('reset', () => {
+      dispatch(inventoryDuck.findInventory())
+      dispatch(productsDuck.findProducts())
+    })
+    return source
+  }
+)
+
+export default handleActions({
+  [actions.CHANGES_LISTEN]: (state) => ({
+    ...state,
+    listening: true,
+  }),
+}, defaultState)
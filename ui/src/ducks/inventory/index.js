@@ -9,6 +9,7 @@ const actions = {
   INVENTORY_DELETE: 'inventory/delete',
   INVENTORY_REFRESH: 'inventory/refresh',
   INVENTORY_UPDATE: 'inventory/update',
+  INVENTORY_APPLY_CHANGE: 'inventory/apply_change',
 }
 
 export let defaultState = {
@@ -47,9 +48,9 @@ export const updateInventory = createAction(actions.INVENTORY_UPDATE, (inventory
 )
 
 
-export const findInventory = createAction(actions.INVENTORY_GET_ALL, () =>
+export const findInventory = createAction(actions.INVENTORY_GET_ALL, (params) =>
   (dispatch, getState, config) => axios
-    .get(`${config.restAPIUrl}/inventory`)
+    .get(`${config.restAPIUrl}/inventory`, { params })
     .then((suc) => {
       dispatch(refreshInventory(suc.data)
       )
@@ -73,6 +74,25 @@ export const removeInventory = createAction(actions.INVENTORY_DELETE, (ids) =>
     })
 )
 
+export const applyInventoryChange = createAction(actions.INVENTORY_APPLY_CHANGE, (change) =>
+  (dispatch, getState, config) => {
+    const invs = []
+    let stale = false
+    getState().inventory.all.forEach(inv => {
+      if (inv.id !== change.id) {
+        invs.push(inv)
+      } else if (change.document && inv.version > change.document.version) {
+        stale = true
+        invs.push(inv)
+      }
+    })
+    if (change.operation !== 'DELETE' && !stale) {
+      invs.push(change.document)
+    }
+    dispatch(refreshInventory(invs))
+  }
+)
+
 export const refreshInventory = createAction(actions.INVENTORY_REFRESH, (payload) =>
   (dispatcher, getState, config) =>
     payload.sort((inventoryA, inventoryB) => inventoryA.name < inventoryB.name ? -1
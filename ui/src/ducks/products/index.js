@@ -6,7 +6,8 @@ const actions = {
   PRODUCTS_GET_ALL_PENDING: 'products/get_all_PENDING',
   PRODUCTS_SAVE: 'products/save',
   PRODUCTS_DELETE: 'products/delete',
-  PRODUCTS_REFRESH: 'products/refresh'
+  PRODUCTS_REFRESH: 'products/refresh',
+  PRODUCTS_APPLY_CHANGE: 'products/apply_change'
 }
 
 export let defaultState = {
@@ -49,6 +50,25 @@ export const removeProducts = createAction(actions.PRODUCTS_DELETE, (ids) =>
     })
 )
 
+export const applyProductChange = createAction(actions.PRODUCTS_APPLY_CHANGE, (change) =>
+  (dispatch, getState, config) => {
+    const invs = []
+    let stale = false
+    getState().products.all.forEach(inv => {
+      if (inv.id !== change.id) {
+        invs.push(inv)
+      } else if (change.document && inv.version > change.document.version) {
+        stale = true
+        invs.push(inv)
+      }
+    })
+    if (change.operation !== 'DELETE' && !stale) {
+      invs.push(change.document)
+    }
+    dispatch(refreshProducts(invs))
+  }
+)
+
 export const refreshProducts = createAction(actions.PRODUCTS_REFRESH, (payload) =>
   (dispatcher, getState, config) =>
     payload.sort((productA, productB) => productA.name < productB.name ? -1 : productA.name > productB.name ? 1 : 0)
@@ -2,6 +2,7 @@ import axios from 'axios'
 import { createLogger } from 'redux-logger'
 import DesignLayout from './containers/DesignLayout'
 import HomeContainer from './containers/HomeContainer'
+import { listenForChanges } from './ducks/changes'
 import { Provider } from 'react-redux'
 import React from 'react'
 import ReactDom from 'react-dom'
@@ -41,6 +42,7 @@ const renderApplication = (overrideConfig) => {
   }
 
   const store = createStore(reducers, { config: config }, applyMiddleware(...middleware))
+  store.dispatch(listenForChanges())
 
   ReactDom.render(
     <Provider store={store}>
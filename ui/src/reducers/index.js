@@ -1,10 +1,12 @@
 import alertDuck from '../ducks/alerts'
+import changesDuck from '../ducks/changes'
 import { combineReducers } from 'redux'
 import inventoryDuck from '../ducks/inventory'
 import productsDuck from '../ducks/products'
 
 export default combineReducers({
   alerts: alertDuck,
+  changes: changesDuck,
   config: (state = {}, action) => state,
   inventory: inventoryDuck,
   products: productsDuck